@@ -0,0 +1,124 @@
+package benchmarks;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the core operations that every search-based player depends on, for the games in GameType at
+ * their default parameters:
+ * <ul>
+ *     <li>copy() of a mid-game state</li>
+ *     <li>computeAvailableActions() on a mid-game state</li>
+ *     <li>next() with a random action (on a copy of the mid-game state, so this includes the copy)</li>
+ *     <li>a complete random playout from the start of the game</li>
+ * </ul>
+ * The mid-game state is reached by taking up to warmupActions random actions from the initial state, stopping at the
+ * last state before the game ends (some games, such as Poker and Blackjack, can end within a few actions).
+ * <p>
+ * Every game sets up headless, but two are left out of the default list of games, as random play does not reach the
+ * end of the game:
+ * <ul>
+ *     <li>TerraformingMars, where a TopCardDecision can be left with no actions to choose from</li>
+ *     <li>Blackjack, where the dealer's Stand fails with an AssertionError (from endPlayerTurn()) if the other player
+ *     has gone bust</li>
+ * </ul>
+ * Both also fail when played by RandomPlayers through Game.run(). They can still be run with '-p game=...', but the
+ * random playouts will fail.
+ * <p>
+ * Run with the 'benchmark' Maven profile (from the project root, so that game data files are found):
+ * <pre>
+ *     mvn -P benchmark compile exec:exec@benchmarks
+ * </pre>
+ * which writes the results to target/jmh-result.json. Standard JMH options can be added to the command line in the
+ * profile, for example '-p game=Dominion,Catan' to restrict the games run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ForwardModelBenchmarks {
+
+    // Every constant of GameType except those listed above
+    @Param({"GameTemplate", "Pandemic", "TicTacToe", "Connect4", "ExplodingKittens", "LoveLetter", "Uno", "Virus",
+            "ColtExpress", "DotsAndBoxes", "Poker", "Diamant", "Dominion", "DominionSizeDistortion",
+            "DominionImprovements", "Battlelore", "SushiGo", "Catan", "Stratego", "CantStop", "Hanabi", "PuertoRico",
+            "Wonders7", "Resistance", "Hearts", "ChineseCheckers"})
+    public GameType game;
+
+    @Param("20")
+    public int warmupActions;
+
+    @Param("1000")
+    public int maxPlayoutActions;
+
+    private AbstractForwardModel forwardModel;
+    private AbstractGameState initialState;
+    private AbstractGameState midGameState;
+    private Random rnd;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        int nPlayers = Math.min(game.getMaxPlayers(), Math.max(2, game.getMinPlayers()));
+        Game instance = game.createGameInstance(nPlayers, 42);
+        forwardModel = instance.getForwardModel();
+        initialState = instance.getGameState();
+        rnd = new Random(42);
+        AbstractGameState state = initialState.copy();
+        midGameState = state.copy();
+        for (int i = 0; i < warmupActions; i++) {
+            takeRandomAction(state);
+            if (!state.isNotTerminal())
+                break;
+            midGameState = state.copy();
+        }
+    }
+
+    private void takeRandomAction(AbstractGameState state) {
+        List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+        forwardModel.next(state, actions.get(rnd.nextInt(actions.size())));
+    }
+
+    @Benchmark
+    public AbstractGameState copy() {
+        return midGameState.copy();
+    }
+
+    @Benchmark
+    public List<AbstractAction> computeAvailableActions() {
+        return forwardModel.computeAvailableActions(midGameState);
+    }
+
+    @Benchmark
+    public AbstractGameState copyAndNext() {
+        AbstractGameState state = midGameState.copy();
+        if (state.isNotTerminal())
+            takeRandomAction(state);
+        return state;
+    }
+
+    /**
+     * One random playout from the initial state; the score is playouts per second. The number of actions taken is
+     * passed to the Blackhole so that it is not optimised away.
+     */
+    @Benchmark
+    public void randomPlayout(Blackhole blackhole) {
+        AbstractGameState state = initialState.copy();
+        int actions = 0;
+        while (state.isNotTerminal() && actions < maxPlayoutActions) {
+            takeRandomAction(state);
+            actions++;
+        }
+        blackhole.consume(actions);
+    }
+}
@@ -7,6 +7,7 @@ import utilities.ActionTreeNode;
 import utilities.ElapsedCpuChessTimer;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.stream.IntStream;
@@ -17,6 +18,7 @@ public abstract class AbstractForwardModel {
 
     public ActionTreeNode root;
     public List<ActionTreeNode> leaves;
+    private ActionListCache actionCache;
 
     /* Limited access/Final methods */
 
@@ -37,7 +39,7 @@ public abstract class AbstractForwardModel {
                     firstState.gameParameters.incrementRoundS, firstState.gameParameters.incrementMilestoneS);
         }
 
-        _setup(firstState);
+        firstState.componentIds.use(() -> _setup(firstState));
         firstState.addAllComponents();
     }
 
@@ -107,7 +109,7 @@ public abstract class AbstractForwardModel {
             return new DoNothing();
         } else {
             List<AbstractAction> possibleActions = computeAvailableActions(gameState);
-            int randomAction = new Random(gameState.getGameParameters().getRandomSeed()).nextInt(possibleActions.size());
+            int randomAction = new Random(gameState.getRandomSeed()).nextInt(possibleActions.size());
             next(gameState, possibleActions.get(randomAction));
             return possibleActions.get(randomAction);
         }
@@ -116,12 +118,12 @@ public abstract class AbstractForwardModel {
     /* ###### Public API for AI players ###### */
 
     /**
-     * Sets up the given game state for game start according to game rules, with a new random seed.
+     * Sets up the given game state for game start according to game rules, with the random seed of its parameters.
      *
      * @param gameState - game state to be modified.
      */
     public final void setup(AbstractGameState gameState) {
-        gameState.reset();
+        gameState.reset(gameState.getGameParameters().getRandomSeed());
         abstractSetup(gameState);
     }
 
@@ -135,7 +137,8 @@ public abstract class AbstractForwardModel {
         if (action != null) {
             int player = currentState.getCurrentPlayer();
             currentState.recordAction(action, player);
-            _next(currentState, action);
+            currentState.componentIds.use(() -> _next(currentState, action));
+            currentState.componentsChanged();
         } else {
             if (currentState.coreGameParameters.verbose) {
                 System.out.println("Invalid action.");
@@ -160,12 +163,117 @@ public abstract class AbstractForwardModel {
         if (gameState.isActionInProgress()) {
             return gameState.actionsInProgress.peek()._computeAvailableActions(gameState, actionSpace);
         }
+        // without a 64-bit state hash two states with different actions could share a key (see hasStateHash())
+        if (actionCache == null || !gameState.hasStateHash())
+            return computeActionsFromState(gameState, actionSpace);
+        long key = ActionListCache.key(gameState, actionSpace);
+        List<AbstractAction> actions = actionCache.get(key);
+        if (actions == null)
+            actions = actionCache.put(key, computeActionsFromState(gameState, actionSpace));
+        return actions;
+    }
+
+    private List<AbstractAction> computeActionsFromState(AbstractGameState gameState, ActionSpace actionSpace) {
         if (actionSpace != null && !actionSpace.isDefault()) {
             return _computeAvailableActions(gameState, actionSpace);
         }
         return _computeAvailableActions(gameState);
     }
 
+    /**
+     * Switches on caching of the lists returned by computeAvailableActions() (see ActionListCache), keeping at
+     * most the given number of lists. A size of 0 switches it off. Lists from the cache are unmodifiable.
+     * States of games that do not override _getStateHash() are never cached (see AbstractGameState.hasStateHash()).
+     *
+     * @param size - maximum number of action lists to keep.
+     */
+    public final void setActionCacheSize(int size) {
+        if (size <= 0)
+            actionCache = null;
+        else if (actionCache == null || actionCache.getCapacity() != size)
+            actionCache = new ActionListCache(size);
+    }
+
+    /**
+     * @return the action list cache, or null if it is not switched on.
+     */
+    public final ActionListCache getActionCache() {
+        return actionCache;
+    }
+
+    /**
+     * The number of actions that computeAvailableActions() would return. Games can override _countAvailableActions()
+     * to do this without building all of the actions.
+     */
+    public final int countAvailableActions(AbstractGameState gameState) {
+        return countAvailableActions(gameState, gameState.coreGameParameters.actionSpace);
+    }
+
+    public final int countAvailableActions(AbstractGameState gameState, ActionSpace actionSpace) {
+        if (gameState.isActionInProgress() || (actionSpace != null && !actionSpace.isDefault()))
+            return computeAvailableActions(gameState, actionSpace).size();
+        return _countAvailableActions(gameState);
+    }
+
+    protected int _countAvailableActions(AbstractGameState gameState) {
+        return _computeAvailableActions(gameState).size();
+    }
+
+    /**
+     * Iterates over the same actions as computeAvailableActions() (though not necessarily in the same order).
+     * Games can override _availableActionsIterator() to generate the actions as they are needed, so that a caller
+     * that only looks at the first few does not pay for all of them.
+     */
+    public final Iterator<AbstractAction> availableActionsIterator(AbstractGameState gameState) {
+        return availableActionsIterator(gameState, gameState.coreGameParameters.actionSpace);
+    }
+
+    public final Iterator<AbstractAction> availableActionsIterator(AbstractGameState gameState, ActionSpace actionSpace) {
+        if (gameState.isActionInProgress() || (actionSpace != null && !actionSpace.isDefault()))
+            return computeAvailableActions(gameState, actionSpace).iterator();
+        return _availableActionsIterator(gameState);
+    }
+
+    protected Iterator<AbstractAction> _availableActionsIterator(AbstractGameState gameState) {
+        return _computeAvailableActions(gameState).iterator();
+    }
+
+    public final AbstractAction sampleRandomAction(AbstractGameState gameState, Random rnd) {
+        return sampleRandomAction(gameState, gameState.coreGameParameters.actionSpace, rnd);
+    }
+
+    /**
+     * Picks one of the available actions uniformly at random. This is equivalent to picking from the list returned
+     * by computeAvailableActions(), but games can override _sampleRandomAction() to do this without building the
+     * full list, which makes random rollouts much cheaper in games with large action spaces.
+     *
+     * @param gameState   - game state from which to pick an action.
+     * @param actionSpace - action space to use.
+     * @param rnd         - random number generator to use.
+     * @return - a random available action, or null if there are none.
+     */
+    public final AbstractAction sampleRandomAction(AbstractGameState gameState, ActionSpace actionSpace, Random rnd) {
+        // Actions in progress (see IExtendedSequence) and non-default action spaces always use the full list
+        if (gameState.isActionInProgress() || (actionSpace != null && !actionSpace.isDefault())) {
+            List<AbstractAction> actions = computeAvailableActions(gameState, actionSpace);
+            return actions.isEmpty() ? null : actions.get(rnd.nextInt(actions.size()));
+        }
+        return _sampleRandomAction(gameState, rnd);
+    }
+
+    /**
+     * Override this in games where a uniformly random action can be picked more cheaply than by computing all of
+     * them (for example by picking the action type first, weighted by how many actions there are of each type).
+     * It should return each action in _computeAvailableActions(gameState) with equal probability.
+     * This is not called when there is an action in progress.
+     *
+     * @return - a random available action, or null if there are none.
+     */
+    protected AbstractAction _sampleRandomAction(AbstractGameState gameState, Random rnd) {
+        List<AbstractAction> actions = _computeAvailableActions(gameState);
+        return actions.isEmpty() ? null : actions.get(rnd.nextInt(actions.size()));
+    }
+
     /**
      * Performs any end of game computations, as needed.
      * This should not normally need to be overriden - but can be. For example if a game is purely co-operative
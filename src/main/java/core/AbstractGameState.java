@@ -4,6 +4,7 @@ import core.actions.AbstractAction;
 import core.actions.LogEvent;
 import core.components.Area;
 import core.components.Component;
+import core.components.ComponentIds;
 import core.components.PartialObservableDeck;
 import core.interfaces.IComponentContainer;
 import core.interfaces.IExtendedSequence;
@@ -13,8 +14,16 @@ import evaluation.listeners.IGameListener;
 import evaluation.metrics.Event;
 import games.GameType;
 import utilities.ElapsedCpuChessTimer;
+import utilities.LongHashMap;
 import utilities.Pair;
+import utilities.PersistentList;
+import utilities.Zobrist;
 
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -39,6 +48,21 @@ public abstract class AbstractGameState {
     // Game being played
     protected final GameType gameType = _getGameType();
     private Area allComponents;
+    private boolean allComponentsFilled;  // false if the components may have changed since allComponents was filled
+    // Every component in the state (including those inside Decks, boards and so on) by component ID, for
+    // getComponentById(). The IDs from componentIds are dense from 0, so index the array directly; the few from the
+    // shared counter (see ComponentIds) are in globalComponentIndex. This is built when first needed (and not by
+    // copy()), and from then on components are added as they are created from componentIds, or registered with
+    // addAllComponents(); null if it needs to be built.
+    private Component[] componentIndex;
+    private LongHashMap<Component> globalComponentIndex;
+    // IDs for components created in this state (and so by the forward model), shared with nothing else.
+    // constructionIds is the sequence used by the constructor, which setup continues from each time
+    private final ComponentIds constructionIds;
+    ComponentIds componentIds;
+    // The first ID taken by the components created when the game was last set up, kept by copies, so that a
+    // snapshot can set the game up again with the same IDs
+    private int setupFirstId;
 
     // Game tick, number of iterations of game loop
     private int tick = 0;
@@ -55,8 +79,9 @@ public abstract class AbstractGameState {
     // A record of all actions taken to reach this game state
     // The history is stored as a list of pairs, where the first element is the player who took the action
     // this is in chronological order
-    private List<Pair<Integer, AbstractAction>> history = new ArrayList<>();
-    private List<String> historyText = new ArrayList<>();
+    // Both are persistent lists, shared with copies of this state, so that copying a state does not copy its history
+    private PersistentList<Pair<Integer, AbstractAction>> history = new PersistentList<>();
+    private PersistentList<String> historyText = new PersistentList<>();
 
     // Status of the game, and status for each player (in cooperative games, the game status is also each player's status)
     protected CoreConstants.GameResult gameStatus;
@@ -72,6 +97,9 @@ public abstract class AbstractGameState {
     // redeterminisationRnd is used for redeterminisation only - this is to ensure that the main game is not affected
     // this is not initialised from any seed, as redeterminisation is used to hide data from players and cannot affect the game itself
     protected Random redeterminisationRnd = new Random();
+    // Seed for rnd. This is held here rather than in the game parameters, which are shared (frozen) by all the copies
+    // of a state, so that a new seed for one game never changes the parameters of another
+    private long randomSeed;
 
     /**
      * @param gameParameters - game parameters.
@@ -81,7 +109,11 @@ public abstract class AbstractGameState {
         this.nTeams = nPlayers;  // we always default the number of teams to the number of players
         // this is then overridden in the game-specific constructor if needed
         this.gameParameters = gameParameters;
+        this.randomSeed = gameParameters.getRandomSeed();
         this.coreGameParameters = new CoreParameters();
+        ComponentIds inUse = ComponentIds.current();
+        this.constructionIds = inUse != null ? inUse : new ComponentIds();
+        this.componentIds = constructionIds;
     }
 
     protected abstract GameType _getGameType();
@@ -91,11 +123,13 @@ public abstract class AbstractGameState {
      */
     protected void reset() {
         allComponents = new Area(-1, "All Components");
+        allComponentsFilled = false;
+        componentIndex = null;
         gameStatus = GAME_ONGOING;
         playerResults = new CoreConstants.GameResult[getNPlayers()];
         Arrays.fill(playerResults, GAME_ONGOING);
-        history = new ArrayList<>();
-        historyText = new ArrayList<>();
+        history = new PersistentList<>();
+        historyText = new PersistentList<>();
         playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
         tick = 0;
         turnOwner = 0;
@@ -103,15 +137,31 @@ public abstract class AbstractGameState {
         roundCounter = 0;
         firstPlayer = 0;
         actionsInProgress.clear();
-        rnd = new Random(gameParameters.randomSeed);
+        rnd = new Random(randomSeed);
     }
 
     /**
-     * Resets variables initialised for this game state.
+     * Resets variables initialised for this game state, using the given random seed. The game parameters are not
+     * changed.
      */
     void reset(long seed) {
-        gameParameters.randomSeed = seed;
-        reset();
+        randomSeed = seed;
+        resetWithNewIds();
+    }
+
+    /**
+     * Calls reset(), with the components created by it (and from then on) taking IDs from a sequence that starts
+     * again from where the constructor of the state left off.
+     */
+    final void resetWithNewIds() {
+        resetWithIds(constructionIds.copy());
+    }
+
+    private void resetWithIds(ComponentIds ids) {
+        setupFirstId = ids.peek();
+        componentIds = ids;
+        componentIds.setOnCreate(this::componentCreated);
+        componentIds.use(() -> reset());
     }
 
     // Getters
@@ -124,6 +174,13 @@ public abstract class AbstractGameState {
     public final AbstractParameters getGameParameters() {
         return this.gameParameters;
     }
+    /**
+     * @return the random seed this game was last reset with. Copies made from a player's perspective have a new seed
+     * of their own, so that the seed of the real game cannot be used to reconstruct its hidden information.
+     */
+    public final long getRandomSeed() {
+        return randomSeed;
+    }
     public int getNPlayers() { return nPlayers; }
     public int getNTeams() { return nTeams; }
     /**
@@ -165,11 +222,12 @@ public abstract class AbstractGameState {
         history.set(index, action);
     }
     /**
-     * @return All actions that have been executed on this state since reset()/initialisation
+     * @return All actions that have been executed on this state since reset()/initialisation.
+     * This is a read-only snapshot; actions taken later are not added to it.
      */
-    public List<Pair<Integer, AbstractAction>> getHistory() { return new ArrayList<>(history);}
+    public List<Pair<Integer, AbstractAction>> getHistory() { return history.asList();}
     public List<String> getHistoryAsText() {
-        return new ArrayList<>(historyText);
+        return historyText.asList();
     }
     public int getGameID() {
         return gameID;
@@ -238,20 +296,27 @@ public abstract class AbstractGameState {
         return playerResults[player] == GAME_ONGOING && gameStatus == GAME_ONGOING;
     }
     public final int getGameTick() {return tick;}
+    /**
+     * @return the component with this ID in this state, or null if there is none
+     */
     public final Component getComponentById(int id) {
-        Component c = allComponents.getComponent(id);
-        if (c == null) {
-            try {
-                addAllComponents();
-                c = allComponents.getComponent(id);
-            } catch (Exception ignored) {
-            }  // Can crash from concurrent modifications if running with GUI TODO: this is an ugly fix
-        }
-        return c;
+        if (componentIndex == null)
+            indexComponents();
+        if (id >= 0 && id < ComponentIds.GLOBAL_BASE)
+            return id < componentIndex.length ? componentIndex[id] : null;
+        return globalComponentIndex.get(id);
     }
 
+    /**
+     * @return an Area with every component in the state, including those inside containers. This is only refilled
+     * when the components may have changed since the last call (after an action, or a component is created).
+     */
     public final Area getAllComponents() {
-        addAllComponents(); // otherwise the list of allComponents is only ever updated when we copy the state!
+        if (!allComponentsFilled) {
+            allComponents.clear();
+            allComponents.putComponents(_getAllComponents());
+            allComponentsFilled = true;
+        }
         return allComponents;
     }
 
@@ -267,11 +332,62 @@ public abstract class AbstractGameState {
     }
 
     /**
-     * Adds all components given by the game to the allComponents map in the correct way, first clearing the map.
+     * Registers the components given by the game (and those inside them) in the index used by getComponentById(),
+     * replacing any there with the same IDs. Games call this once they have replaced components with new objects
+     * (components newly created in the game are added as they are created).
      */
     protected final void addAllComponents() {
-        allComponents.clear();
-        allComponents.putComponents(_getAllComponents());
+        allComponentsFilled = false;
+        if (componentIndex != null)
+            indexComponents(_getAllComponents());
+    }
+
+    /**
+     * Marks the Area from getAllComponents() as out of date. The forward model calls this after each action.
+     */
+    final void componentsChanged() {
+        allComponentsFilled = false;
+    }
+
+    private void indexComponents() {
+        componentIndex = new Component[Math.max(16, componentIds.peek())];
+        globalComponentIndex = new LongHashMap<>();
+        indexComponents(_getAllComponents());
+    }
+
+    private void indexComponents(List<Component> components) {
+        for (Component c : components) {
+            if (c != null)
+                indexComponent(c);
+        }
+    }
+
+    // as Area.putComponent(), components nested in containers are added too
+    private void indexComponent(Component c) {
+        putInIndex(c, c.getComponentID());
+        if (c instanceof IComponentContainer<?> container) {
+            container.forEachComponent(nested -> {
+                if (nested != null)
+                    indexComponent(nested);
+            });
+        }
+    }
+
+    private void putInIndex(Component c, int id) {
+        if (id >= 0 && id < ComponentIds.GLOBAL_BASE) {
+            if (id >= componentIndex.length)
+                componentIndex = Arrays.copyOf(componentIndex, Math.max(id + 1, 2 * componentIndex.length));
+            componentIndex[id] = c;
+        } else {
+            globalComponentIndex.put(id, c);
+        }
+    }
+
+    // called by componentIds as each component is created (so before its constructor has finished)
+    private void componentCreated(Component c, int id) {
+        allComponentsFilled = false;
+        if (componentIndex != null)
+            putInIndex(c, id);
     }
 
     /**
@@ -293,7 +409,16 @@ public abstract class AbstractGameState {
      * @return - reduced copy of the game state.
      */
     public final AbstractGameState copy(int playerId) {
-        AbstractGameState s = _copy(playerId);
+        // any components created by the copy (e.g. when hidden information is redeterminised) continue the sequence
+        ComponentIds ids = componentIds.copy();
+        AbstractGameState s = ids.use(() -> _copy(playerId));
+        s.componentIds = ids;
+        s.setupFirstId = setupFirstId;
+        ids.setOnCreate(s::componentCreated);
+        // the parameters do not change during a game, so the copy's are frozen, and copies of it share them from then on
+        // (unless _copy() handed over our own parameters, which stay as they are)
+        if (s.gameParameters != gameParameters)
+            s.gameParameters.freeze();
         // Copy super class things
         s.allComponents = allComponents.emptyCopy();
         s.gameStatus = gameStatus;
@@ -310,10 +435,11 @@ public abstract class AbstractGameState {
         // is not called an arbitrary number of times. This is to ensure that all shuffles in the main game are
         // the same if we start with the same seed
         s.rnd = playerId == -1 ? rnd : new Random(System.currentTimeMillis());
+        s.randomSeed = playerId == -1 ? randomSeed : System.currentTimeMillis();
 
         if (!coreGameParameters.competitionMode) {
-            s.history = new ArrayList<>(history);
-            s.historyText = new ArrayList<>(historyText);
+            s.history = history.copy();
+            s.historyText = historyText.copy();
             // we do not copy individual actions in history, as these are now dead and should not change
             // History is for debugging and spectation of games. There is a risk that History might contain information
             // formally hidden to some participants. For this reason, in COMPETITION_MODE we explicitly do not copy
@@ -332,8 +458,7 @@ public abstract class AbstractGameState {
             s.playerTimer[i] = playerTimer[i].copy();
         }
 
-        // Update the list of components for ID matching in actions.
-        s.addAllComponents();
+        // The copy indexes its components for ID matching in actions when it first needs to
         return s;
     }
 
@@ -631,6 +756,324 @@ public abstract class AbstractGameState {
         // included in the _equals() method implemented there
     }
 
+    /**
+     * A 64-bit hash of this state, for use as a key in transposition tables (for example by MCGS).
+     * This combines _getStateHash() with the current player, game status, phase and any actions in progress.
+     * Two states that are equal should have the same hash, but the reverse is only true with high probability.
+     *
+     * @return - 64-bit hash of the state.
+     */
+    public final long getStateHash() {
+        long h = Zobrist.key(_getStateHash(), getCurrentPlayer(), gameStatus == null ? -1 : gameStatus.ordinal());
+        return Zobrist.key(h, Objects.hashCode(gamePhase), actionsInProgress.hashCode());
+    }
+
+    /**
+     * Hash of the game-specific part of the state, used by getStateHash(). Games can override this to return a
+     * hash that is maintained incrementally as the state changes (for example from getStateHash() on their boards),
+     * which avoids rehashing the whole state every time. The default falls back to hashCode(), which is only 32 bits
+     * (and is often weak), so distinct states of games that do not override this will collide far more often than a
+     * 64-bit hash would. See hasStateHash().
+     *
+     * @return - 64-bit hash of the game-specific state.
+     */
+    protected long _getStateHash() {
+        return hashCode();
+    }
+
+    private static final ClassValue<Boolean> overridesStateHash = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != AbstractGameState.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("_getStateHash");
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // try the superclass
+                }
+            }
+            return false;
+        }
+    };
+
+    /**
+     * @return true if this game overrides _getStateHash() with a proper 64-bit hash, so that getStateHash() can be
+     * used as a key in a transposition table; false if it falls back to the 32-bit hashCode().
+     */
+    public final boolean hasStateHash() {
+        return overridesStateHash.get(getClass());
+    }
+
+    private static final int SNAPSHOT_MAGIC = 0x54414753;  // "TAGS"
+    private static final int SNAPSHOT_VERSION = 2;
+
+    /**
+     * Writes a compact binary snapshot of this state, from which readSnapshot() can restore it and the game can be
+     * continued. The snapshot starts with the random seed and ends with the exact state of the random number
+     * generator; in between it holds either:
+     * - for games that override _writeSnapshot(), the core game loop values (status, results, phase, counters)
+     * followed by the game-specific values written by it. These are only the values that change during a game, so
+     * the snapshot must be read into a state of the same game with the same components, such as a copy of the
+     * initial state. The history is not included, and states with an action in progress cannot be snapshotted.
+     * - for games where snapshotsReplayActions() is true, the actions taken since the game was set up (as indices
+     * into the actions available at the time) and the history text. Reading the snapshot sets the game up again from
+     * its seed and replays the actions, which rebuilds everything else: decks, boards and their node properties,
+     * actions in progress and the history. Before writing, the replay is checked to reproduce this state.
+     * Timers are not included.
+     * Only games for which supportsSnapshots() is true can be snapshotted; callers should check this first.
+     *
+     * @param out - writer to add the snapshot to.
+     */
+    public final void writeSnapshot(SnapshotWriter out) {
+        checkSupportsSnapshots();
+        boolean replay = snapshotsReplayActions();
+        if (!replay && isActionInProgress())
+            throw new IllegalArgumentException("Cannot snapshot a state with actions in progress: " + actionsInProgress);
+        // found before anything is written, so that a state that cannot be replayed leaves the writer as it was
+        int[] choices = replay ? replayChoices() : null;
+        out.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION);
+        out.putString(getClass().getName()).putInt(nPlayers).putBoolean(replay);
+        out.putLong(randomSeed);
+        if (replay) {
+            out.putInt(setupFirstId).putIntArray(choices);
+            out.putInt(historyText.size());
+            for (String text : historyText.asList())
+                out.putString(text);
+        } else {
+            out.putInt(gameStatus == null ? -1 : gameStatus.ordinal());
+            for (CoreConstants.GameResult result : playerResults)
+                out.putInt(result.ordinal());
+            if (gamePhase == null) {
+                out.putString(null);
+            } else if (gamePhase instanceof Enum<?> phase) {
+                out.putString(phase.getDeclaringClass().getName()).putString(phase.name());
+            } else {
+                throw new IllegalArgumentException("Only enum game phases can be snapshotted: " + gamePhase);
+            }
+            out.putInt(tick).putInt(roundCounter).putInt(turnCounter).putInt(turnOwner).putInt(firstPlayer);
+            _writeSnapshot(out);
+        }
+        out.putBytes(randomState(rnd));
+    }
+
+    /**
+     * Overwrites this state with a snapshot from writeSnapshot(), replaying the actions in it with a new forward
+     * model if the game snapshots by replay.
+     *
+     * @param in - reader positioned at the start of the snapshot.
+     */
+    public final void readSnapshot(SnapshotReader in) {
+        readSnapshot(in, null);
+    }
+
+    /**
+     * Overwrites this state with a snapshot from writeSnapshot(). For games that snapshot by value, any actions in
+     * progress and the history of this state are cleared; for those that snapshot by replay, they are rebuilt.
+     *
+     * @param in           - reader positioned at the start of the snapshot.
+     * @param forwardModel - forward model to replay the actions in the snapshot with, which should be the one that
+     *                     will continue the game (rule-based forward models keep track of where the game is in their
+     *                     rules). If null, a new one is created for the game. Not used by games that snapshot by value.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public final void readSnapshot(SnapshotReader in, AbstractForwardModel forwardModel) {
+        checkSupportsSnapshots();
+        if (in.getInt() != SNAPSHOT_MAGIC)
+            throw new IllegalArgumentException("Not a game state snapshot");
+        int version = in.getInt();
+        if (version != SNAPSHOT_VERSION)
+            throw new IllegalArgumentException("Unsupported snapshot version " + version);
+        String stateClass = in.getString();
+        int players = in.getInt();
+        if (!getClass().getName().equals(stateClass) || players != nPlayers)
+            throw new IllegalArgumentException("Snapshot of " + stateClass + " with " + players + " players cannot be read into " +
+                    getClass().getName() + " with " + nPlayers + " players");
+        if (in.getBoolean() != snapshotsReplayActions())
+            throw new IllegalArgumentException("Snapshot of " + stateClass + " was not written by this version of the game");
+        long seed = in.getLong();
+        if (snapshotsReplayActions()) {
+            int firstId = in.getInt();
+            int[] choices = in.getIntArray();
+            AbstractForwardModel fm = forwardModel != null ? forwardModel : _getGameType().createForwardModel(gameParameters, nPlayers);
+            setUpAgain(seed, firstId, fm);
+            for (int step = 0; step < choices.length; step++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(this);
+                if (choices[step] >= actions.size())
+                    throw new IllegalArgumentException("Snapshot does not match this game: action " + step + " is " +
+                            choices[step] + " of only " + actions.size() + " available");
+                fm.next(this, actions.get(choices[step]));
+            }
+            // the text also holds entries logged outside the forward model, so is read as written rather than replayed
+            historyText = new PersistentList<>();
+            for (int i = in.getInt(); i > 0; i--)
+                historyText.add(in.getString());
+        } else {
+            randomSeed = seed;
+            int status = in.getInt();
+            gameStatus = status < 0 ? null : CoreConstants.GameResult.values()[status];
+            for (int i = 0; i < playerResults.length; i++)
+                playerResults[i] = CoreConstants.GameResult.values()[in.getInt()];
+            String phaseClass = in.getString();
+            if (phaseClass == null) {
+                gamePhase = null;
+            } else {
+                try {
+                    gamePhase = (IGamePhase) Enum.valueOf((Class<? extends Enum>) Class.forName(phaseClass), in.getString());
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalArgumentException("Unknown game phase class " + phaseClass, e);
+                }
+            }
+            tick = in.getInt();
+            roundCounter = in.getInt();
+            turnCounter = in.getInt();
+            turnOwner = in.getInt();
+            firstPlayer = in.getInt();
+            actionsInProgress.clear();
+            history = new PersistentList<>();
+            historyText = new PersistentList<>();
+            _readSnapshot(in);
+        }
+        rnd = randomFrom(in.getBytes());
+    }
+
+    /**
+     * Writes the game-specific part of a snapshot by value. Games that support snapshots this way override this and
+     * _readSnapshot(), usually by calling writeSnapshot() on each of their components in turn, as Tic-Tac-Toe and
+     * Connect4 do.
+     */
+    protected void _writeSnapshot(SnapshotWriter out) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support binary snapshots");
+    }
+
+    /**
+     * Reads the values written by _writeSnapshot(), in the same order, into this state.
+     */
+    protected void _readSnapshot(SnapshotReader in) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support binary snapshots");
+    }
+
+    /**
+     * Games whose state is too varied to write value by value (such as Terraforming Mars, where the cards played
+     * bring their own effects and discounts) override this to return true instead of overriding _writeSnapshot() and
+     * _readSnapshot(). Their snapshots hold the actions taken since setup, and are read by replaying them (see
+     * writeSnapshot()). This relies on the game being set up from its seed alone, and on the forward model being the
+     * only user of the random number generator of the state.
+     */
+    protected boolean snapshotsReplayActions() {
+        return false;
+    }
+
+    // Sets this state up again from the given seed, with the components created by setup taking IDs from firstId on
+    // (as they did in the state the snapshot was taken from), so that actions referring to components by ID match
+    private void setUpAgain(long seed, int firstId, AbstractForwardModel fm) {
+        randomSeed = seed;
+        resetWithIds(ComponentIds.startingFrom(firstId));
+        fm.abstractSetup(this);
+    }
+
+    // The index of each action in the history among those available when it was taken, found by setting a copy of
+    // this state up again and replaying them. The copy must end up equal to this state, which it will not if the
+    // history was not kept (as in competition mode) or the random number generator was used outside the forward model
+    private int[] replayChoices() {
+        AbstractForwardModel fm = _getGameType().createForwardModel(gameParameters, nPlayers);
+        AbstractGameState replay = copy();
+        replay.setUpAgain(randomSeed, setupFirstId, fm);
+        int[] choices = new int[history.size()];
+        for (int step = 0; step < choices.length; step++) {
+            Pair<Integer, AbstractAction> taken = history.asList().get(step);
+            List<AbstractAction> actions = fm.computeAvailableActions(replay);
+            choices[step] = actions.indexOf(taken.b);
+            if (choices[step] < 0 || replay.getCurrentPlayer() != taken.a)
+                throw new IllegalStateException("Cannot snapshot " + getClass().getSimpleName() + ": action " + step +
+                        " of its history (" + taken.b + ") cannot be replayed from its seed");
+            fm.next(replay, actions.get(choices[step]));
+        }
+        if (!replay.equals(this))
+            throw new IllegalStateException("Cannot snapshot " + getClass().getSimpleName() +
+                    ": replaying its history from its seed does not reproduce it");
+        return choices;
+    }
+
+    // java.util.Random is serializable, which is the only way to capture its exact position in the sequence
+    private static byte[] randomState(Random random) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(random);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Random randomFrom(byte[] state) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state))) {
+            return (Random) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException("Snapshot has no valid random number generator state", e);
+        }
+    }
+
+    private static final ClassValue<Boolean> overridesSnapshots = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != AbstractGameState.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("_writeSnapshot", SnapshotWriter.class);
+                    c.getDeclaredMethod("_readSnapshot", SnapshotReader.class);
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // try the superclass
+                }
+            }
+            return false;
+        }
+    };
+
+    /**
+     * @return true if this game overrides _writeSnapshot() and _readSnapshot(), or snapshots by replay, so that
+     * writeSnapshot() and readSnapshot() can be used; false if they would throw UnsupportedOperationException.
+     */
+    public final boolean supportsSnapshots() {
+        return snapshotsReplayActions() || overridesSnapshots.get(getClass());
+    }
+
+    private void checkSupportsSnapshots() {
+        if (!supportsSnapshots())
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support binary snapshots");
+    }
+
+    /**
+     * Writes a snapshot of this state to a file.
+     */
+    public final void saveSnapshot(Path file) throws IOException {
+        SnapshotWriter out = new SnapshotWriter();
+        writeSnapshot(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = out.toByteBuffer();
+            while (bytes.hasRemaining())
+                channel.write(bytes);
+        }
+    }
+
+    /**
+     * Overwrites this state with the snapshot in a file written by saveSnapshot(). The file is memory-mapped and
+     * decoded in place.
+     */
+    public final void loadSnapshot(Path file) throws IOException {
+        loadSnapshot(file, null);
+    }
+
+    /**
+     * As loadSnapshot(Path), replaying any actions in the snapshot with the given forward model (see
+     * readSnapshot(SnapshotReader, AbstractForwardModel)).
+     */
+    public final void loadSnapshot(Path file, AbstractForwardModel forwardModel) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            readSnapshot(new SnapshotReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())), forwardModel);
+        }
+    }
+
     /**
      * Override the hashCode as needed for individual game states
      * (It is OK for two java objects to be not equal and have the same hashcode)
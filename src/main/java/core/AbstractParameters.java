@@ -24,6 +24,11 @@ public abstract class AbstractParameters {
     // Increment in seconds, added after a custom milestone (to be added manually in game implementation). Default 0.
     long incrementMilestoneS = 0;
 
+    // Once frozen the parameters can no longer be changed through the setters, and copy() returns this object rather than a new one
+    private boolean frozen;
+    // With assertions enabled, an unfrozen copy of the parameters as they were when frozen, so that copy() can catch
+    // direct assignments to the public fields of a game's parameters made since (see freeze())
+    private AbstractParameters valuesWhenFrozen;
 
     public AbstractParameters() {
         this.setRandomSeed(System.currentTimeMillis());
@@ -59,20 +64,82 @@ public abstract class AbstractParameters {
     }
 
     public void setRandomSeed(long randomSeed) {
+        checkNotFrozen();
         this.randomSeed = randomSeed;
     }
 
     public void setThinkingTimeMins(long thinkingTimeMins) {
+        checkNotFrozen();
         this.thinkingTimeMins = thinkingTimeMins;
     }
 
     public void setMaxRounds(int max) {
+        checkNotFrozen();
         maxRounds = max;
     }
     public void setTimeoutRounds(int max) {
+        checkNotFrozen();
         timeoutRounds = max;
     }
 
+    /**
+     * Freezes this parameters object. After this no parameter can be changed (any attempt to do so through the
+     * setters, randomize() or reset() throws an exception), and copy() returns this object instead of a new one, so
+     * that all the copies of a game state share a single parameters object.
+     * AbstractGameState.copy() freezes the parameters of every copy; the parameters of the original state (which
+     * are the ones that tournaments, optimisers and so on change between games) stay as they were.
+     * <p>
+     * This includes the random seed. A game state takes its seed from its parameters when it is created, and then
+     * keeps its own (see AbstractGameState.getRandomSeed()), so resetting a copied state with a new seed does not need
+     * to change the parameters it shares.
+     * <p>
+     * Changes made through this class and TunableParameters (the setters above, setParameterValue(s), randomize()
+     * and reset()) are refused at once. Most games also expose their parameters as public fields (for example
+     * TicTacToeGameParameters.gridSize), and an assignment to one of those cannot be refused; instead, when assertions
+     * are enabled (as they are in the tests), freeze() keeps a copy of the values and copy() fails with an
+     * AssertionError if the frozen parameters no longer equal it. This relies on the game's _equals() comparing its
+     * fields, so it does not cover games whose _equals() never returns true. Code that changes a game's parameters
+     * directly must only do so on parameters that are not frozen (isFrozen() returns false), and never on those of a
+     * copied state.
+     *
+     * @return - this object.
+     */
+    public AbstractParameters freeze() {
+        if (!frozen) {
+            assert recordValuesWhenFrozen();
+            frozen = true;
+        }
+        return this;
+    }
+
+    // Keeps an unfrozen copy of the parameters for unchangedSinceFrozen(), unless a copy is never equal to the original
+    // (as in games that do not implement _equals()), in which case changes cannot be detected
+    private boolean recordValuesWhenFrozen() {
+        AbstractParameters values = copy();
+        if (values.equals(this) && values._equals(this))
+            valuesWhenFrozen = values;
+        return true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * @return true unless assertions are enabled and the parameters have been changed (through their public fields)
+     * since they were frozen, in which case an AssertionError is thrown
+     */
+    protected final boolean unchangedSinceFrozen() {
+        if (valuesWhenFrozen != null && !(valuesWhenFrozen.equals(this) && valuesWhenFrozen._equals(this)))
+            throw new AssertionError("Frozen parameters have been changed since they were frozen, and they are shared by copies of the game state. Change a copy() of the unfrozen original instead : " + getClass().getSimpleName());
+        return true;
+    }
+
+    protected final void checkNotFrozen() {
+        if (frozen)
+            throw new IllegalStateException("Parameters are frozen, and are shared by copies of the game state. Change a copy() of the unfrozen original instead : " + getClass().getSimpleName());
+    }
+
     /**
      * Retrieve total thinking time for the game, in minutes
      *
@@ -141,9 +208,13 @@ public abstract class AbstractParameters {
     /**
      * Copy this game parameter object.
      *
-     * @return - new object with the same parameters, but a new random seed.
+     * @return - new object with the same parameters, but a new random seed; or this object if it is frozen.
      */
     public AbstractParameters copy() {
+        if (frozen) {
+            assert unchangedSinceFrozen();
+            return this;
+        }
         AbstractParameters copy = _copy();
         copy.randomSeed = System.currentTimeMillis();
         return copy;
@@ -153,6 +224,7 @@ public abstract class AbstractParameters {
      * Randomizes the set of parameters, if this is a class that implements the TunableParameters interface.
      */
     public void randomize() {
+        checkNotFrozen();
         if (this instanceof ITunableParameters params) {
             Random rnd = new Random(randomSeed);
             params.getParameterNames().forEach(name -> {
@@ -172,6 +244,7 @@ public abstract class AbstractParameters {
      * interface.
      */
     public void reset() {
+        checkNotFrozen();
         if (this instanceof ITunableParameters) {
             Map<String, Object> defaultValues = ((ITunableParameters) this).getDefaultParameterValues();
             ((ITunableParameters) this).setParameterValues(defaultValues);
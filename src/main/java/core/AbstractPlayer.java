@@ -120,6 +120,10 @@ public abstract class AbstractPlayer {
         decorators.remove(decorator);
     }
 
+    public final boolean hasDecorators() {
+        return !decorators.isEmpty();
+    }
+
     @Override
     public String toString() {
         if (name != null) return name;
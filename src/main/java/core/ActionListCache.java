@@ -0,0 +1,167 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.actions.ActionSpace;
+import utilities.LongHashMap;
+import utilities.Zobrist;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A bounded least-recently-used cache of action lists, keyed by the 64-bit state hash (see
+ * AbstractGameState.getStateHash()) and the action space. This is switched on per forward model with
+ * AbstractForwardModel.setActionCacheSize(), and is then used by computeAvailableActions().
+ * <p>
+ * Within one search the same state is often reached many times (the root on every iteration, and again when a node
+ * is expanded), and computing the actions can be a large part of the cost of each visit. The lists handed out are
+ * unmodifiable and shared between every caller with an equivalent state, so callers must not change them, and must
+ * copy() an action before applying it (as MCTS does).
+ * <p>
+ * This is only correct if getStateHash() differs between any two states with different available actions; the
+ * cache does not check the state itself. So states of games without a 64-bit state hash (see
+ * AbstractGameState.hasStateHash()) are not cached, as their hashCode() is only 32 bits and often leaves out fields
+ * that decide the actions. Nor are states with an action in progress, as their actions depend on the progress of
+ * that action, which its hashCode() may not include. At present only a few games provide a state hash, and for the
+ * rest a cache that has been switched on is silently never used (MCTSPlayer prints a warning if actionCacheSize is
+ * set for such a game).
+ * <p>
+ * The lists are held in a LongHashMap, so that lookups do not box the key, with the entries also linked in order of
+ * use so that the least recently used can be found and removed in constant time.
+ */
+public class ActionListCache {
+
+    // an entry is linked in order of use, from the most recently used (head) to the least (tail)
+    private static final class Entry {
+        final long key;
+        List<AbstractAction> actions;
+        Entry prev, next;
+
+        Entry(long key, List<AbstractAction> actions) {
+            this.key = key;
+            this.actions = actions;
+        }
+    }
+
+    private final int capacity;
+    private final LongHashMap<Entry> entries;
+    private Entry head, tail;
+    private long hits, misses;
+
+    public ActionListCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Action cache capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        this.entries = new LongHashMap<>(Math.min(capacity, 1024));
+    }
+
+    static long key(AbstractGameState gameState, ActionSpace actionSpace) {
+        return Zobrist.key(gameState.getStateHash(), actionSpace == null ? 0 : actionSpace.hashCode());
+    }
+
+    /**
+     * @return the cached list for this key, or null if there is none
+     */
+    List<AbstractAction> get(long key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        moveToHead(entry);
+        return entry.actions;
+    }
+
+    /**
+     * Stores the list for this key.
+     *
+     * @return the unmodifiable list that was stored
+     */
+    List<AbstractAction> put(long key, List<AbstractAction> actions) {
+        List<AbstractAction> shared = Collections.unmodifiableList(actions);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.actions = shared;
+            moveToHead(entry);
+            return shared;
+        }
+        entry = new Entry(key, shared);
+        entries.put(key, entry);
+        linkAtHead(entry);
+        if (entries.size() > capacity) {
+            Entry eldest = tail;
+            unlink(eldest);
+            entries.remove(eldest.key);
+        }
+        return shared;
+    }
+
+    private void moveToHead(Entry entry) {
+        if (entry != head) {
+            unlink(entry);
+            linkAtHead(entry);
+        }
+    }
+
+    private void linkAtHead(Entry entry) {
+        entry.prev = null;
+        entry.next = head;
+        if (head != null)
+            head.prev = entry;
+        head = entry;
+        if (tail == null)
+            tail = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev == null)
+            head = entry.next;
+        else
+            entry.prev.next = entry.next;
+        if (entry.next == null)
+            tail = entry.prev;
+        else
+            entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    /**
+     * Removes all cached lists (but keeps the hit and miss counts).
+     */
+    public void clear() {
+        entries.clear();
+        head = null;
+        tail = null;
+    }
+
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the proportion of lookups that found a cached list, or 0 if there have been none
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : hits / (double) total;
+    }
+}
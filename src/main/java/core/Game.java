@@ -347,8 +347,14 @@ public class Game {
         }
     }
 
+    /**
+     * Resets the game with the random seed it was last reset with (see AbstractGameState.getRandomSeed()), which is
+     * the seed of the game parameters until reset(players, newRandomSeed) is called with another.
+     *
+     * @param players - new players for the game
+     */
     public final void reset(List<AbstractPlayer> players) {
-        reset(players, gameState.gameParameters.randomSeed);
+        reset(players, gameState.getRandomSeed());
     }
 
     /**
@@ -356,7 +362,8 @@ public class Game {
      * and their IDs, and initialises all players.
      *
      * @param players       - new players for the game
-     * @param newRandomSeed - random seed is updated in the game parameters object and used throughout the game.
+     * @param newRandomSeed - random seed used throughout the game. It is held by the game state (see
+     *                      AbstractGameState.getRandomSeed()); the game parameters are not changed.
      */
     public final void reset(List<AbstractPlayer> players, long newRandomSeed) {
         gameState.reset(newRandomSeed);
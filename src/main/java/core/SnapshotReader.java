@@ -0,0 +1,59 @@
+package core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads a snapshot written by SnapshotWriter, directly from the given ByteBuffer (which may be a memory-mapped
+ * file) without copying it first. The buffer's position is advanced as values are read.
+ */
+public class SnapshotReader {
+
+    private final ByteBuffer buffer;
+
+    public SnapshotReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public int getInt() {
+        return buffer.getInt();
+    }
+
+    public long getLong() {
+        return buffer.getLong();
+    }
+
+    public double getDouble() {
+        return buffer.getDouble();
+    }
+
+    public boolean getBoolean() {
+        return buffer.get() != 0;
+    }
+
+    public int[] getIntArray() {
+        int[] values = new int[buffer.getInt()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = buffer.getInt();
+        return values;
+    }
+
+    public byte[] getBytes() {
+        byte[] values = new byte[buffer.getInt()];
+        buffer.get(values);
+        return values;
+    }
+
+    public String getString() {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int remaining() {
+        return buffer.remaining();
+    }
+}
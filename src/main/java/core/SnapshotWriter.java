@@ -0,0 +1,97 @@
+package core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the binary snapshot of a game state (see AbstractGameState.writeSnapshot()) into a heap ByteBuffer,
+ * which doubles in size as needed. Only the mutable values of the state are written; the structure (boards,
+ * decks, components that never change) comes from the state that the snapshot is later read into, or is rebuilt
+ * by replaying the game.
+ */
+public class SnapshotWriter {
+
+    private ByteBuffer buffer;
+
+    public SnapshotWriter() {
+        this(1024);
+    }
+
+    public SnapshotWriter(int initialCapacity) {
+        buffer = ByteBuffer.allocate(Math.max(16, initialCapacity));
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+    }
+
+    public SnapshotWriter putInt(int value) {
+        ensure(4);
+        buffer.putInt(value);
+        return this;
+    }
+
+    public SnapshotWriter putLong(long value) {
+        ensure(8);
+        buffer.putLong(value);
+        return this;
+    }
+
+    public SnapshotWriter putDouble(double value) {
+        ensure(8);
+        buffer.putDouble(value);
+        return this;
+    }
+
+    public SnapshotWriter putBoolean(boolean value) {
+        ensure(1);
+        buffer.put(value ? (byte) 1 : (byte) 0);
+        return this;
+    }
+
+    public SnapshotWriter putIntArray(int[] values) {
+        ensure(4 + 4 * values.length);
+        buffer.putInt(values.length);
+        for (int v : values)
+            buffer.putInt(v);
+        return this;
+    }
+
+    public SnapshotWriter putBytes(byte[] values) {
+        ensure(4 + values.length);
+        buffer.putInt(values.length);
+        buffer.put(values);
+        return this;
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string; null is written as a length of -1.
+     */
+    public SnapshotWriter putString(String value) {
+        if (value == null)
+            return putInt(-1);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(4 + bytes.length);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+        return this;
+    }
+
+    public int size() {
+        return buffer.position();
+    }
+
+    /**
+     * @return a read-only view of the bytes written so far, positioned at the start.
+     */
+    public ByteBuffer toByteBuffer() {
+        ByteBuffer result = buffer.duplicate();
+        result.flip();
+        return result.asReadOnlyBuffer();
+    }
+}
@@ -3,7 +3,7 @@ package core.actions;
 import core.AbstractGameState;
 import core.components.Component;
 import core.interfaces.IPrintable;
-import core.components.GridBoard;
+import core.interfaces.IGridBoard;
 
 import java.util.Objects;
 
@@ -28,7 +28,7 @@ public class SetGridValueAction<T extends Component> extends AbstractAction impl
 
     @Override
     public boolean execute(AbstractGameState gs) {
-        return ((GridBoard<T>)gs.getComponentById(gridBoard)).setElement(x, y, value);
+        return ((IGridBoard<T>)gs.getComponentById(gridBoard)).setElement(x, y, value);
     }
 
     @Override
@@ -4,6 +4,7 @@ import core.CoreConstants;
 import core.interfaces.IComponentContainer;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * An Area is a collection of components such as Decks, Token, Dices, Cards and Boards, mapping to their IDs.
@@ -73,6 +74,11 @@ public class Area extends Component implements IComponentContainer<Component> {
         return new ArrayList<>(components.values());
     }
 
+    @Override
+    public void forEachComponent(Consumer<? super Component> action) {
+        components.values().forEach(action);
+    }
+
     /**
      * Retrieve a component by its id key.
      * @param key - key to look for in the map.
@@ -98,11 +104,11 @@ public class Area extends Component implements IComponentContainer<Component> {
     public void putComponent(Component component) {
         this.components.put(component.getComponentID(), component);
         if (component instanceof IComponentContainer) {
-            for (Component nestedC : ((IComponentContainer<?>) component).getComponents()) {
+            ((IComponentContainer<?>) component).forEachComponent(nestedC -> {
                 if (nestedC != null) {
                     putComponent(nestedC);
                 }
-            }
+            });
         }
     }
 
@@ -4,27 +4,26 @@ import core.properties.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import core.CoreConstants.ComponentType;
+import utilities.Zobrist;
 
 import java.util.*;
 
 public abstract class Component {
-    private static int ID = 0;  // All components receive a unique and final ID from this always increasing counter
-
-    protected transient final int componentID;  // Unique ID of this component
+    protected transient final int componentID;  // ID of this component, unique within its line of game states (see ComponentIds)
     protected final ComponentType type;  // Type of this component
     protected HashMap<Integer, Property> properties;  // Maps between integer key for the property and the property object
     protected transient int ownerId = -1;  // By default belongs to the game
     protected String componentName;  // Name of this component
 
     public Component(ComponentType type, String name) {
-        this.componentID = ID++;
+        this.componentID = ComponentIds.nextId(this);
         this.type = type;
         this.componentName = name;
         this.properties = new HashMap<>();
     }
 
     public Component(ComponentType type) {
-        this.componentID = ID++;
+        this.componentID = ComponentIds.nextId(this);
         this.type = type;
         this.componentName = type.toString();
         this.properties = new HashMap<>();
@@ -79,7 +78,9 @@ public abstract class Component {
     }
 
     /**
-     * Get the ID of this component.
+     * Get the ID of this component. IDs are unique only within one line of game states (a game and the copies made
+     * from it): two separate games, or two states copied from the same one that have since moved on, may give the
+     * same ID to different components. Components created outside any game take IDs that no game uses.
      * @return - component ID.
      */
     public int getComponentID() {
@@ -241,4 +242,15 @@ public abstract class Component {
     public int hashCode() {
         return componentID;
     }
+
+    /**
+     * A 64-bit hash of the state of this component, for use in transposition tables (see
+     * AbstractGameState.getStateHash()). Unlike hashCode(), containers that override this (GridBoard, Deck, Counter)
+     * keep it up to date as they change, so it is O(1) to query.
+     *
+     * @return - the hash of this component's state. By default this is derived from hashCode().
+     */
+    public long getStateHash() {
+        return Zobrist.mix(hashCode());
+    }
 }
@@ -0,0 +1,126 @@
+package core.components;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The sequence of component IDs for one game (strictly, for one line of game states: a copy of a state continues from
+ * the same point in its own copy of the sequence). Components created while a sequence is in use on the current thread
+ * (see use()) take their IDs from it, so the IDs in a game are small and dense, start from 0 whenever the game is set
+ * up, and do not depend on other games running in the same JVM, whether before or at the same time.
+ * <p>
+ * IDs are therefore unique only within one line of game states. Different games use the same IDs, and so do two states
+ * copied from one that then create components independently, so a component ID (and anything keyed by one, such as
+ * AbstractGameState.getComponentById()) must not be compared across lines.
+ * <p>
+ * Components created with no sequence in use (in the constructor of a game state, as static constants, in tests and
+ * so on) take their IDs from a single shared counter, which starts at GLOBAL_BASE so that they cannot clash with the
+ * IDs of any game. Anything static that holds components (Dice.StandardDice, the player tokens of TicTacToe and
+ * Connect4) must be created inside global(), as the class may first be loaded while a game's sequence is in use.
+ * <p>
+ * The forward model and AbstractGameState.copy() put the sequence of the state in use while setting up, applying
+ * actions and copying, which is where games create their components. A ComponentIds is not itself thread-safe, but
+ * each state has its own, and each thread its own current sequence.
+ */
+public final class ComponentIds {
+
+    public static final int GLOBAL_BASE = 1 << 30;
+    private static final AtomicInteger globalNext = new AtomicInteger(GLOBAL_BASE);
+    private static final ThreadLocal<ComponentIds> current = new ThreadLocal<>();
+
+    private int next;
+    private ObjIntConsumer<Component> onCreate;
+
+    public ComponentIds() {
+    }
+
+    /**
+     * @return a sequence whose next ID is the given one, for setting a game up again with the same IDs as before
+     * (see peek())
+     */
+    public static ComponentIds startingFrom(int next) {
+        ComponentIds retValue = new ComponentIds();
+        retValue.next = next;
+        return retValue;
+    }
+
+    /**
+     * Sets the listener told of each component created from this sequence, with its ID. This is not copied by
+     * copy(). AbstractGameState uses it to keep its index of components up to date.
+     */
+    public void setOnCreate(ObjIntConsumer<Component> onCreate) {
+        this.onCreate = onCreate;
+    }
+
+    /**
+     * @return a sequence that continues from the same point as this one, independently of it
+     */
+    public ComponentIds copy() {
+        ComponentIds retValue = new ComponentIds();
+        retValue.next = next;
+        return retValue;
+    }
+
+    /**
+     * @return the ID that the next component created from this sequence will have (which is also the number of IDs
+     * that have been taken from it)
+     */
+    public int peek() {
+        return next;
+    }
+
+    /**
+     * @return the sequence in use on this thread, or null if components are taking IDs from the shared counter
+     */
+    public static ComponentIds current() {
+        return current.get();
+    }
+
+    // the component is not yet fully constructed, so the listener is given its ID separately
+    static int nextId(Component created) {
+        ComponentIds ids = current.get();
+        if (ids == null)
+            return globalNext.getAndIncrement();
+        if (ids.next == GLOBAL_BASE)
+            throw new AssertionError("Too many components created in one game : " + GLOBAL_BASE);
+        int id = ids.next++;
+        if (ids.onCreate != null)
+            ids.onCreate.accept(created, id);
+        return id;
+    }
+
+    /**
+     * Runs the task with components created on this thread taking their IDs from this sequence. Calls may be nested;
+     * the sequence in use before is put back afterwards.
+     */
+    public <R> R use(Supplier<R> task) {
+        return runWith(this, task);
+    }
+
+    public void use(Runnable task) {
+        runWith(this, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the task with components created on this thread taking their IDs from the shared counter, even if a game's
+     * sequence is in use. This is for components that outlive the game being played, for example those held in static
+     * fields or shared caches, which must not clash with the IDs of other games.
+     */
+    public static <R> R global(Supplier<R> task) {
+        return runWith(null, task);
+    }
+
+    private static <R> R runWith(ComponentIds ids, Supplier<R> task) {
+        ComponentIds previous = current.get();
+        current.set(ids);
+        try {
+            return task.get();
+        } finally {
+            current.set(previous);
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package core.components;
 
 import core.CoreConstants;
+import core.SnapshotReader;
+import core.SnapshotWriter;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.JSONCache;
+
+import utilities.Zobrist;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -14,7 +17,7 @@ import java.util.List;
 import java.util.Objects;
 
 public class Counter extends Component {
-    protected int[] values;
+    protected int[] values;  // Optional table of values indexed by valueIdx; never modified, so shared between copies
 
     protected int valueIdx;  // Current value of this counter
     protected int minimum;  // Minimum value (inclusive)
@@ -51,7 +54,7 @@ public class Counter extends Component {
     }
 
     public Counter copy() {
-        Counter copy = new Counter(values != null? values.clone() : null, valueIdx, minimum, maximum, componentName, componentID);
+        Counter copy = new Counter(values, valueIdx, minimum, maximum, componentName, componentID);
         copyComponentTo(copy);
         return copy;
     }
@@ -140,7 +143,7 @@ public class Counter extends Component {
     }
 
     /**
-     * @return the value array of this counter.
+     * @return the value array of this counter. This is shared with all copies of the counter and must not be modified.
      */
     public int[] getValues() {
         return values;
@@ -177,12 +180,11 @@ public class Counter extends Component {
      */
     public static List<Counter> loadCounters(String filename)
     {
-        JSONParser jsonParser = new JSONParser();
         ArrayList<Counter> counters = new ArrayList<>();
 
-        try (FileReader reader = new FileReader(filename)) {
+        try {
 
-            JSONArray data = (JSONArray) jsonParser.parse(reader);
+            JSONArray data = (JSONArray) JSONCache.parse(filename);
             for(Object o : data) {
 
                 Counter newCounter = new Counter();
@@ -231,6 +233,24 @@ public class Counter extends Component {
         return result;
     }
 
+    @Override
+    public long getStateHash() {
+        return Zobrist.key(componentID, valueIdx, ((long) minimum << 32) ^ maximum);
+    }
+
+    /**
+     * Writes the current value and bounds of this counter to a state snapshot.
+     */
+    public void writeSnapshot(SnapshotWriter out) {
+        out.putInt(valueIdx).putInt(minimum).putInt(maximum);
+    }
+
+    public void readSnapshot(SnapshotReader in) {
+        valueIdx = in.getInt();
+        minimum = in.getInt();
+        maximum = in.getInt();
+    }
+
     @Override
     public String toString() {
         return "" + getValue();
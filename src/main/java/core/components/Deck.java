@@ -1,16 +1,21 @@
 package core.components;
 
 import core.CoreConstants;
+import core.SnapshotReader;
+import core.SnapshotWriter;
 import core.interfaces.IComponentContainer;
 import org.jetbrains.annotations.NotNull;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.JSONCache;
+import utilities.Zobrist;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
 import static core.CoreConstants.VisibilityMode;
 
@@ -27,6 +32,15 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     protected int capacity;  // Capacity of the deck (maximum number of elements)
     protected List<T> components;  // List of components in this deck
     protected VisibilityMode visibility;
+    // If true, copies of this deck share the list of components (and the components themselves) with it, and the
+    // list is only duplicated when either side changes it. Components in such a deck must be treated as immutable.
+    protected boolean copyOnWrite;
+    // In copy-on-write mode, the number of decks sharing the components list (see ShareCount); otherwise null
+    private ShareCount sharing;
+    // Order-independent hash of the components in the deck (the sum of a key per component), updated as components
+    // are added and removed; only valid if contentHashValid is true
+    private long contentHash;
+    private boolean contentHashValid = true;
 
     public Deck(String name, VisibilityMode visibility) {
         this(name, -1, visibility);
@@ -34,7 +48,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     public Deck(String name, int ownerId, VisibilityMode visibility) {
         super(CoreConstants.ComponentType.DECK, name);
-        this.components = new LinkedList<>();   // we always add new components to element 0...so an ArrayList is inefficient
+        this.components = new DeckList<>();   // we always add new components to element 0, so this is a ring buffer
         this.ownerId = ownerId;
         this.capacity = -1;
         this.visibility = visibility;
@@ -42,7 +56,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     protected Deck(String name, int ownerId, int ID, VisibilityMode visibility) {
         super(CoreConstants.ComponentType.DECK, name, ID);
-        this.components = new LinkedList<>();
+        this.components = new DeckList<>();
         this.capacity = -1;
         this.ownerId = ownerId;
         this.visibility = visibility;
@@ -78,12 +92,11 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return List of Deck objects.
      */
     public static List<Deck<Card>> loadDecksOfCards(String filename) {
-        JSONParser jsonParser = new JSONParser();
         ArrayList<Deck<Card>> decks = new ArrayList<>();
 
-        try (FileReader reader = new FileReader(filename)) {
+        try {
 
-            JSONArray data = (JSONArray) jsonParser.parse(reader);
+            JSONArray data = (JSONArray) JSONCache.parse(filename);
             for (Object o : data) {
                 Deck<Card> newDeck = loadDeckOfCards((JSONObject) o);
                 decks.add(newDeck);
@@ -142,8 +155,10 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public T pick(int idx) {
         if (!components.isEmpty() && idx < components.size() && idx >= 0) {
+            ensureOwnComponents();
             T c = components.get(idx);
             components.remove(idx);
+            contentHash -= elementKey(c);
             return c;
         }
         return null;
@@ -205,7 +220,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public boolean add(T c) {
         if (c != null) {
-            c.setOwnerId(ownerId);
+            setOwnerOf(c, ownerId);
         }
         return add(c, 0);
     }
@@ -220,8 +235,10 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     public boolean add(T c, int index) {
         if (c == null)
             throw new IllegalArgumentException("null cannot be added to a Deck");
-        c.setOwnerId(ownerId);
+        setOwnerOf(c, ownerId);
+        ensureOwnComponents();
         components.add(index, c);
+        contentHash += elementKey(c);
         return capacity == -1 || components.size() <= capacity;
     }
 
@@ -254,9 +271,11 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(Deck<T> d, int index) {
+        ensureOwnComponents();
         components.addAll(index, d.components);
         for (T comp : d.components) {
-            comp.setOwnerId(ownerId);
+            setOwnerOf(comp, ownerId);
+            contentHash += elementKey(comp);
         }
         return capacity == -1 || components.size() <= capacity;
     }
@@ -266,9 +285,11 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     public boolean add(Collection<T> d, int index) {
+        ensureOwnComponents();
         components.addAll(index, d);
         for (T comp : d) {
-            comp.setOwnerId(ownerId);
+            setOwnerOf(comp, ownerId);
+            contentHash += elementKey(comp);
         }
         return capacity == -1 || components.size() <= capacity;
     }
@@ -280,7 +301,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return true if successfully removed, false otherwise.
      */
     public boolean remove(T component) {
-        component.setOwnerId(-1);
+        setOwnerOf(component, -1);
         int index = components.indexOf(component);
         if (index != -1) {
             return remove(index);
@@ -296,8 +317,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public boolean remove(int idx) {
         if (idx >= 0 && idx < components.size()) {
-            components.get(idx).setOwnerId(-1);
-            components.remove(idx);
+            ensureOwnComponents();
+            setOwnerOf(components.get(idx), -1);
+            contentHash -= elementKey(components.remove(idx));
             return true;
         }
         return false;
@@ -315,14 +337,45 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         return components.contains(card);
     }
 
+    /**
+     * Writes the contents of the deck to a state snapshot, from top to bottom.
+     *
+     * @param encode - maps each component to an int that decode() in readSnapshot() will map back to it.
+     */
+    public void writeSnapshot(SnapshotWriter out, ToIntFunction<T> encode) {
+        out.putInt(components.size());
+        for (T component : components)
+            out.putInt(encode.applyAsInt(component));
+    }
+
+    /**
+     * Replaces the contents of the deck with those in a state snapshot.
+     *
+     * @param decode - maps each int written by writeSnapshot() back to its component.
+     */
+    public void readSnapshot(SnapshotReader in, IntFunction<T> decode) {
+        clear();
+        int size = in.getInt();
+        for (int i = 0; i < size; i++)
+            addToBottom(decode.apply(in.getInt()));
+    }
+
     /**
      * Removes all the components from the deck.
      */
     public void clear() {
         for (T comp : components) {
-            comp.setOwnerId(-1);
+            setOwnerOf(comp, -1);
+        }
+        if (sharing != null && sharing.isShared()) {
+            sharing.release();
+            sharing = new ShareCount();
+            components = new DeckList<>();
+        } else {
+            components.clear();
         }
-        components.clear();
+        contentHash = 0;
+        contentHashValid = true;
     }
 
     // Getters, Setters
@@ -331,6 +384,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * Shuffles the deck with a specific random object.
      */
     public void shuffle(Random rnd) {
+        ensureOwnComponents();
         Collections.shuffle(components, rnd);
     }
 
@@ -342,6 +396,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param rnd       - random number generator used for shuffling
      */
     public void shuffle(int fromIndex, int toIndex, Random rnd) {
+        ensureOwnComponents();
         List<T> subList = components.subList(fromIndex, toIndex);
         Collections.shuffle(subList, rnd);
         int i = 0;
@@ -352,13 +407,23 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     /**
-     * @return all the components in this deck.
+     * @return all the components in this deck. The list may be changed directly; in copy-on-write mode this deck
+     * first takes a private copy of it if it is shared with a copy of this deck. Code that only reads the components
+     * should use forEachComponent(), get() or peek(), which never copy the list.
      */
     @Override
     public List<T> getComponents() {
+        ensureOwnComponents();
+        contentHashValid = false;  // we cannot track changes made directly to the list
         return components;
     }
 
+    @Override
+    public void forEachComponent(Consumer<? super T> action) {
+        for (int i = 0; i < components.size(); i++)
+            action.accept(components.get(i));
+    }
+
     /**
      * Set the components in this deck.
      *
@@ -366,9 +431,89 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public void setComponents(List<T> components) {
         this.components = components;
+        if (sharing != null) {
+            sharing.release();
+            sharing = new ShareCount();
+        }
+        this.contentHashValid = false;
         for (T comp : components) {
-            comp.setOwnerId(ownerId);
+            setOwnerOf(comp, ownerId);
+        }
+    }
+
+    /**
+     * Turns copy-on-write mode on or off for this deck and all future copies of it.
+     * In this mode copying the deck is O(1): the copy shares the list of components with the original, and whichever
+     * of the two is changed first takes a private copy of the list. The components themselves are never copied, so
+     * this must only be used for decks of components that are not modified once created (e.g. most cards).
+     * Component owner IDs are not updated by decks in this mode for the same reason, and copy(playerId) does not
+     * hide components; use a normal deck (or PartialObservableDeck) where that is needed.
+     *
+     * @param copyOnWrite - true to share components between copies.
+     */
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        if (copyOnWrite && sharing == null) {
+            sharing = new ShareCount();
+        } else if (!copyOnWrite && sharing != null) {
+            ensureOwnComponents();
+            sharing = null;
         }
+        this.copyOnWrite = copyOnWrite;
+    }
+
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    /**
+     * Takes a private copy of the list of components if it is currently shared with another deck.
+     * Must be called before any structural change to the list.
+     */
+    protected void ensureOwnComponents() {
+        if (sharing != null && sharing.isShared()) {
+            components = new DeckList<>(components);
+            sharing.release();  // only once we have finished reading the shared list
+            sharing = new ShareCount();
+        }
+    }
+
+    private static long elementKey(Component c) {
+        return Zobrist.mix(c.getComponentID());
+    }
+
+    /**
+     * Hash of the components in this deck, regardless of their order (so a deck hashes the same before and after
+     * it is shuffled; see getOrderedStateHash() for decks whose order matters). This is maintained in O(1) as components are added and removed through the methods of this
+     * class, and only recalculated in full after getComponents() may have been used to change the deck directly.
+     */
+    @Override
+    public long getStateHash() {
+        if (!contentHashValid) {
+            long h = 0;
+            for (T c : components)
+                h += elementKey(c);
+            contentHash = h;
+            contentHashValid = true;
+        }
+        return Zobrist.key(componentID, contentHash);
+    }
+
+    /**
+     * Hash of the components in this deck in their current order, for decks whose order is part of the state (such
+     * as a draw pile that the players can see or have arranged), where getStateHash() would let two states that only
+     * differ in what is drawn next share a key. A game's _getStateHash() should use this instead for such decks.
+     * Unlike getStateHash() this is calculated in full on each call.
+     */
+    public long getOrderedStateHash() {
+        long h = 0;
+        for (int i = 0; i < components.size(); i++)
+            h += Zobrist.key(i, elementKey(components.get(i)));
+        return Zobrist.key(componentID, h ^ components.size());
+    }
+
+    private void setOwnerOf(T component, int owner) {
+        if (!copyOnWrite)
+            component.setOwnerId(owner);
     }
 
     /**
@@ -401,8 +546,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param component - new component.
      */
     public void setComponent(int idx, T component) {
-        component.setOwnerId(ownerId);
-        components.set(idx, component);
+        setOwnerOf(component, ownerId);
+        ensureOwnComponents();
+        contentHash += elementKey(component) - elementKey(components.set(idx, component));
     }
 
     /**
@@ -437,12 +583,18 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck) {
-        List<T> newComponents = new LinkedList<>();
-        for (T c : components) {
-            newComponents.add((T) c.copy());
+        if (copyOnWrite) {
+            shareComponentsWith(deck);
+        } else {
+            List<T> newComponents = new DeckList<>(components.size());
+            for (T c : components) {
+                newComponents.add((T) c.copy());
+            }
+            deck.components = newComponents;
         }
-        deck.components = newComponents;
         deck.capacity = capacity;
+        deck.contentHash = contentHash;
+        deck.contentHashValid = contentHashValid;
 
         //copy type and component.
         copyComponentTo(deck);
@@ -451,17 +603,29 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck, int playerId) {
-        List<T> newComponents = new LinkedList<>();
-        for (T c : components) {
-            newComponents.add((T) c.copy(playerId));
+        if (copyOnWrite) {
+            shareComponentsWith(deck);
+        } else {
+            List<T> newComponents = new DeckList<>(components.size());
+            for (T c : components) {
+                newComponents.add((T) c.copy(playerId));
+            }
+            deck.components = newComponents;
         }
-        deck.components = newComponents;
         deck.capacity = capacity;
+        deck.contentHashValid = false;  // the copied components may differ, e.g. if hidden from playerId
 
         //copy type and component.
         copyComponentTo(deck);
     }
 
+    // Nothing is written to this deck, as it may be copied by several threads at once
+    private void shareComponentsWith(Deck<T> deck) {
+        deck.components = components;
+        deck.copyOnWrite = true;
+        deck.sharing = sharing.share();
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,139 @@
+package core.components;
+
+import java.util.*;
+
+/**
+ * The list of components held by a Deck. This is a ring buffer, so that adding or removing at either end (the top
+ * of a deck is index 0) is O(1), as with the LinkedList that decks used to hold, but get() and set() at any index
+ * are also O(1), and there is one array rather than a node per component to allocate when a deck is copied.
+ * Adding or removing in the middle moves the elements on whichever side of the index is shorter.
+ */
+final class DeckList<T> extends AbstractList<T> implements RandomAccess {
+
+    private Object[] elements;  // length is always a power of 2
+    private int head, size;
+
+    DeckList() {
+        this(8);
+    }
+
+    DeckList(int expectedSize) {
+        elements = new Object[capacityFor(expectedSize)];
+    }
+
+    DeckList(Collection<? extends T> contents) {
+        this(contents.size());
+        for (T t : contents)
+            elements[size++] = t;
+    }
+
+    private static int capacityFor(int n) {
+        return Math.max(8, Integer.highestOneBit(Math.max(n, 1) - 1) << 1);
+    }
+
+    private int slot(int index) {
+        return (head + index) & (elements.length - 1);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= elements.length) return;
+        Object[] newElements = new Object[capacityFor(required)];
+        for (int i = 0; i < size; i++)
+            newElements[i] = elements[slot(i)];
+        elements = newElements;
+        head = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return (T) elements[slot(index)];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T set(int index, T element) {
+        Objects.checkIndex(index, size);
+        int s = slot(index);
+        T old = (T) elements[s];
+        elements[s] = element;
+        return old;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        Objects.checkIndex(index, size + 1);
+        ensureCapacity(size + 1);
+        modCount++;
+        if (index < size / 2) {
+            // move the elements before index one place towards the front
+            head = (head - 1) & (elements.length - 1);
+            for (int i = 0; i < index; i++)
+                elements[slot(i)] = elements[slot(i + 1)];
+        } else {
+            for (int i = size; i > index; i--)
+                elements[slot(i)] = elements[slot(i - 1)];
+        }
+        elements[slot(index)] = element;
+        size++;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> c) {
+        Objects.checkIndex(index, size + 1);
+        Object[] added = c.toArray();
+        int n = added.length;
+        if (n == 0) return false;
+        ensureCapacity(size + n);
+        modCount++;
+        if (index < size / 2) {
+            head = (head - n) & (elements.length - 1);
+            for (int i = 0; i < index; i++)
+                elements[slot(i)] = elements[slot(i + n)];
+        } else {
+            for (int i = size - 1; i >= index; i--)
+                elements[slot(i + n)] = elements[slot(i)];
+        }
+        for (int i = 0; i < n; i++)
+            elements[slot(index + i)] = added[i];
+        size += n;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        return addAll(size, c);
+    }
+
+    @Override
+    public T remove(int index) {
+        T old = get(index);
+        modCount++;
+        if (index < size / 2) {
+            for (int i = index; i > 0; i--)
+                elements[slot(i)] = elements[slot(i - 1)];
+            elements[head] = null;
+            head = (head + 1) & (elements.length - 1);
+        } else {
+            for (int i = index; i < size - 1; i++)
+                elements[slot(i)] = elements[slot(i + 1)];
+            elements[slot(size - 1)] = null;
+        }
+        size--;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        Arrays.fill(elements, null);
+        head = 0;
+        size = 0;
+    }
+}
@@ -1,14 +1,15 @@
 package core.components;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
 
 import core.CoreConstants;
+import core.SnapshotReader;
+import core.SnapshotWriter;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.JSONCache;
 
 import static core.components.Dice.Type.*;
 
@@ -31,7 +32,7 @@ public class Dice extends Component {
             return dCustom;
         }
     }
-    public static Map<Type, Dice> StandardDice = new HashMap<Type, Dice>() {{
+    public static Map<Type, Dice> StandardDice = ComponentIds.global(() -> new HashMap<Type, Dice>() {{
         put(d3, new Dice(d3));
         put(d4, new Dice(d4));
         put(d6, new Dice(d6));
@@ -39,7 +40,7 @@ public class Dice extends Component {
         put(d10, new Dice(d10));
         put(d12, new Dice(d12));
         put(d20, new Dice(d20));
-    }};
+    }});
 
     public final Type type;
     public final int nSides;
@@ -96,6 +97,17 @@ public class Dice extends Component {
         value = r.nextInt(this.nSides) + 1;
     }
 
+    /**
+     * Writes the value shown by this die to a state snapshot.
+     */
+    public void writeSnapshot(SnapshotWriter out) {
+        out.putInt(value);
+    }
+
+    public void readSnapshot(SnapshotReader in) {
+        setValue(in.getInt());
+    }
+
     @Override
     public Dice copy() {
         Dice copy = new Dice(type, nSides, value, componentID);
@@ -110,12 +122,11 @@ public class Dice extends Component {
      * @return - List of Dice objects.
      */
     public static List<Dice> loadDice(String filename) {
-        JSONParser jsonParser = new JSONParser();
         ArrayList<Dice> dice = new ArrayList<>();
 
-        try (FileReader reader = new FileReader(filename)) {
+        try {
 
-            JSONArray data = (JSONArray) jsonParser.parse(reader);
+            JSONArray data = (JSONArray) JSONCache.parse(filename);
             for (Object o : data) {
                 dice.add(loadDie((JSONObject) o));
             }
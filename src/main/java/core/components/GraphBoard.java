@@ -1,15 +1,16 @@
 package core.components;
 
 import core.CoreConstants;
+import core.SnapshotReader;
+import core.SnapshotWriter;
 import core.interfaces.IComponentContainer;
 import core.properties.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.JSONCache;
 import utilities.Hash;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
 
@@ -20,6 +21,11 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
 
     // List of nodes in the board graph, mapping component ID to object reference
     protected Map<Integer, BoardNode> boardNodes;
+    // If true, copies of this board share its nodes, and the nodes are only copied when a board that shares them
+    // hands one out or changes the graph
+    protected boolean copyOnWrite;
+    // In copy-on-write mode, the number of boards sharing boardNodes (see ShareCount); otherwise null
+    private ShareCount sharing;
 
     public GraphBoard(String name)
     {
@@ -53,6 +59,25 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     public GraphBoard copy()
     {
         GraphBoard b = new GraphBoard(componentName, componentID);
+        if (copyOnWrite) {
+            // nothing is written to this board, as it may be copied by several threads at once
+            b.boardNodes = boardNodes;
+            b.copyOnWrite = true;
+            b.sharing = sharing.share();
+        } else {
+            b.boardNodes = copyNodes(boardNodes);
+        }
+        // Copy properties
+        copyComponentTo(b);
+        return b;
+    }
+
+    /**
+     * Deep copies the given nodes, with the neighbour references of the copies pointing to the copied nodes.
+     * @param boardNodes - nodes to copy, mapped by component ID.
+     * @return - the copied nodes, mapped by component ID.
+     */
+    private static Map<Integer, BoardNode> copyNodes(Map<Integer, BoardNode> boardNodes) {
         HashMap<Integer, BoardNode> nodeCopies = new HashMap<>();
         // Copy board nodes
         for (BoardNode bn: boardNodes.values()) {
@@ -70,11 +95,132 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
                 bnCopy.addNeighbour(nodeCopies.get(e.getKey().componentID), e.getValue());
             }
         }
-        // Assign new neighbours
-        b.setBoardNodes(new ArrayList<>(nodeCopies.values()));
-        // Copy properties
-        copyComponentTo(b);
-        return b;
+        return nodeCopies;
+    }
+
+    /**
+     * Turns copy-on-write mode on or off for this board and all future copies of it.
+     * In this mode copying the board is O(1), as the copy shares the nodes of the original. The nodes are deep copied
+     * (as in normal mode) by the first board that hands out a node, or changes its graph, while they are shared; so
+     * nodes obtained from the board may be changed as usual. A copy of the state that never looks at the board (such as
+     * most copies in a search) never copies its nodes. Nodes obtained from a board before it was copied must not be
+     * changed after the copy; get them from the board again.
+     * @param copyOnWrite - true to share nodes between copies.
+     */
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        if (copyOnWrite && sharing == null) {
+            sharing = new ShareCount();
+        } else if (!copyOnWrite && sharing != null) {
+            ensureOwnNodes();
+            sharing = null;
+        }
+        this.copyOnWrite = copyOnWrite;
+    }
+
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    /**
+     * Takes a private deep copy of the nodes if they are currently shared with another board.
+     * Must be called before any change to the graph.
+     */
+    protected void ensureOwnNodes() {
+        if (sharing != null && sharing.isShared()) {
+            boardNodes = copyNodes(boardNodes);
+            sharing.release();  // only once we have finished reading the shared nodes
+            sharing = new ShareCount();
+        }
+    }
+
+    // Maps a node that may belong to a shared set of nodes to this board's own copy of it
+    private BoardNode ownNode(BoardNode bn) {
+        return boardNodes.getOrDefault(bn.componentID, bn);
+    }
+
+    /**
+     * Writes the owner and the properties of each node to a state snapshot, in order of node component ID.
+     * Properties holding booleans, numbers, strings and integer arrays or lists are written, as these are the kinds
+     * that games change during play; others (colours, positions and the like) are loaded with the board, and are left
+     * as they are.
+     */
+    public void writeSnapshot(SnapshotWriter out) {
+        List<Integer> ids = new ArrayList<>(boardNodes.keySet());
+        Collections.sort(ids);
+        out.putInt(ids.size());
+        for (int id : ids) {
+            BoardNode node = boardNodes.get(id);
+            out.putInt(node.getOwnerId());
+            List<Property> properties = new ArrayList<>();
+            for (Property p : node.getProperties().values()) {
+                if (snapshotType(p) >= 0) properties.add(p);
+            }
+            properties.sort(Comparator.comparingInt(Property::getHashKey));
+            out.putInt(properties.size());
+            for (Property p : properties)
+                writeProperty(out, p);
+        }
+    }
+
+    /**
+     * Reads the node owners and properties written by writeSnapshot() into a board with the same nodes. Properties
+     * in the snapshot replace those with the same name on the nodes.
+     */
+    public void readSnapshot(SnapshotReader in) {
+        int size = in.getInt();
+        if (size != boardNodes.size())
+            throw new IllegalArgumentException("Snapshot of a board with " + size + " nodes cannot be read into one with " + boardNodes.size());
+        ensureOwnNodes();
+        List<Integer> ids = new ArrayList<>(boardNodes.keySet());
+        Collections.sort(ids);
+        for (int id : ids) {
+            BoardNode node = boardNodes.get(id);
+            node.setOwnerId(in.getInt());
+            for (int i = in.getInt(); i > 0; i--)
+                node.setProperty(readProperty(in));
+        }
+    }
+
+    // The tag written before the value of each kind of property in a snapshot, or -1 for kinds that are not written
+    private static int snapshotType(Property p) {
+        if (p instanceof PropertyBoolean) return 0;
+        if (p instanceof PropertyInt) return 1;
+        if (p instanceof PropertyLong) return 2;
+        if (p instanceof PropertyString) return 3;
+        if (p instanceof PropertyIntArray) return 4;
+        if (p instanceof PropertyIntArrayList) return 5;
+        return -1;
+    }
+
+    private static void writeProperty(SnapshotWriter out, Property p) {
+        int type = snapshotType(p);
+        out.putString(p.getHashString()).putInt(type);
+        switch (type) {
+            case 0 -> out.putBoolean(((PropertyBoolean) p).value);
+            case 1 -> out.putInt(((PropertyInt) p).value);
+            case 2 -> out.putLong(((PropertyLong) p).value);
+            case 3 -> out.putString(((PropertyString) p).value);
+            case 4 -> out.putIntArray(((PropertyIntArray) p).getValues());
+            default -> out.putIntArray(((PropertyIntArrayList) p).getValues().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    private static Property readProperty(SnapshotReader in) {
+        String name = in.getString();
+        int type = in.getInt();
+        switch (type) {
+            case 0: return new PropertyBoolean(name, in.getBoolean());
+            case 1: return new PropertyInt(name, in.getInt());
+            case 2: return new PropertyLong(name, in.getLong());
+            case 3: return new PropertyString(name, in.getString());
+            case 4: return new PropertyIntArray(name, in.getIntArray());
+            case 5:
+                PropertyIntArrayList list = new PropertyIntArrayList(name, new JSONArray());
+                for (int v : in.getIntArray())
+                    list.getValues().add(v);
+                return list;
+            default: throw new IllegalArgumentException("Unknown property type " + type + " in snapshot");
+        }
     }
 
     /**
@@ -84,6 +230,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
      * @return - node matching property.
      */
     public BoardNode getNodeByProperty(int prop_id, Property p) {
+        ensureOwnNodes();
         for (BoardNode n : boardNodes.values()) {
             Property prop = n.getProperty(prop_id);
             if(prop != null)
@@ -110,6 +257,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
      * @return the list of board nodes
      */
     public Collection<BoardNode> getBoardNodes() {
+        ensureOwnNodes();
         return boardNodes.values();
     }
 
@@ -119,6 +267,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
      * @return - node matching ID.
      */
     public BoardNode getNodeByID(int id) {
+        ensureOwnNodes();
         return boardNodes.get(id);
     }
 
@@ -127,23 +276,33 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
      * @param boardNodes - new list of board nodes.
      */
     public void setBoardNodes(List<BoardNode> boardNodes) {
+        ensureOwnNodes();
         for (BoardNode bn: boardNodes) {
             this.boardNodes.put(bn.componentID, bn);
         }
     }
     public void setBoardNodes(Map<Integer, BoardNode> boardNodes) {
         this.boardNodes = boardNodes;
+        if (sharing != null) {
+            sharing.release();
+            sharing = new ShareCount();
+        }
     }
 
     public void addBoardNode(BoardNode bn) {
+        ensureOwnNodes();
         this.boardNodes.put(bn.getComponentID(), bn);
     }
 
     public void removeBoardNode(BoardNode bn) {
+        ensureOwnNodes();
         this.boardNodes.remove(bn.getComponentID());
     }
 
     public void breakConnection(BoardNode bn1, BoardNode bn2) {
+        ensureOwnNodes();
+        bn1 = ownNode(bn1);
+        bn2 = ownNode(bn2);
         bn1.removeNeighbour(bn2);
         bn2.removeNeighbour(bn1);
 
@@ -168,6 +327,9 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     }
 
     public void addConnection(BoardNode bn1, BoardNode bn2) {
+        ensureOwnNodes();
+        bn1 = ownNode(bn1);
+        bn2 = ownNode(bn2);
         bn1.addNeighbour(bn2);
         bn2.addNeighbour(bn1);
         if (!boardNodes.containsKey(bn1.componentID)) {
@@ -179,6 +341,9 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     }
 
     public void addConnection(BoardNode bn1, BoardNode bn2, int edgeValue) {
+        ensureOwnNodes();
+        bn1 = ownNode(bn1);
+        bn2 = ownNode(bn2);
         bn1.addNeighbour(bn2, edgeValue);
         bn2.addNeighbour(bn1, edgeValue);
         if (!boardNodes.containsKey(bn1.componentID)) {
@@ -190,12 +355,14 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     }
 
     public void addConnection(int bn1id, int bn2id) {
+        ensureOwnNodes();
         BoardNode bn1 = boardNodes.get(bn1id);
         BoardNode bn2 = boardNodes.get(bn2id);
         addConnection(bn1, bn2);
     }
 
     public void addConnection(int bn1id, int bn2id, int edgeValue) {
+        ensureOwnNodes();
         BoardNode bn1 = boardNodes.get(bn1id);
         BoardNode bn2 = boardNodes.get(bn2id);
         addConnection(bn1, bn2, edgeValue);
@@ -208,12 +375,11 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
      */
     public static List<GraphBoard> loadBoards(String filename)
     {
-        JSONParser jsonParser = new JSONParser();
         ArrayList<GraphBoard> graphBoards = new ArrayList<>();
 
-        try (FileReader reader = new FileReader(filename)) {
+        try {
 
-            JSONArray data = (JSONArray) jsonParser.parse(reader);
+            JSONArray data = (JSONArray) JSONCache.parse(filename);
             for(Object o : data) {
                 GraphBoard newGraphBoard = new GraphBoard();
                 newGraphBoard.loadBoard((JSONObject) o);
@@ -237,6 +403,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
         String verticesKey = (String) board.get("verticesKey");
         String neighboursKey = (String) board.get("neighboursKey");
         int maxNeighbours = (int) (long) board.get("maxNeighbours");
+        ensureOwnNodes();
 
         properties.put(Hash.GetInstance().hash("boardType"), new PropertyString("boardType", boardType));
         if (board.get("img") != null) {
@@ -293,6 +460,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     }
 
     public Map<Integer, BoardNode> getBoardNodeMap() {
+        ensureOwnNodes();
         return boardNodes;
     }
 
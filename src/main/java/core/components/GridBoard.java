@@ -1,30 +1,37 @@
 package core.components;
 
 import core.CoreConstants;
-import core.interfaces.IComponentContainer;
+import core.interfaces.IGridBoard;
 import core.properties.PropertyString;
 import core.properties.PropertyVector2D;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.JSONCache;
 import utilities.Pair;
 import utilities.Vector2D;
+import utilities.Zobrist;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static core.CoreConstants.imgHash;
 import static utilities.Utils.getNeighbourhood;
 
-public class GridBoard<T extends Component> extends Component implements IComponentContainer<T> {
+public class GridBoard<T extends Component> extends Component implements IGridBoard<T> {
 
     private int width;  // Width of the board
     private int height;  // Height of the board
 
     private Component[][] grid;  // 2D grid representation of this board
+    // Rows are shared between copies of a board until written to. rowSharing[y] counts the boards holding row y (see
+    // ShareCount), and a board only changes a row in place while no other board holds it
+    private ShareCount[] rowSharing;
+    // Zobrist hash of the contents of the grid, updated as elements are set; only valid if stateHashValid is true
+    private long stateHash;
+    private boolean stateHashValid;
 
     protected GridBoard() {
         super(CoreConstants.ComponentType.BOARD);
@@ -35,6 +42,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = width;
         this.height = height;
         this.grid = new Component[height][width];
+        ownAllRows();
     }
 
     public GridBoard(int width, int height, T defaultValue) {
@@ -48,6 +56,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = grid[0].length;
         this.height = grid.length;
         this.grid = grid;
+        ownAllRows();
     }
 
     protected GridBoard(Component[][] grid, int ID) {
@@ -55,6 +64,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = grid[0].length;
         this.height = grid.length;
         this.grid = grid;
+        ownAllRows();
     }
 
     protected GridBoard(int width, int height, int ID) {
@@ -62,6 +72,22 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = width;
         this.height = height;
         this.grid = new Component[height][width];
+        ownAllRows();
+    }
+
+    // For copy(), which shares the rows of the original rather than allocating a grid of its own
+    private GridBoard(int width, int height, int ID, boolean allocateGrid) {
+        super(CoreConstants.ComponentType.BOARD, ID);
+        initialiseSize(width, height, allocateGrid);
+    }
+
+    private void initialiseSize(int width, int height, boolean allocateGrid) {
+        this.width = width;
+        this.height = height;
+        if (allocateGrid) {
+            this.grid = new Component[height][width];
+            ownAllRows();
+        }
     }
 
     public GridBoard(GridBoard<T> orig) {
@@ -69,6 +95,32 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = orig.getWidth();
         this.height = orig.getHeight();
         this.grid = orig.grid.clone();
+        shareRowsWith(orig);
+    }
+
+    // For a newly allocated grid, whose rows are not shared with any other board
+    private void ownAllRows() {
+        rowSharing = new ShareCount[height];
+        for (int y = 0; y < height; y++)
+            rowSharing[y] = new ShareCount();
+    }
+
+    // Only the (atomic) counts of orig are written to, as it may be copied by several threads at once
+    private void shareRowsWith(GridBoard<T> orig) {
+        rowSharing = new ShareCount[height];
+        for (int y = 0; y < height; y++)
+            rowSharing[y] = orig.rowSharing[y].share();
+    }
+
+    /**
+     * Takes a private copy of row y if it is currently shared with a copy of this board.
+     */
+    private void ensureOwnRow(int y) {
+        if (rowSharing[y].isShared()) {
+            grid[y] = grid[y].clone();
+            rowSharing[y].release();  // only once we have finished reading the shared row
+            rowSharing[y] = new ShareCount();
+        }
     }
 
     /**
@@ -122,6 +174,8 @@ public class GridBoard<T extends Component> extends Component implements ICompon
             if (w >= 0) System.arraycopy(this.grid[i], 0, grid[i + offsetY], offsetX, w);
         }
         this.grid = grid;
+        ownAllRows();
+        this.stateHashValid = false;
     }
 
     /**
@@ -134,6 +188,9 @@ public class GridBoard<T extends Component> extends Component implements ICompon
      */
     public boolean setElement(int x, int y, T value) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
+            ensureOwnRow(y);
+            if (stateHashValid)
+                stateHash ^= cellKey(x, y, grid[y][x]) ^ cellKey(x, y, value);
             grid[y][x] = value;
             return true;
         } else
@@ -153,7 +210,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
      */
     public T getElement(int x, int y) {
         if (x >= 0 && x < width && y >= 0 && y < height)
-            return (T)grid[y][x];
+            return element(grid[y][x]);
         return null;
     }
 
@@ -162,11 +219,15 @@ public class GridBoard<T extends Component> extends Component implements ICompon
     }
 
     /**
-     * Retrieves the grid.
+     * Retrieves the grid. As the caller may modify the array returned, any rows shared with copies of this board
+     * are copied first.
      *
      * @return - 2D grid.
      */
     public Component[][] getGridValues() {
+        for (int y = 0; y < height; y++)
+            ensureOwnRow(y);
+        stateHashValid = false;  // we cannot track changes made directly to the array
         return grid;
     }
 
@@ -189,12 +250,12 @@ public class GridBoard<T extends Component> extends Component implements ICompon
      * @return - new grid with the same elements and correct orientation.
      */
     public Component[][] rotate(int orientation) {
-        GridBoard<T> copy = copy();
+        Component[][] rotated = copy().getGridValues();
         orientation %= 4;  // Maximum 4 sides to a grid
         for (int i = 0; i < orientation; i++) {
-            copy.grid = rotateClockWise(copy.grid);
+            rotated = rotateClockWise(rotated);
         }
-        return copy.grid;
+        return rotated;
     }
 
     /**
@@ -231,11 +292,12 @@ public class GridBoard<T extends Component> extends Component implements ICompon
 
     @Override
     public GridBoard<T> copy() {
-        Component[][] gridCopy = new Component[getHeight()][getWidth()];
-        for (int i = 0; i < height; i++) {
-            if (width >= 0) System.arraycopy(grid[i], 0, gridCopy[i], 0, width);
-        }
-        GridBoard<T> g = new GridBoard<>(gridCopy, componentID);
+        // Rows are shared with the copy, and copied by whichever board writes to them first
+        GridBoard<T> g = new GridBoard<>(width, height, componentID, false);
+        g.grid = grid.clone();
+        g.shareRowsWith(this);
+        g.stateHash = stateHash;
+        g.stateHashValid = stateHashValid;
         copyComponentTo(g);
         return g;
     }
@@ -266,12 +328,11 @@ public class GridBoard<T extends Component> extends Component implements ICompon
      * @return - List of Board objects.
      */
     public static List<GridBoard> loadBoards(String filename) {
-        JSONParser jsonParser = new JSONParser();
         ArrayList<GridBoard> gridBoards = new ArrayList<>();
 
-        try (FileReader reader = new FileReader(filename)) {
+        try {
 
-            JSONArray data = (JSONArray) jsonParser.parse(reader);
+            JSONArray data = (JSONArray) JSONCache.parse(filename);
             for (Object o : data) {
                 GridBoard newGridBoard = new GridBoard();
                 newGridBoard.loadBoard((JSONObject) o);
@@ -302,6 +363,8 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         }
 
         this.grid = new Component[height][width];
+        ownAllRows();
+        this.stateHashValid = false;
 
         JSONArray grids = (JSONArray) board.get("grid");
         int y = 0;
@@ -312,7 +375,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
                     JSONArray row = (JSONArray) o;
                     int x = 0;
                     for (Object o1 : row) {
-                        setElement(x, y, (T) o1);
+                        setElement(x, y, element((Component) o1));
                         x++;
                     }
                     y++;
@@ -321,7 +384,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
                 JSONArray row = (JSONArray) g;
                 int x = 0;
                 for (Object o1 : row) {
-                    setElement(x, y, (T) o1);
+                    setElement(x, y, element((Component) o1));
                     x++;
                 }
                 y++;
@@ -410,13 +473,49 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         return Objects.hash(componentID) + 5 * Arrays.hashCode(flattenGrid());
     }
 
+    // Elements are identified by component ID, so that the hash does not change if an element is modified in place
+    private static long cellKey(int x, int y, Component c) {
+        return c == null ? 0 : Zobrist.key(x, y, c.getComponentID());
+    }
+
+    /**
+     * Zobrist hash of the board: the XOR of a key for each (x, y, element) in the grid. This is updated by
+     * setElement() in O(1), and only recalculated in full after the grid has been changed in some other way.
+     */
+    @Override
+    public long getStateHash() {
+        if (!stateHashValid) {
+            long h = 0;
+            for (int y = 0; y < height; y++)
+                for (int x = 0; x < width; x++)
+                    h ^= cellKey(x, y, grid[y][x]);
+            stateHash = h;
+            stateHashValid = true;
+        }
+        return Zobrist.key(componentID, stateHash);
+    }
+
     @Override
     public List<T> getComponents() {
-        return Arrays.stream(flattenGrid()).map( component -> (T) component).collect(Collectors.toList());
+        return Arrays.stream(flattenGrid()).map(this::element).collect(Collectors.toList());
+    }
+
+    @Override
+    public void forEachComponent(Consumer<? super T> action) {
+        for (Component[] row : grid)
+            for (Component c : row)
+                action.accept(element(c));
     }
 
     @Override
     public CoreConstants.VisibilityMode getVisibilityMode() {
         return CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
     }
+
+    // The grid is a Component[][] because Java cannot create a T[][]. Cells are only written by setElement() and the
+    // constructors, which take a T or a grid the caller vouches holds only Ts, so a cell read back is always a T.
+    @SuppressWarnings("unchecked")
+    private T element(Component c) {
+        return (T) c;
+    }
 }
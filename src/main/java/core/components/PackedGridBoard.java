@@ -0,0 +1,304 @@
+package core.components;
+
+import core.CoreConstants;
+import core.interfaces.IGridBoard;
+import utilities.Vector2D;
+import utilities.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A grid board for games where each cell holds one of a small set of values (e.g. an empty cell, or a player's token,
+ * as in Tic-Tac-Toe and Connect4). Each cell is held as one byte, the index of its value in a palette of up to 256
+ * distinct values, so copying the board is one small array copy rather than one reference per cell.
+ * <p>
+ * The first value in the palette is the 'empty' value given to the constructor. The number of empty cells is kept up
+ * to date as cells are set, and findLine() checks for lines of the same value directly on the packed cells, which is
+ * what most of the forward model time of these games was spent on.
+ * <p>
+ * The palette is shared between copies of a board (and replaced rather than changed when a new value is added), and
+ * values are matched by component ID, as in Component.equals(). The size of the board is fixed, and there is no array
+ * of cells to hand out, so this is not a GridBoard (whose grid can be resized, loaded from JSON, and changed through
+ * getGridValues()); both are IGridBoards.
+ */
+public class PackedGridBoard<T extends Component> extends Component implements IGridBoard<T> {
+
+    static final int MAX_VALUES = 256;
+
+    // one step in each of the four directions a line can run in: horizontal, vertical, and the two diagonals
+    private static final int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+    private final int width;
+    private final int height;
+    private Component[] palette;
+    private byte[] cells;  // row by row; each cell is (unsigned) an index into palette
+    private int emptyCount;
+    private long stateHash;  // always kept up to date, in the same way as the GridBoard hash
+
+    public PackedGridBoard(int width, int height, T emptyValue) {
+        super(CoreConstants.ComponentType.BOARD);
+        this.width = width;
+        this.height = height;
+        palette = new Component[]{emptyValue};
+        cells = new byte[width * height];
+        emptyCount = cells.length;
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                stateHash ^= cellKey(x, y, emptyValue);
+    }
+
+    private PackedGridBoard(PackedGridBoard<T> orig, boolean copyCells) {
+        super(CoreConstants.ComponentType.BOARD, orig.componentID);
+        width = orig.width;
+        height = orig.height;
+        palette = orig.palette;
+        if (copyCells) {
+            cells = orig.cells.clone();
+            emptyCount = orig.emptyCount;
+            stateHash = orig.stateHash;
+        } else {
+            cells = new byte[orig.cells.length];
+            emptyCount = cells.length;
+            for (int y = 0; y < getHeight(); y++)
+                for (int x = 0; x < getWidth(); x++)
+                    stateHash ^= cellKey(x, y, palette[0]);
+        }
+        orig.copyComponentTo(this);
+    }
+
+    private static long cellKey(int x, int y, Component c) {
+        return c == null ? 0 : Zobrist.key(x, y, c.getComponentID());
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < getWidth() && y >= 0 && y < getHeight();
+    }
+
+    private int valueAt(int x, int y) {
+        return cells[y * getWidth() + x] & 0xFF;
+    }
+
+    /**
+     * @return the index of the value in the palette, adding it if it is not already there
+     */
+    private int paletteIndex(Component value) {
+        for (int i = 0; i < palette.length; i++)
+            if (palette[i] == value)
+                return i;
+        for (int i = 0; i < palette.length; i++)
+            if (palette[i] != null && palette[i].equals(value))
+                return i;
+        if (palette.length == MAX_VALUES)
+            throw new IllegalArgumentException("A PackedGridBoard can hold at most " + MAX_VALUES + " distinct values");
+        // the palette may be shared with copies of this board, so it is replaced rather than changed
+        palette = Arrays.copyOf(palette, palette.length + 1);
+        palette[palette.length - 1] = value;
+        return palette.length - 1;
+    }
+
+    @Override
+    public boolean setElement(int x, int y, T value) {
+        if (!inBounds(x, y))
+            return false;
+        int index = paletteIndex(value);
+        int old = valueAt(x, y);
+        if (old != index) {
+            cells[y * getWidth() + x] = (byte) index;
+            stateHash ^= cellKey(x, y, palette[old]) ^ cellKey(x, y, palette[index]);
+            if (old == 0) emptyCount--;
+            if (index == 0) emptyCount++;
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T getElement(int x, int y) {
+        if (inBounds(x, y))
+            return (T) palette[valueAt(x, y)];
+        return null;
+    }
+
+    /**
+     * @return the value that empty cells hold
+     */
+    @SuppressWarnings("unchecked")
+    public T getEmptyValue() {
+        return (T) palette[0];
+    }
+
+    /**
+     * @return true if the cell holds the empty value (false if it is out of bounds)
+     */
+    public boolean isEmptyCell(int x, int y) {
+        return inBounds(x, y) && cells[y * getWidth() + x] == 0;
+    }
+
+    /**
+     * @return the number of cells that hold the empty value
+     */
+    public int getEmptyCount() {
+        return emptyCount;
+    }
+
+    @Override
+    public List<Vector2D> getEmptyCells(T defaultElement) {
+        // decide once for each value in the palette, rather than once per cell
+        boolean[] matches = new boolean[palette.length];
+        for (int i = 0; i < palette.length; i++)
+            matches[i] = palette[i] == null || palette[i].equals(defaultElement);
+        List<Vector2D> emptyCells = new ArrayList<>(matches[0] ? emptyCount : 0);
+        int width = getWidth();
+        for (int i = 0; i < cells.length; i++)
+            if (matches[cells[i] & 0xFF])
+                emptyCells.add(new Vector2D(i % width, i / width));
+        return emptyCells;
+    }
+
+    /**
+     * Looks for a line of at least length cells with the same (non-empty) value as cell (x, y), running through that
+     * cell horizontally, vertically or diagonally. After each move it is enough to check the cell just set, rather than
+     * the whole board.
+     *
+     * @return the first length cells of the line (in the order they run in), or null if there is no such line
+     */
+    public List<Vector2D> findLine(int x, int y, int length) {
+        if (!inBounds(x, y) || cells[y * getWidth() + x] == 0)
+            return null;
+        int value = valueAt(x, y);
+        for (int[] d : directions) {
+            // go back to the start of the run, and then count forwards from there
+            int startX = x, startY = y;
+            while (inBounds(startX - d[0], startY - d[1]) && valueAt(startX - d[0], startY - d[1]) == value) {
+                startX -= d[0];
+                startY -= d[1];
+            }
+            if (runLength(startX, startY, d, value, length) == length)
+                return lineFrom(startX, startY, d, length);
+        }
+        return null;
+    }
+
+    /**
+     * Looks for a line of at least length cells with the same (non-empty) value anywhere on the board.
+     *
+     * @return the first length cells of the first such line found, or null if there is none
+     */
+    public List<Vector2D> findLine(int length) {
+        for (int y = 0; y < getHeight(); y++) {
+            for (int x = 0; x < getWidth(); x++) {
+                int value = valueAt(x, y);
+                if (value == 0) continue;
+                for (int[] d : directions) {
+                    if (runLength(x, y, d, value, length) == length)
+                        return lineFrom(x, y, d, length);
+                }
+            }
+        }
+        return null;
+    }
+
+    // the number of cells from (x, y) in direction d that hold value, counting no further than max
+    private int runLength(int x, int y, int[] d, int value, int max) {
+        int count = 0;
+        while (count < max && inBounds(x, y) && valueAt(x, y) == value) {
+            count++;
+            x += d[0];
+            y += d[1];
+        }
+        return count;
+    }
+
+    private static List<Vector2D> lineFrom(int x, int y, int[] d, int length) {
+        List<Vector2D> line = new ArrayList<>(length);
+        for (int i = 0; i < length; i++)
+            line.add(new Vector2D(x + i * d[0], y + i * d[1]));
+        return line;
+    }
+
+    @Override
+    public Component[] flattenGrid() {
+        Component[] array = new Component[cells.length];
+        for (int i = 0; i < cells.length; i++)
+            array[i] = palette[cells[i] & 0xFF];
+        return array;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<T> getComponents() {
+        List<T> components = new ArrayList<>(cells.length);
+        for (byte cell : cells)
+            components.add((T) palette[cell & 0xFF]);
+        return components;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachComponent(Consumer<? super T> action) {
+        for (byte cell : cells)
+            action.accept((T) palette[cell & 0xFF]);
+    }
+
+    @Override
+    public PackedGridBoard<T> copy() {
+        return new PackedGridBoard<>(this, true);
+    }
+
+    /**
+     * @return a board of the same size (and the same component ID) with every cell empty
+     */
+    @Override
+    public PackedGridBoard<T> emptyCopy() {
+        return new PackedGridBoard<>(this, false);
+    }
+
+    @Override
+    public CoreConstants.VisibilityMode getVisibilityMode() {
+        return CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PackedGridBoard<?> other) || componentID != other.componentID)
+            return false;
+        if (other.palette == palette)
+            return Arrays.equals(cells, other.cells);
+        return width == other.width && Arrays.equals(flattenGrid(), other.flattenGrid());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(componentID) + 5 * Arrays.hashCode(flattenGrid());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++)
+                sb.append(getElement(x, y)).append(' ');
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public long getStateHash() {
+        return Zobrist.key(componentID, stateHash);
+    }
+}
@@ -4,7 +4,6 @@ import core.AbstractGameState;
 import core.CoreConstants.VisibilityMode;
 import org.jetbrains.annotations.NotNull;
 import utilities.DeterminisationUtilities;
-import utilities.Pair;
 
 import java.util.*;
 
@@ -15,24 +14,33 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     protected boolean[] deckVisibility;
 
     // Visibility of each component in the deck, order corresponds to order of elements in the deck;
-    protected List<boolean[]> elementVisibility = new LinkedList<>();
+    // each entry has bit p set if player p can see the component
+    private VisibilityMasks elementVisibility = new VisibilityMasks();
 
     public boolean getVisibilityForPlayer(int elementIdx, int playerID) {
-        return elementVisibility.get(elementIdx)[playerID];
+        return (elementVisibility.get(elementIdx) & (1L << playerID)) != 0;
     }
 
+    /**
+     * @return the visibility of the component to each player. This is a new array; changing it does not change the
+     * deck (use setVisibilityOfComponent() for that).
+     */
     public boolean[] getVisibilityOfComponent(int elementIdx) {
-        return elementVisibility.get(elementIdx);
+        return VisibilityMasks.toArray(elementVisibility.get(elementIdx), deckVisibility.length);
     }
 
 
     public PartialObservableDeck(String id, int ownerID, boolean[] defaultVisibility) {
         super(id, ownerID, VisibilityMode.MIXED_VISIBILITY);
+        if (defaultVisibility.length > VisibilityMasks.MAX_PLAYERS)
+            throw new IllegalArgumentException("PartialObservableDeck supports at most " + VisibilityMasks.MAX_PLAYERS + " players");
         this.deckVisibility = defaultVisibility;
     }
 
     public PartialObservableDeck(String id, int ownerID, int nPlayers, VisibilityMode visibilityMode) {
         super(id, ownerID, visibilityMode);
+        if (nPlayers > VisibilityMasks.MAX_PLAYERS)
+            throw new IllegalArgumentException("PartialObservableDeck supports at most " + VisibilityMasks.MAX_PLAYERS + " players");
         deckVisibility = new boolean[nPlayers];
         switch (visibilityMode) {
             case VISIBLE_TO_ALL:
@@ -66,9 +74,9 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
             throw new IllegalArgumentException("playerID " + playerID + " needs to be in range [0," + (deckVisibility.length - 1) + "]");
 
         List<T> visibleComponents = new ArrayList<>(components.size());
+        long playerBit = 1L << playerID;
         for (int i = 0; i < components.size(); i++) {
-            boolean[] b = elementVisibility.get(i);
-            if (b[playerID])
+            if ((elementVisibility.get(i) & playerBit) != 0)
                 visibleComponents.add(i, components.get(i));
             else
                 visibleComponents.add(i, null);
@@ -86,7 +94,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     public boolean isComponentVisible(int idx, int playerID) {
         if (playerID < 0 || playerID >= deckVisibility.length)
             throw new IllegalArgumentException("playerID " + playerID + " needs to be in range [0," + (deckVisibility.length - 1) + "]");
-        return elementVisibility.get(idx)[playerID];
+        return getVisibilityForPlayer(idx, playerID);
     }
 
 
@@ -106,7 +114,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setComponents(List<T> components, List<boolean[]> visibilityPerPlayer) {
         super.setComponents(components);
-        this.elementVisibility = visibilityPerPlayer;
+        this.elementVisibility = VisibilityMasks.of(visibilityPerPlayer);
     }
 
 
@@ -120,15 +128,27 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
             if (b.length != this.deckVisibility.length)
                 throw new IllegalArgumentException("All entries of visibility need to have length " + deckVisibility.length +
                         " but at least one entry is of length " + b.length);
-        this.elementVisibility = visibility;
+        this.elementVisibility = VisibilityMasks.of(visibility);
+    }
+
+    // the mask of a component visible to just those players who can see the deck
+    private long defaultMask() {
+        return VisibilityMasks.toMask(deckVisibility);
+    }
+
+    private long allPlayersMask() {
+        return deckVisibility.length == VisibilityMasks.MAX_PLAYERS ? -1L : (1L << deckVisibility.length) - 1;
     }
+
     private void applyVisibilityMode() {
+        if (elementVisibility.size() == 0)
+            return;
         if (getVisibilityMode() == VisibilityMode.TOP_VISIBLE_TO_ALL)
-            for (int j = 0; j < deckVisibility.length; j++)
-                elementVisibility.get(0)[j] = true;
-        if (getVisibilityMode() == VisibilityMode.BOTTOM_VISIBLE_TO_ALL)
-            for (int j = 0; j < deckVisibility.length; j++)
-                elementVisibility.get(components.size() - 1)[j] = true;
+            elementVisibility.set(0, elementVisibility.get(0) | allPlayersMask());
+        if (getVisibilityMode() == VisibilityMode.BOTTOM_VISIBLE_TO_ALL) {
+            int bottom = components.size() - 1;
+            elementVisibility.set(bottom, elementVisibility.get(bottom) | allPlayersMask());
+        }
     }
 
     /**
@@ -140,8 +160,10 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setVisibilityOfComponent(int index, int playerID, boolean visibility) {
         if (index >= 0 && index < elementVisibility.size()) {
-            if (playerID >= 0 && playerID < deckVisibility.length)
-                this.elementVisibility.get(index)[playerID] = visibility;
+            if (playerID >= 0 && playerID < deckVisibility.length) {
+                long mask = elementVisibility.get(index);
+                elementVisibility.set(index, visibility ? mask | (1L << playerID) : mask & ~(1L << playerID));
+            }
             else
                 throw new IllegalArgumentException("playerID " + playerID + "needs to be in range [0," + (deckVisibility.length - 1) + "]");
         } else {
@@ -157,7 +179,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setVisibilityOfComponent(int index, boolean[] visibility) {
         if (index >= 0 && index < elementVisibility.size() && visibility.length == deckVisibility.length) {
-            this.elementVisibility.set(index, visibility.clone());
+            this.elementVisibility.set(index, VisibilityMasks.toMask(visibility));
         } else {
             throw new IllegalArgumentException("component index " + index + " needs to be in range [0," + components.size() + "]");
         }
@@ -185,7 +207,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(T c, int index, boolean[] visibilityPerPlayer) {
-        this.elementVisibility.add(index, visibilityPerPlayer.clone());
+        this.elementVisibility.add(index, VisibilityMasks.toMask(visibilityPerPlayer));
         boolean retValue = super.add(c, index);
         applyVisibilityMode();
         return retValue;
@@ -200,17 +222,15 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     @Override
     public boolean add(Deck<T> d, int index) {
+        // this ties up with addAll() of components in super.add() a few lines down
+        int length = d.components.size();
         if (d instanceof PartialObservableDeck<T> pod) {
-            int length = d.components.size();
-            for (int i = 0; i < length; i++) {
-                // Add in reverse order to keep the order of the deck
-                // this is to ties up with addAll() of components in super.add() a few lines down
-                this.elementVisibility.add(index, pod.elementVisibility.get(length - i - 1).clone());
-            }
+            for (int i = 0; i < length; i++)
+                this.elementVisibility.add(index + i, pod.elementVisibility.get(i));
         } else {
-            for (int i = 0; i < d.components.size(); i++) {
-                this.elementVisibility.add(index, deckVisibility.clone());
-            }
+            long mask = defaultMask();
+            for (int i = 0; i < length; i++)
+                this.elementVisibility.add(index + i, mask);
         }
         boolean retValue = super.add(d, index);
         applyVisibilityMode();
@@ -226,8 +246,9 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     public void setComponents(List<T> components) {
         super.setComponents(components);
         elementVisibility.clear();
+        long mask = defaultMask();
         for (int i = 0; i < components.size(); i++) {
-            elementVisibility.add(deckVisibility.clone());
+            elementVisibility.add(i, mask);
         }
         applyVisibilityMode();
     }
@@ -282,7 +303,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     @Override
     public void shuffle(Random rnd) {
-        elementVisibility.replaceAll(ignored -> deckVisibility.clone());
+        elementVisibility.fill(defaultMask());
         super.shuffle(rnd);
         applyVisibilityMode();
     }
@@ -293,39 +314,30 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param rnd random number generator to be used in shuffling.
      */
     public void shuffleAndKeepVisibility(Random rnd) {
-        Pair<List<T>, List<boolean[]>> shuffled = shuffleLists(components, elementVisibility, rnd);
-        components = shuffled.a;
-        elementVisibility = shuffled.b;
-        applyVisibilityMode();
-    }
-
-
-    /**
-     * Shuffles a list of components and associated visibility
-     *
-     * @param comps - list of components
-     * @param vis   - associated visibility
-     * @param rnd   - random number generator to be used in shuffling.
-     * @return - both lists shuffled, keeping the mapping from component to visibility at the same index.
-     */
-    private Pair<List<T>, List<boolean[]>> shuffleLists(List<T> comps, List<boolean[]> vis, Random rnd) {
-        List<T> tmp_components = new LinkedList<>();
-        List<boolean[]> tmp_visibility = new LinkedList<>();
-
-        List<Integer> indexList = new ArrayList<>(comps.size());
-        for (int i = 0; i < comps.size(); i++)
-            indexList.add(i);
-        Collections.shuffle(indexList, rnd);
-
-        for (int targetIndex = 0; targetIndex < indexList.size(); targetIndex++) {
-            int sourceIndex = indexList.get(targetIndex);
-            tmp_components.add(targetIndex, comps.get(sourceIndex));
-            tmp_visibility.add(targetIndex, vis.get(sourceIndex));
+        // the same permutation as Collections.shuffle() of a list of the indices would give
+        int size = components.size();
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+        for (int i = size; i > 1; i--) {
+            int j = rnd.nextInt(i);
+            int tmp = order[i - 1];
+            order[i - 1] = order[j];
+            order[j] = tmp;
         }
 
-        return new Pair<>(tmp_components, tmp_visibility);
+        List<T> newComponents = new DeckList<>(size);
+        VisibilityMasks newVisibility = new VisibilityMasks();
+        for (int targetIndex = 0; targetIndex < size; targetIndex++) {
+            newComponents.add(components.get(order[targetIndex]));
+            newVisibility.add(targetIndex, elementVisibility.get(order[targetIndex]));
+        }
+        components = newComponents;
+        elementVisibility = newVisibility;
+        applyVisibilityMode();
     }
 
+
     /**
      * Shuffles components based on visibility, leaving those with opposite visibility in the same place.
      *
@@ -359,11 +371,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     private PartialObservableDeck<T> commonCopy(PartialObservableDeck<T> dp) {
         dp.deckVisibility = deckVisibility.clone();
 
-        ArrayList<boolean[]> newVisibility = new ArrayList<>();
-        for (boolean[] visibility : elementVisibility) {
-            newVisibility.add(visibility.clone());
-        }
-        dp.elementVisibility = newVisibility;
+        dp.elementVisibility = new VisibilityMasks(elementVisibility);
 
         return dp;
     }
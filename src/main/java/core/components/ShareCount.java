@@ -0,0 +1,43 @@
+package core.components;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the components that share one piece of copy-on-write data (the list of a Deck, the nodes of a GraphBoard,
+ * or a row of a GridBoard). Each piece of data has its own count, which travels with it: copy() gives the copy the
+ * same data and count, and adds one to the count. A component may change the data in place only while it is the
+ * only one sharing it; otherwise it takes a private copy (with a new count of its own) and releases the shared one.
+ * <p>
+ * So copying one component never makes unrelated data copy itself, copy() does not write to the component it copies,
+ * and several threads may copy the same component at once (for example the workers of a tree-parallel search).
+ * Copies that are discarded without changing the data never release it, so the count may be too high; that only
+ * means one unnecessary copy of the data later, never a change seen by another component.
+ */
+final class ShareCount {
+
+    private final AtomicInteger holders = new AtomicInteger(1);
+
+    /**
+     * Called by copy(), for the copy that now shares the data.
+     *
+     * @return this count, to be kept by the copy
+     */
+    ShareCount share() {
+        holders.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * @return true if another component may also hold the data, so it must not be changed in place
+     */
+    boolean isShared() {
+        return holders.get() > 1;
+    }
+
+    /**
+     * Called by a component that has taken a private copy of the data (after copying it), and so no longer shares it.
+     */
+    void release() {
+        holders.decrementAndGet();
+    }
+}
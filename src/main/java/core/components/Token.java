@@ -1,14 +1,13 @@
 package core.components;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 
 import core.CoreConstants;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.JSONCache;
 
 import java.util.List;
 
@@ -55,12 +54,11 @@ public class Token extends Component {
      */
     public static List<Token> loadTokens(String filename)
     {
-        JSONParser jsonParser = new JSONParser();
         ArrayList<Token> tokens = new ArrayList<>();
 
-        try (FileReader reader = new FileReader(filename)) {
+        try {
 
-            JSONArray data = (JSONArray) jsonParser.parse(reader);
+            JSONArray data = (JSONArray) JSONCache.parse(filename);
             for(Object o : data) {
 
                 Token newToken = new Token("");
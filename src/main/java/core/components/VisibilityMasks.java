@@ -0,0 +1,116 @@
+package core.components;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The visibility of each component in a PartialObservableDeck, in the same order as the components. Each entry packs
+ * the visibility of the component to every player into one long (bit p is set if player p can see it), and the
+ * entries are held in a ring buffer of primitives in the same way that DeckList holds the components. So copying the
+ * visibility of a deck is one array copy, rather than one boolean[] (and one list node) per component.
+ */
+final class VisibilityMasks {
+
+    static final int MAX_PLAYERS = Long.SIZE;
+
+    private long[] masks;  // length is always a power of 2
+    private int head, size;
+
+    VisibilityMasks() {
+        masks = new long[8];
+    }
+
+    VisibilityMasks(VisibilityMasks other) {
+        masks = other.masks.clone();
+        head = other.head;
+        size = other.size;
+    }
+
+    static long toMask(boolean[] visibility) {
+        if (visibility.length > MAX_PLAYERS)
+            throw new IllegalArgumentException("Visibility is only supported for up to " + MAX_PLAYERS + " players");
+        long mask = 0;
+        for (int p = 0; p < visibility.length; p++)
+            if (visibility[p]) mask |= 1L << p;
+        return mask;
+    }
+
+    static boolean[] toArray(long mask, int nPlayers) {
+        boolean[] visibility = new boolean[nPlayers];
+        for (int p = 0; p < nPlayers; p++)
+            visibility[p] = (mask & (1L << p)) != 0;
+        return visibility;
+    }
+
+    static VisibilityMasks of(List<boolean[]> visibility) {
+        VisibilityMasks retValue = new VisibilityMasks();
+        for (boolean[] b : visibility)
+            retValue.add(retValue.size, toMask(b));
+        return retValue;
+    }
+
+    private int slot(int index) {
+        return (head + index) & (masks.length - 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        Objects.checkIndex(index, size);
+        return masks[slot(index)];
+    }
+
+    void set(int index, long mask) {
+        Objects.checkIndex(index, size);
+        masks[slot(index)] = mask;
+    }
+
+    void add(int index, long mask) {
+        Objects.checkIndex(index, size + 1);
+        if (size == masks.length) {
+            long[] newMasks = new long[masks.length * 2];
+            for (int i = 0; i < size; i++)
+                newMasks[i] = masks[slot(i)];
+            masks = newMasks;
+            head = 0;
+        }
+        if (index < size / 2) {
+            head = (head - 1) & (masks.length - 1);
+            for (int i = 0; i < index; i++)
+                masks[slot(i)] = masks[slot(i + 1)];
+        } else {
+            for (int i = size; i > index; i--)
+                masks[slot(i)] = masks[slot(i - 1)];
+        }
+        masks[slot(index)] = mask;
+        size++;
+    }
+
+    void remove(int index) {
+        Objects.checkIndex(index, size);
+        if (index < size / 2) {
+            for (int i = index; i > 0; i--)
+                masks[slot(i)] = masks[slot(i - 1)];
+            head = (head + 1) & (masks.length - 1);
+        } else {
+            for (int i = index; i < size - 1; i++)
+                masks[slot(i)] = masks[slot(i + 1)];
+        }
+        size--;
+    }
+
+    /**
+     * Sets every entry to the same mask
+     */
+    void fill(long mask) {
+        for (int i = 0; i < size; i++)
+            masks[slot(i)] = mask;
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+}
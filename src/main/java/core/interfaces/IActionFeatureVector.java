@@ -7,6 +7,14 @@ public interface IActionFeatureVector {
 
     double[] featureVector(AbstractAction action, AbstractGameState state, int playerID);
 
+    /**
+     * Writes the feature vector into buffer, starting at offset (see IStateFeatureVector).
+     */
+    default void featureVector(AbstractAction action, AbstractGameState state, int playerID, double[] buffer, int offset) {
+        double[] psi = featureVector(action, state, playerID);
+        System.arraycopy(psi, 0, buffer, offset, psi.length);
+    }
+
     String[] names();
 
 }
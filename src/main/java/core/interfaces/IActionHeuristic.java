@@ -24,4 +24,13 @@ public interface IActionHeuristic{
         }
         return scores;
     }
+
+    /**
+     * As evaluateAllActions(actions, state), but writes the value of actions.get(i) into scores[i], so that callers
+     * can reuse one buffer. scores may be longer than actions.
+     */
+    default void evaluateAllActions(List<AbstractAction> actions, AbstractGameState state, double[] scores) {
+        double[] values = evaluateAllActions(actions, state);
+        System.arraycopy(values, 0, scores, 0, values.length);
+    }
 }
@@ -24,23 +24,36 @@ public interface ICoefficients {
     }
 
     default double applyCoefficients(double[] phi) {
-        double retValue = coefficients()[0]; // the bias term
-        for (int i = 0; i < phi.length; i++) {
-            retValue += phi[i] * coefficients()[i + 1];
+        return applyCoefficients(phi, 0, phi.length);
+    }
+
+    /**
+     * As applyCoefficients(phi), for the length features that start at offset in buffer. This allows one buffer to
+     * be reused for many evaluations (or to hold the state features followed by the action features).
+     */
+    default double applyCoefficients(double[] buffer, int offset, int length) {
+        double[] coefficients = coefficients();
+        double retValue = coefficients[0]; // the bias term
+        for (int i = 0; i < length; i++) {
+            retValue += buffer[offset + i] * coefficients[i + 1];
         }
         if (interactionCoefficients() != null)
-            retValue += calculateInteractionEffects(phi);
+            retValue += calculateInteractionEffects(buffer, offset);
         return retValue;
     }
 
     default double calculateInteractionEffects(double[] phi) {
+        return calculateInteractionEffects(phi, 0);
+    }
+
+    default double calculateInteractionEffects(double[] buffer, int offset) {
         double retValue = 0;
         int[][] interactions = interactions();
         double[] interactionCoefficients = interactionCoefficients();
         for (int i = 0; i < interactions.length; i++) {
             double interactionValue = 1;
             for (int j : interactions[i]) {
-                interactionValue *= phi[j];
+                interactionValue *= buffer[offset + j];
             }
             retValue += interactionValue * interactionCoefficients[i];
         }
@@ -4,6 +4,7 @@ import core.CoreConstants;
 import core.components.Component;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -26,6 +27,16 @@ public interface IComponentContainer<T extends Component> {
 
     CoreConstants.VisibilityMode getVisibilityMode();
 
+    /**
+     * Applies the action to each of the Components in the Container in turn. Containers override this where they can
+     * do so without building the list that getComponents() returns.
+     */
+    default void forEachComponent(Consumer<? super T> action) {
+        for (T c : getComponents()) {
+            action.accept(c);
+        }
+    }
+
     default Stream<T> stream() {
         return getComponents().stream();
     }
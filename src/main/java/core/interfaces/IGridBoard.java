@@ -0,0 +1,95 @@
+package core.interfaces;
+
+import core.SnapshotReader;
+import core.SnapshotWriter;
+import core.components.Component;
+import utilities.Vector2D;
+
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * A board laid out as a fixed grid of cells, each holding one element. This is what games and the code that plays
+ * them need from a grid; it is implemented by GridBoard, which holds a reference per cell and can also be resized,
+ * rotated and loaded from JSON, and by PackedGridBoard, which holds the cells packed into bytes.
+ *
+ * @param <T> the type of Component held in the cells
+ */
+public interface IGridBoard<T extends Component> extends IComponentContainer<T> {
+
+    int getWidth();
+
+    int getHeight();
+
+    int getComponentID();
+
+    /**
+     * Sets the element at position (x, y).
+     *
+     * @return true if the coordinates are in bounds, false otherwise (and nothing is changed).
+     */
+    boolean setElement(int x, int y, T value);
+
+    default boolean setElement(Vector2D pos, T value) {
+        return setElement(pos.getX(), pos.getY(), value);
+    }
+
+    /**
+     * @return the element at position (x, y), or null if the coordinates are out of bounds.
+     */
+    T getElement(int x, int y);
+
+    default T getElement(Vector2D pos) {
+        return getElement(pos.getX(), pos.getY());
+    }
+
+    /**
+     * @return the positions of the cells that are null or equal to defaultElement, row by row.
+     */
+    List<Vector2D> getEmptyCells(T defaultElement);
+
+    /**
+     * @return a new array holding the elements of the grid, one row after another.
+     */
+    Component[] flattenGrid();
+
+    /**
+     * @return a 64-bit hash of the contents of the grid (see Component.getStateHash()).
+     */
+    long getStateHash();
+
+    IGridBoard<T> copy();
+
+    /**
+     * @return a board of the same size (and the same component ID) with every cell empty.
+     */
+    IGridBoard<T> emptyCopy();
+
+    /**
+     * Writes the contents of the grid to a state snapshot, as one int per cell (row by row).
+     *
+     * @param encode - maps each element to an int that decode() in readSnapshot() will map back to it.
+     */
+    default void writeSnapshot(SnapshotWriter out, ToIntFunction<T> encode) {
+        out.putInt(getWidth()).putInt(getHeight());
+        for (int y = 0; y < getHeight(); y++)
+            for (int x = 0; x < getWidth(); x++)
+                out.putInt(encode.applyAsInt(getElement(x, y)));
+    }
+
+    /**
+     * Overwrites the contents of the grid from a state snapshot. The grid must have the same size as the one written.
+     *
+     * @param decode - maps each int written by writeSnapshot() back to its element.
+     */
+    default void readSnapshot(SnapshotReader in, IntFunction<T> decode) {
+        int w = in.getInt(), h = in.getInt();
+        if (w != getWidth() || h != getHeight())
+            throw new IllegalArgumentException("Snapshot of a " + w + "x" + h + " grid cannot be read into a " +
+                    getWidth() + "x" + getHeight() + " grid");
+        for (int y = 0; y < h; y++)
+            for (int x = 0; x < w; x++)
+                setElement(x, y, decode.apply(in.getInt()));
+    }
+}
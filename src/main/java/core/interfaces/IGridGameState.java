@@ -1,7 +1,6 @@
 package core.interfaces;
 
 import core.components.Component;
-import core.components.GridBoard;
 
 public interface IGridGameState<T extends Component> {
 
@@ -9,5 +8,5 @@ public interface IGridGameState<T extends Component> {
 
     default int getHeight() { return getGridBoard().getHeight(); }
 
-    GridBoard<T> getGridBoard();
+    IGridBoard<T> getGridBoard();
 }
@@ -6,6 +6,16 @@ public interface IStateFeatureVector {
 
     double[] featureVector(AbstractGameState state, int playerID);
 
+    /**
+     * Writes the feature vector into buffer, starting at offset, so that a caller that evaluates many states can
+     * reuse one buffer. The default copies the result of featureVector(state, playerID); implementations can
+     * override this to avoid the allocation.
+     */
+    default void featureVector(AbstractGameState state, int playerID, double[] buffer, int offset) {
+        double[] phi = featureVector(state, playerID);
+        System.arraycopy(phi, 0, buffer, offset, phi.length);
+    }
+
     String[] names();
 
 }
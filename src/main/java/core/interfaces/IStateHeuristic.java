@@ -3,6 +3,8 @@ package core.interfaces;
 
 import core.AbstractGameState;
 
+import java.util.List;
+
 public interface IStateHeuristic {
 
     /**
@@ -14,6 +16,15 @@ public interface IStateHeuristic {
      */
     double evaluateState(AbstractGameState gs, int playerId);
 
+    /**
+     * Evaluates each of the states for the same player, writing the value of states.get(i) into values[i] (which may
+     * be longer than states).
+     */
+    default void evaluateStates(List<? extends AbstractGameState> states, int playerId, double[] values) {
+        for (int i = 0; i < states.size(); i++)
+            values[i] = evaluateState(states.get(i), playerId);
+    }
+
     default double minValue() {
         return -1;
     }
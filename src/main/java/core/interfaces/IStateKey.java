@@ -1,8 +1,22 @@
 package core.interfaces;
 
 import core.AbstractGameState;
+import utilities.Zobrist;
 
 public interface IStateKey {
 
     String getKey(AbstractGameState state);
+
+    /**
+     * 64-bit version of the key, as used by MCGS transposition tables.
+     * By default this hashes getKey(); implementations that can compute a long key directly (for example from
+     * AbstractGameState.getStateHash(), or from a feature vector with Zobrist.hash(player, features)) should
+     * override this to avoid building a String for every lookup.
+     *
+     * @param state - state to compute the key for.
+     * @return - 64-bit key for the state.
+     */
+    default long getLongKey(AbstractGameState state) {
+        return Zobrist.hash(getKey(state));
+    }
 }
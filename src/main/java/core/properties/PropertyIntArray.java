@@ -17,6 +17,12 @@ public class PropertyIntArray extends Property
         }
     }
 
+    public PropertyIntArray(String hashString, int[] values)
+    {
+        super(hashString);
+        this.values = values.clone();
+    }
+
     private PropertyIntArray(String hashString, int hashKey, int[] values)
     {
         super(hashString, hashKey);
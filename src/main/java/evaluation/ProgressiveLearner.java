@@ -4,7 +4,7 @@ import core.AbstractParameters;
 import core.AbstractPlayer;
 import core.interfaces.*;
 import evaluation.listeners.*;
-import evaluation.loggers.FileStatsLogger;
+import evaluation.loggers.ColumnarFileLogger;
 import evaluation.tournaments.RoundRobinTournament;
 import games.GameType;
 import org.apache.commons.io.FileUtils;
@@ -227,9 +227,9 @@ public class ProgressiveLearner {
         System.out.println("Explore = " + exploreEpsilon);
         randomExplorer.setEpsilon(exploreEpsilon);
 
-        String fileName = String.format("%s_%d.data", prefix, iter);
+        String fileName = String.format("%s_%d%s", prefix, iter, ColumnarFileLogger.EXTENSION);
         dataFilesByIteration[iter] = fileName;
-        featureListener.setLogger(new FileStatsLogger(fileName, "\t", false));
+        featureListener.setLogger(new ColumnarFileLogger(fileName, false));
         tournament.addListener(featureListener);
         tournament.run();
 
@@ -6,6 +6,7 @@ import org.json.simple.JSONObject;
 import java.io.File;
 import java.util.*;
 
+import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static utilities.Utils.getArg;
@@ -94,7 +95,7 @@ public enum RunArg {
             "\t of a json file from which a listener can be instantiated.\n" +
             "\t Defaults to evaluation.metrics.MetricsGameListener. \n" +
             "\t A pipe-delimited string can be provided to gather many types of statistics \n" +
-            "\t from the same set of games.",
+            "\t from the same set of games. Use none for no listeners.",
             "metrics/MetricsGameListener.json",
             new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
     matchups("The total number of matchups to run in a tournament.\n" +
@@ -121,6 +122,14 @@ public enum RunArg {
     nPlayers("The number of players in each game. Overrides playerRange.",
             -1,
             new Usage[]{Usage.ParameterSearch, Usage.RunGames}),
+    nThreads("(Optional) The number of threads to use to run games in parallel. The default of 0 runs games one at a time.\n" +
+            "\t Each game is run with its own copies of the agents and game parameters, so that the results for a given\n" +
+            "\t seed are the same whatever the number of threads. This includes 0, so agents that learn from one game to\n" +
+            "\t the next start each game afresh. Listeners are not supported when running in parallel (nThreads > 0), so\n" +
+            "\t listeners must be turned off as well (listener=none on the command line, or \"listener\" : \"\" in JSON).\n" +
+            "\t For NTBEA the repeats (and the evaluation games for each recommendation) are run in parallel.",
+            0,
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
     neighbourhood("The size of neighbourhood to look at in NTBEA. Default is min(50, |searchSpace|/100) ",
             50,
             new Usage[]{Usage.ParameterSearch}),
@@ -206,7 +215,7 @@ public enum RunArg {
     public Object parse(String[] args) {
         value = getArg(args, name(), defaultValue);
         if (this == listener) {
-            value = new ArrayList<>(Arrays.asList(((String) value).split("\\|")));
+            value = Arrays.stream(((String) value).split("\\|")).filter(l -> !l.isBlank() && !l.equalsIgnoreCase("none")).collect(toCollection(ArrayList::new));
         }
         return value;
     }
@@ -218,7 +227,7 @@ public enum RunArg {
             value = ((Long) value).intValue();
         }
         if (this == listener) {
-            value = new ArrayList<>(Arrays.asList(((String) value).split("\\|")));
+            value = Arrays.stream(((String) value).split("\\|")).filter(l -> !l.isBlank() && !l.equalsIgnoreCase("none")).collect(toCollection(ArrayList::new));
         }
         return value;
     }
@@ -3,6 +3,7 @@ package evaluation.features;
 import core.AbstractGameState;
 import core.interfaces.IStateFeatureVector;
 import core.interfaces.IStateKey;
+import utilities.Zobrist;
 
 import java.util.Arrays;
 
@@ -19,4 +20,9 @@ public class StateKeyFromFeatureVector  implements IStateKey {
         double[] retValue = featureVector.featureVector(state, state.getCurrentPlayer());
         return String.format("%d-%s", state.getCurrentPlayer(), Arrays.toString(retValue));
     }
+
+    @Override
+    public long getLongKey(AbstractGameState state) {
+        return Zobrist.hash(state.getCurrentPlayer(), featureVector.featureVector(state, state.getCurrentPlayer()));
+    }
 }
@@ -5,6 +5,7 @@ import core.interfaces.IStateFeatureVector;
 import core.interfaces.IStateKey;
 import evaluation.optimisation.TunableParameters;
 import games.loveletter.features.LLStateFeaturesTunable;
+import utilities.Zobrist;
 
 import java.util.Arrays;
 import java.util.stream.IntStream;
@@ -89,4 +90,9 @@ public abstract class TunableStateFeatures extends TunableParameters implements
         double[] retValue = featureVector(state, state.getCurrentPlayer());
         return String.format("%d-%s", state.getCurrentPlayer(), Arrays.toString(retValue));
     }
+
+    @Override
+    public long getLongKey(AbstractGameState state) {
+        return Zobrist.hash(state.getCurrentPlayer(), featureVector(state, state.getCurrentPlayer()));
+    }
 }
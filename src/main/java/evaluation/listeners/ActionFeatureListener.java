@@ -4,7 +4,6 @@ import core.AbstractGameState;
 import core.actions.AbstractAction;
 import core.interfaces.IActionFeatureVector;
 import core.interfaces.IStateFeatureVector;
-import evaluation.loggers.FileStatsLogger;
 import evaluation.metrics.Event;
 
 import java.util.HashMap;
@@ -35,7 +34,7 @@ public class ActionFeatureListener extends FeatureListener {
         this.psiFn = psi;
         this.phiFn = phi;
         this.includeActionsNotTaken = includeActionsNotTaken;
-        logger = new FileStatsLogger(fileName);
+        logger = createLogger(fileName);
     }
 
     @Override
@@ -3,6 +3,8 @@ package evaluation.listeners;
 import core.*;
 import core.actions.AbstractAction;
 import core.interfaces.IStatisticLogger;
+import evaluation.loggers.AsyncFileStatsLogger;
+import evaluation.loggers.ColumnarFileLogger;
 import evaluation.metrics.Event;
 
 import java.util.*;
@@ -31,6 +33,16 @@ public abstract class FeatureListener implements IGameListener {
         this.logger = logger;
     }
 
+    /**
+     * Files with the ColumnarFileLogger extension (.bin) are written in that binary format, which is much quicker for
+     * AbstractLearner to load; anything else is written as tab-delimited text.
+     */
+    public static IStatisticLogger createLogger(String fileName) {
+        if (fileName.endsWith(ColumnarFileLogger.EXTENSION))
+            return new ColumnarFileLogger(fileName);
+        return new AsyncFileStatsLogger(fileName);
+    }
+
     @Override
     public void onEvent(Event event) {
 
@@ -0,0 +1,273 @@
+package evaluation.loggers;
+
+import core.interfaces.IStatisticLogger;
+import evaluation.summarisers.TAGStatSummary;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the same tab-separated (or other delimited) file as FileStatsLogger, but without doing the formatting or
+ * the I/O on the game thread.
+ * <p>
+ * record() only flattens the data into an array of values, in header order, and puts it on a bounded queue. A
+ * background writer thread takes rows off the queue in batches, formats them, and writes them through a
+ * BufferedWriter (gzipped if the file name ends with .gz, or if gzip is requested). Rows are written in the order
+ * in which they were recorded. If the writer falls behind by more than the capacity of the queue, record() blocks
+ * until there is space.
+ * <p>
+ * processDataAndNotFinish() asks the writer to flush once it reaches that point in the queue, without waiting.
+ * processDataAndFinish() waits until every row recorded so far has been written and the file is closed. Any
+ * error on the writer thread is reported (as an AssertionError, as in FileStatsLogger) by the next call on the
+ * game thread.
+ */
+public class AsyncFileStatsLogger implements IStatisticLogger {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final String fileName;
+    private final String delimiter;
+    private final boolean append;
+    private final boolean gzip;
+    private final int queueCapacity;
+    private String actionName;
+    public String doubleFormat = "%.3g";
+    public String intFormat = "%d";
+
+    private List<String> allKeys;
+    private BlockingQueue<Object> queue;
+    private Thread writerThread;
+    private volatile Throwable writerError;
+    private boolean finished;
+
+    // Queued after rows to ask the writer to flush (and close, if finish is set), counting down done when it has
+    private static class Flush {
+        final boolean finish;
+        final CountDownLatch done = new CountDownLatch(1);
+
+        Flush(boolean finish) {
+            this.finish = finish;
+        }
+    }
+
+    /**
+     * @param fileName      The full location of the file to write results to
+     * @param delimiter     The delimiter to use in the file between data items
+     * @param append        If true and the file already exists, rows are added to it (without a new header)
+     * @param gzip          If true the file is gzip-compressed
+     * @param queueCapacity The maximum number of rows waiting to be written before record() blocks
+     */
+    public AsyncFileStatsLogger(String fileName, String delimiter, boolean append, boolean gzip, int queueCapacity) {
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("Queue capacity must be at least 1 : " + queueCapacity);
+        this.fileName = fileName;
+        this.delimiter = delimiter;
+        this.append = append;
+        this.gzip = gzip;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public AsyncFileStatsLogger(String fileName, String delimiter, boolean append) {
+        this(fileName, delimiter, append, fileName.endsWith(".gz"), 4096);
+    }
+
+    public AsyncFileStatsLogger(String fileName) {
+        this(fileName, "\t", true);
+    }
+
+    private void initialise() {
+        File file = new File(fileName);
+        boolean headerNeeded = !(file.exists() && append);
+        Writer writer;
+        try {
+            OutputStream out = new FileOutputStream(file, append);
+            if (gzip)
+                out = new GZIPOutputStream(out, 1 << 16);
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem opening file " + fileName + " : " + e.getMessage());
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        if (headerNeeded)
+            queue.add(FileStatsLogger.headerLine(allKeys, delimiter, actionName));
+        writerThread = new Thread(() -> writeRows(writer), "AsyncFileStatsLogger " + fileName);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * As for FileStatsLogger, the keys of the first record are the columns of the file. Data for other keys is
+     * ignored, and missing data is written as NA.
+     *
+     * @param rawData A map of name -> value pairs
+     */
+    @Override
+    public void record(Map<String, ?> rawData) {
+        checkWriter();
+        if (finished)
+            throw new AssertionError("File " + fileName + " has already been closed");
+        Map<String, Object> data = FileStatsLogger.flatten(rawData);
+        if (allKeys == null) {
+            allKeys = new ArrayList<>(data.keySet());
+            initialise();
+        }
+        if (allKeys.isEmpty())
+            return;
+        Object[] row = new Object[allKeys.size()];
+        for (int i = 0; i < row.length; i++) {
+            Object datum = data.get(allKeys.get(i));
+            // Numbers and Strings cannot change before they are written; anything else is converted now
+            row[i] = datum == null || datum instanceof Number || datum instanceof String ? datum
+                    : FileStatsLogger.format(datum, intFormat, doubleFormat);
+        }
+        enqueue(row);
+    }
+
+    private void enqueue(Object item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while waiting to log to " + fileName);
+        }
+    }
+
+    private void checkWriter() {
+        if (writerError != null)
+            throw new AssertionError("Problem writing to file " + fileName + " : " + writerError.getMessage(), writerError);
+    }
+
+    private void writeRows(Writer writer) {
+        List<Object> batch = new ArrayList<>(BATCH_SIZE);
+        StringBuilder line = new StringBuilder();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Object item : batch) {
+                    if (item instanceof Flush flush) {
+                        writer.flush();
+                        if (flush.finish) {
+                            writer.close();
+                            flush.done.countDown();
+                            return;
+                        }
+                        flush.done.countDown();
+                    } else if (item instanceof String header) {
+                        writer.write(header);
+                    } else {
+                        Object[] row = (Object[]) item;
+                        line.setLength(0);
+                        for (int i = 0; i < row.length; i++) {
+                            if (i > 0) line.append(delimiter);
+                            line.append(FileStatsLogger.format(row[i], intFormat, doubleFormat));
+                        }
+                        writer.write(line.append('\n').toString());
+                    }
+                }
+                batch.clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            writerError = e;
+        } catch (InterruptedException e) {
+            writerError = e;
+            Thread.currentThread().interrupt();
+        } finally {
+            // release anyone waiting on a flush that will now never happen
+            for (Object item : batch)
+                if (item instanceof Flush flush) flush.done.countDown();
+            for (Object item : queue)
+                if (item instanceof Flush flush) flush.done.countDown();
+            if (writerError != null) {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                    // we are already reporting the original error
+                }
+            }
+        }
+    }
+
+    @Override
+    public void record(String key, Object datum) {
+        // Datum ignored - as with FileStatsLogger, only the record(Map) is supported
+    }
+
+    /**
+     * Waits until everything recorded so far has been written to file, and then closes the file.
+     */
+    @Override
+    public void processDataAndFinish() {
+        if (writerThread == null) return;
+        Flush finish = new Flush(true);
+        if (writerThread.isAlive())
+            enqueue(finish);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while closing file " + fileName);
+        }
+        writerThread = null;
+        finished = true;
+        checkWriter();
+    }
+
+    /**
+     * Asks the writer to flush the file once it has written everything recorded so far; this does not wait.
+     */
+    @Override
+    public void processDataAndNotFinish() {
+        if (writerThread == null) return;
+        checkWriter();
+        enqueue(new Flush(false));
+    }
+
+    /**
+     * Waits until everything recorded so far has been written and flushed to file, leaving it open.
+     */
+    public void flush() {
+        if (writerThread == null) return;
+        checkWriter();
+        Flush flush = new Flush(false);
+        enqueue(flush);
+        try {
+            flush.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while flushing file " + fileName);
+        }
+        checkWriter();
+    }
+
+    /**
+     * This always returns an empty Map
+     *
+     * @return A summary of the data
+     */
+    @Override
+    public Map<String, TAGStatSummary> summary() {
+        return new HashMap<>();
+    }
+
+    @Override
+    public AsyncFileStatsLogger emptyCopy(String id) {
+        // the id goes before the extension (or extensions, as in data.tsv.gz)
+        String[] fileParts = fileName.split(Pattern.quote("."), 2);
+        if (fileParts.length != 2)
+            throw new AssertionError("Filename does not conform to expected <stem>.<type>");
+        String newFileName = fileParts[0] + "_" + id + "." + fileParts[1];
+        AsyncFileStatsLogger retValue = new AsyncFileStatsLogger(newFileName, delimiter, append, gzip, queueCapacity);
+        retValue.actionName = id;
+        retValue.doubleFormat = doubleFormat;
+        retValue.intFormat = intFormat;
+        return retValue;
+    }
+}
@@ -0,0 +1,340 @@
+package evaluation.loggers;
+
+import core.interfaces.IStatisticLogger;
+import evaluation.summarisers.TAGStatSummary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Writes numeric training data (as recorded by FeatureListener) to a binary, column-oriented file instead of
+ * delimited text. This is much quicker to read back for learning (see AbstractLearner.loadData()), as nothing needs
+ * to be parsed, and is read through memory-mapped views of the file.
+ * <p>
+ * The file consists of:
+ * <ul>
+ *     <li>a header: the magic number 'TAGC', the format version, the number of bytes in the rest of the header, and
+ *     then the bytes per value (8 for float64, 4 for float32), the rows per block, the number of columns, and the name
+ *     of each column (as length-prefixed UTF-8)</li>
+ *     <li>blocks of up to blockRows rows: the number of rows in the block, followed by the values of each column in
+ *     turn. Only the last block may have fewer than blockRows rows.</li>
+ * </ul>
+ * All numbers are big-endian. As with FileStatsLogger, the keys of the first record are the columns. Missing data is
+ * written as NaN, and Booleans as 0.0 or 1.0; anything else that is not a Number is an error.
+ * <p>
+ * Rows are held in memory until a block is full, so processDataAndNotFinish() does not write anything; the last,
+ * partial, block is written by processDataAndFinish().
+ */
+public class ColumnarFileLogger implements IStatisticLogger {
+
+    public static final String EXTENSION = ".bin";
+    static final int MAGIC = 0x54414743; // 'TAGC'
+    static final int VERSION = 1;
+
+    private final String fileName;
+    private final boolean append;
+    private final boolean singlePrecision;
+    private final int blockRows;
+    private String actionName;
+
+    private String[] keys;
+    private String[] columns;
+    private double[][] block; // [column][row]
+    private int rowsInBlock;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private boolean finished;
+
+    /**
+     * @param fileName        The full location of the file to write results to
+     * @param append          If true and the file already exists, rows are added to it. The columns must then be
+     *                        the same as those already in the file.
+     * @param singlePrecision If true values are stored as float32 rather than float64
+     * @param blockRows       The number of rows in each block
+     */
+    public ColumnarFileLogger(String fileName, boolean append, boolean singlePrecision, int blockRows) {
+        if (blockRows < 1)
+            throw new IllegalArgumentException("Block size must be at least 1 : " + blockRows);
+        this.fileName = fileName;
+        this.append = append;
+        this.singlePrecision = singlePrecision;
+        this.blockRows = blockRows;
+    }
+
+    public ColumnarFileLogger(String fileName, boolean append) {
+        this(fileName, append, false, 4096);
+    }
+
+    public ColumnarFileLogger(String fileName) {
+        this(fileName, true);
+    }
+
+    private int valueBytes() {
+        return singlePrecision ? 4 : 8;
+    }
+
+    private void initialise(Collection<String> keys) {
+        this.keys = keys.toArray(new String[0]);
+        // as in FileStatsLogger, a copy for one action drops the action name from the column names
+        columns = keys.stream()
+                .map(k -> actionName != null && k.endsWith(":" + actionName) ? k.substring(0, k.length() - actionName.length() - 1) : k)
+                .toArray(String[]::new);
+        block = new double[columns.length][blockRows];
+        buffer = ByteBuffer.allocate(4 + columns.length * blockRows * valueBytes());
+        try {
+            File file = new File(fileName);
+            if (append && file.exists() && file.length() > 0) {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                Header existing = readHeader(channel, fileName);
+                if (existing.valueBytes != valueBytes() || existing.blockRows != blockRows
+                        || !Arrays.equals(existing.names, columns))
+                    throw new AssertionError("Data does not match the columns already in " + fileName);
+                channel.position(channel.size());
+            } else {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                writeFully(headerBytes());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem opening file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    private ByteBuffer headerBytes() {
+        byte[][] names = new byte[columns.length][];
+        int length = 12;
+        for (int i = 0; i < columns.length; i++) {
+            names[i] = columns[i].getBytes(StandardCharsets.UTF_8);
+            length += 4 + names[i].length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(12 + length);
+        header.putInt(MAGIC).putInt(VERSION).putInt(length);
+        header.putInt(valueBytes()).putInt(blockRows).putInt(columns.length);
+        for (byte[] name : names)
+            header.putInt(name.length).put(name);
+        return header.flip();
+    }
+
+    private void writeFully(ByteBuffer data) throws IOException {
+        while (data.hasRemaining())
+            channel.write(data);
+    }
+
+    @Override
+    public void record(Map<String, ?> rawData) {
+        if (finished)
+            throw new AssertionError("File " + fileName + " has already been closed");
+        Map<String, Object> data = FileStatsLogger.flatten(rawData);
+        if (columns == null)
+            initialise(data.keySet());
+        for (int c = 0; c < keys.length; c++)
+            block[c][rowsInBlock] = toDouble(data.get(keys[c]));
+        rowsInBlock++;
+        if (rowsInBlock == blockRows)
+            writeBlock();
+    }
+
+    private double toDouble(Object datum) {
+        if (datum == null)
+            return Double.NaN;
+        if (datum instanceof Number number)
+            return number.doubleValue();
+        if (datum instanceof Boolean bool)
+            return bool ? 1.0 : 0.0;
+        throw new IllegalArgumentException("Only numeric data can be written to " + fileName + " : " + datum);
+    }
+
+    private void writeBlock() {
+        buffer.clear();
+        buffer.putInt(rowsInBlock);
+        for (double[] column : block) {
+            for (int r = 0; r < rowsInBlock; r++) {
+                if (singlePrecision)
+                    buffer.putFloat((float) column[r]);
+                else
+                    buffer.putDouble(column[r]);
+            }
+        }
+        try {
+            writeFully(buffer.flip());
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem writing to file " + fileName + " : " + e.getMessage());
+        }
+        rowsInBlock = 0;
+    }
+
+    @Override
+    public void record(String key, Object datum) {
+        // Datum ignored - as with FileStatsLogger, only the record(Map) is supported
+    }
+
+    /**
+     * Writes any rows in the current (partial) block, and closes the file
+     */
+    @Override
+    public void processDataAndFinish() {
+        if (channel == null || finished) return;
+        if (rowsInBlock > 0)
+            writeBlock();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem closing file " + fileName + " : " + e.getMessage());
+        }
+        finished = true;
+    }
+
+    /**
+     * This does nothing; rows are written a block at a time
+     */
+    @Override
+    public void processDataAndNotFinish() {
+    }
+
+    /**
+     * This always returns an empty Map
+     *
+     * @return A summary of the data
+     */
+    @Override
+    public Map<String, TAGStatSummary> summary() {
+        return new HashMap<>();
+    }
+
+    @Override
+    public ColumnarFileLogger emptyCopy(String id) {
+        String[] fileParts = fileName.split(Pattern.quote("."));
+        if (fileParts.length != 2)
+            throw new AssertionError("Filename does not conform to expected <stem>.<type>");
+        String newFileName = fileParts[0] + "_" + id + "." + fileParts[1];
+        ColumnarFileLogger retValue = new ColumnarFileLogger(newFileName, append, singlePrecision, blockRows);
+        retValue.actionName = id;
+        return retValue;
+    }
+
+    private static class Header {
+        int valueBytes, blockRows;
+        String[] names;
+        long dataStart;
+    }
+
+    private static Header readHeader(FileChannel channel, String fileName) throws IOException {
+        ByteBuffer start = ByteBuffer.allocate(12);
+        if (channel.read(start, 0) < 12 || start.getInt(0) != MAGIC)
+            throw new AssertionError("Not a columnar data file : " + fileName);
+        if (start.getInt(4) != VERSION)
+            throw new AssertionError("Unsupported columnar data version " + start.getInt(4) + " : " + fileName);
+        int length = start.getInt(8);
+        ByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, 12, length);
+        Header header = new Header();
+        header.valueBytes = body.getInt();
+        header.blockRows = body.getInt();
+        header.names = new String[body.getInt()];
+        for (int i = 0; i < header.names.length; i++) {
+            byte[] name = new byte[body.getInt()];
+            body.get(name);
+            header.names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        header.dataStart = 12L + length;
+        return header;
+    }
+
+    /**
+     * @return true if the file starts with the magic number of this format (and so should be read with read())
+     */
+    public static boolean isColumnarFile(String fileName) {
+        File file = new File(fileName);
+        if (!file.isFile() || file.length() < 4) return false;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer start = ByteBuffer.allocate(4);
+            return channel.read(start, 0) == 4 && start.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem reading file " + fileName);
+        }
+    }
+
+    /**
+     * The contents of a columnar data file, with the data converted back to one double[] per row
+     */
+    public static class Data {
+        public final String[] names;
+        public final double[][] rows;
+
+        Data(String[] names, double[][] rows) {
+            this.names = names;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Reads a whole file written by ColumnarFileLogger. Each block is read through its own memory-mapped view, so that
+     * files larger than 2GB can be read.
+     */
+    public static Data read(String fileName) {
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            Header header = readHeader(channel, fileName);
+            int nColumns = header.names.length;
+            long size = channel.size();
+
+            // first find the blocks (and hence the total number of rows)
+            List<long[]> blocks = new ArrayList<>();  // {position, rows}
+            long totalRows = 0;
+            ByteBuffer count = ByteBuffer.allocate(4);
+            for (long position = header.dataStart; position < size; ) {
+                count.clear();
+                if (channel.read(count, position) < 4)
+                    throw new AssertionError("Truncated block at " + position + " : " + fileName);
+                int rows = count.getInt(0);
+                if (rows < 0 || rows > header.blockRows)
+                    throw new AssertionError("Invalid block at " + position + " : " + fileName);
+                blocks.add(new long[]{position + 4, rows});
+                totalRows += rows;
+                position += 4 + (long) rows * nColumns * header.valueBytes;
+                if (position > size)
+                    throw new AssertionError("Truncated block at " + position + " : " + fileName);
+            }
+            if (totalRows > Integer.MAX_VALUE)
+                throw new AssertionError("Too many rows to load : " + totalRows);
+
+            double[][] data = new double[(int) totalRows][nColumns];
+            double[] column = new double[header.blockRows];
+            float[] floatColumn = header.valueBytes == 4 ? new float[header.blockRows] : null;
+            int firstRow = 0;
+            for (long[] block : blocks) {
+                int rows = (int) block[1];
+                ByteBuffer view = channel.map(FileChannel.MapMode.READ_ONLY, block[0], (long) rows * nColumns * header.valueBytes);
+                DoubleBuffer doubles = floatColumn == null ? view.asDoubleBuffer() : null;
+                FloatBuffer floats = floatColumn == null ? null : view.asFloatBuffer();
+                for (int c = 0; c < nColumns; c++) {
+                    if (floats != null) {
+                        floats.get(floatColumn, 0, rows);
+                        for (int r = 0; r < rows; r++)
+                            column[r] = floatColumn[r];
+                    } else {
+                        doubles.get(column, 0, rows);
+                    }
+                    for (int r = 0; r < rows; r++)
+                        data[firstRow + r][c] = column[r];
+                }
+                firstRow += rows;
+            }
+            return new Data(header.names, data);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem reading file " + fileName);
+        }
+    }
+}
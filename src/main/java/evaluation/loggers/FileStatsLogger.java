@@ -64,26 +64,13 @@ public class FileStatsLogger implements IStatisticLogger {
     @Override
     public void record(Map<String, ?> rawData) {
         if (writer == null) initialise();
-        // first we preprocess data to remove nesting
-        // Use a LinkedHashMap to preserve order
-        Map<String, Object> data = new LinkedHashMap<>();
-        for (String key : rawData.keySet()) {
-            Object thing = rawData.get(key);
-            if (thing instanceof Map) {
-                data.putAll((Map<? extends String, ?>) thing);
-            } else {
-                data.put(key, rawData.get(key));
-            }
-        }
+        Map<String, Object> data = flatten(rawData);
         try {
             if (allKeys.isEmpty()) {
                 allKeys = data.keySet();
                 // then write a header line to the file
                 if (headerNeeded) {
-                    String outputLine = String.join(delimiter, allKeys) + "\n";
-                    outputLine = outputLine.replaceAll(":" + actionName + delimiter, delimiter);
-                    outputLine = outputLine.replaceAll(":" + actionName + "\\n", "\n");
-                    writer.write(outputLine);
+                    writer.write(headerLine(allKeys, delimiter, actionName));
                 }
             } else {
                 data.keySet().forEach(s -> {
@@ -95,34 +82,7 @@ public class FileStatsLogger implements IStatisticLogger {
             }
             List<String> outputData = new ArrayList<>();
             for (String key: allKeys) {
-                Object datum = data.get(key);
-                if (datum == null) {
-                    outputData.add("NA");
-                    continue;
-                }
-                // If this is a summary, then we return the single most common occurrence
-                if (datum instanceof TAGOccurrenceStatSummary) {
-                    TAGOccurrenceStatSummary summary = (TAGOccurrenceStatSummary) datum;
-                    datum = summary.getHighestOccurrence().a;
-                }
-                if (datum instanceof Integer) {
-                    outputData.add(String.format(intFormat, datum));
-                    continue;
-                }
-                if (datum instanceof Double) {
-                    outputData.add(String.format(doubleFormat, datum));
-                    continue;
-                }
-                if (datum instanceof Map) {
-                    Map<String, ?> map = (Map<String, ?>) datum;
-                    if (map.size() == 1)
-                        outputData.add(map.values().iterator().next().toString());
-                    else
-                        outputData.add(map.toString());
-                    continue;
-                }
-
-                outputData.add(datum.toString());
+                outputData.add(format(data.get(key), intFormat, doubleFormat));
             }
 
             if (!outputData.isEmpty()) {
@@ -135,6 +95,56 @@ public class FileStatsLogger implements IStatisticLogger {
         }
     }
 
+    /**
+     * Removes one level of nesting from the data: the entries of any Map values are added in place of the Map.
+     * Uses a LinkedHashMap to preserve order.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> flatten(Map<String, ?> rawData) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (String key : rawData.keySet()) {
+            Object thing = rawData.get(key);
+            if (thing instanceof Map) {
+                data.putAll((Map<? extends String, ?>) thing);
+            } else {
+                data.put(key, rawData.get(key));
+            }
+        }
+        return data;
+    }
+
+    static String headerLine(Collection<String> keys, String delimiter, String actionName) {
+        String outputLine = String.join(delimiter, keys) + "\n";
+        outputLine = outputLine.replaceAll(":" + actionName + delimiter, delimiter);
+        outputLine = outputLine.replaceAll(":" + actionName + "\\n", "\n");
+        return outputLine;
+    }
+
+    /**
+     * @return the text written to file for one datum
+     */
+    @SuppressWarnings("unchecked")
+    static String format(Object datum, String intFormat, String doubleFormat) {
+        if (datum == null)
+            return "NA";
+        // If this is a summary, then we return the single most common occurrence
+        if (datum instanceof TAGOccurrenceStatSummary) {
+            TAGOccurrenceStatSummary summary = (TAGOccurrenceStatSummary) datum;
+            datum = summary.getHighestOccurrence().a;
+        }
+        if (datum instanceof Integer)
+            return String.format(intFormat, datum);
+        if (datum instanceof Double)
+            return String.format(doubleFormat, datum);
+        if (datum instanceof Map) {
+            Map<String, ?> map = (Map<String, ?>) datum;
+            if (map.size() == 1)
+                return map.values().iterator().next().toString();
+            return map.toString();
+        }
+        return datum.toString();
+    }
+
     @Override
     public void record(String key, Object datum) {
         //   System.out.println("Datum ignored - FileStatsLogger only to be used with other record() : " + key);
@@ -151,7 +151,7 @@ public abstract class AbstractMetric {
         dataLogger.addData("GameID", String.valueOf(e.state.getGameID()));
         dataLogger.addData("GameName", e.state.getGameType().name());
         dataLogger.addData("PlayerCount", String.valueOf(e.state.getNPlayers()));
-        dataLogger.addData("GameSeed", String.valueOf(e.state.getGameParameters().getRandomSeed()));
+        dataLogger.addData("GameSeed", String.valueOf(e.state.getRandomSeed()));
         dataLogger.addData("Tick", e.state.getGameTick());
         dataLogger.addData("Turn", e.state.getTurnCounter());
         dataLogger.addData("Round", e.state.getRoundCounter());
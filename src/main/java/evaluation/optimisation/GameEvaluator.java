@@ -74,6 +74,19 @@ public class GameEvaluator implements SolutionEvaluator {
             throw new AssertionError("Insufficient Opponents to avoid duplicates");
     }
 
+    /**
+     * A copy of this evaluator (with copies of the opponents) that can be used on another thread.
+     *
+     * @param seed The random seed for the copy
+     */
+    public GameEvaluator copy(long seed) {
+        List<AbstractPlayer> opponentCopies = opponents.stream().map(AbstractPlayer::copy).collect(toList());
+        GameEvaluator retValue = new GameEvaluator(game, params, nPlayers, opponentCopies, stateHeuristic, gameHeuristic, avoidOppDupes);
+        retValue.rnd = new Random(seed);
+        retValue.debug = debug;
+        return retValue;
+    }
+
     @Override
     public void reset() {
         nEvals = 0;
@@ -30,12 +30,23 @@ public class MultiNTBEA extends NTBEA {
         );
     }
 
+    protected MultiNTBEA(MultiNTBEA other, long seed) {
+        super(other);
+        searchFramework = new MultiNTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize, nPlayers);
+        multiPlayerEvaluator = new GameMultiPlayerEvaluator(game, params.searchSpace, nPlayers, stateHeuristic, seed);
+    }
+
     @Override
-    protected void runIteration() {
-        super.runIteration();
+    protected void recordIteration() {
+        super.recordIteration();
         printDiversityResults(landscapeModel, params.kExplore);
     }
 
+    @Override
+    protected NTBEA copyForRepeat(long seed) {
+        return new MultiNTBEA(this, seed);
+    }
+
     @Override
     protected void runTrials() {
         multiPlayerEvaluator.reset();
@@ -28,6 +28,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.IntToDoubleFunction;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -56,11 +57,7 @@ public class NTBEA {
     public NTBEA(NTBEAParameters parameters, GameType game, int nPlayers) {
         // Now initialise the other bits and pieces needed for the NTBEA package
         this.params = parameters;
-        landscapeModel = new NTupleSystem(params.searchSpace);
-        landscapeModel.setUse3Tuple(params.useThreeTuples);
-        landscapeModel.addTuples();
-
-        searchFramework = new NTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize);
+        initialiseSearch();
         this.game = game;
         this.nPlayers = nPlayers;
         // Set up opponents
@@ -110,6 +107,27 @@ public class NTBEA {
                 true);
     }
 
+    /**
+     * Used by copyForRepeat(). This shares the parameters and heuristics of other, and has a new N-Tuple model.
+     * It does not create any opponents or an evaluator; that is left to the caller.
+     */
+    protected NTBEA(NTBEA other) {
+        this.params = other.params;
+        this.game = other.game;
+        this.nPlayers = other.nPlayers;
+        this.stateHeuristic = other.stateHeuristic;
+        this.gameHeuristic = other.gameHeuristic;
+        initialiseSearch();
+    }
+
+    private void initialiseSearch() {
+        landscapeModel = new NTupleSystem(params.searchSpace);
+        landscapeModel.setUse3Tuple(params.useThreeTuples);
+        landscapeModel.addTuples();
+
+        searchFramework = new NTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize);
+    }
+
     public void setOpponents(List<AbstractPlayer> opponents) {
         evaluator.opponents = opponents;
     }
@@ -137,8 +155,21 @@ public class NTBEA {
      */
     public Pair<Object, int[]> run() {
 
+        // Each repeat runs on its own copy of this NTBEA, and these are all created before any are run. This means
+        // that the results are the same whether or not the repeats are run in parallel.
+        List<NTBEA> repeats = new ArrayList<>();
+        for (int i = 0; i < params.repeats; i++)
+            repeats.add(copyForRepeat(evaluator.rnd.nextLong()));
+        boolean inParallel = params.nThreads > 0 && params.repeats > 1;
+        if (inParallel)
+            runRepeatsInParallel(repeats);
         for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
-            runIteration();
+            NTBEA repeat = repeats.get(currentIteration);
+            if (!inParallel)
+                repeat.runTrials();
+            // otherwise the search has already been run; we just need to process the results
+            landscapeModel = repeat.landscapeModel;
+            recordIteration();
             writeAgentJSON(winnerSettings.get(winnerSettings.size() - 1),
                     params.destDir + File.separator + "Recommended_" + currentIteration + ".json");
         }
@@ -182,6 +213,7 @@ public class NTBEA {
                 config.put(RunArg.budget, params.budget);
                 config.put(RunArg.verbose, false);
                 config.put(RunArg.destDir, params.destDir);
+                config.put(RunArg.nThreads, params.nThreads);
                 RoundRobinTournament tournament = new RoundRobinTournament(players, game, nPlayers, params.gameParams, config);
                 createListeners().forEach(tournament::addListener);
                 tournament.run();
@@ -238,11 +270,52 @@ public class NTBEA {
         searchFramework.runTrial(evaluator, params.iterationsPerRun);
     }
 
-    protected void runIteration() {
-        landscapeModel.reset();
+    /**
+     * Runs all the repeats at the same time. The results are then processed in order of repeat by run().
+     *
+     * @param repeats The copy of this NTBEA for each repeat (with its own N-Tuple model, evaluator and opponents)
+     */
+    protected void runRepeatsInParallel(List<NTBEA> repeats) {
+        runInParallel(params.nThreads, repeats.stream().map(c -> (Callable<Object>) () -> {
+            c.runTrials();
+            return null;
+        }).collect(Collectors.toList()));
+    }
+
+    /**
+     * A copy of this NTBEA with its own N-Tuple model and evaluator (with copies of the opponents), so that a
+     * repeat can be run independently of the others, and on another thread.
+     */
+    protected NTBEA copyForRepeat(long seed) {
+        NTBEA retValue = new NTBEA(this);
+        retValue.evaluator = evaluator.copy(seed);
+        return retValue;
+    }
 
-        runTrials();
+    protected static <T> List<T> runInParallel(int nThreads, List<Callable<T>> tasks) {
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            List<Future<T>> futures = executor.invokeAll(tasks);
+            List<T> retValue = new ArrayList<>();
+            for (Future<T> future : futures)
+                retValue.add(future.get());
+            return retValue;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted during parallel NTBEA evaluation");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re)
+                throw re;
+            throw new AssertionError("Error in parallel NTBEA evaluation", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
+    /**
+     * Processes the results of the NTBEA run in landscapeModel, and runs the evaluation games on the recommendation.
+     */
+    protected void recordIteration() {
         if (params.verbose)
             logResults();
 
@@ -274,8 +347,24 @@ public class NTBEA {
 
     protected Pair<Double, Double> evaluateWinner(int[] winnerSettings) {
 
-        double[] results = IntStream.range(0, params.evalGames)
-                .mapToDouble(answer -> evaluator.evaluate(winnerSettings)).toArray();
+        // each game gets its own evaluator (and seed), so that the results are the same whether or not the games are
+        // run in parallel; nEvals is set so that the tuned agent cycles through the positions in the same way as it
+        // would with a single evaluator
+        List<GameEvaluator> gameEvaluators = new ArrayList<>();
+        for (int i = 0; i < params.evalGames; i++) {
+            GameEvaluator gameEvaluator = evaluator.copy(evaluator.rnd.nextLong());
+            gameEvaluator.nEvals = i;
+            gameEvaluators.add(gameEvaluator);
+        }
+        double[] results;
+        if (params.nThreads > 0) {
+            List<Callable<Double>> games = gameEvaluators.stream()
+                    .map(e -> (Callable<Double>) () -> e.evaluate(winnerSettings))
+                    .collect(Collectors.toList());
+            results = runInParallel(params.nThreads, games).stream().mapToDouble(Double::doubleValue).toArray();
+        } else {
+            results = gameEvaluators.stream().mapToDouble(e -> e.evaluate(winnerSettings)).toArray();
+        }
 
         double avg = Arrays.stream(results).average().orElse(0.0);
         double stdErr = Math.sqrt(Arrays.stream(results)
@@ -43,6 +43,7 @@ public class NTBEAParameters {
     public ITPSearchSpace searchSpace;
     public AbstractParameters gameParams;
     public boolean byTeam;
+    public int nThreads;
 
     public NTBEAParameters(Map<RunArg, Object> args) {
         this(args, Function.identity());
@@ -64,6 +65,7 @@ public class NTBEAParameters {
         verbose = (boolean) args.get(RunArg.verbose);
         seed = args.get(RunArg.seed) instanceof Long ? ((Long)args.get(RunArg.seed)).intValue() : (int) args.get(RunArg.seed)  ;
         byTeam = (boolean) args.get(RunArg.byTeam);
+        nThreads = (int) args.getOrDefault(RunArg.nThreads, 0);
         GameType game = GameType.valueOf(args.get(RunArg.game).toString());
         gameParams = args.get(RunArg.gameParams).equals("") ? null :
                 AbstractParameters.createFromFile(game, (String) args.get(RunArg.gameParams));
@@ -71,6 +73,9 @@ public class NTBEAParameters {
         mode = Mode.valueOf((String) args.get(RunArg.NTBEAMode));
         logFile = "NTBEA.log";
         listenerClasses = (List<String>) args.get(RunArg.listener);
+        if (nThreads > 0 && !listenerClasses.isEmpty())
+            throw new IllegalArgumentException("Listeners are not supported when running games in parallel (nThreads = " +
+                    nThreads + "); set nThreads to 0, or specify an empty list of listeners");
         destDir = (String) args.get(RunArg.destDir);
         if (destDir.isEmpty()) destDir = "NTBEA";
         if (tuningGame && opponentDescriptor.isEmpty()) {
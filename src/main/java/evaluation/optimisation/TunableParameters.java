@@ -150,6 +150,10 @@ public abstract class TunableParameters extends AbstractParameters implements IT
      */
     @Override
     public TunableParameters copy() {
+        if (isFrozen()) {
+            assert unchangedSinceFrozen();
+            return this;
+        }
         AbstractParameters retValue = super.copy();  // this calls ._copy()
         TunableParameters tunable = (TunableParameters) retValue;
         tunable.parameterNames = new ArrayList<>(parameterNames);
@@ -176,6 +180,10 @@ public abstract class TunableParameters extends AbstractParameters implements IT
     // It is suitable if the same set of parameters are being used with none of them recording any state
     // This is usually the case for forward models in MCTS for example
     public TunableParameters shallowCopy() {
+        if (isFrozen()) {
+            assert unchangedSinceFrozen();
+            return this;
+        }
         AbstractParameters retValue = super.copy();  // this calls ._copy()
         TunableParameters tunable = (TunableParameters) retValue;
         tunable.parameterNames = parameterNames;
@@ -277,6 +285,7 @@ public abstract class TunableParameters extends AbstractParameters implements IT
      */
     @Override
     public void setParameterValue(String parameterName, Object value) {
+        checkNotFrozen();
         if (parameterName.split(Pattern.quote(".")).length > 1) {
             // in this case we pass on to the subParam (as well as updating here)
             String[] split = parameterName.split(Pattern.quote("."));
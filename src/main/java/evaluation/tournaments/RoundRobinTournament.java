@@ -1,7 +1,9 @@
 package evaluation.tournaments;
 
+import core.AbstractGameState;
 import core.AbstractParameters;
 import core.AbstractPlayer;
+import core.Game;
 import evaluation.RunArg;
 import evaluation.listeners.IGameListener;
 import evaluation.listeners.TournamentMetricsGameListener;
@@ -15,6 +17,10 @@ import utilities.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -55,6 +61,30 @@ public class RoundRobinTournament extends AbstractTournament {
     String seedFile;
     Random seedRnd;
 
+    // If nThreads > 0 then games are run on a pool of worker threads, and their results recorded in the order they were created.
+    // Either way each game has its own copies of the agents and game parameters (see submitGame()), and listeners are
+    // only allowed when nThreads is 0 (see addListener())
+    int nThreads;
+    ExecutorService executor;
+    Deque<Pair<List<Integer>, Future<GameOutcome>>> pendingGames = new ArrayDeque<>();
+
+    /**
+     * The parts of a finished game needed to update the tournament results.
+     * (Used so that a worker thread does not need to keep the whole Game until its result is recorded.)
+     */
+    protected record GameOutcome(GameResult[] results, int[] ordinalPositions, int[] teams) {
+        static GameOutcome of(AbstractGameState state) {
+            int n = state.getNPlayers();
+            int[] ordinals = new int[n];
+            int[] teams = new int[n];
+            for (int p = 0; p < n; p++) {
+                ordinals[p] = state.getOrdinalPosition(p);
+                teams[p] = state.getTeam(p);
+            }
+            return new GameOutcome(state.getPlayerResults().clone(), ordinals, teams);
+        }
+    }
+
     /**
      * Create a round robin tournament, which plays all agents against all others.
      *
@@ -142,6 +172,7 @@ public class RoundRobinTournament extends AbstractTournament {
         this.randomSeed = ((Number) config.getOrDefault(RunArg.seed, System.currentTimeMillis())).longValue();
         this.seedRnd = new Random(randomSeed);
         this.randomGameParams = (boolean) config.getOrDefault(RunArg.randomGameParams, false);
+        this.nThreads = (int) config.getOrDefault(RunArg.nThreads, 0);
 
         this.name = String.format("Game: %s, Players: %d, Mode: %s, TotalGames: %d, GamesPerMatchup: %d",
                 gameToPlay.name(), playersPerGame, tournamentMode, actualGames, gamesPerMatchup);
@@ -163,25 +194,41 @@ public class RoundRobinTournament extends AbstractTournament {
                 //           .peek(a -> System.out.println(a.toString()))
                 .map(AbstractPlayer::toString).collect(Collectors.toSet());
 
-        for (IGameListener gameTracker : listeners) {
-            gameTracker.init(game, nPlayers, agentNames);
-            game.addListener(gameTracker);
+        if (nThreads > 0) {
+            if (!listeners.isEmpty())
+                throw new IllegalArgumentException(nonParallelListenersMessage());
+            executor = Executors.newFixedThreadPool(nThreads);
+        } else {
+            // the listeners are then added to the Game instance for each game in turn (see runGame())
+            for (IGameListener gameTracker : listeners)
+                gameTracker.init(game, nPlayers, agentNames);
         }
 
-        LinkedList<Integer> matchUp = new LinkedList<>();
-        // add outer loop if we have tournamentSeeds enabled; if not this will just run once
-        List<Integer> allSeeds = new ArrayList<>(gameSeeds);
-        for (int iter = 0; iter < Math.max(1, tournamentSeeds); iter++) {
-            if (tournamentSeeds > 0) {
-                // use the same seed for each game in the tournament
-                // allSeeds contains the ones loaded from file - if empty then use a random one
-                int nextRnd = allSeeds.isEmpty() ? seedRnd.nextInt() : allSeeds.get(iter);
-                gameSeeds = IntStream.range(0, gamesPerMatchup).mapToObj(i -> nextRnd).collect(toList());
-            } else {
-                // use a seed per matchup
-                gameSeeds = IntStream.range(0, gamesPerMatchup).mapToObj(i -> seedRnd.nextInt()).collect(toList());
+        try {
+            LinkedList<Integer> matchUp = new LinkedList<>();
+            // add outer loop if we have tournamentSeeds enabled; if not this will just run once
+            List<Integer> allSeeds = new ArrayList<>(gameSeeds);
+            for (int iter = 0; iter < Math.max(1, tournamentSeeds); iter++) {
+                if (tournamentSeeds > 0) {
+                    // use the same seed for each game in the tournament
+                    // allSeeds contains the ones loaded from file - if empty then use a random one
+                    int nextRnd = allSeeds.isEmpty() ? seedRnd.nextInt() : allSeeds.get(iter);
+                    gameSeeds = IntStream.range(0, gamesPerMatchup).mapToObj(i -> nextRnd).collect(toList());
+                } else {
+                    // use a seed per matchup
+                    gameSeeds = IntStream.range(0, gamesPerMatchup).mapToObj(i -> seedRnd.nextInt()).collect(toList());
+                }
+                createAndRunMatchUp(matchUp);
+            }
+            if (executor != null)
+                recordPendingGames(0);
+        } finally {
+            // the worker threads are not daemons, so the pool must be shut down however we leave the loop
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+                pendingGames.clear();
             }
-            createAndRunMatchUp(matchUp);
         }
         reportResults();
 
@@ -300,12 +347,6 @@ public class RoundRobinTournament extends AbstractTournament {
             throw new AssertionError("Not enough seeds for the number of games requested");
         if (debug)
             System.out.printf("Evaluate %s at %tT%n", agentIDsInThisGame.toString(), System.currentTimeMillis());
-        LinkedList<AbstractPlayer> matchUpPlayers = new LinkedList<>();
-
-        // If we are in self-play mode, we need to create a copy of the player to avoid them sharing the same state
-        // If not in self-play mode then this is unnecessary, as the same agent will never be in the same game twice
-        for (int agentID : agentIDsInThisGame)
-            matchUpPlayers.add(tournamentMode == EXHAUSTIVE_SELF_PLAY ? this.agents.get(agentID).copy() : this.agents.get(agentID));
 
         if (verbose) {
             StringBuffer sb = new StringBuffer();
@@ -316,88 +357,140 @@ public class RoundRobinTournament extends AbstractTournament {
             System.out.println(sb);
         }
 
-        // TODO : Not sure this is the ideal place for this...ask Raluca
+        for (int i = 0; i < nGames; i++)
+            submitGame(agentIDsInThisGame, seeds.get(i));
+    }
+
+    /**
+     * Runs a single game, on this thread if nThreads is 0, and otherwise by queueing it on the worker pool.
+     * Every game gets its own Game instance and its own copies of the agents, so that the outcome depends only on the
+     * seed, and not on how many threads there are (including none) or which other games happen to run at the same
+     * time. Results are recorded in the order the games were submitted (see recordPendingGames()).
+     * <p>
+     * This applies when games are run one at a time (nThreads = 0) too. Each game is played by agent.copy() of each
+     * agent, with a copy() of the game parameters, so an agent that learns or keeps state from one game to the next
+     * starts every game afresh from the agent given to the tournament, and randomGameParams changes only the copy used
+     * for that game. (Before parallel games were added, the same agent instances and Game were reused for every game.)
+     */
+    private void submitGame(List<Integer> agentIDsInThisGame, int seed) {
+        List<Integer> agentIDs = new ArrayList<>(agentIDsInThisGame);  // matchUp is modified by createAndRunMatchUp
+        List<AbstractPlayer> matchUpPlayers = new ArrayList<>();
+        for (int agentID : agentIDs)
+            matchUpPlayers.add(this.agents.get(agentID).copy());
+        AbstractParameters gameParams = game.getGameState().getGameParameters().copy();
+
+        if (executor == null) {
+            recordResult(agentIDs, runGame(matchUpPlayers, gameParams, seed));
+            totalGamesRun++;
+            return;
+        }
+        Future<GameOutcome> outcome = executor.submit(() -> runGame(matchUpPlayers, gameParams, seed));
+        pendingGames.add(new Pair<>(agentIDs, outcome));
+        // we keep a few games per thread in the queue, and record the rest so that we do not hold on to them all
+        recordPendingGames(4 * nThreads);
+    }
+
+    private GameOutcome runGame(List<AbstractPlayer> matchUpPlayers, AbstractParameters gameParams, int seed) {
+        Game gameInstance = game.getGameType().createGameInstance(nPlayers, gameParams);
+        // there are only listeners when running games on this thread (see run())
         Set<String> agentNames = agents.stream().map(AbstractPlayer::toString).collect(Collectors.toSet());
         for (IGameListener listener : listeners) {
-            if (listener instanceof TournamentMetricsGameListener) {
-                ((TournamentMetricsGameListener) listener).tournamentInit(game, nPlayers, agentNames, new HashSet<>(matchUpPlayers));
-            }
+            gameInstance.addListener(listener);
+            if (listener instanceof TournamentMetricsGameListener tournamentListener)
+                tournamentListener.tournamentInit(gameInstance, nPlayers, agentNames, new HashSet<>(matchUpPlayers));
         }
+        gameInstance.reset(matchUpPlayers, seed);
+        if (randomGameParams) {
+            gameInstance.getGameState().getGameParameters().randomize();
+            System.out.println("Game parameters: " + gameInstance.getGameState().getGameParameters());
+        }
+        gameInstance.run();  // Always running tournaments without visuals
+        return GameOutcome.of(gameInstance.getGameState());
+    }
 
-        // Run the game N = gamesPerMatchUp times with these players
-        for (int i = 0; i < nGames; i++) {
-            // if tournamentSeeds > 0, then we are running this many tournaments, each with a different random seed fixed for the whole tournament
-            // so we override the standard random seeds
-            game.reset(matchUpPlayers, seeds.get(i));
-
-            // Randomize parameters
-            if (randomGameParams) {
-                game.getGameState().getGameParameters().randomize();
-                System.out.println("Game parameters: " + game.getGameState().getGameParameters());
+    /**
+     * Waits for the oldest submitted games to finish and records their results, until at most maxPending remain.
+     */
+    private void recordPendingGames(int maxPending) {
+        while (pendingGames.size() > maxPending) {
+            Pair<List<Integer>, Future<GameOutcome>> next = pendingGames.removeFirst();
+            try {
+                recordResult(next.a, next.b.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError("Interrupted while waiting for tournament game to finish");
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Error running tournament game for " + next.a, e.getCause());
             }
+            totalGamesRun++;
+        }
+    }
 
-            game.run();  // Always running tournaments without visuals
-            GameResult[] results = game.getGameState().getPlayerResults();
-
-            int numDraws = 0;
-            for (int j = 0; j < matchUpPlayers.size(); j++) {
-                nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
-                for (int k = 0; k < matchUpPlayers.size(); k++) {
-                    if (k != j) {
-                        nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
-                    }
+    /**
+     * Updates the tournament statistics with the results of one game.
+     *
+     * @param agentIDsInThisGame - IDs of agents that played the game.
+     * @param outcome            - the results and final positions in the game.
+     */
+    protected void recordResult(List<Integer> agentIDsInThisGame, GameOutcome outcome) {
+        GameResult[] results = outcome.results();
+        int numDraws = 0;
+        for (int j = 0; j < agentIDsInThisGame.size(); j++) {
+            nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
+            for (int k = 0; k < agentIDsInThisGame.size(); k++) {
+                if (k != j) {
+                    nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
                 }
+            }
 
-                // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
-                if (byTeam) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+            // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
+            if (byTeam) {
+                for (int player = 0; player < results.length; player++) {
+                    if (outcome.teams()[player] == j) {
+                        numDraws += updatePoints(outcome, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
+                        break; // we stop after one player on the team to avoid double counting
                     }
-                } else {
-                    numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
                 }
+            } else {
+                numDraws += updatePoints(outcome, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
             }
+        }
 
-            if (numDraws > 0) {
-                double pointsPerDraw = 1.0 / numDraws;
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
-                    if (results[j] == GameResult.DRAW_GAME)
-                        pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
-                }
+        if (numDraws > 0) {
+            double pointsPerDraw = 1.0 / numDraws;
+            for (int j = 0; j < agentIDsInThisGame.size(); j++) {
+                if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
+                if (results[j] == GameResult.DRAW_GAME)
+                    pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
             }
+        }
 
-            if (verbose) {
-                StringBuffer sb = new StringBuffer();
-                sb.append("[");
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            sb.append(results[player]).append(",");
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+        if (verbose) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("[");
+            for (int j = 0; j < agentIDsInThisGame.size(); j++) {
+                for (int player = 0; player < results.length; player++) {
+                    if (outcome.teams()[player] == j) {
+                        sb.append(results[player]).append(",");
+                        break; // we stop after one player on the team to avoid double counting
                     }
                 }
-                sb.setCharAt(sb.length() - 1, ']');
-                System.out.println(sb);
             }
-
+            sb.setCharAt(sb.length() - 1, ']');
+            System.out.println(sb);
         }
-        totalGamesRun += nGames;
     }
 
-    private int updatePoints(GameResult[] results, List<Integer> matchUpPlayers, int j, int player) {
+    private int updatePoints(GameOutcome outcome, List<Integer> matchUpPlayers, int j, int player) {
+        GameResult[] results = outcome.results();
         // j is the index of the agent in the matchup; player is the corresponding player number in the game
-        int ordinalPos = game.getGameState().getOrdinalPosition(player);
+        int ordinalPos = outcome.ordinalPositions()[player];
         rankPerPlayer[j] += ordinalPos;
         rankPerPlayerSquared[j] += ordinalPos * ordinalPos;
 
-        for (int playerPos = 0; playerPos < game.getGameState().getNPlayers(); playerPos++) {
+        for (int playerPos = 0; playerPos < results.length; playerPos++) {
             if (playerPos != player) {
-                int ordinalOther = game.getGameState().getOrdinalPosition(playerPos);
+                int ordinalOther = outcome.ordinalPositions()[playerPos];
                 ordinalDeltaPerOpponent[j][matchUpPlayers.get(playerPos)] += ordinalOther - ordinalPos;
             }
         }
@@ -737,10 +830,25 @@ public class RoundRobinTournament extends AbstractTournament {
         return finalOrdinalRanking.get(agentID).b;
     }
 
+    /**
+     * Adds a listener that is attached to every game in the tournament.
+     *
+     * @throws IllegalArgumentException if games are run in parallel (nThreads > 0), as a listener sees the live state
+     *                                  of one game at a time
+     */
     public void addListener(IGameListener gameTracker) {
+        if (nThreads > 0)
+            throw new IllegalArgumentException(nonParallelListenersMessage());
         listeners.add(gameTracker);
     }
 
+    private String nonParallelListenersMessage() {
+        // listeners see the live game state as events happen, and keep per-game data between events, so they
+        // cannot be shared by games running at the same time
+        return "Listeners are not supported when running games in parallel (nThreads = " + nThreads +
+                "); set nThreads to 0, or specify an empty list of listeners";
+    }
+
     public int getNumberOfAgents() {
         return agents.size();
     }
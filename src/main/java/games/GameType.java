@@ -1,6 +1,7 @@
 package games;
 
 import core.*;
+import core.components.ComponentIds;
 import core.rules.AbstractRuleBasedForwardModel;
 import games.battlelore.*;
 import games.battlelore.gui.BattleloreGUI;
@@ -263,12 +264,15 @@ public enum GameType {
 
     public AbstractGameState createGameState(AbstractParameters params, int nPlayers) {
         if (gameStateClass == null) throw new AssertionError("No game state class declared for the game: " + this);
-        try {
-            Constructor<?> constructorGS = ConstructorUtils.getMatchingAccessibleConstructor(gameStateClass, AbstractParameters.class, Integer.class);
-            return (AbstractGameState) constructorGS.newInstance(params, nPlayers);
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
-        }
+        Constructor<?> constructorGS = ConstructorUtils.getMatchingAccessibleConstructor(gameStateClass, AbstractParameters.class, Integer.class);
+        // components created by the constructor of the state are the first in the game's own sequence of IDs
+        return new ComponentIds().use(() -> {
+            try {
+                return (AbstractGameState) constructorGS.newInstance(params, nPlayers);
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        });
     }
 
     public AbstractForwardModel createForwardModel(AbstractParameters params, int nPlayers) {
@@ -5,10 +5,9 @@ import games.battlelore.components.Unit;
 import games.coltexpress.cards.ColtExpressCard;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.JSONCache;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -78,11 +77,10 @@ public class CommandCard extends Card {
     }
 
     public static List<CommandCard> loadCommandCards(String filename) {
-        JSONParser jsonParser = new JSONParser();
         ArrayList<CommandCard> commandCards = new ArrayList<>();
 
-        try (FileReader reader = new FileReader(filename)) {
-            JSONArray data = (JSONArray) jsonParser.parse(reader);
+        try {
+            JSONArray data = (JSONArray) JSONCache.parse(filename);
             for(Object o : data) {
                 CommandCard newCard = new CommandCard();
                 newCard.loadCommandCard((JSONObject) o);
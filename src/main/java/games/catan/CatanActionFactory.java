@@ -165,6 +165,66 @@ public class CatanActionFactory {
         return actions;
     }
 
+    /**
+     * Counts the new trade offers (flat action space, no current offer) that getPlayerTradeOfferActions() would
+     * create, without creating them. There can be thousands of these, so this is used when we only need one.
+     *
+     * @param gs - current state
+     * @param playerID - active player
+     * @return - number of new OfferPlayerTrade actions
+     */
+    static int countNewTradeOffers(CatanGameState gs, int playerID) {
+        Map<CatanParameters.Resource, Counter> resources = gs.getPlayerResources(playerID);
+        int maxToRequest = ((CatanParameters) gs.getGameParameters()).max_resources_request_trade;
+        int nResourceTypes = CatanParameters.Resource.values().length - 1;  // excluding WILD
+        int count = 0;
+        for (int playerIndex = 0; playerIndex < gs.getNPlayers(); playerIndex++) {
+            if (playerIndex != playerID && gs.getNResourcesInHand(playerIndex) > 0) {
+                for (CatanParameters.Resource resToOffer : CatanParameters.Resource.values()) {
+                    if (resToOffer == CatanParameters.Resource.WILD) continue;
+                    int maxToOffer = resources.get(resToOffer).getValue();
+                    if (maxToOffer > 0 && maxToRequest > 0)
+                        count += maxToOffer * maxToRequest * (nResourceTypes - 1);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The index-th new trade offer, in the same order as getPlayerTradeOfferActions() lists them.
+     *
+     * @param gs - current state
+     * @param playerID - active player
+     * @param index - from 0 to countNewTradeOffers() - 1
+     * @return - the OfferPlayerTrade action
+     */
+    static AbstractAction getNewTradeOffer(CatanGameState gs, int playerID, int index) {
+        Map<CatanParameters.Resource, Counter> resources = gs.getPlayerResources(playerID);
+        int maxToRequest = ((CatanParameters) gs.getGameParameters()).max_resources_request_trade;
+        int remaining = index;
+        for (int playerIndex = 0; playerIndex < gs.getNPlayers(); playerIndex++) {
+            if (playerIndex != playerID && gs.getNResourcesInHand(playerIndex) > 0) {
+                for (CatanParameters.Resource resToOffer : CatanParameters.Resource.values()) {
+                    if (resToOffer == CatanParameters.Resource.WILD) continue;
+                    int maxToOffer = resources.get(resToOffer).getValue();
+                    if (maxToOffer <= 0 || maxToRequest <= 0) continue;
+                    for (CatanParameters.Resource resToRequest : CatanParameters.Resource.values()) {
+                        if (resToRequest == CatanParameters.Resource.WILD || resToRequest == resToOffer) continue;
+                        int block = maxToOffer * maxToRequest;
+                        if (remaining < block) {
+                            // createTradeOfferActions() loops over offer quantity, then request quantity
+                            return new OfferPlayerTrade(OfferPlayerTrade.Stage.Offer, resToOffer, remaining / maxToRequest + 1,
+                                    resToRequest, remaining % maxToRequest + 1, playerID, playerIndex);
+                        }
+                        remaining -= block;
+                    }
+                }
+            }
+        }
+        throw new IllegalArgumentException("Trade offer index " + index + " out of range");
+    }
+
     /**
      * Helper function that lists all combinations of trade offers, from 1 to maxToOffer of resource offered, and from 1 to maxToRequest for resource requested
      * @param offeringPlayer - player offering trade originally (may not be active player)
@@ -284,6 +284,53 @@ public class CatanForwardModel extends StandardForwardModel {
         return mainActions;
     }
 
+    /**
+     * New trade offers to other players usually make up almost all of the main phase actions (one per combination of
+     * player, resources and quantities), so when no offer is on the table these are counted and sampled by index
+     * rather than created.
+     */
+    @Override
+    protected int _countAvailableActions(AbstractGameState gameState) {
+        CatanGameState cgs = (CatanGameState) gameState;
+        if (cgs.getGamePhase() == Setup || cgs.getGamePhase() == Robber || cgs.tradeOffer != null)
+            return super._countAvailableActions(gameState);
+        return countNewTradeOffers(cgs) + otherMainPhaseActions(cgs).size();
+    }
+
+    @Override
+    protected AbstractAction _sampleRandomAction(AbstractGameState gameState, Random rnd) {
+        CatanGameState cgs = (CatanGameState) gameState;
+        if (cgs.getGamePhase() == Setup || cgs.getGamePhase() == Robber || cgs.tradeOffer != null)
+            return super._sampleRandomAction(gameState, rnd);
+        int nOffers = countNewTradeOffers(cgs);
+        List<AbstractAction> others = otherMainPhaseActions(cgs);
+        int k = rnd.nextInt(nOffers + others.size());
+        if (k < nOffers)
+            return CatanActionFactory.getNewTradeOffer(cgs, cgs.getCurrentPlayer(), k);
+        return others.get(k - nOffers);
+    }
+
+    private int countNewTradeOffers(CatanGameState cgs) {
+        CatanParameters cp = (CatanParameters) cgs.getGameParameters();
+        int player = cgs.getCurrentPlayer();
+        if (cp.tradingAllowed && cgs.nTradesThisTurn < cp.max_trade_actions_allowed && cgs.getNResourcesInHand(player) > 0)
+            return CatanActionFactory.countNewTradeOffers(cgs, player);
+        return 0;
+    }
+
+    /**
+     * @return all main phase actions (with no trade offer on the table) other than new offers to other players
+     */
+    private List<AbstractAction> otherMainPhaseActions(CatanGameState cgs) {
+        int player = cgs.getCurrentPlayer();
+        List<AbstractAction> actions = new ArrayList<>(CatanActionFactory.getDefaultTradeActions(cgs, ActionSpace.Default, player));
+        actions.addAll(CatanActionFactory.getBuyActions(cgs, ActionSpace.Default, player));
+        if (cgs.noDevelopmentCardPlayed())
+            actions.addAll(CatanActionFactory.getDevCardActions(cgs, ActionSpace.Default, player));
+        actions.add(new DoNothing());
+        return actions;
+    }
+
     private CatanTile[][] generateBoard(CatanParameters params, Random rnd) {
         // Shuffle the tile types
         ArrayList<CatanTile.TileType> tileList = new ArrayList<>();
@@ -202,7 +202,8 @@ public class CCForwardModel extends StandardForwardModel {
         CCParameters params = (CCParameters) state.getGameParameters();
         int[] indices = params.colourIndices.get(params.boardOpposites.get(colour));
         for (int i : indices) {
-            state.starBoard.getBoardNodes().get(i).setOccupiedPeg(new Peg(colour, state.starBoard.getBoardNodes().get(i)));
+            CCNode node = state.starBoard.getBoardNodes().get(i);
+            state.starBoard.setOccupiedPeg(node, new Peg(colour, node));
         }
     }
 }
@@ -42,7 +42,7 @@ public class CCGameState extends AbstractGameState {
 
     @Override
     protected AbstractGameState _copy(int playerId) {
-        CCGameState copy = new CCGameState(gameParameters, getNPlayers());
+        CCGameState copy = new CCGameState(gameParameters.copy(), getNPlayers());
         copy.starBoard = starBoard.copy();
 
         return copy;
@@ -79,6 +79,11 @@ public class CCGameState extends AbstractGameState {
         return result;
     }
 
+    @Override
+    protected long _getStateHash() {
+        return starBoard.getStateHash();
+    }
+
     public Peg.Colour getPlayerColour(int player) {
         CCParameters params = (CCParameters) gameParameters;
         int nPlayers = getNPlayers();
@@ -29,10 +29,10 @@ public class MovePeg extends AbstractAction {
 
         Peg peg = nodeStart.getOccupiedPeg();
 
-        nodeStart.setOccupiedPeg(null);
-        nodeDestination.setOccupiedPeg(peg);
+        state.getStarBoard().setOccupiedPeg(nodeStart, null);
 
         // Then check to see if this is the destination node for the peg
+        // (this is done before the peg is placed, so that the hash of the board includes the new status)
         Peg.Colour colour = peg.getColour();
         int[] destinationNodes = params.colourIndices.get(params.boardOpposites.get(colour));
         for (int destinationNode : destinationNodes) {
@@ -41,6 +41,7 @@ public class MovePeg extends AbstractAction {
                 break;
             }
         }
+        state.getStarBoard().setOccupiedPeg(nodeDestination, peg);
 
         return true;
     }
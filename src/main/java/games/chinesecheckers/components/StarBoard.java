@@ -4,12 +4,16 @@ import core.CoreConstants;
 import core.components.Component;
 import core.interfaces.IComponentContainer;
 import games.chinesecheckers.CCParameters;
+import utilities.Zobrist;
+
 import java.util.*;
 
 public class StarBoard extends Component implements IComponentContainer<CCNode> {
 
     // List of nodes in the board graph
     protected List<CCNode> boardNodes;
+    // Zobrist hash of the pegs on the board, maintained by setOccupiedPeg()
+    protected long pegHash;
     
     public StarBoard() {
         super(CoreConstants.ComponentType.BOARD);
@@ -53,6 +57,7 @@ public class StarBoard extends Component implements IComponentContainer<CCNode>
         }
         // Assign new neighbours
         b.setBoardNodes(new ArrayList<>(nodeCopies.values()));
+        b.pegHash = pegHash;
         // Copy properties
         copyComponentTo(b);
 
@@ -89,6 +94,27 @@ public class StarBoard extends Component implements IComponentContainer<CCNode>
         return Objects.hash(componentID, boardNodes);
     }
 
+    private static long pegKey(CCNode node, Peg peg) {
+        return peg == null ? 0 : Zobrist.key(node.getID(), peg.getColour().ordinal(), peg.getInDestination() ? 1 : 0);
+    }
+
+    /**
+     * Puts the peg on the node (or empties the node if peg is null), keeping the hash of the board up to date.
+     * Pegs on the board should only be changed through this method.
+     */
+    public void setOccupiedPeg(CCNode node, Peg peg) {
+        pegHash ^= pegKey(node, node.getOccupiedPeg()) ^ pegKey(node, peg);
+        node.setOccupiedPeg(peg);
+    }
+
+    /**
+     * @return - Zobrist hash of the positions of all pegs, maintained incrementally as they move.
+     */
+    @Override
+    public long getStateHash() {
+        return pegHash;
+    }
+
     @Override
     public List<CCNode> getComponents() {
         return getBoardNodes();
@@ -3,8 +3,10 @@ package games.connect4;
 import core.AbstractGameState;
 import core.AbstractGameStateWithTurnOrder;
 import core.AbstractParameters;
+import core.SnapshotReader;
+import core.SnapshotWriter;
 import core.components.Component;
-import core.components.GridBoard;
+import core.components.PackedGridBoard;
 import core.components.Token;
 import core.interfaces.IGridGameState;
 import core.interfaces.IPrintable;
@@ -20,7 +22,7 @@ import java.util.Objects;
 
 public class Connect4GameState extends AbstractGameState implements IPrintable, IGridGameState<Token> {
 
-    GridBoard<Token> gridBoard;
+    PackedGridBoard<Token> gridBoard;
     LinkedList<Pair<Integer, Integer>> winnerCells;
 
     public Connect4GameState(AbstractParameters gameParameters, int nPlayers) {
@@ -105,7 +107,31 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
     }
 
     @Override
-    public GridBoard<Token> getGridBoard() {
+    protected long _getStateHash() {
+        return gridBoard.getStateHash();
+    }
+
+    // Cells are written as the index of the player whose token is there, or -1 if empty
+    @Override
+    protected void _writeSnapshot(SnapshotWriter out) {
+        gridBoard.writeSnapshot(out, Connect4Constants.playerMapping::indexOf);
+        out.putInt(winnerCells.size());
+        for (Pair<Integer, Integer> cell : winnerCells)
+            out.putInt(cell.a).putInt(cell.b);
+    }
+
+    @Override
+    protected void _readSnapshot(SnapshotReader in) {
+        // empty cells reuse this board's empty token, so that the restored board equals the original
+        Token empty = gridBoard.getEmptyValue();
+        gridBoard.readSnapshot(in, p -> p < 0 ? empty : Connect4Constants.playerMapping.get(p));
+        winnerCells.clear();
+        for (int i = in.getInt(); i > 0; i--)
+            winnerCells.add(new Pair<>(in.getInt(), in.getInt()));
+    }
+
+    @Override
+    public PackedGridBoard<Token> getGridBoard() {
         return gridBoard;
     }
 
@@ -1,7 +1,7 @@
 package games.connect4;
 
 import core.AbstractGameState;
-import core.components.GridBoard;
+import core.components.PackedGridBoard;
 import core.components.Token;
 import players.heuristics.AbstractStateFeature;
 
@@ -30,7 +30,7 @@ public class Connect4StateFeatures extends AbstractStateFeature {
     @Override
     protected double[] localFeatureVector(AbstractGameState gs, int playerID) {
         Connect4GameState state = (Connect4GameState) gs;
-        GridBoard<Token> gridBoard = state.gridBoard;
+        PackedGridBoard<Token> gridBoard = state.gridBoard;
         int width = gridBoard.getWidth();
         int height = gridBoard.getHeight();
         double[] retValue = new double[localNames.length];
@@ -90,7 +90,7 @@ public class Connect4StateFeatures extends AbstractStateFeature {
         return retValue;
     }
 
-    private void pattern_match(GridBoard<Token> gridBoard, int width, int height, double[] retValue, String playerChar, int x_direction, int y_direction) {
+    private void pattern_match(PackedGridBoard<Token> gridBoard, int width, int height, double[] retValue, String playerChar, int x_direction, int y_direction) {
         int[][] visitedMap = new int[width][height];
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
@@ -3,6 +3,7 @@ import core.AbstractGameState;
 import core.components.Token;
 import core.interfaces.IStateFeatureVector;
 import core.interfaces.IStateKey;
+import utilities.Zobrist;
 
 import java.util.Arrays;
 import java.util.stream.IntStream;
@@ -41,4 +42,9 @@ public class Connect4StateVector implements IStateFeatureVector, IStateKey {
         double[] retValue = featureVector(state, state.getCurrentPlayer());
         return String.format("%d-%s", state.getCurrentPlayer(), Arrays.toString(retValue));
     }
+
+    @Override
+    public long getLongKey(AbstractGameState state) {
+        return Zobrist.hash(state.getCurrentPlayer(), featureVector(state, state.getCurrentPlayer()));
+    }
 }
@@ -1,5 +1,5 @@
 package games.connect4.gui;
-import core.components.GridBoard;
+import core.components.PackedGridBoard;
 import core.components.Token;
 import games.connect4.Connect4Constants;
 import gui.IScreenHighlight;
@@ -20,7 +20,7 @@ public class Connect4BoardView extends ComponentView implements IScreenHighlight
     ArrayList<Rectangle> highlight;
     LinkedList<Pair<Integer, Integer>> winningCells;
 
-    public Connect4BoardView(GridBoard<Token> gridBoard) {
+    public Connect4BoardView(PackedGridBoard<Token> gridBoard) {
         super(gridBoard, gridBoard.getWidth() * defaultItemSize, gridBoard.getHeight() * defaultItemSize);
         rects = new Rectangle[gridBoard.getWidth()];
         highlight = new ArrayList<>();
@@ -48,7 +48,7 @@ public class Connect4BoardView extends ComponentView implements IScreenHighlight
 
     @Override
     protected void paintComponent(Graphics g) {
-        drawGridBoard((Graphics2D)g, (GridBoard<Token>) component, 0, 0);
+        drawGridBoard((Graphics2D)g, (PackedGridBoard<Token>) component, 0, 0);
 
         if (highlight.size() > 0) {
             g.setColor(Color.green);
@@ -64,7 +64,7 @@ public class Connect4BoardView extends ComponentView implements IScreenHighlight
             drawWinningCells((Graphics2D) g);
     }
 
-    public void drawGridBoard(Graphics2D g, GridBoard<Token> gridBoard, int x, int y) {
+    public void drawGridBoard(Graphics2D g, PackedGridBoard<Token> gridBoard, int x, int y) {
         int width = gridBoard.getWidth() * defaultItemSize;
         int height = (gridBoard.getHeight()+1) * defaultItemSize;
 
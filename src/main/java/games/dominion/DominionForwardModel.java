@@ -178,4 +178,65 @@ public class DominionForwardModel extends StandardForwardModel {
                 throw new AssertionError("Unknown Game Phase " + state.getGamePhase());
         }
     }
+
+    /**
+     * The number of actions is the number of distinct action cards in hand (or card types we can afford to buy),
+     * plus one for ending the phase. So we can count and sample them without creating every action.
+     */
+    @Override
+    protected int _countAvailableActions(AbstractGameState gameState) {
+        DominionGameState state = (DominionGameState) gameState;
+        int playerID = state.getCurrentPlayer();
+        return switch (state.getGamePhase().toString()) {
+            case "Play" -> state.actionsLeft() > 0 ? actionCardsInHand(state, playerID).size() + 1 : 1;
+            case "Buy" -> affordableCardTypes(state, playerID).size() + 1;
+            default -> throw new AssertionError("Unknown Game Phase " + state.getGamePhase());
+        };
+    }
+
+    @Override
+    protected AbstractAction _sampleRandomAction(AbstractGameState gameState, Random rnd) {
+        DominionGameState state = (DominionGameState) gameState;
+        int playerID = state.getCurrentPlayer();
+        switch (state.getGamePhase().toString()) {
+            case "Play":
+                if (state.actionsLeft() > 0) {
+                    List<DominionCard> cards = actionCardsInHand(state, playerID);
+                    int index = rnd.nextInt(cards.size() + 1);
+                    if (index < cards.size())
+                        return cards.get(index).getAction(playerID);
+                }
+                return new EndPhase(DominionGameState.DominionGamePhase.Play);
+            case "Buy":
+                List<CardType> options = affordableCardTypes(state, playerID);
+                int index = rnd.nextInt(options.size() + 1);
+                if (index < options.size())
+                    return new BuyCard(options.get(index), playerID);
+                return new EndPhase(DominionGameState.DominionGamePhase.Buy);
+            default:
+                throw new AssertionError("Unknown Game Phase " + state.getGamePhase());
+        }
+    }
+
+    // One action card of each type in hand, as each type gives one (distinct) play action
+    private List<DominionCard> actionCardsInHand(DominionGameState state, int playerID) {
+        Deck<DominionCard> hand = state.getDeck(DeckType.HAND, playerID);
+        List<DominionCard> cards = new ArrayList<>();
+        for (int i = 0; i < hand.getSize(); i++) {
+            DominionCard card = hand.get(i);
+            if (card.isActionCard() && cards.stream().noneMatch(c -> c.cardType() == card.cardType()))
+                cards.add(card);
+        }
+        return cards;
+    }
+
+    private List<CardType> affordableCardTypes(DominionGameState state, int playerID) {
+        int budget = state.availableSpend(playerID);
+        List<CardType> types = new ArrayList<>();
+        for (Map.Entry<CardType, Integer> entry : state.getCardsIncludedInGame().entrySet()) {
+            if (entry.getValue() > 0 && entry.getKey().cost <= budget)
+                types.add(entry.getKey());
+        }
+        return types;
+    }
 }
@@ -376,7 +376,9 @@ public class DominionGameState extends AbstractGameState implements IPrintable {
         playerDiscards = new Deck[nPlayers];
         playerTableaux = new Deck[nPlayers];
 
+        // Dominion cards are immutable, so the decks visible to all can share their lists with copies of the state
         trashPile = new Deck<>("Trash", VISIBLE_TO_ALL);
+        trashPile.setCopyOnWrite(true);
         for (int i = 0; i < nPlayers; i++) {
             boolean[] handVisibility = new boolean[nPlayers];
             handVisibility[i] = true;
@@ -384,6 +386,8 @@ public class DominionGameState extends AbstractGameState implements IPrintable {
             playerDrawPiles[i] = new PartialObservableDeck<>("Drawpile of Player " + i + 1, i, new boolean[nPlayers]);
             playerDiscards[i] = new Deck<>("Discard of Player " + i + 1, i, VISIBLE_TO_ALL);
             playerTableaux[i] = new Deck<>("Tableau of Player " + i + 1, i, VISIBLE_TO_ALL);
+            playerDiscards[i].setCopyOnWrite(true);
+            playerTableaux[i].setCopyOnWrite(true);
         }
         super.reset();
     }
@@ -20,15 +20,14 @@ public class AddGridCellEdge extends AbstractAction {
 
         int nCellsCompleteBefore = dbgs.cellToOwnerMap.size();
         // Mark this edge as complete by current player and check if connected cells are complete too
-        dbgs.edgeToOwnerMap.put(edge, gs.getCurrentPlayer());
+        dbgs.setEdgeOwner(edge, gs.getCurrentPlayer());
 
         HashSet<DBCell> cells = dbgs.edgeToCellMap.get(edge);
         for (DBCell c : cells) {
             int nEdgesComplete = dbgs.countCompleteEdges(c);
             if (nEdgesComplete == 4) {  // A cell has 4 sides
                 // All edges complete, this box complete
-                dbgs.cellToOwnerMap.put(c, gs.getCurrentPlayer());
-                dbgs.nCellsPerPlayer[gs.getCurrentPlayer()]++;
+                dbgs.setCellOwner(c, gs.getCurrentPlayer());
             }
         }
         int nCellsCompleteAfter = dbgs.cellToOwnerMap.size();
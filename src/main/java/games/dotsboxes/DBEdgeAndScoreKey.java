@@ -2,6 +2,7 @@ package games.dotsboxes;
 
 import core.AbstractGameState;
 import core.interfaces.IStateKey;
+import utilities.Zobrist;
 
 import java.util.Arrays;
 import java.util.stream.Collectors;
@@ -18,4 +19,20 @@ public class DBEdgeAndScoreKey implements IStateKey {
         String scoreString = "Scores: " + Arrays.toString(dbgs.nCellsPerPlayer);
         return state.getCurrentPlayer() + " " + edgeString + scoreString;
     }
+
+    /**
+     * The same key as getKey() (the set of placed edges, the scores and the current player), hashed directly.
+     * Each edge is identified by twice its midpoint, so that the position is a whole number.
+     */
+    @Override
+    public long getLongKey(AbstractGameState state) {
+        DBGameState dbgs = (DBGameState) state;
+        long edges = 0;
+        for (DBEdge e : dbgs.edgeToOwnerMap.keySet())
+            edges += Zobrist.mix(100L * (e.from.getX() + e.to.getX()) + (e.from.getY() + e.to.getY()));
+        long h = Zobrist.key(state.getCurrentPlayer(), edges);
+        for (int score : dbgs.nCellsPerPlayer)
+            h = Zobrist.key(h, score);
+        return h;
+    }
 }
@@ -5,6 +5,7 @@ import core.AbstractParameters;
 import core.components.Component;
 import core.interfaces.IStateHeuristic;
 import games.GameType;
+import utilities.Zobrist;
 
 import java.util.*;
 
@@ -26,6 +27,7 @@ public class DBGameState extends AbstractGameState {
     HashMap<DBCell, Integer> cellToOwnerMap;  // Mapping from each cell to its owner, if complete
     HashMap<DBEdge, Integer> edgeToOwnerMap;  // Mapping from each edge to its owner, if placed
     boolean lastActionDidNotScore;
+    long ownershipHash;  // Zobrist hash of edgeToOwnerMap and cellToOwnerMap, updated by setEdgeOwner/setCellOwner
 
     /**
      * Constructor. Initialises some generic game state variables.
@@ -49,12 +51,13 @@ public class DBGameState extends AbstractGameState {
 
     @Override
     protected AbstractGameState _copy(int playerId) {
-        DBGameState dbgs = new DBGameState(gameParameters, getNPlayers());
+        DBGameState dbgs = new DBGameState(gameParameters.copy(), getNPlayers());
         dbgs.edges = edges;
         dbgs.cells = cells;
         dbgs.edgeToCellMap = edgeToCellMap;
         dbgs.cellToEdgesMap = cellToEdgesMap;
         dbgs.lastActionDidNotScore = lastActionDidNotScore;
+        dbgs.ownershipHash = ownershipHash;
 
         dbgs.nCellsPerPlayer = nCellsPerPlayer.clone();
         dbgs.cellToOwnerMap = (HashMap<DBCell, Integer>) cellToOwnerMap.clone();
@@ -107,6 +110,11 @@ public class DBGameState extends AbstractGameState {
         return result;
     }
 
+    @Override
+    protected long _getStateHash() {
+        return Zobrist.key(ownershipHash, lastActionDidNotScore ? 1 : 0);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -159,6 +167,29 @@ public class DBGameState extends AbstractGameState {
         }
         return retValue;
     }
+    /**
+     * Marks the edge as placed by the given player.
+     */
+    public void setEdgeOwner(DBEdge e, int player) {
+        Integer previous = edgeToOwnerMap.put(e, player);
+        if (previous != null)
+            ownershipHash ^= Zobrist.key(0, e.hashCode(), previous);
+        ownershipHash ^= Zobrist.key(0, e.hashCode(), player);
+    }
+
+    /**
+     * Marks the cell as completed by the given player, and adds it to their score.
+     */
+    public void setCellOwner(DBCell c, int player) {
+        Integer previous = cellToOwnerMap.put(c, player);
+        if (previous != null) {
+            ownershipHash ^= Zobrist.key(1, c.hashCode(), previous);
+            nCellsPerPlayer[previous]--;
+        }
+        ownershipHash ^= Zobrist.key(1, c.hashCode(), player);
+        nCellsPerPlayer[player]++;
+    }
+
     public boolean getLastActionDidNotScore(){return lastActionDidNotScore;}
     public void setLastActionDidNotScore(boolean value){
         lastActionDidNotScore = value;}
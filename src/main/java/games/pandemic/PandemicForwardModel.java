@@ -231,6 +231,17 @@ public class PandemicForwardModel extends AbstractRuleBasedForwardModel {
         gameArea.putComponent(PandemicConstants.infectionHash, infectionDeck);
         gameArea.putComponent(PandemicConstants.playerRolesHash, playerRoles);
 
+        // City, event and infection cards do not change during the game, so copies of the state can share the lists of
+        // cards until they change them. The board is shared too, until a copy looks at its nodes.
+        for (int i = 0; i < state.getNPlayers(); i++)
+            ((Deck<?>) state.getArea(i).getComponent(playerHandHash)).setCopyOnWrite(true);
+        playerDeck.setCopyOnWrite(true);
+        infectionDeck.setCopyOnWrite(true);
+        infectionDiscard.setCopyOnWrite(true);
+        ((Deck<?>) gameArea.getComponent(PandemicConstants.playerDeckDiscardHash)).setCopyOnWrite(true);
+        ((Deck<?>) gameArea.getComponent(PandemicConstants.plannerDeckHash)).setCopyOnWrite(true);
+        state.world.setCopyOnWrite(true);
+
         state.addComponents();
 
         // Infection
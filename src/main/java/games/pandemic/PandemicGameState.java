@@ -132,7 +132,6 @@ public class PandemicGameState extends AbstractGameStateWithTurnOrder implements
     protected boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof PandemicGameState)) return false;
-        if (!super.equals(o)) return false;
         PandemicGameState that = (PandemicGameState) o;
         return quietNight == that.quietNight &&
                 epidemic == that.epidemic &&
@@ -166,6 +165,13 @@ public class PandemicGameState extends AbstractGameStateWithTurnOrder implements
         return GameType.Pandemic;
     }
 
+    // the decks, the cubes and stations on the board and the player cards change in too many ways to write value by
+    // value, and the forward model keeps the position in its rules, so snapshots replay the game instead
+    @Override
+    protected boolean snapshotsReplayActions() {
+        return true;
+    }
+
     // Getters & setters
     public Component getComponent(int componentId, int playerId) {
         return areas.get(playerId).getComponent(componentId);
@@ -80,7 +80,7 @@ public class MovePlayer extends AbstractAction {
         if(other instanceof MovePlayer)
         {
             MovePlayer otherAction = (MovePlayer) other;
-            return destination.equals(otherAction.destination) && playerToMove == otherAction.playerToMove;
+            return moveType == otherAction.moveType && destination.equals(otherAction.destination) && playerToMove == otherAction.playerToMove;
 
         }else return false;
     }
@@ -96,7 +96,7 @@ public class MovePlayer extends AbstractAction {
 
     @Override
     public int hashCode() {
-        return Objects.hash(playerToMove, destination);
+        return Objects.hash(moveType, playerToMove, destination);
     }
 
     @Override
@@ -3,6 +3,8 @@ package games.puertorico;
 import core.AbstractParameters;
 import evaluation.optimisation.TunableParameters;
 
+import java.util.Arrays;
+
 public class PuertoRicoParameters extends TunableParameters {
 
     public int numCornPlantations = 10;
@@ -72,7 +74,24 @@ public class PuertoRicoParameters extends TunableParameters {
 
     @Override
     protected boolean _equals(Object o) {
-        return o == this;
+        if (this == o) return true;
+        if (!(o instanceof PuertoRicoParameters that)) return false;
+        return numCornPlantations == that.numCornPlantations && numIndigoPlantations == that.numIndigoPlantations &&
+                numSugarPlantations == that.numSugarPlantations && numTobaccoPlantations == that.numTobaccoPlantations &&
+                numCoffeePlantations == that.numCoffeePlantations && extraVisiblePlantations == that.extraVisiblePlantations &&
+                numCorn == that.numCorn && numIndigo == that.numIndigo && numSugar == that.numSugar &&
+                numTobacco == that.numTobacco && numCoffee == that.numCoffee &&
+                plantationSlotsOnBoard == that.plantationSlotsOnBoard && townGridWidth == that.townGridWidth &&
+                townGridHeight == that.townGridHeight && townSlotsOnBoard == that.townSlotsOnBoard &&
+                quarries == that.quarries && numSmallProductionBuildings == that.numSmallProductionBuildings &&
+                numLargeProductionBuildings == that.numLargeProductionBuildings &&
+                numOtherBuildings == that.numOtherBuildings && numVictoryBuildings == that.numVictoryBuildings &&
+                customsHouseDenominator == that.customsHouseDenominator &&
+                fortressDenominator == that.fortressDenominator && marketCapacity == that.marketCapacity &&
+                Arrays.equals(factoryBonuses, that.factoryBonuses) &&
+                Arrays.deepEquals(shipCapacities, that.shipCapacities) &&
+                Arrays.equals(totalColonists, that.totalColonists) && Arrays.equals(totalVP, that.totalVP) &&
+                Arrays.deepEquals(startingDoubloons, that.startingDoubloons);
     }
 
     @Override
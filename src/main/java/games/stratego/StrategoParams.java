@@ -2,6 +2,8 @@ package games.stratego;
 
 import core.AbstractParameters;
 
+import java.util.Arrays;
+
 public class StrategoParams extends AbstractParameters {
     public int gridSize = 10;
     public int[] xRestrictedTiles = {2,3,6,7};
@@ -41,6 +43,17 @@ public class StrategoParams extends AbstractParameters {
 
     @Override
     protected boolean _equals(Object o) {
-        return false;
+        if (this == o) return true;
+        if (!(o instanceof StrategoParams)) return false;
+        StrategoParams that = (StrategoParams) o;
+        return gridSize == that.gridSize &&
+                moveSpeed == that.moveSpeed &&
+                attackRange == that.attackRange &&
+                pieceSetupNBombs == that.pieceSetupNBombs &&
+                pieceSetupNFlags == that.pieceSetupNFlags &&
+                maxRounds == that.maxRounds &&
+                Arrays.equals(xRestrictedTiles, that.xRestrictedTiles) &&
+                Arrays.equals(yRestrictedTiles, that.yRestrictedTiles) &&
+                Arrays.equals(pieceSetupCount, that.pieceSetupCount);
     }
 }
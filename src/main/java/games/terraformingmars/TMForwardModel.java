@@ -347,17 +347,81 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
         for (AbstractAction aa : possibleActions) {
             TMAction a = (TMAction) aa;
             if (a != null && a.canBePlayed(gs)) {
-                if (a.getCost() != 0) {
-                    actions.add(new PayForAction(player, a));
-                } else {
-                    actions.add(a);
-                }
+                actions.add(payIfNeeded(player, a));
             }
         }
 
         return actions;
     }
 
+    private static AbstractAction payIfNeeded(int player, TMAction a) {
+        return a.getCost() != 0 ? new PayForAction(player, a) : a;
+    }
+
+    /**
+     * Checking canBePlayed() is the expensive part of computing the actions, so this only checks as many as it needs
+     * to: actions are tried in a random order until a playable one is found, which picks uniformly from the playable
+     * actions.
+     */
+    @Override
+    protected AbstractAction _sampleRandomAction(AbstractGameState gameState, Random rnd) {
+        TMGameState gs = (TMGameState) gameState;
+        List<AbstractAction> possibleActions = getAllActions(gs);
+        for (int n = possibleActions.size(); n > 0; n--) {
+            int i = rnd.nextInt(n);
+            TMAction a = (TMAction) possibleActions.get(i);
+            if (a != null && a.canBePlayed(gs))
+                return payIfNeeded(gs.getCurrentPlayer(), a);
+            // swap the rejected action out of the first n, rather than removing it
+            possibleActions.set(i, possibleActions.get(n - 1));
+        }
+        return null;
+    }
+
+    @Override
+    protected int _countAvailableActions(AbstractGameState gameState) {
+        TMGameState gs = (TMGameState) gameState;
+        int count = 0;
+        for (AbstractAction aa : getAllActions(gs)) {
+            TMAction a = (TMAction) aa;
+            if (a != null && a.canBePlayed(gs)) count++;
+        }
+        return count;
+    }
+
+    @Override
+    protected Iterator<AbstractAction> _availableActionsIterator(AbstractGameState gameState) {
+        TMGameState gs = (TMGameState) gameState;
+        int player = gs.getCurrentPlayer();
+        Iterator<AbstractAction> possibleActions = getAllActions(gs).iterator();
+        return new Iterator<>() {
+            AbstractAction next = advance();
+
+            private AbstractAction advance() {
+                while (possibleActions.hasNext()) {
+                    TMAction a = (TMAction) possibleActions.next();
+                    if (a != null && a.canBePlayed(gs))
+                        return payIfNeeded(player, a);
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public AbstractAction next() {
+                if (next == null)
+                    throw new NoSuchElementException();
+                AbstractAction result = next;
+                next = advance();
+                return result;
+            }
+        };
+    }
+
     /**
      * Bypass regular computeActions function call to list all actions possible in the current state, some of which
      * might not be playable at the moment. Requirements list on the action informs of why an action is not playable.
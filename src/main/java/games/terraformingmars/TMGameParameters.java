@@ -2,8 +2,10 @@ package games.terraformingmars;
 
 import core.AbstractParameters;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Objects;
 
 import static games.terraformingmars.TMTypes.Expansion.*;
 
@@ -77,7 +79,28 @@ public class TMGameParameters extends AbstractParameters {
 
     @Override
     protected boolean _equals(Object o) {
-        return false;
+        if (this == o) return true;
+        if (!(o instanceof TMGameParameters)) return false;
+        TMGameParameters that = (TMGameParameters) o;
+        return boardSize == that.boardSize && soloTR == that.soloTR && soloMaxGen == that.soloMaxGen &&
+                soloCities == that.soloCities && maxPoints == that.maxPoints && maxCards == that.maxCards &&
+                projectPurchaseCost == that.projectPurchaseCost && nCorpChoiceStart == that.nCorpChoiceStart &&
+                nProjectsStart == that.nProjectsStart && nProjectsResearch == that.nProjectsResearch &&
+                nActionsPerPlayer == that.nActionsPerPlayer && nMCGainedOcean == that.nMCGainedOcean &&
+                nSteelMC == that.nSteelMC && nTitaniumMC == that.nTitaniumMC &&
+                nGainCardDiscard == that.nGainCardDiscard && nCostSPEnergy == that.nCostSPEnergy &&
+                nCostSPTemp == that.nCostSPTemp && nCostSPOcean == that.nCostSPOcean &&
+                nCostSPGreenery == that.nCostSPGreenery && nCostSPCity == that.nCostSPCity &&
+                nSPCityMCGain == that.nSPCityMCGain && nCostVenus == that.nCostVenus &&
+                nCostGreeneryPlant == that.nCostGreeneryPlant && nCostTempHeat == that.nCostTempHeat &&
+                nPointsMilestone == that.nPointsMilestone && nPointsAwardFirst == that.nPointsAwardFirst &&
+                nPointsAwardSecond == that.nPointsAwardSecond &&
+                Objects.equals(expansions, that.expansions) &&
+                Objects.equals(minimumProduction, that.minimumProduction) &&
+                Objects.equals(startingResources, that.startingResources) &&
+                Objects.equals(startingProduction, that.startingProduction) &&
+                Arrays.equals(nCostMilestone, that.nCostMilestone) &&
+                Arrays.equals(nCostAwards, that.nCostAwards);
     }
 
     public HashMap<TMTypes.Resource, Integer> getMinimumProduction() {
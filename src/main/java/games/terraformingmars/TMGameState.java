@@ -86,6 +86,13 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         return GameType.TerraformingMars;
     }
 
+    // the cards played bring their own effects, discounts and actions with them, which cannot be written value by
+    // value, so snapshots replay the game instead
+    @Override
+    protected boolean snapshotsReplayActions() {
+        return true;
+    }
+
     @Override
     protected List<Component> _getAllComponents() {
         return new ArrayList<Component>() {{
@@ -299,10 +306,10 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
                 && Objects.equals(projectCards, that.projectCards)
                 && Objects.equals(corpCards, that.corpCards)
                 && Objects.equals(discardCards, that.discardCards)
-                && Arrays.equals(playerExtraActions, that.playerExtraActions)
-                && Arrays.equals(playerResourceMap, that.playerResourceMap)
+                && sameElements(playerExtraActions, that.playerExtraActions)
+                && sameElements(playerResourceMap, that.playerResourceMap)
                 && Arrays.equals(playerDiscountEffects, that.playerDiscountEffects)
-                && Arrays.equals(playerPersistingEffects, that.playerPersistingEffects)
+                && sameElements(playerPersistingEffects, that.playerPersistingEffects)
                 && Arrays.equals(playerResources, that.playerResources)
                 && Arrays.equals(playerResourceIncreaseGen, that.playerResourceIncreaseGen)
                 && Arrays.equals(playerProduction, that.playerProduction)
@@ -320,6 +327,16 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
                 && Objects.equals(nAwardsFunded, that.nAwardsFunded);
     }
 
+    // Actions and effects can change after they are added to these sets (an action records the card it was played
+    // from, for example), which leaves them in the wrong hash bucket, so the sets are compared after rehashing
+    private static boolean sameElements(HashSet<?>[] a, HashSet<?>[] b) {
+        if (a.length != b.length) return false;
+        for (int i = 0; i < a.length; i++) {
+            if (!new HashSet<>(a[i]).equals(new HashSet<>(b[i]))) return false;
+        }
+        return true;
+    }
+
     @Override
     public int hashCode() {
         int result = Objects.hash(super.hashCode(), generation, board, extraTiles, globalParameters, bonuses,
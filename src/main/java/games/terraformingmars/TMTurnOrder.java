@@ -25,6 +25,15 @@ public class TMTurnOrder extends AlternatingTurnOrder {
         this.passed = new boolean[nPlayers];
     }
 
+    @Override
+    protected void _reset() {
+        super._reset();
+        nActionsTaken = 0;
+        nPassed = 0;
+        // called by the super constructor, before passed is created
+        if (passed != null) Arrays.fill(passed, false);
+    }
+
     @Override
     public void endPlayerTurn(AbstractGameState gameState) {
         // Called after every main action execution in TM
@@ -17,6 +17,7 @@ import utilities.Utils;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 
 public class TMAction extends AbstractAction {
     public boolean freeActionPoint;
@@ -254,11 +255,30 @@ public class TMAction extends AbstractAction {
         return freeActionPoint == tmAction.freeActionPoint && player == tmAction.player && pass == tmAction.pass &&
                 cost == tmAction.cost && playCardID == tmAction.playCardID && cardID == tmAction.cardID &&
                 Objects.equals(costRequirement, tmAction.costRequirement) &&
-                Objects.equals(requirements, tmAction.requirements) && actionType == tmAction.actionType &&
+                sameRequirements(requirements, tmAction.requirements) && actionType == tmAction.actionType &&
                 standardProject == tmAction.standardProject && basicResourceAction == tmAction.basicResourceAction &&
                 costResource == tmAction.costResource;
     }
 
+    // A requirement can change after it is added to the set (a PlayableActionRequirement holds an action that may be
+    // changed later), which leaves it in the wrong hash bucket, so the sets are compared without hashing. No
+    // requirements may be null or empty (copies of an action with none have an empty set)
+    private static boolean sameRequirements(Set<?> a, Set<?> b) {
+        if (a == null || a.isEmpty()) return b == null || b.isEmpty();
+        if (b == null || a.size() != b.size()) return false;
+        for (Object r : a) {
+            boolean found = false;
+            for (Object other : b) {
+                if (r.equals(other)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(freeActionPoint, player, pass, costRequirement, requirements, actionType, standardProject, basicResourceAction, cost, costResource, playCardID, cardID);
@@ -114,7 +114,8 @@ public class Award extends Token {
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), counterID, claimed);
+        // claimed changes during the game, and awards are kept in hash sets, so it is left out of the hash
+        return Objects.hash(super.hashCode(), counterID);
     }
 
     @Override
@@ -57,7 +57,7 @@ public class GlobalParameter extends Counter {
 
     @Override
     public GlobalParameter copy() {
-        GlobalParameter copy = new GlobalParameter(values != null? values.clone() : null, valueIdx, minimum, maximum, componentName, componentID);
+        GlobalParameter copy = new GlobalParameter(values, valueIdx, minimum, maximum, componentName, componentID);
         for (Pair<Integer, Integer> p: increases) {
             copy.increases.add(p.copy());
         }
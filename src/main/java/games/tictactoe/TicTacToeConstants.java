@@ -1,13 +1,15 @@
 package games.tictactoe;
 
+import core.components.ComponentIds;
 import core.components.Token;
 
 import java.util.ArrayList;
 
 public class TicTacToeConstants {
-    public static final ArrayList<Token> playerMapping = new ArrayList<Token>() {{
+    // shared by every game, so these must not take IDs from the game that happens to load this class
+    public static final ArrayList<Token> playerMapping = ComponentIds.global(() -> new ArrayList<Token>() {{
         add(new Token("x"));
         add(new Token("o"));
-    }};
+    }});
     public static final String emptyCell = ".";
 }
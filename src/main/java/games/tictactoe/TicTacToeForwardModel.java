@@ -6,10 +6,11 @@ import core.StandardForwardModel;
 import core.actions.AbstractAction;
 import core.actions.ActionSpace;
 import core.actions.SetGridValueAction;
-import core.components.GridBoard;
+import core.components.PackedGridBoard;
 import core.components.Token;
 import core.interfaces.ITreeActionSpace;
 import utilities.ActionTreeNode;
+import utilities.Vector2D;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -23,7 +24,7 @@ public class TicTacToeForwardModel extends StandardForwardModel implements ITree
         TicTacToeGameParameters tttgp = (TicTacToeGameParameters) firstState.getGameParameters();
         int gridSize = tttgp.gridSize;
         TicTacToeGameState state = (TicTacToeGameState) firstState;
-        state.gridBoard = new GridBoard<>(gridSize, gridSize, new Token(TicTacToeConstants.emptyCell));
+        state.gridBoard = new PackedGridBoard<>(gridSize, gridSize, new Token(TicTacToeConstants.emptyCell));
     }
 
 
@@ -41,7 +42,7 @@ public class TicTacToeForwardModel extends StandardForwardModel implements ITree
             // Normal action space
             for (int x = 0; x < tttgs.gridBoard.getWidth(); x++) {
                 for (int y = 0; y < tttgs.gridBoard.getHeight(); y++) {
-                    if (tttgs.gridBoard.getElement(x, y).getTokenType().equals(TicTacToeConstants.emptyCell)) {
+                    if (tttgs.gridBoard.isEmptyCell(x, y)) {
                         actions.add(new SetGridValueAction<>(tttgs.gridBoard.getComponentID(), x, y, TicTacToeConstants.playerMapping.get(player)));
                     }
                 }
@@ -52,91 +53,31 @@ public class TicTacToeForwardModel extends StandardForwardModel implements ITree
 
     @Override
     protected void _afterAction(AbstractGameState currentState, AbstractAction action) {
-        if (checkAndProcessGameEnd((TicTacToeGameState) currentState)) {
+        if (checkAndProcessGameEnd((TicTacToeGameState) currentState, action)) {
             return;
         }
         endPlayerTurn(currentState);
     }
 
     /**
-     * Checks if the game ended.
+     * Checks if the game ended. A player wins with a full row, column or diagonal; as the grid is square, that is a
+     * line as long as the grid is wide. Only a line through the cell just set can be new, so if we know which that is
+     * only it is checked.
      *
      * @param gameState - game state to check game end.
+     * @param action    - the action just taken
      */
-    private boolean checkAndProcessGameEnd(TicTacToeGameState gameState) {
-        GridBoard<Token> gridBoard = gameState.getGridBoard();
-
-        // Check columns
-        for (int x = 0; x < gridBoard.getWidth(); x++) {
-            Token c = gridBoard.getElement(x, 0);
-            if (!c.getTokenType().equals(TicTacToeConstants.emptyCell)) {
-                boolean win = true;
-                for (int y = 1; y < gridBoard.getHeight(); y++) {
-                    Token o = gridBoard.getElement(x, y);
-                    if (o.getTokenType().equals(TicTacToeConstants.emptyCell) || !o.equals(c)) {
-                        win = false;
-                        break;
-                    }
-                }
-                if (win) {
-                    registerWinner(gameState, c);
-                    return true;
-                }
-            }
-        }
-
-        // Check rows
-        for (int y = 0; y < gridBoard.getHeight(); y++) {
-            Token c = gridBoard.getElement(0, y);
-            if (!c.getTokenType().equals(TicTacToeConstants.emptyCell)) {
-                boolean win = true;
-                for (int x = 1; x < gridBoard.getWidth(); x++) {
-                    Token o = gridBoard.getElement(x, y);
-                    if (o.getTokenType().equals(TicTacToeConstants.emptyCell) || !o.equals(c)) {
-                        win = false;
-                        break;
-                    }
-                }
-                if (win) {
-                    registerWinner(gameState, c);
-                    return true;
-                }
-            }
+    private boolean checkAndProcessGameEnd(TicTacToeGameState gameState, AbstractAction action) {
+        PackedGridBoard<Token> gridBoard = gameState.getGridBoard();
+        List<Vector2D> line = action instanceof SetGridValueAction<?> set
+                ? gridBoard.findLine(set.getX(), set.getY(), gridBoard.getWidth())
+                : gridBoard.findLine(gridBoard.getWidth());
+        if (line != null) {
+            registerWinner(gameState, gridBoard.getElement(line.get(0)));
+            return true;
         }
 
-        // Check diagonals
-        // Primary
-        Token c = gridBoard.getElement(0, 0);
-        if (!c.getTokenType().equals(TicTacToeConstants.emptyCell)) {
-            boolean win = true;
-            for (int i = 1; i < gridBoard.getWidth(); i++) {
-                Token o = gridBoard.getElement(i, i);
-                if (o.getTokenType().equals(TicTacToeConstants.emptyCell) || !o.equals(c)) {
-                    win = false;
-                }
-            }
-            if (win) {
-                registerWinner(gameState, c);
-                return true;
-            }
-        }
-
-        // Secondary
-        c = gridBoard.getElement(gridBoard.getWidth() - 1, 0);
-        if (!c.getTokenType().equals(TicTacToeConstants.emptyCell)) {
-            boolean win = true;
-            for (int i = 1; i < gridBoard.getWidth(); i++) {
-                Token o = gridBoard.getElement(gridBoard.getWidth() - 1 - i, i);
-                if (o.getTokenType().equals(TicTacToeConstants.emptyCell) || !o.equals(c)) {
-                    win = false;
-                }
-            }
-            if (win) {
-                registerWinner(gameState, c);
-                return true;
-            }
-        }
-        boolean tie = gridBoard.getComponents().stream().noneMatch(t -> t.getTokenType().equals(TicTacToeConstants.emptyCell));
+        boolean tie = gridBoard.getEmptyCount() == 0;
 
         if (tie) {
             gameState.setGameStatus(CoreConstants.GameResult.DRAW_GAME);
@@ -178,7 +119,7 @@ public class TicTacToeForwardModel extends StandardForwardModel implements ITree
             ActionTreeNode xNode = root.findChildrenByName("X" + x);
             for (int y = 0; y < tttgs.gridBoard.getHeight(); y++) {
                 ActionTreeNode yNode = xNode.findChildrenByName("Y" + y);
-                if (tttgs.gridBoard.getElement(x, y).getTokenType().equals(TicTacToeConstants.emptyCell)) {
+                if (tttgs.gridBoard.isEmptyCell(x, y)) {
                     xNode.setValue(1); // make sure that we set parent available
                     yNode.setAction(new SetGridValueAction<>(tttgs.gridBoard.getComponentID(), x, y, TicTacToeConstants.playerMapping.get(player)));
                 }
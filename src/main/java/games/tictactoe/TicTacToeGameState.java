@@ -2,8 +2,10 @@ package games.tictactoe;
 
 import core.AbstractGameState;
 import core.AbstractParameters;
+import core.SnapshotReader;
+import core.SnapshotWriter;
 import core.components.Component;
-import core.components.GridBoard;
+import core.components.PackedGridBoard;
 import core.components.Token;
 import core.interfaces.IGridGameState;
 import core.interfaces.IPrintable;
@@ -18,7 +20,7 @@ import java.util.Objects;
 
 public class TicTacToeGameState extends AbstractGameState implements IPrintable, IGridGameState<Token> {
 
-    GridBoard<Token> gridBoard;
+    PackedGridBoard<Token> gridBoard;
 
     public TicTacToeGameState(AbstractParameters gameParameters, int nPlayers) {
         super(gameParameters, nPlayers);
@@ -73,6 +75,24 @@ public class TicTacToeGameState extends AbstractGameState implements IPrintable,
     public int hashCode() {
         return Objects.hash(super.hashCode(), gridBoard);
     }
+
+    @Override
+    protected long _getStateHash() {
+        return gridBoard.getStateHash();
+    }
+
+    // Cells are written as the index of the player whose token is there, or -1 if empty
+    @Override
+    protected void _writeSnapshot(SnapshotWriter out) {
+        gridBoard.writeSnapshot(out, TicTacToeConstants.playerMapping::indexOf);
+    }
+
+    @Override
+    protected void _readSnapshot(SnapshotReader in) {
+        // empty cells reuse this board's empty token, so that the restored board equals the original
+        Token empty = gridBoard.getEmptyValue();
+        gridBoard.readSnapshot(in, p -> p < 0 ? empty : TicTacToeConstants.playerMapping.get(p));
+    }
     @Override
     public String toString() {
         return Objects.hash(gameParameters) + "|" +
@@ -83,7 +103,7 @@ public class TicTacToeGameState extends AbstractGameState implements IPrintable,
     }
 
     @Override
-    public GridBoard<Token> getGridBoard() {
+    public PackedGridBoard<Token> getGridBoard() {
         return gridBoard;
     }
 
@@ -1,6 +1,6 @@
 package games.tictactoe.gui;
 
-import core.components.GridBoard;
+import core.components.PackedGridBoard;
 import core.components.Token;
 import gui.IScreenHighlight;
 import gui.views.ComponentView;
@@ -17,7 +17,7 @@ public class TTTBoardView extends ComponentView implements IScreenHighlight {
     Rectangle[] rects;  // Used for highlights + action trimming
     ArrayList<Rectangle> highlight;
 
-    public TTTBoardView(GridBoard<Token> gridBoard) {
+    public TTTBoardView(PackedGridBoard<Token> gridBoard) {
         super(gridBoard, gridBoard.getWidth() * defaultItemSize, gridBoard.getHeight() * defaultItemSize);
         rects = new Rectangle[gridBoard.getWidth() * gridBoard.getHeight()];
         highlight = new ArrayList<>();
@@ -44,7 +44,7 @@ public class TTTBoardView extends ComponentView implements IScreenHighlight {
 
     @Override
     protected void paintComponent(Graphics g) {
-        drawGridBoard((Graphics2D)g, (GridBoard<Token>) component, 0, 0);
+        drawGridBoard((Graphics2D)g, (PackedGridBoard<Token>) component, 0, 0);
 
         if (highlight.size() > 0) {
             g.setColor(Color.green);
@@ -57,7 +57,7 @@ public class TTTBoardView extends ComponentView implements IScreenHighlight {
         }
     }
 
-    public void drawGridBoard(Graphics2D g, GridBoard<Token> gridBoard, int x, int y) {
+    public void drawGridBoard(Graphics2D g, PackedGridBoard<Token> gridBoard, int x, int y) {
         int width = gridBoard.getWidth() * defaultItemSize;
         int height = gridBoard.getHeight() * defaultItemSize;
 
@@ -52,6 +52,14 @@ public class Wonders7ForwardModel extends StandardForwardModel {
         // Cards that have been discarded all players
         wgs.discardPile = new Deck<>("Discarded Cards", CoreConstants.VisibilityMode.HIDDEN_TO_ALL);
 
+        // The cards are immutable, so copies of the state can share the lists of cards until they change them
+        wgs.ageDeck.setCopyOnWrite(true);
+        wgs.discardPile.setCopyOnWrite(true);
+        for (int i = 0; i < wgs.getNPlayers(); i++) {
+            wgs.playerHands.get(i).setCopyOnWrite(true);
+            wgs.playedCards.get(i).setCopyOnWrite(true);
+        }
+
         // Shuffles wonder-boards
         createWonderDeck(wgs); // Adds Wonders into game
         wgs.wonderBoardDeck.shuffle(params.wonderShuffleSeed != -1 ? new Random(params.wonderShuffleSeed) : wgs.getRnd());
@@ -175,7 +183,7 @@ public class Wonders7ForwardModel extends StandardForwardModel {
         Set<AbstractAction> actions = new LinkedHashSet<>();
 
         // If player has the prerequisite card/enough resources/the card is free/the player can pay for the resources to play the card
-        for (Wonder7Card card : playerHand.getComponents()) { // Goes through each card in hand
+        for (Wonder7Card card : playerHand) { // Goes through each card in hand
             if (card.isAlreadyPlayed(player, wgs)) continue;
 
             if (card.isFree(player, wgs)) { // Checks if player has prerequisite
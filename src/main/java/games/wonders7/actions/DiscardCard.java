@@ -23,7 +23,7 @@ public class DiscardCard extends DrawCard {
 
         // Finds card being removed in player Hand
         Wonder7Card card = null;
-        for (Wonder7Card cardSearch: wgs.getPlayerHand(player).getComponents()){ // Goes through each card in the playerHand
+        for (Wonder7Card cardSearch: wgs.getPlayerHand(player)){ // Goes through each card in the playerHand
             if (cardName.equals(cardSearch.cardName)){ // If cardName is the one searching for (being played)
                 card = cardSearch;
                 break;
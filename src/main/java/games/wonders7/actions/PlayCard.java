@@ -39,7 +39,7 @@ public class PlayCard extends DrawCard {
 
         // Finds the played card
         Wonder7Card card = null;
-        for (Wonder7Card cardSearch : wgs.getPlayerHand(player).getComponents()) { // Goes through each card in the playerHand
+        for (Wonder7Card cardSearch : wgs.getPlayerHand(player)) { // Goes through each card in the playerHand
             if (cardName.equals(cardSearch.cardName)) { // If cardName is the one searching for (being played)
                 card = cardSearch;
                 break;
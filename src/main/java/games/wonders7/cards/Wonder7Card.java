@@ -105,7 +105,7 @@ public class Wonder7Card extends Card {
 
     public boolean isFree(int player, Wonders7GameState wgs) {
         // Checks if the player has prerequisite cards and can play for free
-        for (Wonder7Card card : wgs.getPlayedCards(player).getComponents()) {
+        for (Wonder7Card card : wgs.getPlayedCards(player)) {
             if (prerequisiteCard.equals(card.cardName)) {
                 return true;
             }
@@ -114,7 +114,7 @@ public class Wonder7Card extends Card {
     }
 
     public boolean isAlreadyPlayed(int player, Wonders7GameState wgs) {
-        for (Wonder7Card card : wgs.getPlayedCards(player).getComponents()) {
+        for (Wonder7Card card : wgs.getPlayedCards(player)) {
             if (Objects.equals(card.cardName, cardName)) {
                 // Player already has an identical structure, can't play another
                 return true;
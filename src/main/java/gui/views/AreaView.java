@@ -2,6 +2,7 @@ package gui.views;
 
 import core.components.*;
 import core.components.Component;
+import core.interfaces.IGridBoard;
 
 import java.awt.*;
 import java.awt.event.MouseAdapter;
@@ -415,10 +416,10 @@ public class AreaView extends ComponentView {
             }
 
             // Draw component itself (decks and areas already drawn)
-            if (c instanceof GridBoard) {
-                Rectangle toDraw = getRectangle(e.getKey(),((GridBoard<?>) c).getWidth() * defaultItemSize,
-                        ((GridBoard<?>) c).getHeight() * defaultItemSize, drawMap, dependencies, translation);
-                GridBoardView.drawGridBoard(g, (GridBoard<?>) c, toDraw);
+            if (c instanceof IGridBoard<?> grid) {
+                Rectangle toDraw = getRectangle(e.getKey(), grid.getWidth() * defaultItemSize,
+                        grid.getHeight() * defaultItemSize, drawMap, dependencies, translation);
+                GridBoardView.drawGridBoard(g, grid, toDraw);
             } else if (c instanceof Counter) {
                 Rectangle toDraw = getRectangle(e.getKey(), defaultItemSize, defaultItemSize, drawMap, dependencies, translation);
                 CounterView.drawCounter(g, (Counter) c, toDraw);
@@ -2,6 +2,7 @@ package gui.views;
 
 import core.components.Component;
 import core.components.GridBoard;
+import core.interfaces.IGridBoard;
 
 import java.awt.*;
 
@@ -18,7 +19,7 @@ public class GridBoardView<T extends Component> extends ComponentView {
         drawGridBoard((Graphics2D)g, (GridBoard<?>) component, 0, 0);
     }
 
-    public static <T extends Component> void drawGridBoard(Graphics2D g, GridBoard<T> gridBoard, int x, int y) {
+    public static <T extends Component> void drawGridBoard(Graphics2D g, IGridBoard<T> gridBoard, int x, int y) {
         int width = gridBoard.getWidth() * defaultItemSize;
         int height = gridBoard.getHeight() * defaultItemSize;
 
@@ -37,7 +38,7 @@ public class GridBoardView<T extends Component> extends ComponentView {
         }
     }
 
-    public static <T extends Component> void drawGridBoard(Graphics2D g, GridBoard<T> gridBoard, Rectangle rect) {
+    public static <T extends Component> void drawGridBoard(Graphics2D g, IGridBoard<T> gridBoard, Rectangle rect) {
         // Draw background
         g.setColor(Color.lightGray);
         g.fillRect(rect.x, rect.y, rect.width-1, rect.height-1);
@@ -60,9 +60,6 @@ class BasicTreeNode {
         BasicMCTSParams params = player.getParameters();
 
         // Variables for tracking time budget
-        double avgTimeTaken;
-        double acumTimeTaken = 0;
-        long remaining;
         int remainingLimit = params.breakMS;
         ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
         if (params.budgetType == BUDGET_TIME) {
@@ -75,9 +72,6 @@ class BasicTreeNode {
         boolean stop = false;
 
         while (!stop) {
-            // New timer for this iteration
-            ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
-
             // Selection + expansion: navigate tree until a node not fully expanded is found, add a new node to the tree
             BasicTreeNode selected = treePolicy();
             // Monte carlo rollout: return value of MC rollout from the newly added node
@@ -91,10 +85,7 @@ class BasicTreeNode {
             PlayerConstants budgetType = params.budgetType;
             if (budgetType == BUDGET_TIME) {
                 // Time budget
-                acumTimeTaken += (elapsedTimerIteration.elapsedMillis());
-                avgTimeTaken = acumTimeTaken / numIters;
-                remaining = elapsedTimer.remainingTimeMillis();
-                stop = remaining <= 2 * avgTimeTaken || remaining <= remainingLimit;
+                stop = !elapsedTimer.enoughBudgetAmortised(remainingLimit, 2);
             } else if (budgetType == BUDGET_ITERATIONS) {
                 // Iteration budget
                 stop = numIters >= params.budget;
@@ -17,7 +17,20 @@ public abstract class AbstractStateFeature implements IStateFeatureVector {
     public double[] featureVector(AbstractGameState state, int playerID) {
         double[] localFeatures = localFeatureVector(state, playerID);
         double[] retValue = new double[coreNames.length + localFeatures.length];
+        coreFeatures(state, playerID, retValue, 0);
+        System.arraycopy(localFeatures, 0, retValue, coreNames.length, localFeatures.length);
+        return retValue;
+    }
+
+    @Override
+    public void featureVector(AbstractGameState state, int playerID, double[] buffer, int offset) {
+        // the core features go straight into the buffer; only the local features are still allocated
+        coreFeatures(state, playerID, buffer, offset);
+        double[] localFeatures = localFeatureVector(state, playerID);
+        System.arraycopy(localFeatures, 0, buffer, offset + coreNames.length, localFeatures.length);
+    }
 
+    private void coreFeatures(AbstractGameState state, int playerID, double[] retValue, int offset) {
         // POINT_ADVANTAGE
         int ordinal = 1;
         double maxOtherScore = -1;
@@ -33,19 +46,16 @@ public abstract class AbstractStateFeature implements IStateFeatureVector {
         }
 
         // POINTS
-        retValue[0] = ourSc / maxScore();
+        retValue[offset] = ourSc / maxScore();
         // POINT_ADVANTAGE
-        retValue[1] = (ourSc - maxOtherScore) / maxScore() * 2.0;
-        retValue[2] = ordinal / (double) state.getNPlayers();
-        retValue[3] = state.getCurrentPlayer() == playerID ? 1 : 0;
-        retValue[4] = state.getPlayerResults()[playerID] == CoreConstants.GameResult.WIN_GAME ? 1.0 : 0.0;
-        retValue[5] = state.isNotTerminal() ? 0.0 : state.getOrdinalPosition(playerID) / (double) state.getNPlayers();
-        retValue[6] = state.getRoundCounter() / maxRounds();
-        retValue[7] = state.getTurnCounter() / maxRounds();
-        retValue[8] = state.getGameTick();
-
-        System.arraycopy(localFeatures, 0, retValue, coreNames.length, localFeatures.length);
-        return retValue;
+        retValue[offset + 1] = (ourSc - maxOtherScore) / maxScore() * 2.0;
+        retValue[offset + 2] = ordinal / (double) state.getNPlayers();
+        retValue[offset + 3] = state.getCurrentPlayer() == playerID ? 1 : 0;
+        retValue[offset + 4] = state.getPlayerResults()[playerID] == CoreConstants.GameResult.WIN_GAME ? 1.0 : 0.0;
+        retValue[offset + 5] = state.isNotTerminal() ? 0.0 : state.getOrdinalPosition(playerID) / (double) state.getNPlayers();
+        retValue[offset + 6] = state.getRoundCounter() / maxRounds();
+        retValue[offset + 7] = state.getTurnCounter() / maxRounds();
+        retValue[offset + 8] = state.getGameTick();
     }
 
     @Override
@@ -25,6 +25,21 @@ public abstract class GLMHeuristic implements ICoefficients {
 
     protected DoubleUnaryOperator inverseLinkFunction = x -> x;  // default to linear link function
 
+    // scratch space for feature vectors; one per thread, as heuristics are shared by parallel searches
+    private final ThreadLocal<double[]> featureBuffer = new ThreadLocal<>();
+
+    /**
+     * @return a buffer of at least the given length, reused by later calls on the same thread
+     */
+    protected double[] featureBuffer(int length) {
+        double[] buffer = featureBuffer.get();
+        if (buffer == null || buffer.length < length) {
+            buffer = new double[length];
+            featureBuffer.set(buffer);
+        }
+        return buffer;
+    }
+
     @Override
     public double[] coefficients() {
         return coefficients;
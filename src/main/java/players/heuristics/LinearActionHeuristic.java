@@ -22,6 +22,7 @@ public class LinearActionHeuristic extends GLMHeuristic implements IActionHeuris
     protected IActionFeatureVector actionFeatures;
 
     String[] names;
+    final int nStateFeatures;
 
     @Override
     public String[] names() {
@@ -43,6 +44,7 @@ public class LinearActionHeuristic extends GLMHeuristic implements IActionHeuris
         this.features = featureVector;
         this.actionFeatures = actionFeatureVector;
         // then add on the action feature names
+        nStateFeatures = features.names().length;
         names = new String[features.names().length + actionFeatures.names().length];
         System.arraycopy(features.names(), 0, names, 0, features.names().length);
         System.arraycopy(actionFeatures.names(), 0, names, features.names().length, actionFeatures.names().length);
@@ -51,32 +53,37 @@ public class LinearActionHeuristic extends GLMHeuristic implements IActionHeuris
 
     @Override
     public double[] evaluateAllActions(List<AbstractAction> actions, AbstractGameState state) {
-        if (coefficients == null)
-            throw new AssertionError("No coefficients found");
         double[] retValue = new double[actions.size()];
-        double[] phi = features.featureVector(state, state.getCurrentPlayer());
-        for (AbstractAction action : actions) {
-            double[] combined = mergePhiAndPsi(state, phi, action);
-            retValue[actions.indexOf(action)] = inverseLinkFunction.applyAsDouble(applyCoefficients(combined));
-        }
+        evaluateAllActions(actions, state, retValue);
         return retValue;
     }
 
-    private double[] mergePhiAndPsi(AbstractGameState state, double[] phi, AbstractAction action) {
-        double[] psi = actionFeatures.featureVector(action, state, state.getCurrentPlayer());
-        double[] combined = new double[phi.length + psi.length];
-        System.arraycopy(phi, 0, combined, 0, phi.length);
-        System.arraycopy(psi, 0, combined, phi.length, psi.length);
-        return combined;
+    /**
+     * The state features are calculated once, and then each action's features are written after them in the same
+     * buffer; so no arrays are allocated per action (if the feature vectors write directly into the buffer).
+     */
+    @Override
+    public void evaluateAllActions(List<AbstractAction> actions, AbstractGameState state, double[] scores) {
+        if (coefficients == null)
+            throw new AssertionError("No coefficients found");
+        int player = state.getCurrentPlayer();
+        double[] buffer = featureBuffer(names.length);
+        features.featureVector(state, player, buffer, 0);
+        for (int i = 0; i < actions.size(); i++) {
+            actionFeatures.featureVector(actions.get(i), state, player, buffer, nStateFeatures);
+            scores[i] = inverseLinkFunction.applyAsDouble(applyCoefficients(buffer, 0, names.length));
+        }
     }
 
     @Override
     public double evaluateAction(AbstractAction action, AbstractGameState state) {
         if (coefficients == null)
             throw new AssertionError("No coefficients found");
-        double[] phi = features.featureVector(state, state.getCurrentPlayer());
-        double[] combined = mergePhiAndPsi(state, phi, action);
-        return inverseLinkFunction.applyAsDouble(applyCoefficients(combined));
+        int player = state.getCurrentPlayer();
+        double[] buffer = featureBuffer(names.length);
+        features.featureVector(state, player, buffer, 0);
+        actionFeatures.featureVector(action, state, player, buffer, nStateFeatures);
+        return inverseLinkFunction.applyAsDouble(applyCoefficients(buffer, 0, names.length));
     }
 
 }
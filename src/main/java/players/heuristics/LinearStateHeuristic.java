@@ -12,6 +12,7 @@ public class LinearStateHeuristic extends GLMHeuristic implements IStateHeuristi
 
     protected IStateFeatureVector features;
     protected IStateHeuristic defaultHeuristic;
+    protected final int nFeatures;
 
     @Override
     public String[] names() {
@@ -20,16 +21,31 @@ public class LinearStateHeuristic extends GLMHeuristic implements IStateHeuristi
 
     public LinearStateHeuristic(IStateFeatureVector featureVector, String coefficientsFile, IStateHeuristic defaultHeuristic) {
         this.features = featureVector;
+        this.nFeatures = featureVector.names().length;
         this.defaultHeuristic = defaultHeuristic;
         loadFromFile(coefficientsFile);
     }
 
     @Override
     public double evaluateState(AbstractGameState state, int playerId) {
+        return evaluateState(state, playerId, featureBuffer(nFeatures));
+    }
+
+    /**
+     * Evaluates all the states with one feature buffer, and without boxing any of the values
+     */
+    @Override
+    public void evaluateStates(List<? extends AbstractGameState> states, int playerId, double[] values) {
+        double[] buffer = featureBuffer(nFeatures);
+        for (int i = 0; i < states.size(); i++)
+            values[i] = evaluateState(states.get(i), playerId, buffer);
+    }
+
+    private double evaluateState(AbstractGameState state, int playerId, double[] buffer) {
         // default heuristic is used if the state is terminal (or no coefficients are provided)
         if (coefficients != null && (defaultHeuristic == null || state.isNotTerminal())) {
-            double[] phi = features.featureVector(state, playerId);
-            double retValue = inverseLinkFunction.applyAsDouble(applyCoefficients(phi));
+            features.featureVector(state, playerId, buffer, 0);
+            double retValue = inverseLinkFunction.applyAsDouble(applyCoefficients(buffer, 0, nFeatures));
             if (defaultHeuristic != null)
                 return Utils.clamp(retValue, defaultHeuristic.minValue(), defaultHeuristic.maxValue());
             return retValue;
@@ -71,6 +71,14 @@ public class TunableGLMHeuristic extends TunableParameters implements IActionHeu
         throw new AssertionError("Heuristic is not an IActionHeuristic");
     }
 
+    @Override
+    public void evaluateAllActions(List<AbstractAction> actions, AbstractGameState state, double[] scores) {
+        if (heuristic instanceof IActionHeuristic actionHeuristic)
+            actionHeuristic.evaluateAllActions(actions, state, scores);
+        else
+            throw new AssertionError("Heuristic is not an IActionHeuristic");
+    }
+
     @Override
     public double evaluateState(AbstractGameState gs, int playerId) {
         if (heuristic instanceof IStateHeuristic stateHeuristic)
@@ -78,4 +86,12 @@ public class TunableGLMHeuristic extends TunableParameters implements IActionHeu
         throw new AssertionError("Heuristic is not an IStateHeuristic");
     }
 
+    @Override
+    public void evaluateStates(List<? extends AbstractGameState> states, int playerId, double[] values) {
+        if (heuristic instanceof IStateHeuristic stateHeuristic)
+            stateHeuristic.evaluateStates(states, playerId, values);
+        else
+            throw new AssertionError("Heuristic is not an IStateHeuristic");
+    }
+
 }
@@ -1,6 +1,7 @@
 package players.learners;
 
 import core.interfaces.ILearner;
+import evaluation.loggers.ColumnarFileLogger;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
@@ -60,10 +61,15 @@ public abstract class AbstractLearner implements ILearner {
     protected void loadData(String... files) {
         List<double[]> data = new ArrayList<>();
         for (String file : files) {
+            if (ColumnarFileLogger.isColumnarFile(file)) {
+                // binary data needs no parsing, and is read directly into the rows
+                ColumnarFileLogger.Data columns = ColumnarFileLogger.read(file);
+                header = columns.names;
+                data.addAll(Arrays.asList(columns.rows));
+                continue;
+            }
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
                 header = reader.readLine().split("\\t");
-                descriptions = new String[header.length - 11];
-                System.arraycopy(header, 5, descriptions, 0, descriptions.length);
                 while (reader.ready()) {
                     double[] datum = Arrays.stream(reader.readLine().split("\\t")).mapToDouble(Double::parseDouble).toArray();
                     data.add(datum);
@@ -77,6 +83,9 @@ public abstract class AbstractLearner implements ILearner {
             }
         }
 
+        descriptions = new String[header.length - 11];
+        System.arraycopy(header, 5, descriptions, 0, descriptions.length);
+
         // now convert data to [][]
         // we assume (for the moment) that the columns are: GameID, Player, Round, Turn, CurrentScore... Win, Ordinal, FinalScore
         // with ... representing the game specific features
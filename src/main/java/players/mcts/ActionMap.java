@@ -0,0 +1,271 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Compact map from actions to per-action node data, used in place of HashMap/LinkedHashMap in each tree node.
+ * <p>
+ * Actions are stored by position in parallel arrays (keys, cached hash codes and values) in insertion order, so a
+ * node with n actions costs three arrays rather than n entry objects plus a hash table. Lookups scan the cached hash
+ * codes, and only call equals() on a hash match. Once a node has more than INDEX_THRESHOLD actions a small
+ * open-addressed index from hash code to position is added, so wide nodes keep O(1) lookups.
+ * Null values are allowed (an unexpanded child is a null entry).
+ *
+ * @param <V> type of the values.
+ */
+class ActionMap<V> extends AbstractMap<AbstractAction, V> {
+
+    private static final int INDEX_THRESHOLD = 12;
+
+    private AbstractAction[] keys;
+    private int[] hashes;
+    private Object[] values;
+    private int size;
+    private int[] index;  // position + 1 of each key, by hash; null until size > INDEX_THRESHOLD
+
+    ActionMap() {
+        this(4);
+    }
+
+    ActionMap(int expectedSize) {
+        int capacity = Math.max(2, expectedSize);
+        keys = new AbstractAction[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private int position(Object key) {
+        if (key == null)
+            return -1;
+        int h = key.hashCode();
+        if (index != null) {
+            int mask = index.length - 1;
+            for (int i = spread(h) & mask; index[i] != 0; i = (i + 1) & mask) {
+                int p = index[i] - 1;
+                if (hashes[p] == h && key.equals(keys[p]))
+                    return p;
+            }
+            return -1;
+        }
+        for (int p = 0; p < size; p++) {
+            if (hashes[p] == h && key.equals(keys[p]))
+                return p;
+        }
+        return -1;
+    }
+
+    private void addToIndex(int p) {
+        int mask = index.length - 1;
+        int i = spread(hashes[p]) & mask;
+        while (index[i] != 0)
+            i = (i + 1) & mask;
+        index[i] = p + 1;
+    }
+
+    private void rebuildIndex() {
+        if (size <= INDEX_THRESHOLD) {
+            index = null;
+            return;
+        }
+        index = new int[Integer.highestOneBit(size * 4 - 1)];
+        for (int p = 0; p < size; p++)
+            addToIndex(p);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return position(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int p = position(key);
+        return p < 0 ? null : (V) values[p];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        int p = position(key);
+        return p < 0 ? defaultValue : (V) values[p];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(AbstractAction key, V value) {
+        if (key == null)
+            throw new IllegalArgumentException("ActionMap does not support null keys");
+        int p = position(key);
+        if (p >= 0) {
+            V previous = (V) values[p];
+            values[p] = value;
+            return previous;
+        }
+        if (size == keys.length) {
+            int capacity = size + (size >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[size] = key;
+        hashes[size] = key.hashCode();
+        values[size] = value;
+        size++;
+        if (index != null && size * 2 <= index.length)
+            addToIndex(size - 1);
+        else if (size > INDEX_THRESHOLD)
+            rebuildIndex();
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        int p = position(key);
+        return p < 0 ? null : removeAt(p);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int p) {
+        V previous = (V) values[p];
+        int moved = size - p - 1;
+        System.arraycopy(keys, p + 1, keys, p, moved);
+        System.arraycopy(hashes, p + 1, hashes, p, moved);
+        System.arraycopy(values, p + 1, values, p, moved);
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        rebuildIndex();
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        index = null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super AbstractAction, ? super V> action) {
+        for (int p = 0; p < size; p++)
+            action.accept(keys[p], (V) values[p]);
+    }
+
+    // keySet() and values() iterate the arrays directly, rather than creating an Entry per action
+    @Override
+    public Set<AbstractAction> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public Iterator<AbstractAction> iterator() {
+                return new PositionIterator<>() {
+                    @Override
+                    AbstractAction at(int p) {
+                        return keys[p];
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return new PositionIterator<>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    V at(int p) {
+                        return (V) values[p];
+                    }
+                };
+            }
+        };
+    }
+
+    private abstract class PositionIterator<T> implements Iterator<T> {
+        int next = 0;
+        int last = -1;
+
+        abstract T at(int p);
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public T next() {
+            if (next >= size)
+                throw new NoSuchElementException();
+            last = next++;
+            return at(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0)
+                throw new IllegalStateException();
+            removeAt(last);
+            next = last;
+            last = -1;
+        }
+    }
+
+    @Override
+    public Set<Entry<AbstractAction, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Entry<AbstractAction, V>> iterator() {
+                return new PositionIterator<>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    Entry<AbstractAction, V> at(int p) {
+                        return new SimpleEntry<>(keys[p], (V) values[p]) {
+                            @Override
+                            public V setValue(V value) {
+                                values[p] = value;
+                                return super.setValue(value);
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+}
@@ -1,29 +1,23 @@
 package players.mcts;
 
-import core.actions.AbstractAction;
-
-import java.util.*;
-
+/**
+ * The statistics of one action at a tree node, as they were when this was created.
+ * The node itself holds these in an ActionTable (in primitive arrays indexed by the slot of the action), so this is
+ * only a snapshot for code that reads the statistics of an action by key; changes to the node are not reflected here.
+ */
 public class ActionStats {
-    // Total value of this node
-    public double[] totValue;
-    public double[] squaredTotValue;
+    // Total value of this action (one element per player)
+    public final double[] totValue;
+    public final double[] squaredTotValue;
     // Number of visits
-    public int nVisits;
-    public int validVisits;
-
-    public ActionStats(int nPlayers) {
-        totValue = new double[nPlayers];
-        squaredTotValue = new double[nPlayers];
-        nVisits = 0;
-    }
+    public final int nVisits;
+    public final int validVisits;
 
-    public void update(double[] results) {
-        for (int i = 0; i < results.length; i++) {
-            totValue[i] += results[i];
-            squaredTotValue[i] += results[i] * results[i];
-        }
-        nVisits++;
+    ActionStats(int nVisits, int validVisits, double[] totValue, double[] squaredTotValue) {
+        this.nVisits = nVisits;
+        this.validVisits = validVisits;
+        this.totValue = totValue;
+        this.squaredTotValue = squaredTotValue;
     }
 
 }
@@ -0,0 +1,573 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+
+/**
+ * The actions seen at one tree node, with the statistics and child nodes for each.
+ * <p>
+ * Each action is given a slot the first time it is seen (so slots are in insertion order, as a LinkedHashMap would
+ * be), and everything about it is held in primitive arrays indexed by slot: the visits and valid visits in int[], and
+ * the total and squared total value for each player in double[] (nPlayers entries per slot). So a node with n actions
+ * costs a handful of arrays, instead of n ActionStats objects (each with two arrays of its own) plus the entries of
+ * two hash maps; and the statistics read by the tree policy sit next to each other in memory.
+ * <p>
+ * The slots are held in blocks, which are never moved once created: the first block is sized for the actions
+ * available when the node is created, and if more turn up later (as they can in open loop search) a further block is
+ * added, rather than everything being copied to larger arrays.
+ * <p>
+ * Actions are looked up as in ActionMap: by scanning the cached hash codes, plus a small open-addressed index once a
+ * node has more than INDEX_THRESHOLD actions. Actions cannot be removed (other than by clear()).
+ * <p>
+ * The table can be used by several threads at once (as it is by the workers of a tree-parallel search) without any
+ * locking. The statistics are only changed by atomic adds, and child nodes are only set by compare-and-set, so no
+ * update is lost. The actions (with the arrays used to find them, and the blocks) are held in a Directory, which is
+ * replaced by compare-and-set when an action is added; so a lookup always sees a consistent set of actions, and a
+ * new slot is only visible once it is complete. Reads of the statistics are plain, and may be a moment out of date
+ * while another thread is updating them.
+ */
+final class ActionTable {
+
+    private static final int INDEX_THRESHOLD = 12;
+    // size of the blocks added after the first one
+    private static final int BLOCK_SHIFT = 3;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(AbstractAction[].class);
+    private static final VarHandle CHILD_ARRAYS = MethodHandles.arrayElementVarHandle(SingleTreeNode[][].class);
+    private static final VarHandle NODES = MethodHandles.arrayElementVarHandle(SingleTreeNode[].class);
+    private static final VarHandle DIRECTORY;
+
+    static {
+        try {
+            DIRECTORY = MethodHandles.lookup().findVarHandle(ActionTable.class, "directory", Directory.class);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static final class Block {
+        final int[] visits;
+        final int[] validVisits;
+        final double[] totValue;  // nPlayers entries per slot
+        final double[] squaredTotValue;
+        final SingleTreeNode[][] children;
+
+        Block(int capacity, int nPlayers) {
+            visits = new int[capacity];
+            validVisits = new int[capacity];
+            totValue = new double[capacity * nPlayers];
+            squaredTotValue = new double[capacity * nPlayers];
+            children = new SingleTreeNode[capacity][];
+        }
+
+        void clear(int used, int nPlayers) {
+            Arrays.fill(visits, 0, used, 0);
+            Arrays.fill(validVisits, 0, used, 0);
+            Arrays.fill(totValue, 0, used * nPlayers, 0.0);
+            Arrays.fill(squaredTotValue, 0, used * nPlayers, 0.0);
+            Arrays.fill(children, 0, used, null);
+        }
+    }
+
+    /**
+     * The actions in the table, and where their statistics are. Nothing that the readers of a Directory can see is
+     * ever changed: a new action is written to its arrays just past size (if they have room, and no other thread
+     * has claimed that position first), and only becomes visible when the Directory that includes it is published.
+     */
+    private static final class Directory {
+        final AbstractAction[] keys;
+        final int[] hashes;
+        final int[] index;  // slot + 1 of each key, by hash; null until size > INDEX_THRESHOLD
+        final Block[] blocks;
+        final int nBlocks;
+        final int firstBlockCapacity;
+        final int size;
+
+        Directory(AbstractAction[] keys, int[] hashes, int[] index, Block[] blocks, int nBlocks, int firstBlockCapacity, int size) {
+            this.keys = keys;
+            this.hashes = hashes;
+            this.index = index;
+            this.blocks = blocks;
+            this.nBlocks = nBlocks;
+            this.firstBlockCapacity = firstBlockCapacity;
+            this.size = size;
+        }
+
+        int slot(Object action, int h) {
+            if (index != null) {
+                int mask = index.length - 1;
+                for (int i = spread(h) & mask; index[i] != 0; i = (i + 1) & mask) {
+                    int p = index[i] - 1;
+                    // the index may be shared with a later Directory, so can hold slots that are not in this one
+                    if (p < size && hashes[p] == h && action.equals(keys[p]))
+                        return p;
+                }
+                return -1;
+            }
+            for (int p = 0; p < size; p++) {
+                if (hashes[p] == h && action.equals(keys[p]))
+                    return p;
+            }
+            return -1;
+        }
+
+        int blockOf(int slot) {
+            return slot < firstBlockCapacity ? 0 : 1 + ((slot - firstBlockCapacity) >> BLOCK_SHIFT);
+        }
+
+        int offset(int slot) {
+            return slot < firstBlockCapacity ? slot : (slot - firstBlockCapacity) & (BLOCK_SIZE - 1);
+        }
+
+        Block block(int slot) {
+            return blocks[blockOf(slot)];
+        }
+
+        /**
+         * @return a Directory with the action added in slot size
+         */
+        Directory append(AbstractAction action, int h, int expectedActions, int nPlayers) {
+            int s = size;
+            if (s < keys.length && KEYS.compareAndSet(keys, s, null, action)) {
+                // We now own position s in these arrays, and can write to them without affecting any readers (who all
+                // stop at size). If another thread publishes a Directory first, this one is just discarded.
+                hashes[s] = h;
+                int[] newIndex = index;
+                if (index != null && (s + 1) * 2 <= index.length)
+                    addToIndex(index, hashes, s);
+                else if (s + 1 > INDEX_THRESHOLD)
+                    newIndex = buildIndex(hashes, s + 1);
+                Block[] newBlocks = blocks;
+                int newNBlocks = nBlocks;
+                if (blockOf(s) == nBlocks) {
+                    if (nBlocks == blocks.length)
+                        newBlocks = Arrays.copyOf(blocks, nBlocks * 2);
+                    newBlocks[newNBlocks++] = new Block(BLOCK_SIZE, nPlayers);
+                }
+                return new Directory(keys, hashes, newIndex, newBlocks, newNBlocks, firstBlockCapacity, s + 1);
+            }
+            // Otherwise we copy to new arrays; only the first size elements, as any past that belong to someone else
+            int capacity = Math.max(s + (s >> 1) + 1, expectedActions);
+            AbstractAction[] newKeys = new AbstractAction[capacity];
+            int[] newHashes = new int[capacity];
+            System.arraycopy(keys, 0, newKeys, 0, s);
+            System.arraycopy(hashes, 0, newHashes, 0, s);
+            newKeys[s] = action;
+            newHashes[s] = h;
+            int newFirstBlockCapacity = nBlocks == 0 ? Math.max(2, expectedActions) : firstBlockCapacity;
+            Block[] newBlocks = new Block[nBlocks + 1];
+            System.arraycopy(blocks, 0, newBlocks, 0, nBlocks);
+            int newNBlocks = nBlocks;
+            if (nBlocks == 0)
+                newBlocks[newNBlocks++] = new Block(newFirstBlockCapacity, nPlayers);
+            else if (blockOf(s) == nBlocks)
+                newBlocks[newNBlocks++] = new Block(BLOCK_SIZE, nPlayers);
+            int[] newIndex = s + 1 > INDEX_THRESHOLD ? buildIndex(newHashes, s + 1) : null;
+            return new Directory(newKeys, newHashes, newIndex, newBlocks, newNBlocks, newFirstBlockCapacity, s + 1);
+        }
+    }
+
+    private static final Directory EMPTY = new Directory(new AbstractAction[0], new int[0], null, new Block[0], 0, 0, 0);
+
+    private int nPlayers;
+    private volatile Directory directory = EMPTY;
+
+    /**
+     * Sets the number of players for which values are held. This must be called before the first action is added,
+     * and again if the table is reused (after clear()) for a game with a different number of players.
+     */
+    void setNPlayers(int nPlayers) {
+        if (nPlayers != this.nPlayers) {
+            if (directory.size > 0)
+                throw new IllegalStateException("The number of players cannot be changed once actions have been added");
+            this.nPlayers = nPlayers;
+            directory = EMPTY;
+        }
+    }
+
+    int size() {
+        return directory.size;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static void addToIndex(int[] index, int[] hashes, int p) {
+        int mask = index.length - 1;
+        int i = spread(hashes[p]) & mask;
+        while (index[i] != 0)
+            i = (i + 1) & mask;
+        index[i] = p + 1;
+    }
+
+    private static int[] buildIndex(int[] hashes, int size) {
+        int[] index = new int[Integer.highestOneBit(size * 4 - 1)];
+        for (int p = 0; p < size; p++)
+            addToIndex(index, hashes, p);
+        return index;
+    }
+
+    /**
+     * @return the slot of the action, or -1 if it has not been added
+     */
+    int slot(Object action) {
+        return action == null ? -1 : directory.slot(action, action.hashCode());
+    }
+
+    /**
+     * Adds the action (which is kept as the key, so should be a copy that nothing else will change) if it is not
+     * already in the table.
+     *
+     * @param expectedActions - the number of actions the node is likely to have; used to size the first block
+     * @return the slot of the action
+     */
+    int add(AbstractAction action, int expectedActions) {
+        return insert(action, expectedActions, true);
+    }
+
+    /**
+     * As add(), but tells the caller whether it was this call that added the action (so that only one caller
+     * seeds its statistics, for example).
+     *
+     * @return the slot of the action if it was added by this call, or -1 if it was already in the table
+     */
+    int addIfAbsent(AbstractAction action, int expectedActions) {
+        return insert(action, expectedActions, false);
+    }
+
+    private int insert(AbstractAction action, int expectedActions, boolean returnExisting) {
+        if (nPlayers == 0)
+            throw new IllegalStateException("setNPlayers() has not been called");
+        int h = action.hashCode();
+        while (true) {
+            Directory d = directory;
+            int p = d.slot(action, h);
+            if (p >= 0)
+                return returnExisting ? p : -1;
+            Directory next = d.append(action, h, expectedActions, nPlayers);
+            if (DIRECTORY.compareAndSet(this, d, next))
+                return d.size;
+        }
+    }
+
+    /**
+     * Removes all actions. The first block is kept (and zeroed), so a recycled node does not need to allocate it
+     * again. This must not be called while any other thread is using the table.
+     */
+    void clear() {
+        Directory d = directory;
+        if (d.nBlocks == 0)
+            return;
+        Arrays.fill(d.keys, null);
+        d.blocks[0].clear(Math.min(d.size, d.firstBlockCapacity), nPlayers);
+        directory = new Directory(d.keys, d.hashes, null, new Block[]{d.blocks[0]}, 1, d.firstBlockCapacity, 0);
+    }
+
+    AbstractAction action(int slot) {
+        return directory.keys[slot];
+    }
+
+    int visits(int slot) {
+        Directory d = directory;
+        return d.block(slot).visits[d.offset(slot)];
+    }
+
+    int validVisits(int slot) {
+        Directory d = directory;
+        return d.block(slot).validVisits[d.offset(slot)];
+    }
+
+    double totValue(int slot, int player) {
+        Directory d = directory;
+        return d.block(slot).totValue[d.offset(slot) * nPlayers + player];
+    }
+
+    double squaredTotValue(int slot, int player) {
+        Directory d = directory;
+        return d.block(slot).squaredTotValue[d.offset(slot) * nPlayers + player];
+    }
+
+    /**
+     * Records one visit through the action, with the given result for each player.
+     */
+    void update(int slot, double[] results) {
+        Directory d = directory;
+        Block block = d.block(slot);
+        int o = d.offset(slot);
+        int base = o * nPlayers;
+        for (int i = 0; i < results.length; i++) {
+            DOUBLES.getAndAdd(block.totValue, base + i, results[i]);
+            DOUBLES.getAndAdd(block.squaredTotValue, base + i, results[i] * results[i]);
+        }
+        INTS.getAndAdd(block.visits, o, 1);
+    }
+
+    void addValidVisit(int slot) {
+        Directory d = directory;
+        INTS.getAndAdd(d.block(slot).validVisits, d.offset(slot), 1);
+    }
+
+    /**
+     * Adds visits with the given total values to the action; used to seed its statistics from a heuristic estimate.
+     */
+    void addVisits(int slot, int visits, int validVisits, double[] totValue, double[] squaredTotValue) {
+        Directory d = directory;
+        Block block = d.block(slot);
+        int o = d.offset(slot);
+        INTS.getAndAdd(block.visits, o, visits);
+        INTS.getAndAdd(block.validVisits, o, validVisits);
+        for (int i = 0; i < nPlayers; i++) {
+            DOUBLES.getAndAdd(block.totValue, o * nPlayers + i, totValue[i]);
+            DOUBLES.getAndAdd(block.squaredTotValue, o * nPlayers + i, squaredTotValue[i]);
+        }
+    }
+
+    /**
+     * Adds in the statistics of an action from another (independent) search.
+     * Used by root-parallel search to merge the statistics of each root.
+     */
+    void add(int slot, ActionTable other, int otherSlot) {
+        Directory otherDirectory = other.directory;
+        Block otherBlock = otherDirectory.block(otherSlot);
+        int o = otherDirectory.offset(otherSlot);
+        addVisits(slot, otherBlock.visits[o], otherBlock.validVisits[o],
+                Arrays.copyOfRange(otherBlock.totValue, o * nPlayers, (o + 1) * nPlayers),
+                Arrays.copyOfRange(otherBlock.squaredTotValue, o * nPlayers, (o + 1) * nPlayers));
+    }
+
+    /**
+     * Used by tree-parallel search while another worker has an iteration in flight through this action.
+     * We add visits that all scored the supplied loss value for the acting player, which makes the action look
+     * worse to other workers (so they explore elsewhere); and take them off again (with negative visits) at backup.
+     */
+    void addVirtualLoss(int slot, int player, int visits, double lossValue) {
+        Directory d = directory;
+        Block block = d.block(slot);
+        int o = d.offset(slot);
+        INTS.getAndAdd(block.visits, o, visits);
+        INTS.getAndAdd(block.validVisits, o, visits);
+        DOUBLES.getAndAdd(block.totValue, o * nPlayers + player, visits * lossValue);
+        DOUBLES.getAndAdd(block.squaredTotValue, o * nPlayers + player, visits * lossValue * lossValue);
+    }
+
+    /**
+     * @return the child nodes reached by the action (indexed by the player to act next), or null if it has not
+     * been expanded
+     */
+    SingleTreeNode[] children(int slot) {
+        Directory d = directory;
+        return (SingleTreeNode[]) CHILD_ARRAYS.getAcquire(d.block(slot).children, d.offset(slot));
+    }
+
+    /**
+     * As children(), but first creates the (empty) array of child nodes if there is none.
+     */
+    SingleTreeNode[] childrenOrCreate(int slot, int nPlayers) {
+        Directory d = directory;
+        SingleTreeNode[][] children = d.block(slot).children;
+        int o = d.offset(slot);
+        SingleTreeNode[] existing = (SingleTreeNode[]) CHILD_ARRAYS.getAcquire(children, o);
+        if (existing != null)
+            return existing;
+        SingleTreeNode[] created = new SingleTreeNode[nPlayers];
+        existing = (SingleTreeNode[]) CHILD_ARRAYS.compareAndExchange(children, o, null, created);
+        return existing == null ? created : existing;
+    }
+
+    void setChildren(int slot, SingleTreeNode[] children) {
+        Directory d = directory;
+        CHILD_ARRAYS.setRelease(d.block(slot).children, d.offset(slot), children);
+    }
+
+    /**
+     * @return the child in an array from children(); reading it so that a node set by another thread with
+     * setChild() is seen complete
+     */
+    static SingleTreeNode child(SingleTreeNode[] children, int player) {
+        return (SingleTreeNode) NODES.getAcquire(children, player);
+    }
+
+    /**
+     * Sets the child in an array from children(), unless another thread has already done so.
+     *
+     * @return the child that is now in the array; which is not the one supplied if another thread got there first
+     */
+    static SingleTreeNode setChild(SingleTreeNode[] children, int player, SingleTreeNode child) {
+        SingleTreeNode existing = (SingleTreeNode) NODES.compareAndExchange(children, player, null, child);
+        return existing == null ? child : existing;
+    }
+
+    /**
+     * A snapshot of the statistics of the action.
+     */
+    ActionStats stats(int slot) {
+        Directory d = directory;
+        Block block = d.block(slot);
+        int o = d.offset(slot);
+        return new ActionStats(block.visits[o], block.validVisits[o],
+                Arrays.copyOfRange(block.totValue, o * nPlayers, (o + 1) * nPlayers),
+                Arrays.copyOfRange(block.squaredTotValue, o * nPlayers, (o + 1) * nPlayers));
+    }
+
+    /**
+     * @return a live view of the child nodes of each action, for code that looks them up by action rather than
+     * by slot. Putting a new action adds it to the table.
+     */
+    Map<AbstractAction, SingleTreeNode[]> childrenView() {
+        return new View<>() {
+            @Override
+            SingleTreeNode[] at(int slot) {
+                return children(slot);
+            }
+
+            @Override
+            public SingleTreeNode[] put(AbstractAction key, SingleTreeNode[] value) {
+                int p = slot(key);
+                SingleTreeNode[] previous = p < 0 ? null : children(p);
+                setChildren(p < 0 ? add(key, 1) : p, value);
+                return previous;
+            }
+        };
+    }
+
+    /**
+     * @return a read-only view of the statistics of each action, for code that looks them up by action rather than
+     * by slot. Each get() returns a snapshot of the statistics at the time.
+     */
+    Map<AbstractAction, ActionStats> statsView() {
+        return new View<>() {
+            @Override
+            ActionStats at(int slot) {
+                return stats(slot);
+            }
+        };
+    }
+
+    private abstract class View<V> extends AbstractMap<AbstractAction, V> {
+
+        abstract V at(int slot);
+
+        @Override
+        public int size() {
+            return ActionTable.this.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return slot(key) >= 0;
+        }
+
+        @Override
+        public V get(Object key) {
+            int p = slot(key);
+            return p < 0 ? null : at(p);
+        }
+
+        @Override
+        public Set<AbstractAction> keySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return ActionTable.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return slot(o) >= 0;
+                }
+
+                @Override
+                public Iterator<AbstractAction> iterator() {
+                    return new SlotIterator<>() {
+                        @Override
+                        AbstractAction at(int p) {
+                            return keys[p];
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public Collection<V> values() {
+            return new AbstractCollection<>() {
+                @Override
+                public int size() {
+                    return ActionTable.this.size();
+                }
+
+                @Override
+                public Iterator<V> iterator() {
+                    return new SlotIterator<>() {
+                        @Override
+                        V at(int p) {
+                            return View.this.at(p);
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<AbstractAction, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return ActionTable.this.size();
+                }
+
+                @Override
+                public Iterator<Entry<AbstractAction, V>> iterator() {
+                    return new SlotIterator<>() {
+                        @Override
+                        Entry<AbstractAction, V> at(int p) {
+                            return new SimpleEntry<>(keys[p], View.this.at(p)) {
+                                @Override
+                                public V setValue(V value) {
+                                    V previous = getValue();
+                                    put(getKey(), value);
+                                    super.setValue(value);
+                                    return previous;
+                                }
+                            };
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    // iterates over the actions that were in the table when it was created
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        final AbstractAction[] keys;
+        final int size;
+        int next = 0;
+
+        SlotIterator() {
+            Directory d = directory;
+            keys = d.keys;
+            size = d.size;
+        }
+
+        abstract T at(int p);
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public T next() {
+            if (next >= size)
+                throw new NoSuchElementException();
+            return at(next++);
+        }
+    }
+}
@@ -2,17 +2,36 @@ package players.mcts;
 
 import core.AbstractGameState;
 import core.actions.AbstractAction;
+import utilities.LongHashMap;
 
 import java.util.*;
 
 public class MCGSNode extends SingleTreeNode {
 
-    private Map<String, MCGSNode> transpositionMap = new HashMap<>();
-    public List<String> trajectory = new ArrayList<>();
+    private LongHashMap<MCGSNode> transpositionMap = new LongHashMap<>();
+    // keys of the states passed through in the tree on the current iteration (only used on the root, so only
+    // allocated there)
+    private long[] trajectory = new long[0];
+    private int trajectoryLength;
 
     protected MCGSNode() {
     }
 
+    /**
+     * The key used for a state in the transposition table. This is MCGSStateKey if one is specified, and
+     * otherwise the incrementally maintained AbstractGameState.getStateHash(). The latter is only allowed for games
+     * that override _getStateHash(); for any other game it would be the 32-bit hashCode(), and states that collide
+     * would be silently merged into one node.
+     */
+    public static long stateKey(MCTSParams params, AbstractGameState state) {
+        if (params.MCGSStateKey != null)
+            return params.MCGSStateKey.getLongKey(state);
+        if (!state.hasStateHash())
+            throw new IllegalArgumentException("MCGSStateKey must be specified for " + state.getGameType() +
+                    " as it does not implement _getStateHash()");
+        return state.getStateHash();
+    }
+
 
     @Override
     protected void instantiate(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state) {
@@ -22,7 +41,7 @@ public class MCGSNode extends SingleTreeNode {
     }
 
     private void addToTranspositionTable(MCGSNode node, AbstractGameState keyState) {
-        String key = params.MCGSStateKey.getKey(keyState);
+        long key = stateKey(params, keyState);
         MCGSNode graphRoot = (MCGSNode) root;
         if (graphRoot.transpositionMap.containsKey(key)) {
             throw new AssertionError("Unexpected?");
@@ -43,7 +62,7 @@ public class MCGSNode extends SingleTreeNode {
         // we create the new node here; so that the backup does not create new nodes (which is in line with the main MCTS algorithm).
         // this enforces (for the moment) the rule that each iteration adds one new node.
         MCGSNode graphRoot = (MCGSNode) root;
-        String key = params.MCGSStateKey.getKey(nextState);
+        long key = stateKey(params, nextState);
         if (graphRoot.transpositionMap.containsKey(key)) {
             if (params.MCGSExpandAfterClash) {
                 throw new AssertionError("Unexpected?");
@@ -59,11 +78,11 @@ public class MCGSNode extends SingleTreeNode {
     @Override
     protected SingleTreeNode nextNodeInTree(AbstractAction actionChosen) {
         // we look up the node in the transposition table using the feature vector for the openLoopState
-        String key = params.MCGSStateKey.getKey(openLoopState);
+        long key = stateKey(params, openLoopState);
         MCGSNode nextNode = ((MCGSNode) root).transpositionMap.get(key);
 
         if (nextNode != null) {
-            if (actionValues.get(actionChosen).nVisits == 0) {
+            if (actionVisits(actionChosen) == 0) {
                 root.nodeClash++;
                 if (!params.MCGSExpandAfterClash) {
                     // we then return null so we rollout from this point
@@ -83,18 +102,34 @@ public class MCGSNode extends SingleTreeNode {
             // We only track this while in the tree (we could do the rollout as well, but at the overhead
             // of featureVector calculations
             MCGSNode mcgsRoot = (MCGSNode) root;
-            String key = params.MCGSStateKey.getKey(gs);
-            mcgsRoot.trajectory.add(key);
+            long key = stateKey(params, gs);
+            if (mcgsRoot.trajectoryLength == mcgsRoot.trajectory.length)
+                mcgsRoot.trajectory = Arrays.copyOf(mcgsRoot.trajectory, Math.max(16, mcgsRoot.trajectoryLength * 2));
+            mcgsRoot.trajectory[mcgsRoot.trajectoryLength++] = key;
 //            System.out.println("Adding to trajectory: " + key);
         }
         super.advanceState(gs, act, inRollout);
     }
 
+    @Override
+    protected void evictIfOverBudget() {
+        // Nodes in the graph can be reached from several parents (and from the transposition table), so we do not
+        // evict any; maxTreeNodes is ignored for MCGS
+    }
+
+    @Override
+    protected void recycle() {
+        super.recycle();
+        transpositionMap = new LongHashMap<>();
+        trajectoryLength = 0;
+    }
+
     @Override
     protected void resetDepth(SingleTreeNode newRoot) {
         int depthDelta = depth;
         root = this;
         depth = 0;
+        treeSize = transpositionMap.size();
         for (MCGSNode node : transpositionMap.values()) {
             node.depth -= depthDelta;
             node.root = this;
@@ -111,13 +146,13 @@ public class MCGSNode extends SingleTreeNode {
         double[] result = processResultsForParanoidOrSelfOnly(delta);
         MCGSNode nRoot = (MCGSNode) root;
         // trajectory is the sequence of state representations that we have passed through
-        if (nRoot.trajectory.size() != nRoot.actionsInTree.size()) {
+        if (nRoot.trajectoryLength != nRoot.actionsInTree.size()) {
             throw new AssertionError("Trajectory and actionsInTree should be the same size " +
-                    nRoot.trajectory.size() + " != " + nRoot.actionsInTree.size());
+                    nRoot.trajectoryLength + " != " + nRoot.actionsInTree.size());
         }
 
-        for (int i = nRoot.trajectory.size() - 1; i >= 0; i--) {
-            String key = nRoot.trajectory.get(i);
+        for (int i = nRoot.trajectoryLength - 1; i >= 0; i--) {
+            long key = nRoot.trajectory[i];
             MCGSNode node = nRoot.transpositionMap.get(key);
             AbstractAction action = nRoot.actionsInTree.get(i).b;
             if (node == null) {
@@ -125,14 +160,14 @@ public class MCGSNode extends SingleTreeNode {
             }
             result = node.backUpSingleNode(action, result);
         }
-        nRoot.trajectory.clear();
+        nRoot.trajectoryLength = 0;
     }
 
-    public Map<String, MCGSNode> getTranspositionMap() {
+    public LongHashMap<MCGSNode> getTranspositionMap() {
         return transpositionMap;
     }
 
-    public void setTranspositionMap(Map<String, MCGSNode> transposition) {
+    public void setTranspositionMap(LongHashMap<MCGSNode> transposition) {
         transpositionMap = transposition;
     }
 
@@ -52,6 +52,7 @@ public class MCTSMetrics implements IMetricsCollection {
                 records.put("copyCalls", mctsPlayer.root.copyCount / visits);
                 records.put("time", mctsPlayer.root.timeTaken);
                 records.put("initTime", mctsPlayer.root.initialisationTimeTaken);
+                records.put("ActionCacheHitRate", mctsPlayer.actionCacheHitRate);
                 return true;
             }
             return false;
@@ -86,6 +87,7 @@ public class MCTSMetrics implements IMetricsCollection {
             cols.put("copyCalls", Integer.class);
             cols.put("time", Double.class);
             cols.put("initTime", Double.class);
+            cols.put("ActionCacheHitRate", Double.class);
             return cols;
         }
     }
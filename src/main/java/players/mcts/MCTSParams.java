@@ -39,6 +39,7 @@ public class MCTSParams extends PlayerParameters {
     public MCTSEnums.OpponentTreePolicy opponentTreePolicy = OneTree;
     public boolean paranoid = false;
     public MCTSEnums.Strategies rolloutType = RANDOM;
+    public boolean fastRandomRollouts = false;  // if true, RANDOM rollouts sample from the forward model directly, and rollout actions are not copied
     public MCTSEnums.Strategies oppModelType = MCTSEnums.Strategies.DEFAULT;  // Default is to use the same as rolloutType
     public String rolloutClass, oppModelClass = "";
     public AbstractPlayer rolloutPolicy;
@@ -55,7 +56,7 @@ public class MCTSParams extends PlayerParameters {
     public MCTSEnums.RolloutTermination rolloutTermination = DEFAULT;
     public IStateHeuristic heuristic = AbstractGameState::getHeuristicScore;
     public IActionKey MASTActionKey;
-    public IStateKey MCGSStateKey;
+    public IStateKey MCGSStateKey;  // if null, MCGS uses getStateHash(), which is only allowed for games that implement _getStateHash()
     public boolean MCGSExpandAfterClash = true;
     public double firstPlayUrgency = 1000000000.0;
     @NotNull public IActionHeuristic actionHeuristic = IActionHeuristic.nullReturn;
@@ -68,9 +69,15 @@ public class MCTSParams extends PlayerParameters {
     public double progressiveWideningExponent = 0.0;
     public double progressiveBias = 0.0;
     public boolean reuseTree = false;
+    public boolean recycleNodes = false;  // if true, discarded nodes are pooled and reused. Nodes from previous decisions must then not be kept outside the player
+    public int maxTreeNodes = 0;  // if greater than zero, the least visited leaves are removed when the tree grows beyond this many nodes
+    public int actionCacheSize = 0;  // if greater than zero, action lists are cached by state hash during each decision (see ActionListCache)
     public MCTSEnums.BackupPolicy backupPolicy = MCTSEnums.BackupPolicy.MonteCarlo;
     public double backupLambda = 1.0;
     public int maxBackupThreshold = 1000000;
+    public int treeParallelism = 1;  // number of worker threads that search the same tree (1 is the standard single-threaded search)
+    public int virtualLoss = 1;  // number of pseudo-visits (at the lowest reward seen) added to each action in flight on another worker
+    public int rootParallelism = 1;  // number of independent trees (one per thread) whose root statistics are merged to make the decision
 
 
     public MCTSParams() {
@@ -81,6 +88,7 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("rolloutLengthPerPlayer", false);
         addTunableParameter("maxTreeDepth", 1000, Arrays.asList(1, 3, 10, 30, 100));
         addTunableParameter("rolloutType", RANDOM, Arrays.asList(MCTSEnums.Strategies.values()));
+        addTunableParameter("fastRandomRollouts", false);
         addTunableParameter("oppModelType", RANDOM, Arrays.asList(MCTSEnums.Strategies.values()));
         addTunableParameter("rolloutClass", "");
         addTunableParameter("oppModelClass", "");
@@ -117,9 +125,15 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("initialiseVisits", 0);
         addTunableParameter("actionHeuristicRecalculation", 20);
         addTunableParameter("reuseTree", false);
+        addTunableParameter("recycleNodes", false);
+        addTunableParameter("maxTreeNodes", 0);
+        addTunableParameter("actionCacheSize", 0);
         addTunableParameter("backupPolicy", MCTSEnums.BackupPolicy.MonteCarlo, Arrays.asList(MCTSEnums.BackupPolicy.values()));
         addTunableParameter("backupLambda", 1.0);
         addTunableParameter("maxBackupThreshold", 1000000);
+        addTunableParameter("treeParallelism", 1);
+        addTunableParameter("virtualLoss", 1);
+        addTunableParameter("rootParallelism", 1);
     }
 
     @Override
@@ -130,6 +144,7 @@ public class MCTSParams extends PlayerParameters {
         rolloutLengthPerPlayer = (boolean) getParameterValue("rolloutLengthPerPlayer");
         maxTreeDepth = (int) getParameterValue("maxTreeDepth");
         rolloutType = (MCTSEnums.Strategies) getParameterValue("rolloutType");
+        fastRandomRollouts = (boolean) getParameterValue("fastRandomRollouts");
         rolloutTermination = (MCTSEnums.RolloutTermination) getParameterValue("rolloutTermination");
         oppModelType = (MCTSEnums.Strategies) getParameterValue("oppModelType");
         information = (MCTSEnums.Information) getParameterValue("information");
@@ -171,9 +186,15 @@ public class MCTSParams extends PlayerParameters {
         initialiseVisits = (int) getParameterValue("initialiseVisits");
         actionHeuristicRecalculationThreshold = (int) getParameterValue("actionHeuristicRecalculation");
         reuseTree = (boolean) getParameterValue("reuseTree");
+        recycleNodes = (boolean) getParameterValue("recycleNodes");
+        maxTreeNodes = (int) getParameterValue("maxTreeNodes");
+        actionCacheSize = (int) getParameterValue("actionCacheSize");
         backupPolicy = (MCTSEnums.BackupPolicy) getParameterValue("backupPolicy");
         backupLambda = (double) getParameterValue("backupLambda");
         maxBackupThreshold = (int) getParameterValue("maxBackupThreshold");
+        treeParallelism = (int) getParameterValue("treeParallelism");
+        virtualLoss = (int) getParameterValue("virtualLoss");
+        rootParallelism = (int) getParameterValue("rootParallelism");
         opponentModel = null;
         rolloutPolicy = null;
         useMASTAsActionHeuristic = (boolean) getParameterValue("useMASTAsActionHeuristic");
@@ -237,6 +258,21 @@ public class MCTSParams extends PlayerParameters {
         if (!useMAST && (useMASTAsActionHeuristic || rolloutType == MCTSEnums.Strategies.MAST)) {
             throw new AssertionError("MAST data not being collected, but MAST is being used as the rollout policy or as the action heuristic. Set MAST parameter.");
         }
+        if (treeParallelism > 1) {
+            // Tree-parallel search only supports a single shared tree, and rollout policies that do not read
+            // statistics that other workers are updating at the same time
+            if (opponentTreePolicy != OneTree && opponentTreePolicy != MCTSEnums.OpponentTreePolicy.SelfOnly)
+                throw new AssertionError("Tree parallelism is only supported with OneTree or SelfOnly opponentTreePolicy, not " + opponentTreePolicy);
+            if (rolloutType == MCTSEnums.Strategies.MAST || oppModelType == MCTSEnums.Strategies.MAST)
+                throw new AssertionError("Tree parallelism is not supported with a MAST rollout policy or opponent model");
+        }
+        if (rootParallelism > 1) {
+            // Each root is searched independently, but they share these parameters (and hence the rollout policy)
+            if (opponentTreePolicy == MCTSEnums.OpponentTreePolicy.MultiTree)
+                throw new AssertionError("Root parallelism is not supported with MultiTree opponentTreePolicy");
+            if (rolloutType == MCTSEnums.Strategies.MAST || oppModelType == MCTSEnums.Strategies.MAST || useMASTAsActionHeuristic)
+                throw new AssertionError("Root parallelism is not supported with MAST as rollout policy, opponent model or action heuristic");
+        }
         return new MCTSPlayer((MCTSParams) this.copy());
     }
 
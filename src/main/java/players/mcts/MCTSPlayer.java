@@ -3,16 +3,24 @@ package players.mcts;
 import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
+import core.ActionListCache;
 import core.actions.AbstractAction;
 import core.interfaces.IActionHeuristic;
 import evaluation.listeners.IGameListener;
+import games.GameType;
 import core.interfaces.IStateHeuristic;
 import evaluation.metrics.Event;
 import players.IAnyTimePlayer;
+import utilities.LongHashMap;
 import utilities.Pair;
 import utilities.Utils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -26,9 +34,14 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
     // Heuristics used for the agent
     protected boolean debug = false;
     protected SingleTreeNode root;
+    // the proportion of action lists found in the cache during the last decision (see MCTSParams.actionCacheSize)
+    protected double actionCacheHitRate;
+    // game types for which we have warned that actionCacheSize is ignored (players are copied for every game)
+    private static final Set<GameType> warnedNoActionCache = ConcurrentHashMap.newKeySet();
     protected AbstractAction lastAction;
     List<Map<Object, Pair<Integer, Double>>> MASTStats;
-    Map<String, Integer> oldGraphKeys = new HashMap<>();
+    LongHashMap<Integer> oldGraphKeys = new LongHashMap<>();
+    NodePool nodePool;
 
     public MCTSPlayer() {
         this(new MCTSParams());
@@ -62,7 +75,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
             ((AbstractPlayer) getParameters().actionHeuristic).initializePlayer(state);
         MASTStats = null;
         root = null;
-        oldGraphKeys = new HashMap<>();
+        oldGraphKeys = new LongHashMap<>();
         getParameters().getRolloutStrategy().initializePlayer(state);
         getParameters().getOpponentModel().initializePlayer(state);
     }
@@ -83,6 +96,19 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         };
     }
 
+    /**
+     * @return the pool of discarded nodes that new nodes are taken from, or null if params.recycleNodes is not set
+     * (or we are searching in parallel, as the pool is not thread-safe).
+     */
+    protected NodePool getNodePool() {
+        MCTSParams params = getParameters();
+        if (!params.recycleNodes || params.rootParallelism > 1 || params.treeParallelism > 1)
+            return null;
+        if (nodePool == null)
+            nodePool = new NodePool(params.maxTreeNodes > 0 ? params.maxTreeNodes : Integer.MAX_VALUE);
+        return nodePool;
+    }
+
     @Override
     public void registerUpdatedObservation(AbstractGameState gameState) {
         super.registerUpdatedObservation(gameState);
@@ -110,6 +136,9 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
                 mtRoot.roots[p].rootify(oldRoot);
                 mtRoot.roots[p].state = state.copy();
             }
+            // everything in the old tree that is not below the new root is now garbage
+            if (getNodePool() != null)
+                getNodePool().releaseTree(oldRoot, mtRoot.roots[p]);
         }
         mtRoot.state = state.copy();
         return mtRoot;
@@ -120,29 +149,29 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         if (params.reuseTree && (params.opponentTreePolicy == MCGS || params.opponentTreePolicy == MCGSSelfOnly)) {
             // In this case we remove any nodes from the graph that were not present before the last action was taken
             MCGSNode mcgsRoot = (MCGSNode) root;
-            for (String key : oldGraphKeys.keySet()) {
-                int oldVisits = oldGraphKeys.get(key);
-                int newVisits = mcgsRoot.getTranspositionMap().get(key) != null ? mcgsRoot.getTranspositionMap().get(key).nVisits : 0;
+            oldGraphKeys.forEach((key, oldVisits) -> {
+                MCGSNode node = mcgsRoot.getTranspositionMap().get(key);
+                int newVisits = node != null ? node.nVisits : 0;
                 if (newVisits == oldVisits) {
                     // no change, so remove
                     mcgsRoot.getTranspositionMap().remove(key);
                 } else if (newVisits < oldVisits) {
                     throw new AssertionError("Unexpectedly fewer visits to a state than before");
                 }
-            }
+            });
             // then reset the old keys
             if (mcgsRoot == null) {
-                oldGraphKeys = new HashMap<>();
+                oldGraphKeys = new LongHashMap<>();
                 return null;
             }
 
-            oldGraphKeys = mcgsRoot.getTranspositionMap().entrySet().stream()
-                    .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().nVisits));
+            oldGraphKeys = new LongHashMap<>(mcgsRoot.getTranspositionMap().size());
+            mcgsRoot.getTranspositionMap().forEach((key, node) -> oldGraphKeys.put(key, node.nVisits));
             // we create the root node as we would have done normally; and then override the transposition map
-            MCGSNode retValue = ((MCGSNode) root).getTranspositionMap().get(params.MCGSStateKey.getKey(gameState));
+            MCGSNode retValue = ((MCGSNode) root).getTranspositionMap().get(MCGSNode.stateKey(params, gameState));
             if (retValue == null) {
                 // have left graph; start from scratch
-                oldGraphKeys = new HashMap<>();
+                oldGraphKeys = new LongHashMap<>();
                 return null;
             }
             retValue.instantiate(null, null, gameState);
@@ -184,6 +213,9 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
             newRoot.instantiate(null, null, gameState);
             newRoot.rootify(root);
         }
+        // everything in the old tree that is not below the new root is now garbage
+        if (params.reuseTree && root != null && getNodePool() != null)
+            getNodePool().releaseTree(root, newRoot);
         return newRoot;
     }
 
@@ -252,10 +284,19 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
     public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> actions) {
         // Search for best action from the root
         long currentTimeNano = System.nanoTime();
-        createRootNode(gameState);
-        long timeTaken = System.nanoTime() - currentTimeNano;
-
-        root.mctsSearch(timeTaken / 1000000);
+        startActionCache(gameState);
+        try {
+            if (getParameters().rootParallelism > 1) {
+                rootParallelSearch(gameState, currentTimeNano);
+            } else {
+                createRootNode(gameState);
+                long timeTaken = System.nanoTime() - currentTimeNano;
+
+                root.mctsSearch(timeTaken / 1000000);
+            }
+        } finally {
+            stopActionCache();
+        }
 
         if (getParameters().actionHeuristic instanceof ITreeProcessor)
             ((ITreeProcessor) getParameters().actionHeuristic).process(root);
@@ -280,6 +321,89 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         return lastAction.copy();
     }
 
+    /**
+     * The action cache only lasts for one decision, so that it holds the states near the current root. It is not
+     * used with decorators, which may filter the actions in ways that do not depend only on the state, nor with
+     * root or tree parallelism, as the cache is not thread-safe (and some games' forward models copy() to
+     * themselves, so the threads would all share it). Nor is it used for games without a 64-bit state hash, as
+     * states with different actions could then share a key; as only a few games have one, we say so the first time
+     * this stops an actionCacheSize that has been set from taking effect.
+     */
+    private void startActionCache(AbstractGameState gameState) {
+        MCTSParams params = getParameters();
+        if (params.actionCacheSize > 0 && !gameState.hasStateHash() && warnedNoActionCache.add(gameState.getGameType()))
+            System.out.println("Warning: actionCacheSize is ignored for " + gameState.getGameType() +
+                    " as it does not implement _getStateHash()");
+        boolean useCache = gameState.hasStateHash() && !hasDecorators()
+                && params.rootParallelism <= 1 && params.treeParallelism <= 1;
+        getForwardModel().setActionCacheSize(useCache ? params.actionCacheSize : 0);
+        actionCacheHitRate = 0.0;
+    }
+
+    /**
+     * Switches the cache off again at the end of the decision. The forward model is usually the same object that
+     * the game (and any other players) use, and they must not see lists cached during our search.
+     */
+    private void stopActionCache() {
+        ActionListCache cache = getForwardModel().getActionCache();
+        if (cache != null)
+            actionCacheHitRate = cache.getHitRate();
+        getForwardModel().setActionCacheSize(0);
+    }
+
+    /**
+     * Root-parallel search. We search rootParallelism independent trees, one per thread, and then merge the
+     * statistics at their roots into a single root from which bestAction() is then taken.
+     * The first tree is searched from the observed gameState, and each of the others from its own redeterminisation
+     * of it; so in hidden information games this gives us an ensemble over determinisations as well.
+     * The trees share nothing, so there is no contention between threads; but nor is there any tree reuse.
+     * Each tree has its own Random, forward model and copies of the rollout policy and opponent model; the heuristic
+     * is shared, so must not keep any state between calls.
+     * The redeterminisations come from gameState.copy(playerId), which is not seeded from rnd (nor is the Random of
+     * the copy), so in hidden information games the results are not reproducible from the seed alone.
+     */
+    protected void rootParallelSearch(AbstractGameState gameState, long startTimeNano) {
+        MCTSParams params = getParameters();
+        if (params.useMASTAsActionHeuristic)
+            throw new AssertionError("Root parallelism is not supported with MAST as the action heuristic");
+        // the policies are created (if need be) here, as params creates them lazily and is not thread-safe
+        AbstractPlayer rolloutStrategy = params.getRolloutStrategy();
+        AbstractPlayer opponentModel = params.getOpponentModel();
+        SingleTreeNode[] roots = new SingleTreeNode[params.rootParallelism];
+        for (int i = 0; i < roots.length; i++) {
+            AbstractGameState rootState = i == 0 ? gameState : gameState.copy(gameState.getCurrentPlayer());
+            AbstractForwardModel fm = i == 0 ? getForwardModel() : getForwardModel().copy();
+            // The seeds are taken from rnd here (and not in each thread), so that they do not depend on thread timing
+            roots[i] = SingleTreeNode.createRootNode(this, rootState, new Random(rnd.nextLong()), getFactory(), fm);
+            roots[i].usePolicyCopies(rolloutStrategy, opponentModel, "Root parallelism");
+        }
+        long initialisationTime = (System.nanoTime() - startTimeNano) / 1000000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(roots.length);
+        try {
+            List<Future<?>> searches = new ArrayList<>();
+            for (SingleTreeNode r : roots)
+                searches.add(executor.submit(() -> r.mctsSearch(initialisationTime)));
+            for (Future<?> search : searches)
+                search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted during root-parallel MCTS search");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re)
+                throw re;
+            if (e.getCause() instanceof Error err)
+                throw err;
+            throw new AssertionError("Error in root-parallel MCTS search", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 1; i < roots.length; i++)
+            roots[0].mergeRootStatistics(roots[i]);
+        root = roots[0];
+    }
+
     @Override
     public void finalizePlayer(AbstractGameState state) {
         getParameters().getRolloutStrategy().onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
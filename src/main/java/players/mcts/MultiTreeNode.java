@@ -99,11 +99,7 @@ public class MultiTreeNode extends SingleTreeNode {
                 // note that different players will enter rollout at different times, which is why
                 // we cannot have a simple rollout() method as in SingleTree search
                 AbstractPlayer agent = currentActor == decisionPlayer ? params.getRolloutStrategy() : params.getOpponentModel();
-                List<AbstractAction> availableActions = forwardModel.computeAvailableActions(currentState, mctsPlayer.getParameters().actionSpace);
-                if (availableActions.isEmpty())
-                    throw new AssertionError("We should always have something to choose from");
-
-                AbstractAction chosen = agent.getAction(currentState, availableActions);
+                AbstractAction chosen = policyAction(agent, currentState, null);
                 if (debug)
                     System.out.printf("Rollout action chosen for P%d - %s %n", currentActor, chosen);
 
@@ -176,6 +172,14 @@ public class MultiTreeNode extends SingleTreeNode {
 
     }
 
+    @Override
+    protected void evictIfOverBudget() {
+        // each player's tree is capped separately
+        for (SingleTreeNode tree : roots)
+            if (tree != null)
+                tree.evictIfOverBudget();
+    }
+
     @Override
     public AbstractAction bestAction() {
         return roots[decisionPlayer].bestAction();
@@ -0,0 +1,85 @@
+package players.mcts;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * A per-player pool of tree nodes that are no longer part of the search tree, so that they can be handed out again
+ * in createChildNode() instead of being left to the garbage collector.
+ * <p>
+ * With reuseTree, the sub-tree below the new root is kept, but all its siblings are discarded at the start of the
+ * next decision. Without a pool that is a burst of garbage mid-decision; with one the nodes (and the action maps
+ * they hold) are reset and reused as the new tree grows.
+ * <p>
+ * All nodes in the pool must have been created by the same factory (i.e. come from the trees of one MCTSPlayer), as
+ * obtain() does not check the class of the node it hands out. The pool is not thread-safe, and is only used for
+ * single-threaded search (rootParallelism and treeParallelism of 1).
+ */
+class NodePool {
+
+    private final ArrayDeque<SingleTreeNode> free = new ArrayDeque<>();
+    private final int capacity;
+    private int recycled, created;
+
+    /**
+     * @param capacity - the maximum number of nodes that the pool will hold; any more released are left to the GC.
+     */
+    NodePool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    SingleTreeNode obtain(Supplier<? extends SingleTreeNode> factory) {
+        SingleTreeNode node = free.pollLast();
+        if (node == null) {
+            created++;
+            return factory.get();
+        }
+        recycled++;
+        return node;
+    }
+
+    /**
+     * Returns a node to the pool. The node must already have been detached from its tree; its children are not
+     * released.
+     */
+    void release(SingleTreeNode node) {
+        node.recycle();
+        if (free.size() < capacity)
+            free.addLast(node);
+    }
+
+    /**
+     * Returns every node in the tree below (and including) top to the pool, except for the sub-tree below keep,
+     * which is left untouched. keep may be null, in which case the whole tree is released.
+     */
+    void releaseTree(SingleTreeNode top, SingleTreeNode keep) {
+        ArrayDeque<SingleTreeNode> toRelease = new ArrayDeque<>();
+        toRelease.push(top);
+        while (!toRelease.isEmpty()) {
+            SingleTreeNode node = toRelease.pop();
+            if (node == keep)
+                continue;
+            for (SingleTreeNode[] childArray : node.children.values()) {
+                if (childArray == null) continue;
+                for (SingleTreeNode child : childArray)
+                    if (child != null) toRelease.push(child);
+            }
+            release(node);
+        }
+    }
+
+    public int size() {
+        return free.size();
+    }
+
+    /**
+     * @return the number of nodes handed out that were reused rather than newly created
+     */
+    public int getRecycledCount() {
+        return recycled;
+    }
+
+    public int getCreatedCount() {
+        return created;
+    }
+}
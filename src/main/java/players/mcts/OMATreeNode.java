@@ -116,6 +116,22 @@ public class OMATreeNode extends SingleTreeNode {
         }
     }
 
+    @Override
+    protected void resetDepth(SingleTreeNode newRoot) {
+        super.resetDepth(newRoot);
+        // ancestors are reset before their descendants, so an OMAParent still on the old root has been cut off
+        // from the tree (and may be recycled)
+        if (OMAParent.isPresent() && OMAParent.get().root != newRoot)
+            OMAParent = Optional.empty();
+    }
+
+    @Override
+    protected void recycle() {
+        super.recycle();
+        OMAParent = Optional.empty();
+        OMAChildren.clear();
+    }
+
     public Optional<OMATreeNode> getOMAParent() {
         return OMAParent;
     }
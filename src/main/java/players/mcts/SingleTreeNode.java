@@ -5,9 +5,15 @@ import core.actions.AbstractAction;
 import core.actions.DoNothing;
 import core.interfaces.IActionHeuristic;
 import players.PlayerConstants;
+import players.simple.RandomPlayer;
 import utilities.*;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.*;
 import java.util.stream.IntStream;
 
@@ -46,8 +52,11 @@ public class SingleTreeNode {
     // (specifically when using SelfOnly trees, with START/END_TURN/ROUND rollout termination conditions
     protected int roundAtStartOfRollout, turnAtStartOfRollout, lastActorInRollout;
     List<AbstractAction> actionsFromOpenLoopState = new ArrayList<>();
-    Map<AbstractAction, Double> actionValueEstimates = new HashMap<>();
-    Map<AbstractAction, Double> actionPDFEstimates = new HashMap<>();
+    // These are only populated if the tree policy needs them (action heuristic, pUCT, progressive bias/widening,
+    // regret matching). Until then they are a shared immutable empty map, so most nodes never allocate them.
+    // They are replaced (never changed) when updated, so that workers in parallelSearch() can read them at any time.
+    volatile Map<AbstractAction, Double> actionValueEstimates = Collections.emptyMap();
+    volatile Map<AbstractAction, Double> actionPDFEstimates = Collections.emptyMap();
     // Depth of this node
     protected int depth;
     // the id of the player who makes the decision at this node
@@ -58,7 +67,8 @@ public class SingleTreeNode {
     double initialisationTimeTaken;
     protected double highReward = Double.NEGATIVE_INFINITY;
     protected double lowReward = Double.POSITIVE_INFINITY;
-    protected Map<AbstractAction, Double> regretMatchingAverage = new HashMap<>();
+    private double worstReward = Double.POSITIVE_INFINITY; // used for virtual loss in parallelSearch()
+    protected Map<AbstractAction, Double> regretMatchingAverage = Collections.emptyMap();
     protected int nodeClash;
     // Root node of tree
     protected SingleTreeNode root;
@@ -67,32 +77,111 @@ public class SingleTreeNode {
     // Children of this node. The value is an Array because we have to cater for the possibility that the next decision
     // could be by any player - each of which would transition to a different Node OpenLoop search. (Closed Loop will
     // only ever have one position in the array populated: and similarly if we are using a SelfOnly tree).
-    Map<AbstractAction, SingleTreeNode[]> children = new LinkedHashMap<>();
-    Map<AbstractAction, ActionStats> actionValues = new HashMap<>();
+    // Both of these are held in actionTable, in arrays indexed by the slot of each action; the maps are views of it
+    // for code that looks them up by action (actionValues returns a snapshot of the statistics on each get()).
+    final ActionTable actionTable = new ActionTable();
+    final Map<AbstractAction, SingleTreeNode[]> children = actionTable.childrenView();
+    final Map<AbstractAction, ActionStats> actionValues = actionTable.statsView();
     List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
     // ToDoubleBiFunction<AbstractAction, AbstractGameState> MASTFunction;
     // The total value of all trajectories through this node (one element per player)
     private Supplier<? extends SingleTreeNode> factory;
+    // Pool from which new nodes are taken (null if MCTSParams.recycleNodes is not set)
+    NodePool nodePool;
+    // Number of nodes in the tree; only maintained on the root
+    protected int treeSize = 1;
     // Total value of this node
     protected List<SingleTreeNode> currentNodeTrajectory;
     protected List<Pair<Integer, AbstractAction>> actionsInTree;
     List<Pair<Integer, AbstractAction>> actionsInRollout;
+    // Scratch space for action heuristic values; only used on the root, and not in parallelSearch()
+    private double[] actionValueBuffer;
+    // Only set on the nodes used by each worker in parallelSearch(); otherwise the policies in params are used
+    private AbstractPlayer workerRolloutStrategy, workerOpponentModel;
+    // The actions available in the state passed to instantiate(), if they have already been computed
+    private List<AbstractAction> initialActions;
+
+    // The fields that workers in parallelSearch() change on the nodes they share, which they do atomically with these
+    private static final VarHandle N_VISITS, TREE_SIZE, FM_CALLS_COUNT, COPY_COUNT, ROLLOUT_ACTIONS_TAKEN,
+            HIGH_REWARD, LOW_REWARD, WORST_REWARD, ACTION_VALUE_ESTIMATES, ACTION_PDF_ESTIMATES;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            N_VISITS = lookup.findVarHandle(SingleTreeNode.class, "nVisits", int.class);
+            TREE_SIZE = lookup.findVarHandle(SingleTreeNode.class, "treeSize", int.class);
+            FM_CALLS_COUNT = lookup.findVarHandle(SingleTreeNode.class, "fmCallsCount", int.class);
+            COPY_COUNT = lookup.findVarHandle(SingleTreeNode.class, "copyCount", int.class);
+            ROLLOUT_ACTIONS_TAKEN = lookup.findVarHandle(SingleTreeNode.class, "rolloutActionsTaken", int.class);
+            HIGH_REWARD = lookup.findVarHandle(SingleTreeNode.class, "highReward", double.class);
+            LOW_REWARD = lookup.findVarHandle(SingleTreeNode.class, "lowReward", double.class);
+            WORST_REWARD = lookup.findVarHandle(SingleTreeNode.class, "worstReward", double.class);
+            ACTION_VALUE_ESTIMATES = lookup.findVarHandle(SingleTreeNode.class, "actionValueEstimates", Map.class);
+            ACTION_PDF_ESTIMATES = lookup.findVarHandle(SingleTreeNode.class, "actionPDFEstimates", Map.class);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    // Raises (or lowers) the double field to the value, if it is not already past it
+    private static void raise(VarHandle field, SingleTreeNode node, double value) {
+        double current;
+        do {
+            current = (double) field.getVolatile(node);
+        } while (value > current && !field.compareAndSet(node, current, value));
+    }
+
+    private static void lower(VarHandle field, SingleTreeNode node, double value) {
+        double current;
+        do {
+            current = (double) field.getVolatile(node);
+        } while (value < current && !field.compareAndSet(node, current, value));
+    }
 
     protected SingleTreeNode() {
     }
 
+    /**
+     * Replaces the map of estimates in the field with one holding the given values for the actions (and, if
+     * keepExisting, those it already has for other actions). If another worker in parallelSearch() replaces the
+     * map in the meantime we start again from its map, so that neither update is lost.
+     */
+    @SuppressWarnings("unchecked") // the field is one of the two Map<AbstractAction, Double> of estimates
+    private void putEstimates(VarHandle field, List<AbstractAction> actions, double[] values, boolean keepExisting) {
+        Map<AbstractAction, Double> current, updated;
+        do {
+            current = (Map<AbstractAction, Double>) field.getVolatile(this);
+            updated = new ActionMap<>((keepExisting ? current.size() : 0) + actions.size());
+            if (keepExisting)
+                updated.putAll(current);
+            for (int i = 0; i < actions.size(); i++) {
+                updated.put(actions.get(i), values[i]);
+            }
+        } while (!field.compareAndSet(this, current, updated));
+    }
+
     // Called in tree expansion
     public static SingleTreeNode createRootNode(MCTSPlayer player, AbstractGameState state, Random rnd, Supplier<? extends SingleTreeNode> factory) {
-        SingleTreeNode retValue = factory.get();
+        return createRootNode(player, state, rnd, factory, player.getForwardModel());
+    }
+
+    /**
+     * As createRootNode(player, state, rnd, factory), but with the forward model to use for this tree. This is needed
+     * when several trees are searched at the same time (forward models are not in general thread-safe).
+     */
+    public static SingleTreeNode createRootNode(MCTSPlayer player, AbstractGameState state, Random rnd, Supplier<? extends SingleTreeNode> factory,
+                                                AbstractForwardModel forwardModel) {
+        // the pool is not thread-safe, so is not used by parallel searches (getNodePool() returns null for these)
+        NodePool pool = player.getNodePool();
+        SingleTreeNode retValue = pool == null ? factory.get() : pool.obtain(factory);
         retValue.factory = factory;
+        retValue.nodePool = pool;
         retValue.decisionPlayer = state.getCurrentPlayer();
         retValue.params = player.getParameters();
-        retValue.forwardModel = player.getForwardModel();
+        retValue.forwardModel = forwardModel;
         retValue.rnd = rnd;
         // only root node maintains MAST statistics
-        retValue.MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            retValue.MASTStatistics.add(new HashMap<>());
+        retValue.MASTStatistics = retValue.newMASTStatistics(state.getNPlayers());
         if (retValue.params.useMASTAsActionHeuristic)
             retValue.params.actionHeuristic = new MASTActionHeuristic(retValue.MASTStatistics, retValue.params.MASTActionKey, retValue.params.MASTDefaultValue);
         retValue.instantiate(null, null, state);
@@ -101,7 +190,21 @@ public class SingleTreeNode {
 
     public static SingleTreeNode createChildNode(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state,
                                                  Supplier<? extends SingleTreeNode> factory) {
-        SingleTreeNode retValue = factory.get();
+        return createChildNode(parent, actionToReach, state, factory, null);
+    }
+
+    /**
+     * As createChildNode(parent, actionToReach, state, factory), for when the actions available in state have already
+     * been computed (as they are by the workers in parallelSearch(), with their own forward models).
+     *
+     * @param availableActions - the actions available in state; or null to compute them in instantiate()
+     */
+    static SingleTreeNode createChildNode(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state,
+                                          Supplier<? extends SingleTreeNode> factory, List<AbstractAction> availableActions) {
+        NodePool pool = parent.root.nodePool;
+        SingleTreeNode retValue = pool == null ? factory.get() : pool.obtain(factory);
+        TREE_SIZE.getAndAdd(parent.root, 1);
+        retValue.initialActions = availableActions;
         retValue.instantiate(parent, actionToReach, state);
         return retValue;
     }
@@ -119,10 +222,12 @@ public class SingleTreeNode {
         this.terminalNode = !state.isNotTerminal();
 
         this.actionToReach = actionToReach;
+        actionTable.setNPlayers(state.getNPlayers());
 
         if (parent != null) {
             depth = parent.depth + 1;
             factory = parent.factory;
+            nodePool = parent.nodePool;
             decisionPlayer = terminalStateInSelfOnlyTree(state) ? parent.decisionPlayer : state.getCurrentPlayer();
         } else {
             depth = 0;
@@ -134,33 +239,43 @@ public class SingleTreeNode {
             // however this is only used at the root - and we can switch the copy off for other nodes for performance
             // these master copies *are* required if we want to do something funky with the final tree, and gather
             // features from the nodes - if we are gathering Expert Iteration data or Learning an Advantage function
-            root.copyCount++;
+            COPY_COUNT.getAndAdd(root, 1);
             this.state = state.copy();
         } else {
             this.state = state;
         }
         // then set up available actions, and set openLoopState = state
-        setActionsFromOpenLoopState(state);
+        setActionsFromOpenLoopState(state, initialActions);
+        initialActions = null;
 
     }
 
     public void rootify(SingleTreeNode template) {
-        // now we need to reset the depth on all the children (recursively)
         parent = null;
         actionToReach = null;
-        resetDepth(this);
         highReward = template.highReward;
         lowReward = template.lowReward;
         inheritedVisits = nVisits;
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < template.state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+        // now we need to reset the depth on all the children (recursively), and count the nodes that remain
+        treeSize = 0;
+        resetDepth(this);
+        MASTStatistics = newMASTStatistics(template.state.getNPlayers());
+    }
+
+    // Workers in parallelSearch() all update the statistics on the root, so they then need to be concurrent maps
+    private List<Map<Object, Pair<Integer, Double>>> newMASTStatistics(int nPlayers) {
+        List<Map<Object, Pair<Integer, Double>>> retValue = new ArrayList<>();
+        for (int i = 0; i < nPlayers; i++)
+            retValue.add(params.treeParallelism > 1 ? new ConcurrentHashMap<>() : new HashMap<>());
+        return retValue;
     }
 
     protected void resetDepth(SingleTreeNode newRoot) {
         depth = parent == null ? 0 : parent.depth + 1;
         root = newRoot;
-        for (SingleTreeNode[] childArray : children.values()) {
+        newRoot.treeSize++;
+        for (int slot = 0; slot < actionTable.size(); slot++) {
+            SingleTreeNode[] childArray = actionTable.children(slot);
             if (childArray == null) continue;
             for (SingleTreeNode child : childArray) {
                 if (child != null) child.resetDepth(newRoot);
@@ -168,10 +283,120 @@ public class SingleTreeNode {
         }
     }
 
+    /**
+     * Resets this node so that it can be handed out again by a NodePool. Everything is cleared except for the
+     * actionTable, which is emptied but kept (so its arrays are reused).
+     * Subclasses with their own per-node data should override this (and call super).
+     */
+    protected void recycle() {
+        state = null;
+        openLoopState = null;
+        params = null;
+        forwardModel = null;
+        rnd = null;
+        fmCallsCount = 0;
+        copyCount = 0;
+        paranoidPlayer = -1;
+        actionToReach = null;
+        nVisits = 0;
+        inheritedVisits = 0;
+        rolloutActionsTaken = 0;
+        actionsFromOpenLoopState = new ArrayList<>();
+        actionValueEstimates = Collections.emptyMap();
+        actionPDFEstimates = Collections.emptyMap();
+        depth = 0;
+        timeTaken = 0.0;
+        initialisationTimeTaken = 0.0;
+        highReward = Double.NEGATIVE_INFINITY;
+        lowReward = Double.POSITIVE_INFINITY;
+        worstReward = Double.POSITIVE_INFINITY;
+        regretMatchingAverage = Collections.emptyMap();
+        nodeClash = 0;
+        root = null;
+        parent = null;
+        actionTable.clear();
+        MASTStatistics = null;
+        factory = null;
+        nodePool = null;
+        treeSize = 1;
+        currentNodeTrajectory = null;
+        actionsInTree = null;
+        actionsInRollout = null;
+    }
+
+    /**
+     * Called on the root between iterations. If the tree has grown past params.maxTreeNodes, then the least visited
+     * leaves are removed until it is back to 90% of that size (so that we do not have to do this on every iteration).
+     * The statistics for the removed actions are kept on their parents; the child node will just be expanded again if
+     * the action is selected. Removed nodes go back to the pool (if there is one).
+     */
+    protected void evictIfOverBudget() {
+        if (params.maxTreeNodes <= 0 || treeSize <= params.maxTreeNodes)
+            return;
+        int target = params.maxTreeNodes - params.maxTreeNodes / 10;
+        while (treeSize > target) {
+            List<SingleTreeNode> leaves = new ArrayList<>();
+            Deque<SingleTreeNode> toVisit = new ArrayDeque<>();
+            toVisit.push(this);
+            while (!toVisit.isEmpty()) {
+                SingleTreeNode node = toVisit.pop();
+                boolean leaf = true;
+                for (int slot = 0; slot < node.actionTable.size(); slot++) {
+                    SingleTreeNode[] childArray = node.actionTable.children(slot);
+                    if (childArray == null) continue;
+                    for (SingleTreeNode child : childArray) {
+                        if (child != null) {
+                            toVisit.push(child);
+                            leaf = false;
+                        }
+                    }
+                }
+                if (leaf && node != this)
+                    leaves.add(node);
+            }
+            if (leaves.isEmpty())
+                return;
+            leaves.sort(Comparator.comparingInt(n -> n.nVisits));
+            for (SingleTreeNode leaf : leaves) {
+                if (treeSize <= target)
+                    break;
+                SingleTreeNode[] siblings = leaf.parent.actionTable.children(leaf.parent.actionTable.slot(leaf.actionToReach));
+                for (int i = 0; i < siblings.length; i++)
+                    if (siblings[i] == leaf) siblings[i] = null;
+                treeSize--;
+                if (nodePool != null)
+                    nodePool.release(leaf);
+            }
+        }
+    }
+
+    public int getTreeSize() {
+        return treeSize;
+    }
+
     public AbstractGameState getState() {
         return state;
     }
 
+    /**
+     * Used by root-parallel search to combine the results of several independently searched roots into this one
+     * before bestAction() is called. Only the statistics at the root are merged; the sub-trees below each root are
+     * not combined (the sub-tree of this root is kept unchanged).
+     */
+    public void mergeRootStatistics(SingleTreeNode other) {
+        nVisits += other.nVisits;
+        fmCallsCount += other.fmCallsCount;
+        copyCount += other.copyCount;
+        rolloutActionsTaken += other.rolloutActionsTaken;
+        highReward = Math.max(highReward, other.highReward);
+        lowReward = Math.min(lowReward, other.lowReward);
+        for (int otherSlot = 0; otherSlot < other.actionTable.size(); otherSlot++) {
+            int slot = actionTable.add(other.actionTable.action(otherSlot), other.actionTable.size());
+            actionTable.add(slot, other.actionTable, otherSlot);
+        }
+        other.regretMatchingAverage.forEach(this::addToRegretMatchingAverage);
+    }
+
     private boolean terminalStateInSelfOnlyTree(AbstractGameState state) {
         // we then have some exceptions
         if (params.opponentTreePolicy.selfOnlyTree && parent != null)
@@ -179,6 +404,14 @@ public class SingleTreeNode {
         return false;
     }
 
+    private double[] actionValueBuffer(int length) {
+        if (params.treeParallelism > 1)
+            return new double[length];
+        if (actionValueBuffer == null || actionValueBuffer.length < length)
+            actionValueBuffer = new double[Math.max(length, 16)];
+        return actionValueBuffer;
+    }
+
     /**
      * This is a pretty key method. It is called when the tree search 'moves' to this node.
      * Because we are using Open Loop search, we need to make sure that the state is updated to reflect the
@@ -190,102 +423,131 @@ public class SingleTreeNode {
      * @param actionState
      */
     protected void setActionsFromOpenLoopState(AbstractGameState actionState) {
+        setActionsFromOpenLoopState(actionState, null);
+    }
+
+    /**
+     * As setActionsFromOpenLoopState(actionState), for when the actions available in actionState have already been
+     * computed.
+     *
+     * @param availableActions - the actions available in actionState; or null to compute them here
+     */
+    protected void setActionsFromOpenLoopState(AbstractGameState actionState, List<AbstractAction> availableActions) {
         openLoopState = actionState;
         if (actionState.getCurrentPlayer() == this.decisionPlayer && actionState.isNotTerminalForPlayer(decisionPlayer)) {
-            actionsFromOpenLoopState = forwardModel.computeAvailableActions(actionState, params.actionSpace);
+            actionsFromOpenLoopState = availableActions != null ? availableActions
+                    : forwardModel.computeAvailableActions(actionState, params.actionSpace);
             //      System.out.printf("Setting OLS actions for P%d (%d)%n%s%n", decisionPlayer, actionState.getCurrentPlayer(),
 //                actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
-            if (actionsFromOpenLoopState.size() != actionsFromOpenLoopState.stream().distinct().count())
-                throw new AssertionError("Duplicate actions found in action list: " +
-                        actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
-            if ((params.actionHeuristic != IActionHeuristic.nullReturn && nVisits < actionsFromOpenLoopState.size())
-                    || params.pUCT || params.progressiveBias > 0 || params.initialiseVisits > 0 || params.progressiveWideningConstant >= 1.0) {
-                // We only need to calculate actionValueEstimates if we are going to be using the data in one of these variants
-                // If not, then we can save processing time by not calculating them
-                // actionHeuristicRecalculationThreshold defines how often we recalculate the action values
-                // if the actionHeuristic is fixed, then this should be set to a very high value
-                // if, like MAST, the actionHeuristic is dynamic, then this should be set to a lower value as estimates may
-                // change over the course of the search. Setting it to 1 will update it on every visit; but possibly
-                // at a high additional computational cost.
-                if (params.actionHeuristic != IActionHeuristic.nullReturn) {
-                    if (actionValueEstimates.isEmpty() || nVisits % params.actionHeuristicRecalculationThreshold == 0) {
-                        // in this case we initialise all action values
-                        double[] actionValues = params.actionHeuristic.evaluateAllActions(actionsFromOpenLoopState, actionState);
-                        for (int i = 0; i < actionsFromOpenLoopState.size(); i++) {
-                            actionValueEstimates.put(actionsFromOpenLoopState.get(i), actionValues[i]);
-                        }
-                    } else {
-                        // we just initialise the new actions
-                        for (AbstractAction action : actionsFromOpenLoopState) {
-                            if (!actionValueEstimates.containsKey(action)) {
-                                actionValueEstimates.put(action, params.actionHeuristic.evaluateAction(action, actionState));
-                            }
-                        }
+            addActions(actionState, actionsFromOpenLoopState);
+        } else if (!params.opponentTreePolicy.selfOnlyTree) {
+            throw new AssertionError("Expected?");
+        }
+    }
+
+    /**
+     * The part of setActionsFromOpenLoopState() that records the actions available on this visit in the node: it
+     * adds any new actions (seeding their statistics if params.initialiseVisits is set), and updates the heuristic
+     * estimates of the actions. It does not set openLoopState or actionsFromOpenLoopState; so the workers in
+     * parallelSearch(), which keep the actions available on their own visits, call this directly.
+     * The estimate maps are replaced rather than changed, and the statistics are only added to atomically, so that
+     * several workers can do this at once.
+     */
+    private void addActions(AbstractGameState actionState, List<AbstractAction> actions) {
+        if (actions.size() != actions.stream().distinct().count())
+            throw new AssertionError("Duplicate actions found in action list: " +
+                    actions.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
+        if ((params.actionHeuristic != IActionHeuristic.nullReturn && nVisits < actions.size())
+                || params.pUCT || params.progressiveBias > 0 || params.initialiseVisits > 0 || params.progressiveWideningConstant >= 1.0) {
+            // We only need to calculate actionValueEstimates if we are going to be using the data in one of these variants
+            // If not, then we can save processing time by not calculating them
+            // actionHeuristicRecalculationThreshold defines how often we recalculate the action values
+            // if the actionHeuristic is fixed, then this should be set to a very high value
+            // if, like MAST, the actionHeuristic is dynamic, then this should be set to a lower value as estimates may
+            // change over the course of the search. Setting it to 1 will update it on every visit; but possibly
+            // at a high additional computational cost.
+            if (params.actionHeuristic != IActionHeuristic.nullReturn) {
+                Map<AbstractAction, Double> estimates = actionValueEstimates;
+                List<AbstractAction> toEvaluate = actions;
+                if (!estimates.isEmpty() && nVisits % params.actionHeuristicRecalculationThreshold != 0) {
+                    // we just initialise the new actions (in one batch, so that the state is only processed once)
+                    toEvaluate = new ArrayList<>();
+                    for (AbstractAction action : actions) {
+                        if (!estimates.containsKey(action))
+                            toEvaluate.add(action);
                     }
-                } else {
-                    throw new AssertionError("We have no heuristic to evaluate actions, and have pUCT/PB/PW or visitInitialisation set");
                 }
+                // otherwise we initialise all action values
+                if (!toEvaluate.isEmpty()) {
+                    double[] actionValues = root.actionValueBuffer(toEvaluate.size());
+                    params.actionHeuristic.evaluateAllActions(toEvaluate, actionState, actionValues);
+                    putEstimates(ACTION_VALUE_ESTIMATES, toEvaluate, actionValues, true);
+                }
+            } else {
+                throw new AssertionError("We have no heuristic to evaluate actions, and have pUCT/PB/PW or visitInitialisation set");
             }
-            if (params.pUCT) {
-                // construct the pdf for the pUCT selection
-                // This ignores Progressive widening. This should not be a major issue, but means the pdf is calculated
-                // over all possible actions, rather than just the ones we are considering
-                // Generally if using pUCT we would expect FPU to also be used to give effective pruning, rather than the
-                // explicit pruning of Progressive Widening.
-                double[] pdf;
-                actionPDFEstimates = new HashMap<>();
-                if (params.pUCTTemperature > 0.0) {
-                    // in this case we construct a Boltzmann
-                    double[] actionValues = actionsFromOpenLoopState.stream().
-                            mapToDouble(a -> actionValueEstimates.getOrDefault(a, 0.0)).toArray();
-                    pdf = pdf(exponentiatePotentials(actionValues, params.pUCTTemperature));
+        }
+        if (params.pUCT) {
+            // construct the pdf for the pUCT selection
+            // This ignores Progressive widening. This should not be a major issue, but means the pdf is calculated
+            // over all possible actions, rather than just the ones we are considering
+            // Generally if using pUCT we would expect FPU to also be used to give effective pruning, rather than the
+            // explicit pruning of Progressive Widening.
+            double[] pdf;
+            Map<AbstractAction, Double> estimates = actionValueEstimates;
+            if (params.pUCTTemperature > 0.0) {
+                // in this case we construct a Boltzmann
+                double[] actionValues = actions.stream().
+                        mapToDouble(a -> estimates.getOrDefault(a, 0.0)).toArray();
+                pdf = pdf(exponentiatePotentials(actionValues, params.pUCTTemperature));
 
-                } else {
-                    // in this case, we first set any negative values to zero, and then construct the pdf directly
-                    double[] actionValues = actionsFromOpenLoopState.stream().
-                            mapToDouble(a -> Math.max(0.0, actionValueEstimates.getOrDefault(a, 0.0))).toArray();
-                    pdf = pdf(actionValues);
-                }
-                for (int i = 0; i < actionsFromOpenLoopState.size(); i++) {
-                    actionPDFEstimates.put(actionsFromOpenLoopState.get(i), pdf[i]);
-                }
+            } else {
+                // in this case, we first set any negative values to zero, and then construct the pdf directly
+                double[] actionValues = actions.stream().
+                        mapToDouble(a -> Math.max(0.0, estimates.getOrDefault(a, 0.0))).toArray();
+                pdf = pdf(actionValues);
             }
-            for (AbstractAction action : actionsFromOpenLoopState) {
-                if (!actionValues.containsKey(action)) {
-                    actionValues.put(action, new ActionStats(actionState.getNPlayers()));
-                    children.put(action.copy(), null); // mark a new node to be expanded
-                    // This *does* rely on a good equals method being implemented for Actions
-                    if (!children.containsKey(action))
-                        throw new AssertionError("We have an action that does not obey the equals/hashcode contract" + action);
-                    // Then we seed the statistics with heuristic biases (if so parameterised)
-                    // This assumes that we have had params.initialiseVisits trials of each action before we start
-                    if (params.initialiseVisits > 0) {
-                        // This also ignores Progressive widening and initialises all possible actions
-                        // As with pUCT, this won't cause any major issues, but will mean that the effective node visits
-                        // will be higher than the visits of the considered actions.
-                        ActionStats stats = actionValues.get(action);
-                        double actionEstimate = actionValueEstimates.getOrDefault(action, 0.0);
-                        if (params.normaliseRewards) {
-                            if (actionEstimate > root.highReward) root.highReward = actionEstimate;
-                            if (actionEstimate < root.lowReward) root.lowReward = actionEstimate;
-                        }
-                        int nActions = Math.max(actionValues.size(), actionsFromOpenLoopState.size());
-                        stats.nVisits = params.initialiseVisits;
-                        stats.validVisits = params.initialiseVisits * nActions;
-                        stats.totValue[decisionPlayer] = actionEstimate * params.initialiseVisits;
-                        stats.squaredTotValue[decisionPlayer] = actionEstimate * actionEstimate * params.initialiseVisits;
-                        if (params.paranoid) // default to zero for other players, unless we're paranoid
-                            for (int i = 0; i < actionState.getNPlayers(); i++)
-                                if (i != decisionPlayer)
-                                    stats.totValue[i] = -stats.totValue[decisionPlayer];
-                        if (nVisits < params.initialiseVisits * nActions) {
-                            nVisits = params.initialiseVisits * nActions;
-                        }
+            // in parallelSearch() other workers may be using different actions at this node, so we keep theirs too
+            putEstimates(ACTION_PDF_ESTIMATES, actions, pdf, params.treeParallelism > 1);
+        }
+        for (AbstractAction action : actions) {
+            if (actionTable.slot(action) < 0) {
+                // a new action, with no child node until it is expanded
+                int slot = actionTable.addIfAbsent(action.copy(), actions.size());
+                if (slot < 0)
+                    continue; // another worker in parallelSearch() added it first
+                // This *does* rely on a good equals method being implemented for Actions
+                if (actionTable.slot(action) != slot)
+                    throw new AssertionError("We have an action that does not obey the equals/hashcode contract" + action);
+                // Then we seed the statistics with heuristic biases (if so parameterised)
+                // This assumes that we have had params.initialiseVisits trials of each action before we start
+                if (params.initialiseVisits > 0) {
+                    // This also ignores Progressive widening and initialises all possible actions
+                    // As with pUCT, this won't cause any major issues, but will mean that the effective node visits
+                    // will be higher than the visits of the considered actions.
+                    double actionEstimate = actionValueEstimates.getOrDefault(action, 0.0);
+                    if (params.normaliseRewards) {
+                        raise(HIGH_REWARD, root, actionEstimate);
+                        lower(LOW_REWARD, root, actionEstimate);
                     }
+                    int nActions = Math.max(actionTable.size(), actions.size());
+                    double[] totValue = new double[actionState.getNPlayers()];
+                    double[] squaredTotValue = new double[actionState.getNPlayers()];
+                    totValue[decisionPlayer] = actionEstimate * params.initialiseVisits;
+                    squaredTotValue[decisionPlayer] = actionEstimate * actionEstimate * params.initialiseVisits;
+                    if (params.paranoid) // default to zero for other players, unless we're paranoid
+                        for (int i = 0; i < actionState.getNPlayers(); i++)
+                            if (i != decisionPlayer)
+                                totValue[i] = -totValue[decisionPlayer];
+                    actionTable.addVisits(slot, params.initialiseVisits, params.initialiseVisits * nActions, totValue, squaredTotValue);
+                    // nVisits is raised to (at least) the seeded visits
+                    int visits;
+                    do {
+                        visits = (int) N_VISITS.getVolatile(this);
+                    } while (visits < params.initialiseVisits * nActions
+                            && !N_VISITS.compareAndSet(this, visits, params.initialiseVisits * nActions));
                 }
             }
-        } else if (!params.opponentTreePolicy.selfOnlyTree) {
-            throw new AssertionError("Expected?");
         }
     }
 
@@ -294,7 +556,7 @@ public class SingleTreeNode {
         initialisationTimeTaken = 0.0;
         nodeClash = 0;
         rolloutActionsTaken = 0;
-        regretMatchingAverage.clear();
+        regretMatchingAverage = Collections.emptyMap();
     }
 
     /**
@@ -303,9 +565,11 @@ public class SingleTreeNode {
     public void mctsSearch(long initialisationTime) {
         initialiseRootMetrics();
         initialisationTimeTaken = initialisationTime;
+        if (params.treeParallelism > 1) {
+            parallelSearch(initialisationTime);
+            return;
+        }
         // Variables for tracking time budget
-        double avgTimeTaken;
-        long remaining;
         int remainingLimit = params.breakMS;
         ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
         if (params.budgetType == BUDGET_TIME) {
@@ -316,19 +580,9 @@ public class SingleTreeNode {
         int numIters = 0;
         boolean stop = false;
         while (!stop) {
-            switch (params.information) {
-                case Closed_Loop:
-                    setActionsFromOpenLoopState(state);
-                    break;
-                case Open_Loop:
-                    setActionsFromOpenLoopState(state.copy());
-                    copyCount++;
-                    break;
-                case Information_Set:
-                    setActionsFromOpenLoopState(state.copy(decisionPlayer));
-                    copyCount++;
-                    break;
-            }
+            setActionsFromOpenLoopState(stateForIteration());
+            if (params.information != Closed_Loop)
+                copyCount++;
 
             // New timer for this iteration
             //      ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
@@ -337,6 +591,7 @@ public class SingleTreeNode {
 
             // Selection + expansion: navigate tree until a node not fully expanded is found, add a new node to the tree
             oneSearchIteration();
+            evictIfOverBudget();
 
             // Finished iteration
             numIters++;
@@ -344,10 +599,8 @@ public class SingleTreeNode {
             // Check stopping condition
             PlayerConstants budgetType = params.budgetType;
             if (budgetType == BUDGET_TIME) {
-                // Time budget
-                remaining = elapsedTimer.remainingTimeMillis();
-                avgTimeTaken = (double) elapsedTimer.elapsedMillis() / numIters;
-                stop = remaining <= 2 * avgTimeTaken || remaining <= remainingLimit;
+                // Time budget (the CPU clock is only read every so many iterations, as these can be very quick)
+                stop = !elapsedTimer.enoughBudgetAmortised(remainingLimit, 2);
             } else if (budgetType == BUDGET_ITERATIONS) {
                 // Iteration budget
                 stop = numIters >= params.budget;
@@ -363,6 +616,253 @@ public class SingleTreeNode {
         timeTaken = elapsedTimer.elapsedMillis();
     }
 
+    /**
+     * The state from which each iteration starts. This is the root state in Closed_Loop, and a fresh copy
+     * (redeterminised for Information_Set) otherwise.
+     */
+    protected AbstractGameState stateForIteration() {
+        return switch (params.information) {
+            case Closed_Loop -> state;
+            case Open_Loop -> state.copy();
+            case Information_Set -> state.copy(decisionPlayer);
+        };
+    }
+
+    /**
+     * Tree-parallel version of mctsSearch(), used when params.treeParallelism > 1.
+     * Each worker thread runs complete iterations against this shared tree, without taking any lock on it.
+     * The statistics on each node (the visit count, and those in its ActionTable) are only changed atomically, and a
+     * new child is only added by compare-and-set, so if two workers expand the same child at once the later one carries
+     * on down the tree from the node of the first. Everything a worker needs for its own iteration is kept off the shared nodes: it has its
+     * own copy of the state (in Open_Loop and Information_Set), and keeps the actions available at each node it
+     * visits. So all forward model calls, in the tree (including those that find the actions at a new node) and in the
+     * rollout, are made by the workers concurrently, each on its own forward model.
+     * While an iteration is in flight we add virtual loss to each action on its path, so that other workers are
+     * steered down different branches instead of all following the current best line.
+     * Each worker has its own Random, forward model and copies of the rollout policy and opponent model; the
+     * heuristic is shared, so must not keep any state between calls.
+     */
+    protected void parallelSearch(long initialisationTime) {
+        long startTime = System.nanoTime();
+        worstReward = Double.POSITIVE_INFINITY;
+        if (params.treePolicy == RegretMatching)
+            regretMatchingAverage = new ConcurrentHashMap<>();
+        AtomicInteger startedIterations = new AtomicInteger();
+        AtomicBoolean stop = new AtomicBoolean(false);
+        // the workers are set up here (and not in each thread), so that they take their seeds from rnd in order
+        List<SingleTreeNode> searchWorkers = new ArrayList<>();
+        for (int i = 0; i < params.treeParallelism; i++)
+            searchWorkers.add(createSearchWorker());
+        ExecutorService executor = Executors.newFixedThreadPool(params.treeParallelism);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (SingleTreeNode searchWorker : searchWorkers)
+                workers.add(executor.submit(() -> searchWorker(searchWorker, startTime, initialisationTime, startedIterations, stop)));
+            for (Future<?> worker : workers)
+                worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted during parallel MCTS search");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re)
+                throw re;
+            if (e.getCause() instanceof Error err)
+                throw err;
+            throw new AssertionError("Error in parallel MCTS worker", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        timeTaken = (System.nanoTime() - startTime) / 1e6;
+    }
+
+    /**
+     * A detached node that acts as its own root, and holds everything that one worker in parallelSearch() needs for
+     * itself: the bookkeeping of its current iteration (actionsInTree, actionsInRollout, fmCallsCount, etc.), and
+     * its own Random, forward model and policies.
+     */
+    private SingleTreeNode createSearchWorker() {
+        SingleTreeNode worker = new SingleTreeNode();
+        worker.root = worker;
+        worker.params = params;
+        worker.forwardModel = forwardModel.copy();
+        worker.rnd = new Random(rnd.nextLong());
+        worker.decisionPlayer = decisionPlayer;
+        // copied from this tree's own policies, which are themselves copies when searching several roots at once
+        worker.usePolicyCopies(rolloutStrategy(), opponentModel(), "Tree parallelism");
+        return worker;
+    }
+
+    /**
+     * Gives this root node its own copies of the rollout policy and opponent model, using its own forward model, for
+     * when several searches run at once (tree or root parallelism). They are then used instead of those in params.
+     * A policy that is the opponent model as well as the rollout policy stays shared between the two on this node.
+     *
+     * @param mode - the kind of parallel search, for error messages
+     */
+    void usePolicyCopies(AbstractPlayer rolloutStrategy, AbstractPlayer opponentModel, String mode) {
+        workerRolloutStrategy = policyCopy(rolloutStrategy, mode);
+        workerOpponentModel = opponentModel == rolloutStrategy ? workerRolloutStrategy : policyCopy(opponentModel, mode);
+    }
+
+    private AbstractPlayer policyCopy(AbstractPlayer policy, String mode) {
+        // decorators are not copied with the policy, and may record each decision
+        if (policy.hasDecorators())
+            throw new AssertionError(mode + " is not supported with decorators on the rollout policy or opponent model");
+        // MAST policies read the statistics of a single tree, and do not copy themselves
+        if (policy instanceof IMASTUser)
+            throw new AssertionError(mode + " is not supported with a MAST rollout policy or opponent model");
+        AbstractPlayer retValue = policy.copy();
+        retValue.setForwardModel(forwardModel);
+        return retValue;
+    }
+
+    private void searchWorker(SingleTreeNode worker, long startTime, long initialisationTime,
+                              AtomicInteger startedIterations, AtomicBoolean stop) {
+        int workerIterations = 0;
+        try {
+            while (!stop.get()) {
+                if (params.budgetType == BUDGET_ITERATIONS && startedIterations.getAndIncrement() >= params.budget)
+                    break;
+                AbstractGameState iterationState = stateForIteration();
+                worker.actionsInTree = new ArrayList<>();
+                worker.actionsInRollout = new ArrayList<>();
+                worker.fmCallsCount = 0;
+                worker.copyCount = params.information != Closed_Loop ? 1 : 0;
+                List<SingleTreeNode> trajectory = new ArrayList<>();
+                List<List<AbstractAction>> trajectoryActions = new ArrayList<>();
+                // Virtual loss uses the worst reward seen so far, and is only applied once we have seen one
+                // (before then any visits would be normalised against an empty range)
+                double lossValue = (double) WORST_REWARD.getVolatile(this);
+                int virtualLoss = Double.isInfinite(lossValue) ? 0 : params.virtualLoss;
+                SingleTreeNode selected = parallelTreePolicy(worker, iterationState, trajectory, trajectoryActions, virtualLoss, lossValue);
+                worker.openLoopState = params.information == Closed_Loop ? selected.state : iterationState;
+                worker.state = selected.state;
+
+                List<Pair<Integer, AbstractAction>> treeActions = worker.actionsInTree;
+                int lastActorInTree = treeActions.isEmpty() ? decisionPlayer : treeActions.get(treeActions.size() - 1).a;
+                double[] delta = worker.rollout(lastActorInTree);
+
+                for (int i = 0; i < trajectory.size(); i++)
+                    addVirtualLoss(trajectory.get(i), treeActions.get(i).b, -virtualLoss, lossValue);
+                FM_CALLS_COUNT.getAndAdd(this, worker.fmCallsCount);
+                COPY_COUNT.getAndAdd(this, worker.copyCount);
+                ROLLOUT_ACTIONS_TAKEN.getAndAdd(this, worker.actionsInRollout.size());
+                backUp(delta, trajectory, treeActions, trajectoryActions);
+                updateMASTStatistics(treeActions, worker.actionsInRollout, delta);
+                for (double d : delta)
+                    lower(WORST_REWARD, this, d);
+                workerIterations++;
+                int numIters = startedIterations.get();
+                boolean budgetUsed = switch (params.budgetType) {
+                    case BUDGET_FM_CALLS -> (int) FM_CALLS_COUNT.getVolatile(this) > params.budget || numIters > params.budget;
+                    case BUDGET_COPY_CALLS -> (int) COPY_COUNT.getVolatile(this) > params.budget || numIters > params.budget;
+                    case BUDGET_FMANDCOPY_CALLS -> ((int) COPY_COUNT.getVolatile(this) + (int) FM_CALLS_COUNT.getVolatile(this)) > params.budget
+                            || numIters > params.budget;
+                    default -> false;
+                };
+                if (budgetUsed)
+                    stop.set(true);
+                if (params.budgetType == BUDGET_TIME) {
+                    // the budget is for the search as a whole, so we use wall-clock time and not the CPU time of this thread
+                    double elapsed = (System.nanoTime() - startTime) / 1e6;
+                    double remaining = params.budget - initialisationTime - elapsed;
+                    double avgTimeTaken = elapsed / workerIterations;
+                    if (remaining <= 2 * avgTimeTaken || remaining <= params.breakMS)
+                        stop.set(true);
+                }
+            }
+        } finally {
+            // one worker finishing (or failing) stops all the others
+            stop.set(true);
+        }
+    }
+
+    /**
+     * The equivalent of treePolicy() for a worker in parallelSearch().
+     * This walks down the shared tree using only the worker's own state, forward model and Random; the only writes to
+     * the nodes on the way are the atomic updates to their statistics (in addActions() and addVirtualLoss()), and the
+     * compare-and-set that adds a new child. The actions available at each node on this iteration are computed by the
+     * worker (as are those at a new node, which are passed to it when it is created), and kept in trajectoryActions.
+     * In Closed_Loop we do not advance any state (as in treePolicy()): each node keeps its own, and the actions it
+     * found when it was created.
+     *
+     * @param worker            - the worker's node from createSearchWorker(); this records the actions in the tree
+     * @param gs                - the worker's copy of the state, which is advanced down the tree (in Closed_Loop this
+     *                            is the root state, and is not changed)
+     * @param trajectory        - filled with the nodes visited (excluding the one returned)
+     * @param trajectoryActions - filled with the actions available at each of these nodes on this iteration
+     * @return - the node from which to roll out
+     */
+    private SingleTreeNode parallelTreePolicy(SingleTreeNode worker, AbstractGameState gs, List<SingleTreeNode> trajectory,
+                                              List<List<AbstractAction>> trajectoryActions, int virtualLoss, double lossValue) {
+        boolean closedLoop = params.information == Closed_Loop;
+        SingleTreeNode cur = this;
+        // the root in Closed_Loop found its actions from the same state when it was created
+        List<AbstractAction> availableActions = closedLoop ? actionsFromOpenLoopState
+                : worker.forwardModel.computeAvailableActions(gs, params.actionSpace);
+        while (true) {
+            AbstractGameState curState = closedLoop ? cur.state : gs;
+            List<AbstractAction> actions = Collections.emptyList();
+            if (curState.getCurrentPlayer() == cur.decisionPlayer && curState.isNotTerminalForPlayer(cur.decisionPlayer)) {
+                actions = closedLoop ? cur.actionsFromOpenLoopState : availableActions;
+                // other nodes in Closed_Loop were given all their actions when they were created
+                if (!closedLoop || cur == this)
+                    cur.addActions(curState, actions);
+            }
+            if (!curState.isNotTerminalForPlayer(cur.decisionPlayer) || cur.depth >= params.maxTreeDepth || actions.isEmpty())
+                return cur;
+            AbstractAction chosen = cur.treePolicyAction(actions, worker.rnd, true);
+            trajectory.add(cur);
+            trajectoryActions.add(actions);
+            addVirtualLoss(cur, chosen, virtualLoss, lossValue);
+            if (closedLoop)
+                worker.actionsInTree.add(new Pair<>(curState.getCurrentPlayer(), chosen));
+            else
+                worker.advanceState(gs, chosen, false);
+            AbstractGameState nextState = closedLoop ? cur.state : gs;
+            boolean terminal = !nextState.isNotTerminal() ||
+                    (params.opponentTreePolicy.selfOnlyTree && !nextState.isNotTerminalForPlayer(decisionPlayer));
+            if (terminal)
+                return cur;
+            SingleTreeNode[] nodeArray = cur.actionTable.children(cur.actionTable.slot(chosen));
+            SingleTreeNode nextNode = null;
+            if (nodeArray != null) {
+                if (closedLoop) {
+                    for (int p = 0; p < nodeArray.length && nextNode == null; p++)
+                        nextNode = ActionTable.child(nodeArray, p);
+                } else {
+                    nextNode = ActionTable.child(nodeArray, gs.getCurrentPlayer());
+                }
+            }
+            // in Closed_Loop an existing node already has its actions, so we only need them for a new one
+            if ((nextNode == null || !closedLoop) && nextState.isNotTerminalForPlayer(nextState.getCurrentPlayer()))
+                availableActions = worker.forwardModel.computeAvailableActions(nextState, params.actionSpace);
+            else
+                availableActions = null;
+            if (nextNode == null) {
+                SingleTreeNode created = SingleTreeNode.createChildNode(cur, chosen, nextState, cur.factory, availableActions);
+                nextNode = cur.addChild(chosen, nextState, created);
+                if (nextNode == created)
+                    return created;
+                // another worker added this child first, so we carry on down from its node, as if we had found it
+                // there (stopping here would leave this iteration out of the child's visits)
+            }
+            cur = nextNode;
+        }
+    }
+
+    /**
+     * Adds (or, with a negative virtualLoss, removes) virtual loss on an action at a node: that many visits, each
+     * with a value of lossValue for the deciding player.
+     */
+    private static void addVirtualLoss(SingleTreeNode node, AbstractAction action, int virtualLoss, double lossValue) {
+        if (virtualLoss != 0) {
+            N_VISITS.getAndAdd(node, virtualLoss);
+            node.actionTable.addVirtualLoss(node.actionTable.slot(action), node.decisionPlayer, virtualLoss, lossValue);
+        }
+    }
+
+
     /**
      * oneSearchIteration() implements the strategy for tree search (plus expansion, rollouts, backup and so on)
      * Its result is purely stored in the tree generated from root
@@ -414,15 +914,15 @@ public class SingleTreeNode {
      * (this is called often enough it can make a measurable difference)
      */
     public int actionVisits(AbstractAction action) {
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 0 : stats.nVisits;
+        int slot = actionTable.slot(action);
+        return slot < 0 ? 0 : actionTable.visits(slot);
     }
 
     private int validVisitsFor(AbstractAction action) {
         if (params.information == Closed_Loop)
             return nVisits;
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 1 : stats.validVisits;
+        int slot = actionTable.slot(action);
+        return slot < 0 ? 1 : actionTable.validVisits(slot);
     }
 
     /**
@@ -430,18 +930,21 @@ public class SingleTreeNode {
      * (this is called often enough it can make a measurable difference)
      */
     public double actionTotValue(AbstractAction action, int playerId) {
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 0.0 : stats.totValue[playerId];
+        int slot = actionTable.slot(action);
+        return slot < 0 ? 0.0 : actionTable.totValue(slot, playerId);
     }
 
     public double nodeValue(int playerId) {
         if (nVisits == 0) return 0.0;
-        return actionValues.values().stream().mapToDouble(s -> s.totValue[playerId]).sum() / nVisits;
+        double total = 0.0;
+        for (int slot = 0; slot < actionTable.size(); slot++)
+            total += actionTable.totValue(slot, playerId);
+        return total / nVisits;
     }
 
     private double actionSquaredValue(AbstractAction action, int playerId) {
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 0.0 : stats.squaredTotValue[playerId];
+        int slot = actionTable.slot(action);
+        return slot < 0 ? 0.0 : actionTable.squaredTotValue(slot, playerId);
     }
 
     /**
@@ -449,9 +952,10 @@ public class SingleTreeNode {
      * For this reason not converted to old-style java loop as there would be no performance gain
      */
     int[] actionVisits() {
-        return actionValues.values().stream()
-                .mapToInt(a -> a.nVisits)
-                .toArray();
+        int[] retValue = new int[actionTable.size()];
+        for (int slot = 0; slot < retValue.length; slot++)
+            retValue[slot] = actionTable.visits(slot);
+        return retValue;
     }
 
     /**
@@ -511,7 +1015,7 @@ public class SingleTreeNode {
             // However, we do break ties in favour of already expanded actions
             List<AbstractAction> sortedActions = new ArrayList<>(allAvailable);
             sortedActions.sort(Comparator.comparingDouble(a -> -actionValueEstimates.getOrDefault(a, 0.0) -
-                    actionValues.getOrDefault(a, new ActionStats(1)).nVisits * 1e-6));
+                    actionVisits(a) * 1e-6));
             return new ArrayList<>(sortedActions.subList(0, actionsToConsider));
         }
         return new ArrayList<>(allAvailable);
@@ -520,15 +1024,26 @@ public class SingleTreeNode {
 
     protected SingleTreeNode expandNode(AbstractAction actionCopy, AbstractGameState nextState) {
         // then instantiate a new node
+        return addChild(actionCopy, nextState, createChildNode(actionCopy, nextState));
+    }
+
+    /**
+     * Adds tn as the child reached by actionCopy (for the player to act in nextState). In parallelSearch() the worker
+     * creates tn with the actions it found in nextState, so that the new node does not use the shared forward model;
+     * if another worker has added the same child in the meantime, then that is returned instead of tn.
+     */
+    private SingleTreeNode addChild(AbstractAction actionCopy, AbstractGameState nextState, SingleTreeNode tn) {
         int nextPlayer = params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : nextState.getCurrentPlayer();
-        SingleTreeNode tn = createChildNode(actionCopy, nextState);
         // It is possible that we are expanding a node because a different player is the next to act
-        SingleTreeNode[] newNodeArray = children.get(actionCopy);
-        if (newNodeArray == null)
-            newNodeArray = new SingleTreeNode[nextState.getNPlayers()];
-        newNodeArray[nextPlayer] = tn; // we store this by id of the player who will take their turn next
-        children.put(actionCopy, newNodeArray);
-        return tn;
+        int slot = actionTable.slot(actionCopy);
+        if (slot < 0)
+            slot = actionTable.add(actionCopy, 1);
+        SingleTreeNode[] newNodeArray = actionTable.childrenOrCreate(slot, nextState.getNPlayers());
+        // we store this by id of the player who will take their turn next
+        SingleTreeNode child = ActionTable.setChild(newNodeArray, nextPlayer, tn);
+        if (child != tn)
+            TREE_SIZE.getAndAdd(root, -1);  // another worker got there first, so tn is not in the tree
+        return child;
     }
 
     protected SingleTreeNode createChildNode(AbstractAction actionCopy, AbstractGameState nextState) {
@@ -553,7 +1068,10 @@ public class SingleTreeNode {
         } else {
             root.actionsInTree.add(new Pair<>(gs.getCurrentPlayer(), act));
         }
-        forwardModel.next(gs, act.copy());
+        // Rollout actions are not looked up in the tree afterwards, so with fastRandomRollouts we skip the copy
+        // (unless MAST needs the actions in the rollout unchanged, or the action is shared via the action cache)
+        boolean copy = !inRollout || !params.fastRandomRollouts || params.useMAST || forwardModel.getActionCache() != null;
+        forwardModel.next(gs, copy ? act.copy() : act);
         root.fmCallsCount++;
         if (params.opponentTreePolicy != MultiTree &&
                 params.opponentTreePolicy.selfOnlyTree &&
@@ -572,16 +1090,13 @@ public class SingleTreeNode {
         AbstractAction action = null;
         while (gs.getCurrentPlayer() != id && gs.isNotTerminalForPlayer(id) && !(inRollout && finishRollout(gs))) {
             //       AbstractGameState preGS = gs.copy();
-            AbstractPlayer oppModel = params.getOpponentModel();
-            List<AbstractAction> availableActions = forwardModel.computeAvailableActions(gs, params.actionSpace);
-            if (availableActions.isEmpty())
-                throw new AssertionError("Should always have at least one action possible..." + (action != null ? " Last action: " + action : ""));
-            action = oppModel.getAction(gs, availableActions);
+            action = policyAction(root.opponentModel(), gs, action);
             if (inRollout) {
                 root.actionsInRollout.add(new Pair<>(gs.getCurrentPlayer(), action));
                 lastActorInRollout = gs.getCurrentPlayer();
             }
-            forwardModel.next(gs, action);
+            // actions from the action cache are shared, so must not be changed by next()
+            forwardModel.next(gs, forwardModel.getActionCache() == null ? action : action.copy());
             root.fmCallsCount++;
         }
     }
@@ -595,9 +1110,17 @@ public class SingleTreeNode {
         if (params.opponentTreePolicy == SelfOnly && parent != null && openLoopState != null && openLoopState.getCurrentPlayer() != decisionPlayer)
             throw new AssertionError("An error has occurred. SelfOnly should only call uct when we are moving.");
 
+        return treePolicyAction(actionsFromOpenLoopState, rnd, explore);
+    }
+
+    /**
+     * As treePolicyAction(explore), choosing from the given actions available at this node, and with the given
+     * Random (parallelSearch() uses those of each worker, and not the ones held on the node).
+     */
+    private AbstractAction treePolicyAction(List<AbstractAction> actions, Random rnd, boolean explore) {
         // actionsToConsider takes care of any Progressive Widening in play, so we only consider the
         // widened subset
-        List<AbstractAction> availableActions = actionsToConsider(actionsFromOpenLoopState);
+        List<AbstractAction> availableActions = actionsToConsider(actions);
         if (availableActions.isEmpty())
             throw new AssertionError("We need to have at least one option");
 
@@ -672,7 +1195,8 @@ public class SingleTreeNode {
         // We check to see if we have finished. This is true if the gameState is terminal; or if
         // this is a selfOnly tree and it is terminal for the root decision player
 
-        SingleTreeNode[] nodeArray = children.get(actionChosen);
+        int slot = actionTable.slot(actionChosen);
+        SingleTreeNode[] nodeArray = slot < 0 ? null : actionTable.children(slot);
         if (nodeArray == null) return null;
         if (params.information == Closed_Loop) {
             // in this case we have determinism...there should just be a single child node in the array...so we get that
@@ -893,12 +1417,8 @@ public class SingleTreeNode {
 
             AbstractAction next = null;
             while (!finishRollout(rolloutState)) {
-                List<AbstractAction> availableActions = forwardModel.computeAvailableActions(rolloutState, params.actionSpace);
-                if (availableActions.isEmpty()) {
-                    throw new AssertionError("No actions available in rollout!" + (next != null ? " Last action: " + next : ""));
-                }
-                AbstractPlayer agent = rolloutState.getCurrentPlayer() == root.decisionPlayer ? params.getRolloutStrategy() : params.getOpponentModel();
-                next = agent.getAction(rolloutState, availableActions);
+                AbstractPlayer agent = rolloutState.getCurrentPlayer() == root.decisionPlayer ? root.rolloutStrategy() : root.opponentModel();
+                next = policyAction(agent, rolloutState, next);
                 lastActorInRollout = rolloutState.getCurrentPlayer();
                 advanceState(rolloutState, next, true);
             }
@@ -914,6 +1434,34 @@ public class SingleTreeNode {
         return retValue;
     }
 
+    protected AbstractPlayer rolloutStrategy() {
+        return workerRolloutStrategy != null ? workerRolloutStrategy : params.getRolloutStrategy();
+    }
+
+    protected AbstractPlayer opponentModel() {
+        return workerOpponentModel != null ? workerOpponentModel : params.getOpponentModel();
+    }
+
+    /**
+     * The action that the rollout (or opponent model) policy takes in this state.
+     * With params.fastRandomRollouts a plain RandomPlayer is not asked at all; instead we sample directly from the
+     * forward model, which avoids building the full list of actions in games that override _sampleRandomAction().
+     *
+     * @param lastAction - the previous action taken, used only in the error message if there are no actions.
+     */
+    protected AbstractAction policyAction(AbstractPlayer policy, AbstractGameState gs, AbstractAction lastAction) {
+        AbstractAction action;
+        if (params.fastRandomRollouts && policy.getClass() == RandomPlayer.class && !policy.hasDecorators()) {
+            action = forwardModel.sampleRandomAction(gs, params.actionSpace, rnd);
+        } else {
+            List<AbstractAction> availableActions = forwardModel.computeAvailableActions(gs, params.actionSpace);
+            action = availableActions.isEmpty() ? null : policy.getAction(gs, availableActions);
+        }
+        if (action == null)
+            throw new AssertionError("No actions available for " + policy + (lastAction != null ? ". Last action: " + lastAction : ""));
+        return action;
+    }
+
     /**
      * Checks if rollout is finished. Rollouts end on maximum length, or if game ended.
      *
@@ -943,16 +1491,27 @@ public class SingleTreeNode {
      * @param delta - value of rollout to backup
      */
     protected void backUp(double[] delta) {
+        backUp(delta, root.currentNodeTrajectory, root.actionsInTree, null);
+    }
+
+    /**
+     * As backUp(delta), for an iteration whose trajectory is not kept on the root (one of those in parallelSearch()).
+     *
+     * @param trajectoryActions - the actions that were available at each node of the trajectory on this iteration; or
+     *                          null to use the actionsFromOpenLoopState of each node
+     */
+    private void backUp(double[] delta, List<SingleTreeNode> trajectory, List<Pair<Integer, AbstractAction>> treeActions,
+                        List<List<AbstractAction>> trajectoryActions) {
         normaliseRewardsAfterIteration(delta);
         double[] result = processResultsForParanoidOrSelfOnly(delta);
         // we need to go backwards up the tree, as the result may change
-        for (int i = root.currentNodeTrajectory.size() - 1; i >= 0; i--) {
-            int actingPlayer = root.actionsInTree.get(i).a;
-            AbstractAction action = root.actionsInTree.get(i).b;
-            SingleTreeNode n = root.currentNodeTrajectory.get(i);
+        for (int i = trajectory.size() - 1; i >= 0; i--) {
+            int actingPlayer = treeActions.get(i).a;
+            AbstractAction action = treeActions.get(i).b;
+            SingleTreeNode n = trajectory.get(i);
             if (n.decisionPlayer != actingPlayer)
                 throw new AssertionError("We have a mismatch between the player who took the action and the player who should be acting");
-            result = n.backUpSingleNode(action, result);
+            result = n.backUpSingleNode(action, result, trajectoryActions == null ? n.actionsFromOpenLoopState : trajectoryActions.get(i));
         }
         // then we update the RM average policy; we only do this for the root
 
@@ -964,10 +1523,8 @@ public class SingleTreeNode {
         // These are only stored on the root
         if (params.normaliseRewards || params.treePolicy == UCB_Tuned) {
             DoubleSummaryStatistics stats = Arrays.stream(result).summaryStatistics();
-            if (root.lowReward > stats.getMin())
-                root.lowReward = stats.getMin();
-            if (root.highReward < stats.getMax())
-                root.highReward = stats.getMax();
+            lower(LOW_REWARD, root, stats.getMin());
+            raise(HIGH_REWARD, root, stats.getMax());
         }
     }
 
@@ -1004,16 +1561,24 @@ public class SingleTreeNode {
      * But, if we are interpolating some max/Q update, then this will change the result.
      */
     protected double[] backUpSingleNode(AbstractAction actionTaken, double[] result) {
+        return backUpSingleNode(actionTaken, result, actionsFromOpenLoopState);
+    }
+
+    /**
+     * As backUpSingleNode(actionTaken, result), given the actions that were available at this node on the iteration
+     * being backed up.
+     */
+    private double[] backUpSingleNode(AbstractAction actionTaken, double[] result, List<AbstractAction> availableActions) {
         if (params.discardStateAfterEachIteration) {
             if (depth > 0)
                 openLoopState = null; // releases for Garbage Collection
             if (depth > 0 && !params.maintainMasterState)
                 state = null;
         }
-        nVisits++;
-        // Here we look at actionsFromOpenLoopState to see which ones were valid
+        int visits = (int) N_VISITS.getAndAdd(this, 1) + 1;
+        // Here we look at the actions available (from openLoopState) to see which ones were valid
         // when we passed through, and keep track of valid visits
-        List<AbstractAction> actionsToConsider = actionsToConsider(actionsFromOpenLoopState);
+        List<AbstractAction> actionsToConsider = actionsToConsider(availableActions);
 
         // then we update the statistics for the action taken
         if (!actionsToConsider.contains(actionTaken)) {
@@ -1023,30 +1588,29 @@ public class SingleTreeNode {
             // If MCGS, then this is possible if we have looped in the graph, so that OpenLoopState refers
             // to a different state than the one for which the action was taken. This is awkward.
             // In the absence of any good information, we just increment the valid visits of all actions
-            for (ActionStats stats : actionValues.values()) {
-                stats.validVisits++;
+            for (int slot = 0; slot < actionTable.size(); slot++) {
+                actionTable.addValidVisit(slot);
             }
         } else {
             for (AbstractAction action : actionsToConsider) {
-                if (!actionValues.containsKey(action))
-                    actionValues.put(action, new ActionStats(result.length));
-                actionValues.get(action).validVisits++;
+                int slot = actionTable.slot(action);
+                actionTable.addValidVisit(slot < 0 ? actionTable.add(action.copy(), actionsToConsider.size()) : slot);
             }
         }
-        ActionStats stats = actionValues.get(actionTaken);
-        if (stats == null)
+        int slot = actionTable.slot(actionTaken);
+        if (slot < 0)
             throw new AssertionError("We have somehow failed to find the action taken in the list of actions");
-        if (stats.validVisits == 0)
+        if (actionTable.validVisits(slot) == 0)
             throw new AssertionError("We have somehow failed to find the action taken in the list of valid actions");
 
-        stats.update(result);
+        actionTable.update(slot, result);
 
-        if (params.treePolicy == RegretMatching && this == root && nVisits >= actionsToConsider.size() && nVisits % Math.max(actionsToConsider.size(), 10) == 0) {
+        if (params.treePolicy == RegretMatching && this == root && visits >= actionsToConsider.size() && visits % Math.max(actionsToConsider.size(), 10) == 0) {
             // we update the average policy each time we have had the opportunity to take each action once (or every 10 visits, if that is greater)
             double[] av = actionValues(actionsToConsider);
             double[] pdf = pdf(av);
             for (int i = 0; i < actionsToConsider.size(); i++) {
-                root.regretMatchingAverage.merge(actionsToConsider.get(i), pdf[i], Double::sum);
+                root.addToRegretMatchingAverage(actionsToConsider.get(i), pdf[i]);
             }
         }
 
@@ -1056,9 +1620,10 @@ public class SingleTreeNode {
         // otherwise we do some more complex backup
         double resultToPropagateUpwards[] = result.clone();
         AbstractAction bestAction = bestAction(actionsToConsider);
-        double[] maxValue = actionValues.get(bestAction).totValue.clone();
+        int bestSlot = actionTable.slot(bestAction);
+        double[] maxValue = new double[result.length];
         for (int i = 0; i < maxValue.length; i++) {
-            maxValue[i] /= actionValues.get(bestAction).nVisits;
+            maxValue[i] = actionTable.totValue(bestSlot, i) / actionTable.visits(bestSlot);
         }
         return switch (params.backupPolicy) {
             case MonteCarlo:
@@ -1066,7 +1631,7 @@ public class SingleTreeNode {
             case Lambda:
                 // SARSA-style on-policy update. We weight the action average by 1 - lambda
                 for (int i = 0; i < result.length; i++) {
-                    resultToPropagateUpwards[i] = params.backupLambda * result[i] + (1.0 - params.backupLambda) * stats.totValue[i] / stats.nVisits;
+                    resultToPropagateUpwards[i] = params.backupLambda * result[i] + (1.0 - params.backupLambda) * actionTable.totValue(slot, i) / actionTable.visits(slot);
                 }
                 yield resultToPropagateUpwards;
             case MaxLambda:
@@ -1076,7 +1641,7 @@ public class SingleTreeNode {
                 }
                 yield resultToPropagateUpwards;
             case MaxMC:
-                if (nVisits > params.maxBackupThreshold) {
+                if (visits > params.maxBackupThreshold) {
                     // in this case we mix in a max backup
                     // *if* we took an action other than the one with the current best estimate
                     if (bestAction == null) {
@@ -1085,7 +1650,7 @@ public class SingleTreeNode {
                         bestAction = actionTaken;
                     }
                     if (!bestAction.equals(actionTaken)) {
-                        double maxWeight = (nVisits - params.maxBackupThreshold) / (double) nVisits;
+                        double maxWeight = (visits - params.maxBackupThreshold) / (double) visits;
                         // we mix for all players, based on the counterfactual decision of the acting player
                         for (int i = 0; i < result.length; i++) {
                             resultToPropagateUpwards[i] = (1 - maxWeight) * result[i] + maxWeight * maxValue[i];
@@ -1103,9 +1668,10 @@ public class SingleTreeNode {
         AbstractAction bestAction = null;
         double maxValue = -Double.MAX_VALUE;
         for (AbstractAction action : actionsToConsider) {
-            ActionStats temp = actionValues.get(action);
-            double value = temp.nVisits == 0 ? -Double.MAX_VALUE :
-                    temp.totValue[decisionPlayer] / temp.nVisits;
+            int slot = actionTable.slot(action);
+            int visits = actionTable.visits(slot);
+            double value = visits == 0 ? -Double.MAX_VALUE :
+                    actionTable.totValue(slot, decisionPlayer) / visits;
             if (value > maxValue) {
                 maxValue = value;
                 bestAction = action;
@@ -1120,10 +1686,14 @@ public class SingleTreeNode {
             AbstractAction action = pair.b;
             int player = pair.a;
             Object actionKey = params.MASTActionKey == null ? action.copy() : params.MASTActionKey.key(action);
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(actionKey, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta[player];   // value
-            MASTStatistics.get(player).put(actionKey, stats);
+            // compute() is atomic on the ConcurrentHashMap used in parallelSearch()
+            MASTStatistics.get(player).compute(actionKey, (k, stats) -> {
+                if (stats == null)
+                    stats = new Pair<>(0, 0.0);
+                stats.a++;  // visits
+                stats.b += delta[player];   // value
+                return stats;
+            });
         }
     }
 
@@ -1154,23 +1724,21 @@ public class SingleTreeNode {
             // We iterate through all actions valid in the original root state
             // as openLoopState may be different if using MCGS (not an issue with SingleTreeNode or MultiTreeNode)
             for (AbstractAction action : forwardModel.computeAvailableActions(state, params.actionSpace)) {
-                if (!actionValues.containsKey(action)) {
+                int slot = actionTable.slot(action);
+                if (slot < 0) {
                     throw new AssertionError("Hashcode / equals contract issue for " + action);
                 }
-                if (actionValues.get(action) != null) {
-                    ActionStats stats = actionValues.get(action);
-                    double childValue = stats.nVisits; // if ROBUST
-                    if (policy == SIMPLE)
-                        childValue = stats.totValue[decisionPlayer] / (stats.nVisits + params.noiseEpsilon);
-
-                    // Apply small noise to break ties randomly
-                    childValue = noise(childValue, params.noiseEpsilon, rnd.nextDouble());
-
-                    // Save best value
-                    if (childValue > bestValue) {
-                        bestValue = childValue;
-                        bestAction = action;
-                    }
+                double childValue = actionTable.visits(slot); // if ROBUST
+                if (policy == SIMPLE)
+                    childValue = actionTable.totValue(slot, decisionPlayer) / (actionTable.visits(slot) + params.noiseEpsilon);
+
+                // Apply small noise to break ties randomly
+                childValue = noise(childValue, params.noiseEpsilon, rnd.nextDouble());
+
+                // Save best value
+                if (childValue > bestValue) {
+                    bestValue = childValue;
+                    bestAction = action;
                 }
             }
         }
@@ -1178,7 +1746,9 @@ public class SingleTreeNode {
         if (bestAction == null) {
             if (nVisits == 1) {
 //                System.out.println("Only one visit to root node - insufficient information - hopefully due to JVM warming up");
-                bestAction = actionValues.keySet().stream().findFirst().orElseThrow(() -> new AssertionError("No children"));
+                if (actionTable.size() == 0)
+                    throw new AssertionError("No children");
+                bestAction = actionTable.action(0);
             } else
                 throw new AssertionError("Unexpected - no selection made.");
         }
@@ -1186,6 +1756,13 @@ public class SingleTreeNode {
         return bestAction;
     }
 
+    protected void addToRegretMatchingAverage(AbstractAction action, double value) {
+        // (parallelSearch() starts with a concurrent map, which must be kept)
+        if (regretMatchingAverage == Collections.<AbstractAction, Double>emptyMap())
+            regretMatchingAverage = new ActionMap<>();
+        regretMatchingAverage.merge(action, value, Double::sum);
+    }
+
     protected AbstractAction regretMatchingAverage() {
         double[] potentials = new double[regretMatchingAverage.size()];
         int count = 0;
@@ -21,11 +21,19 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
     double discountFactor;            // Discount factor for calculating rewards
     IStateHeuristic heuristic;
     AbstractPlayer rolloutPolicy;
-    private Random gen;               // Random generator
+    Random gen;                       // Random generator
 
     RHEAIndividual(int L, double discountFactor, AbstractForwardModel fm, AbstractGameState gs,
                    int playerID, Random gen, IStateHeuristic heuristic,
                    AbstractPlayer rolloutPolicy) {
+        this(L, discountFactor, gs, gen, heuristic, rolloutPolicy);
+        // Rollout with random actions and assign fitness value
+        rollout(fm, 0, playerID, true);
+    }
+
+    // An individual with no actions yet; rollout() from index 0 must be called before it is used
+    RHEAIndividual(int L, double discountFactor, AbstractGameState gs, Random gen, IStateHeuristic heuristic,
+                   AbstractPlayer rolloutPolicy) {
         // Initialize
         this.gen = gen;
         this.discountFactor = discountFactor;
@@ -33,10 +41,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         gameStates = new AbstractGameState[L + 1];
         this.heuristic = heuristic;
         this.rolloutPolicy = rolloutPolicy;
-
-        // Rollout with random actions and assign fitness value
         gameStates[0] = gs.copy();
-        rollout(fm, 0, playerID, true);
     }
 
     // Copy constructor
@@ -1,5 +1,6 @@
 package players.rhea;
 
+import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
@@ -12,6 +13,11 @@ import utilities.Pair;
 import utilities.Utils;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
@@ -25,6 +31,9 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
     protected int copyCalls = 0;
     protected int repairCount, nonRepairCount;
     private MASTPlayer mastPlayer;
+    // Only used with params.parallelThreads > 1, for the duration of one decision
+    private ExecutorService executor;
+    private AbstractForwardModel[] threadForwardModels;
 
     public RHEAPlayer(RHEAParams params) {
         super(params, "RHEAPlayer");
@@ -44,14 +53,15 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
 
     @Override
     public AbstractAction _getAction(AbstractGameState stateObs, List<AbstractAction> possibleActions) {
-        ElapsedCpuTimer timer = new ElapsedCpuTimer();  // New timer for this game tick
+        RHEAParams params = getParameters();
+        // In parallel this thread mostly waits for the others, so only wall-clock time measures the time taken
+        ElapsedCpuTimer timer = new ElapsedCpuTimer(params.parallelThreads > 1);  // New timer for this game tick
         timer.setMaxTimeMillis(parameters.budget);
         numIters = 0;
         fmCalls = 0;
         copyCalls = 0;
         repairCount = 0;
         nonRepairCount = 0;
-        RHEAParams params = getParameters();
 
         if (params.useMAST) {
             if (MASTStatistics == null) {
@@ -66,8 +76,44 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
             mastPlayer = new MASTPlayer(null, 1.0, 0.0, System.currentTimeMillis(), 0.0);
             mastPlayer.setStats(MASTStatistics);
         }
+        if (params.parallelThreads > 1) {
+            executor = Executors.newFixedThreadPool(params.parallelThreads);
+            threadForwardModels = new AbstractForwardModel[params.parallelThreads];
+            for (int t = 0; t < threadForwardModels.length; t++)
+                threadForwardModels[t] = getForwardModel().copy();
+            try {
+                evolve(stateObs, timer);
+            } finally {
+                executor.shutdownNow();
+                executor = null;
+                threadForwardModels = null;
+            }
+        } else {
+            evolve(stateObs, timer);
+        }
+
+        timeTaken = timer.elapsedMillis();
+        timePerIteration = numIters == 0 ? 0.0 : (timeTaken - initTime) / numIters;
+        // Return first action of best individual
+        AbstractAction retValue = population.get(0).actions[0];
+        List<AbstractAction> actions = getForwardModel().computeAvailableActions(stateObs, params.actionSpace);
+        if (!actions.contains(retValue))
+            throw new AssertionError("Action chosen is not legitimate " + numIters + ", " + params.shiftLeft);
+        return retValue;
+    }
+
+    private void evolve(AbstractGameState stateObs, ElapsedCpuTimer timer) {
+        RHEAParams params = getParameters();
         // Initialise individuals
-        if (params.shiftLeft && !population.isEmpty()) {
+        if (params.shiftLeft && !population.isEmpty() && executor != null) {
+            population.forEach(i -> i.value = Double.NEGATIVE_INFINITY);
+            for (RHEAIndividual genome : population) {
+                System.arraycopy(genome.actions, 1, genome.actions, 0, genome.actions.length - 1);
+                genome.gameStates[0] = stateObs.copy();
+            }
+            // any we don't have time to shift keep a value of -infinity, and are ignored when picking an action
+            evaluateInParallel(population, timer, (genome, fm) -> genome.rollout(fm, 0, getPlayerID(), true));
+        } else if (params.shiftLeft && !population.isEmpty()) {
             population.forEach(i -> i.value = Double.NEGATIVE_INFINITY);  // so that any we don't have time to shift are ignored when picking an action
             for (RHEAIndividual genome : population) {
                 if (!budgetLeft(timer)) break;
@@ -78,6 +124,17 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
                 fmCalls += calls.a;
                 copyCalls += calls.b;
             }
+        } else if (executor != null) {
+            // as in the sequential version, the population only holds the individuals we had time to create, a batch
+            // of one per thread at a time
+            population = new ArrayList<>();
+            do {
+                List<RHEAIndividual> batch = new ArrayList<>();
+                for (int i = population.size(); i < params.populationSize && batch.size() < params.parallelThreads; ++i)
+                    batch.add(new RHEAIndividual(params.horizon, params.discountFactor, stateObs, rnd, params.heuristic, randomPlayer));
+                evaluateInParallel(batch, timer, (genome, fm) -> genome.rollout(fm, 0, getPlayerID(), true));
+                population.addAll(batch);
+            } while (population.size() < params.populationSize && budgetLeft(timer));
         } else {
             population = new ArrayList<>();
             for (int i = 0; i < params.populationSize; ++i) {
@@ -93,24 +150,75 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         initTime = timer.elapsedMillis();
         // Run evolution
         while (budgetLeft(timer)) {
-            runIteration();
+            runIteration(timer);
         }
+    }
 
-        timeTaken = timer.elapsedMillis();
-        timePerIteration = numIters == 0 ? 0.0 : (timeTaken - initTime) / numIters;
-        // Return first action of best individual
-        AbstractAction retValue = population.get(0).actions[0];
-        List<AbstractAction> actions = getForwardModel().computeAvailableActions(stateObs, params.actionSpace);
-        if (!actions.contains(retValue))
-            throw new AssertionError("Action chosen is not legitimate " + numIters + ", " + params.shiftLeft);
-        return retValue;
+    /**
+     * Evaluates the individuals (a rollout or mutation, which returns the FM and copy calls made) in order, in batches
+     * of params.parallelThreads: each individual in a batch runs on its own thread, with that thread's copy of the
+     * forward model and its own rollout policy. Each individual is also given its own Random. All of these are
+     * seeded from rnd here, before any thread starts, so that results are reproducible.
+     * With a time budget, we check the time left before each batch after the first, and stop once it has run out (as
+     * the sequential version does before each individual), so the individuals from that point on are not evaluated.
+     * The calls made are summed on this thread after each batch, which is the only place that the budget counters
+     * are updated. The heuristic is shared by all threads, so it must not keep state between calls.
+     *
+     * @return the number of individuals evaluated, which are the first ones in the list
+     */
+    private int evaluateInParallel(List<RHEAIndividual> individuals, ElapsedCpuTimer timer,
+                                   BiFunction<RHEAIndividual, AbstractForwardModel, Pair<Integer, Integer>> evaluation) {
+        RHEAParams params = getParameters();
+        int nThreads = Math.min(threadForwardModels.length, individuals.size());
+        for (RHEAIndividual individual : individuals)
+            individual.gen = new Random(rnd.nextLong());
+        AbstractPlayer[] rolloutPolicies = new AbstractPlayer[nThreads];
+        for (int t = 0; t < nThreads; t++) {
+            if (params.useMAST) {
+                MASTPlayer threadMAST = new MASTPlayer(null, 1.0, 0.0, rnd.nextLong(), 0.0);
+                threadMAST.setStats(MASTStatistics);  // only read during evaluation; MASTBackup() happens afterwards
+                rolloutPolicies[t] = threadMAST;
+            } else {
+                rolloutPolicies[t] = new RandomPlayer(new Random(rnd.nextLong()));
+            }
+        }
+        int evaluated = 0;
+        try {
+            while (evaluated < individuals.size()) {
+                // the first batch is always run, so that there is an evaluated individual to take an action from
+                if (evaluated > 0 && params.budgetType == PlayerConstants.BUDGET_TIME && !budgetLeft(timer))
+                    break;
+                List<Future<Pair<Integer, Integer>>> batch = new ArrayList<>();
+                for (int t = 0; t < nThreads && evaluated + t < individuals.size(); t++) {
+                    RHEAIndividual individual = individuals.get(evaluated + t);
+                    individual.rolloutPolicy = rolloutPolicies[t];
+                    AbstractForwardModel threadFM = threadForwardModels[t];
+                    batch.add(executor.submit(() -> evaluation.apply(individual, threadFM)));
+                }
+                for (Future<Pair<Integer, Integer>> result : batch) {
+                    Pair<Integer, Integer> calls = result.get();
+                    fmCalls += calls.a;
+                    copyCalls += calls.b;
+                }
+                evaluated += batch.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted during parallel RHEA evaluation");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re)
+                throw re;
+            if (e.getCause() instanceof Error err)
+                throw err;
+            throw new AssertionError("Error in parallel RHEA evaluation", e.getCause());
+        }
+        return evaluated;
     }
 
     private boolean budgetLeft(ElapsedCpuTimer timer) {
         RHEAParams params = getParameters();
         if (params.budgetType == PlayerConstants.BUDGET_TIME) {
-            long remaining = timer.remainingTimeMillis();
-            return remaining > params.breakMS;
+            return timer.enoughBudgetAmortised(params.breakMS, 0);
         } else if (params.budgetType == PlayerConstants.BUDGET_FM_CALLS) {
             return fmCalls < params.budget;
         } else if (params.budgetType == PlayerConstants.BUDGET_COPY_CALLS) {
@@ -234,7 +342,7 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
     /**
      * Run evolutionary process for one generation
      */
-    private void runIteration() {
+    private void runIteration(ElapsedCpuTimer timer) {
         //copy elites
         RHEAParams params = getParameters();
         List<RHEAIndividual> newPopulation = new ArrayList<>();
@@ -248,14 +356,28 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
             population.add(child);
         }
 
-        for (RHEAIndividual individual : population) {
-            Pair<Integer, Integer> calls = individual.mutate(getForwardModel(), getPlayerID(), params.mutationCount);
-            fmCalls += calls.a;
-            copyCalls += calls.b;
-            repairCount += individual.repairCount;
-            nonRepairCount += individual.nonRepairCount;
-            if (params.useMAST)
-                MASTBackup(individual.actions, individual.value, getPlayerID());
+        if (executor != null) {
+            int mutated = evaluateInParallel(population, timer, (individual, fm) -> individual.mutate(fm, getPlayerID(), params.mutationCount));
+            // if time ran out part way, then the children we did not get to still have the value of their first parent,
+            // so we drop them (the others we did not get to are unchanged, with the value of their own actions)
+            for (int i = Math.max(mutated, population.size() - params.childCount); i < population.size(); i++)
+                population.get(i).value = Double.NEGATIVE_INFINITY;
+            for (RHEAIndividual individual : population.subList(0, mutated)) {
+                repairCount += individual.repairCount;
+                nonRepairCount += individual.nonRepairCount;
+                if (params.useMAST)
+                    MASTBackup(individual.actions, individual.value, getPlayerID());
+            }
+        } else {
+            for (RHEAIndividual individual : population) {
+                Pair<Integer, Integer> calls = individual.mutate(getForwardModel(), getPlayerID(), params.mutationCount);
+                fmCalls += calls.a;
+                copyCalls += calls.b;
+                repairCount += individual.repairCount;
+                nonRepairCount += individual.nonRepairCount;
+                if (params.useMAST)
+                    MASTBackup(individual.actions, individual.value, getPlayerID());
+            }
         }
 
         //sort
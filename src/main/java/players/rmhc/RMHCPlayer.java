@@ -12,7 +12,6 @@ import java.util.*;
 public class RMHCPlayer extends AbstractPlayer {
     private Individual bestIndividual;
     // Budgets
-    private double avgTimeTaken = 0, acumTimeTaken = 0;
     private int numIters = 0;
     private int fmCalls = 0;
     private int copyCalls = 0;
@@ -33,12 +32,11 @@ public class RMHCPlayer extends AbstractPlayer {
     @Override
     public AbstractAction _getAction(AbstractGameState stateObs, List<AbstractAction> possibleActions) {
         ElapsedCpuTimer timer = new ElapsedCpuTimer();  // New timer for this game tick
-        avgTimeTaken = 0;
-        acumTimeTaken = 0;
         numIters = 0;
         fmCalls = 0;
         copyCalls = 0;
         RMHCParams params = getParameters();
+        timer.setMaxTimeMillis(params.budget);
 
         // Initialise individual
         bestIndividual = new Individual(params.horizon, params.discountFactor, getForwardModel(), stateObs, getPlayerID(), rnd, params.getHeuristic());
@@ -51,8 +49,7 @@ public class RMHCPlayer extends AbstractPlayer {
 
             // Check budget depending on budget type
             if (params.budgetType == PlayerConstants.BUDGET_TIME) {
-                long remaining = timer.remainingTimeMillis();
-                keepIterating = remaining > avgTimeTaken && remaining > params.breakMS;
+                keepIterating = timer.enoughBudgetAmortised(params.breakMS, 1);
             } else if (params.budgetType == PlayerConstants.BUDGET_FM_CALLS) {
                 keepIterating = fmCalls < params.budget;
             } else if (params.budgetType == PlayerConstants.BUDGET_COPY_CALLS) {
@@ -83,8 +80,6 @@ public class RMHCPlayer extends AbstractPlayer {
      * @param stateObs - current game state
      */
     private void runIteration(AbstractGameState stateObs) {
-        ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
-
         // Create new individual through mutation
         Individual newIndividual = new Individual(bestIndividual);
         copyCalls += newIndividual.length;
@@ -98,8 +93,6 @@ public class RMHCPlayer extends AbstractPlayer {
 
         // Update budgets
         numIters++;
-        acumTimeTaken += (elapsedTimerIteration.elapsedMillis());
-        avgTimeTaken = acumTimeTaken / numIters;
     }
 
 //    public static void main(String[] args){
@@ -11,20 +11,40 @@ import java.lang.management.ThreadMXBean;
 public class ElapsedCpuTimer {
 
     protected static final boolean OS_WIN = System.getProperty("os.name").contains("Windows");
+    // The longest (in nanoseconds) that enoughBudgetAmortised() goes without reading the clock
+    public static final long MAX_CHECK_INTERVAL_NS = 1000000;
+
+    private static final boolean CPU_TIME_SUPPORTED = ManagementFactory.getThreadMXBean().isCurrentThreadCpuTimeSupported();
 
     // allows for easy reporting of elapsed time
     protected ThreadMXBean bean = ManagementFactory.getThreadMXBean();
     protected long oldTime;
     protected long maxTime;
     protected int nIters;
+    // the iteration at which enoughBudgetAmortised() next reads the clock, and its answer at the last reading
+    protected int nextCheck;
+    protected boolean lastCheck;
+    // if true, then this measures wall-clock time rather than the CPU time of the thread that reads it
+    protected final boolean wallClock;
 
     public ElapsedCpuTimer() {
+        this(false);
+    }
+
+    /**
+     * @param wallClock - measure wall-clock time, as is needed when the thread that checks the budget spends most of
+     *                  it waiting for other threads to do the work.
+     */
+    public ElapsedCpuTimer(boolean wallClock) {
+        this.wallClock = wallClock;
         reset();
     }
 
     public void reset() {
         oldTime = getTime();
         nIters = 0;
+        nextCheck = 0;
+        lastCheck = true;
     }
 
     public long elapsed() {
@@ -83,13 +103,44 @@ public class ElapsedCpuTimer {
         nIters++;
     }
 
+    /**
+     * A cheaper version of enoughBudgetIteration(), for loops with iterations that may take not much longer than
+     * reading the CPU clock (a system call on most platforms). To be called once after each iteration, in place of
+     * endIteration() and the budget check.
+     * <p>
+     * The clock is only read every so many iterations. Each reading works out the average time of an iteration, and
+     * the next reading is scheduled for when a quarter of the time left over (after the reserved iterations and the
+     * safety margin) should have passed, and never more than MAX_CHECK_INTERVAL_NS later. So the checks cost almost
+     * nothing when iterations are cheap, while the budget is overshot by at most that amount when they are not.
+     *
+     * @param break_ms           - safety margin; there is no budget left once less than this remains.
+     * @param reserveIterations - the number of average iterations that must fit in the time remaining.
+     * @return - true if enough budget is left for another iteration, false otherwise.
+     */
+    public boolean enoughBudgetAmortised(int break_ms, int reserveIterations) {
+        nIters++;
+        if (nIters < nextCheck)
+            return lastCheck;
+        long elapsed = elapsed();
+        double average = (double) elapsed / nIters;
+        double spare = maxTime - elapsed - Math.max(reserveIterations * average, break_ms * 1000000.0);
+        lastCheck = spare > 0;
+        if (lastCheck) {
+            double interval = Math.min(spare / 4, MAX_CHECK_INTERVAL_NS);
+            nextCheck = nIters + (int) Math.max(1, Math.min(interval / Math.max(average, 1.0), Integer.MAX_VALUE - nIters));
+        }
+        return lastCheck;
+    }
+
     public ElapsedCpuTimer copy()
     {
-        ElapsedCpuTimer newCpuTimer = new ElapsedCpuTimer();
+        ElapsedCpuTimer newCpuTimer = new ElapsedCpuTimer(wallClock);
         newCpuTimer.maxTime = this.maxTime;
         newCpuTimer.oldTime = this.oldTime;
         newCpuTimer.bean = this.bean;
         newCpuTimer.nIters = this.nIters;
+        newCpuTimer.nextCheck = this.nextCheck;
+        newCpuTimer.lastCheck = this.lastCheck;
         return newCpuTimer;
     }
 
@@ -102,14 +153,14 @@ public class ElapsedCpuTimer {
     }
 
     protected long getTime() {
-        return getCpuTime();
+        return wallClock ? System.nanoTime() : getCpuTime();
     }
 
     protected long getCpuTime() {
         if(OS_WIN)
             return System.nanoTime();
 
-        if (bean.isCurrentThreadCpuTimeSupported()) {
+        if (CPU_TIME_SUPPORTED) {
             return bean.getCurrentThreadCpuTime();
         } else {
             throw new RuntimeException("CpuTime NOT Supported");
@@ -0,0 +1,295 @@
+package utilities;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A process-wide cache of parsed JSON data files (the boards, decks, counters, cards and so on under data/).
+ * A file is parsed the first time it is asked for, and from then on the same parsed data is returned, unless the
+ * file has been changed since. This means that setting up a game (which is often done thousands of times in a
+ * tournament or optimisation run) does not read and parse its data files each time; it just builds its components
+ * from the parsed data.
+ * <p>
+ * The parsed data is shared by everything that loads the same file, on any thread, so it is frozen before it is
+ * cached: the JSONObjects and JSONArrays returned (and all those nested in them) throw an
+ * UnsupportedOperationException on any attempt to change them, including through their iterators and views.
+ */
+public class JSONCache {
+
+    private record Entry(long lastModified, long length, Object data) {
+    }
+
+    private static final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param fileName - path to the JSON file
+     * @return the parsed contents of the file; a JSONObject or JSONArray for the data files used by games
+     */
+    public static Object parse(String fileName) throws IOException, ParseException {
+        File file = new File(fileName);
+        String key = file.getAbsolutePath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        Entry entry = cache.get(key);
+        if (entry == null || entry.lastModified != lastModified || entry.length != length) {
+            // two threads may both parse the file the first time; they get the same data, and one of them is kept
+            try (FileReader reader = new FileReader(file)) {
+                entry = new Entry(lastModified, length, freeze(new JSONParser().parse(reader)));
+            }
+            cache.put(key, entry);
+        }
+        return entry.data;
+    }
+
+    /**
+     * Removes all parsed data from the cache.
+     */
+    public static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @param data - parsed JSON data
+     * @return the same data, with every JSONObject and JSONArray in it replaced by a read-only copy
+     */
+    private static Object freeze(Object data) {
+        if (data instanceof JSONObject object)
+            return new FrozenJSONObject(object);
+        if (data instanceof JSONArray array)
+            return new FrozenJSONArray(array);
+        return data;  // strings, numbers, booleans and nulls are immutable already
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Cached JSON data is shared, and cannot be changed");
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final class FrozenJSONObject extends JSONObject {
+
+        private static final long serialVersionUID = 1L;
+
+        FrozenJSONObject(JSONObject object) {
+            for (Object o : object.entrySet()) {
+                Map.Entry entry = (Map.Entry) o;
+                super.put(entry.getKey(), freeze(entry.getValue()));
+            }
+        }
+
+        @Override
+        public Object put(Object key, Object value) {
+            throw readOnly();
+        }
+
+        @Override
+        public void putAll(Map m) {
+            throw readOnly();
+        }
+
+        @Override
+        public Object putIfAbsent(Object key, Object value) {
+            throw readOnly();
+        }
+
+        @Override
+        public Object remove(Object key) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            throw readOnly();
+        }
+
+        @Override
+        public void clear() {
+            throw readOnly();
+        }
+
+        @Override
+        public Object replace(Object key, Object value) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean replace(Object key, Object oldValue, Object newValue) {
+            throw readOnly();
+        }
+
+        @Override
+        public void replaceAll(BiFunction function) {
+            throw readOnly();
+        }
+
+        @Override
+        public Object compute(Object key, BiFunction remappingFunction) {
+            throw readOnly();
+        }
+
+        @Override
+        public Object computeIfAbsent(Object key, Function mappingFunction) {
+            throw readOnly();
+        }
+
+        @Override
+        public Object computeIfPresent(Object key, BiFunction remappingFunction) {
+            throw readOnly();
+        }
+
+        @Override
+        public Object merge(Object key, Object value, BiFunction remappingFunction) {
+            throw readOnly();
+        }
+
+        @Override
+        public Set keySet() {
+            return Collections.unmodifiableSet(super.keySet());
+        }
+
+        @Override
+        public Collection values() {
+            return Collections.unmodifiableCollection(super.values());
+        }
+
+        @Override
+        public Set entrySet() {
+            // the entries are handed out as immutable copies, so that setValue() cannot be used either
+            Set entries = super.entrySet();
+            return new AbstractSet() {
+                @Override
+                public Iterator iterator() {
+                    Iterator it = entries.iterator();
+                    return new Iterator() {
+                        public boolean hasNext() { return it.hasNext(); }
+                        public Object next() { return new AbstractMap.SimpleImmutableEntry((Map.Entry) it.next()); }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final class FrozenJSONArray extends JSONArray {
+
+        private static final long serialVersionUID = 1L;
+
+        FrozenJSONArray(JSONArray array) {
+            super.ensureCapacity(array.size());
+            for (Object o : array)
+                super.add(freeze(o));
+        }
+
+        @Override
+        public boolean add(Object o) {
+            throw readOnly();
+        }
+
+        @Override
+        public void add(int index, Object element) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean addAll(Collection c) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean addAll(int index, Collection c) {
+            throw readOnly();
+        }
+
+        @Override
+        public Object set(int index, Object element) {
+            throw readOnly();
+        }
+
+        @Override
+        public Object remove(int index) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean removeAll(Collection c) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean retainAll(Collection c) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean removeIf(Predicate filter) {
+            throw readOnly();
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator operator) {
+            throw readOnly();
+        }
+
+        @Override
+        public void sort(Comparator c) {
+            throw readOnly();
+        }
+
+        @Override
+        public void clear() {
+            throw readOnly();
+        }
+
+        @Override
+        public Iterator iterator() {
+            return listIterator(0);
+        }
+
+        @Override
+        public ListIterator listIterator() {
+            return listIterator(0);
+        }
+
+        @Override
+        public ListIterator listIterator(int index) {
+            ListIterator it = super.listIterator(index);
+            return new ListIterator() {
+                public boolean hasNext() { return it.hasNext(); }
+                public Object next() { return it.next(); }
+                public boolean hasPrevious() { return it.hasPrevious(); }
+                public Object previous() { return it.previous(); }
+                public int nextIndex() { return it.nextIndex(); }
+                public int previousIndex() { return it.previousIndex(); }
+                public void remove() { throw readOnly(); }
+                public void set(Object o) { throw readOnly(); }
+                public void add(Object o) { throw readOnly(); }
+            };
+        }
+
+        @Override
+        public List subList(int fromIndex, int toIndex) {
+            return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+        }
+    }
+}
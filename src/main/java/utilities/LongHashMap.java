@@ -0,0 +1,168 @@
+package utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hash map from primitive long keys to (non-null) object values, using open addressing with linear probing.
+ * Unlike a HashMap&lt;Long, V&gt; this does not box keys or allocate an entry object per mapping, which matters for
+ * large transposition tables keyed by 64-bit state hashes.
+ *
+ * @param <V> type of the values.
+ */
+public class LongHashMap<V> {
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] keys;
+    private Object[] values;  // null marks an empty slot
+    private int size;
+
+    public LongHashMap() {
+        this(16);
+    }
+
+    public LongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    private int slot(long key) {
+        return (int) Zobrist.mix(key) & (keys.length - 1);
+    }
+
+    // Index of the slot holding key, or of the empty slot where it would go
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        while (values[i] != null && keys[i] != key)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return values[find(key)] != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        return (V) values[find(key)];
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        V v = get(key);
+        return v == null ? defaultValue : v;
+    }
+
+    /**
+     * @return the previous value for this key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("LongHashMap does not support null values");
+        int i = find(key);
+        V previous = (V) values[i];
+        keys[i] = key;
+        values[i] = value;
+        if (previous == null && ++size > keys.length * MAX_LOAD)
+            resize(keys.length * 2);
+        return previous;
+    }
+
+    /**
+     * @return the value removed, or null if there was no mapping for this key.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int mask = keys.length - 1;
+        int i = find(key);
+        V previous = (V) values[i];
+        if (previous == null)
+            return null;
+        // backward-shift deletion, so that no tombstones are needed
+        int gap = i;
+        int j = (i + 1) & mask;
+        while (values[j] != null) {
+            int home = slot(keys[j]);
+            // move the entry at j into the gap if its home slot is not cyclically within (gap, j]
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+            j = (j + 1) & mask;
+        }
+        values[gap] = null;
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null)
+                action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    /**
+     * @return a snapshot of all the values in the map, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> retValue = new ArrayList<>(size);
+        for (Object v : values) {
+            if (v != null)
+                retValue.add((V) v);
+        }
+        return retValue;
+    }
+
+    /**
+     * @return a snapshot of all the keys in the map, in no particular order.
+     */
+    public long[] keys() {
+        long[] retValue = new long[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null)
+                retValue[n++] = keys[i];
+        }
+        return retValue;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int j = find(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package utilities;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An append-only list whose copies share all elements added before the copy was taken.
+ * Both copy() and add() are O(1), so a long history can be copied with every game state at no extra cost.
+ * Elements are held in a chain of immutable nodes, each pointing back to the one added before it.
+ * <p>
+ * Reads go through asList(), which returns a read-only snapshot. The last element of the snapshot is available in
+ * O(1); other positions are looked up in an array of all elements that is built the first time it is needed.
+ *
+ * @param <T> type of the elements.
+ */
+public final class PersistentList<T> {
+
+    private record Node<T>(Node<T> previous, T value, int size) {
+    }
+
+    private Node<T> last;  // most recently added element, or null if the list is empty
+
+    public PersistentList() {
+    }
+
+    private PersistentList(Node<T> last) {
+        this.last = last;
+    }
+
+    /**
+     * @return a new list with the same contents, sharing them with this one. Elements added to either list
+     * afterwards are not visible in the other.
+     */
+    public PersistentList<T> copy() {
+        return new PersistentList<>(last);
+    }
+
+    public void add(T value) {
+        last = new Node<>(last, value, size() + 1);
+    }
+
+    public int size() {
+        return last == null ? 0 : last.size;
+    }
+
+    public boolean isEmpty() {
+        return last == null;
+    }
+
+    /**
+     * Replaces the element at the given index. Any copies of this list keep the previous value.
+     * This has to rebuild every node added after that index, so it is O(size - index).
+     *
+     * @param index - index of the element to replace.
+     * @param value - the new value.
+     */
+    @SuppressWarnings("unchecked")
+    public void set(int index, T value) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        Object[] later = new Object[size() - index - 1];
+        Node<T> node = last;
+        for (int i = later.length - 1; i >= 0; i--) {
+            later[i] = node.value;
+            node = node.previous;
+        }
+        last = new Node<>(node.previous, value, index + 1);
+        for (Object o : later) {
+            add((T) o);
+        }
+    }
+
+    /**
+     * @return a read-only view of the current contents. Elements added to this list later are not included.
+     */
+    public List<T> asList() {
+        return new Snapshot<>(last);
+    }
+
+    private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+        private final Node<T> last;
+        private Object[] elements;  // built on first access to an element other than the last
+
+        Snapshot(Node<T> last) {
+            this.last = last;
+        }
+
+        @Override
+        public int size() {
+            return last == null ? 0 : last.size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            int size = size();
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+            if (index == size - 1)
+                return last.value;
+            if (elements == null) {
+                Object[] all = new Object[size];
+                Node<T> node = last;
+                for (int i = size - 1; i >= 0; i--) {
+                    all[i] = node.value;
+                    node = node.previous;
+                }
+                elements = all;
+            }
+            return (T) elements[index];
+        }
+    }
+}
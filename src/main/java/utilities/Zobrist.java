@@ -0,0 +1,64 @@
+package utilities;
+
+/**
+ * Helpers for 64-bit Zobrist-style hashing of game states.
+ * <p>
+ * A classic Zobrist hash XORs together one random number per (position, piece) pair that is present in the state,
+ * so that moving a piece only needs two XORs to update the hash. Instead of a table of random numbers we derive each
+ * value by mixing the position and piece with the SplitMix64 finaliser. This gives the same behaviour without having
+ * to know the number of positions or pieces in advance, and the values are the same in every copy of a state.
+ */
+public final class Zobrist {
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return a pseudo-random 64-bit value determined by the input, with good avalanche behaviour.
+     */
+    public static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param position - where the piece is (e.g. a cell index, or the ID of the containing component).
+     * @param piece    - what is there (e.g. the component ID of the piece, or a player ID).
+     * @return the Zobrist key of this (position, piece) pair.
+     */
+    public static long key(long position, long piece) {
+        return mix(mix(position) ^ piece);
+    }
+
+    /**
+     * @return the Zobrist key of a three-part feature, e.g. (x, y, piece).
+     */
+    public static long key(long a, long b, long c) {
+        return mix(mix(mix(a) ^ b) ^ c);
+    }
+
+    /**
+     * @return a 64-bit hash of a feature vector as seen by the given player, which depends on the order of the
+     * features. Equal vectors (with 0.0 and -0.0 taken as equal) give the same hash.
+     */
+    public static long hash(int player, double[] features) {
+        long h = mix(player);
+        for (double f : features)
+            h = mix(h ^ (f == 0.0 ? 0L : Double.doubleToLongBits(f)));
+        return mix(h ^ features.length);
+    }
+
+    /**
+     * @return a 64-bit hash of the string, for use where a long key is needed for a String identifier.
+     */
+    public static long hash(String s) {
+        long h = 0xCBF29CE484222325L;  // FNV-1a, with a final mix to spread the bits
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+}
@@ -0,0 +1,92 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.actions.ActionSpace;
+import core.actions.SetGridValueAction;
+import core.components.Token;
+import games.GameType;
+import games.tictactoe.TicTacToeConstants;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ActionCaching {
+
+    private void play(AbstractForwardModel fm, AbstractGameState state, int... cells) {
+        TicTacToeGameState tttgs = (TicTacToeGameState) state;
+        for (int cell : cells) {
+            Token token = TicTacToeConstants.playerMapping.get(state.getCurrentPlayer());
+            fm.next(state, new SetGridValueAction<>(tttgs.getGridBoard().getComponentID(), cell % 3, cell / 3, token));
+        }
+    }
+
+    @Test
+    public void equivalentStatesShareTheirActions() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 404);
+        AbstractForwardModel fm = game.getForwardModel();
+        fm.setActionCacheSize(10);
+        AbstractGameState first = game.getGameState().copy();
+        AbstractGameState second = game.getGameState().copy();
+        play(fm, first, 0, 4, 8);
+        play(fm, second, 8, 4, 0);
+
+        List<AbstractAction> actions = fm.computeAvailableActions(first);
+        assertEquals(6, actions.size());
+        assertSame(actions, fm.computeAvailableActions(second));
+        assertEquals(1, fm.getActionCache().getHits());
+        assertEquals(1, fm.getActionCache().getMisses());
+        assertEquals(0.5, fm.getActionCache().getHitRate(), 1e-9);
+        try {
+            actions.remove(0);
+            fail("Cached action lists should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        // a different state, or a different action space, is a different entry
+        play(fm, second, 2);
+        assertEquals(5, fm.computeAvailableActions(second).size());
+        assertNotSame(actions, fm.computeAvailableActions(first, new ActionSpace(ActionSpace.Structure.Flat, ActionSpace.Flexibility.Default, ActionSpace.Context.Default)));
+        assertEquals(3, fm.getActionCache().getMisses());
+    }
+
+    @Test
+    public void leastRecentlyUsedListsAreEvicted() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 404);
+        AbstractForwardModel fm = game.getForwardModel();
+        fm.setActionCacheSize(2);
+        AbstractGameState[] states = new AbstractGameState[3];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = game.getGameState().copy();
+            play(fm, states[i], i);
+            fm.computeAvailableActions(states[i]);
+        }
+        assertEquals(2, fm.getActionCache().size());
+        assertEquals(3, fm.getActionCache().getMisses());
+        fm.computeAvailableActions(states[2]);
+        fm.computeAvailableActions(states[1]);
+        assertEquals(2, fm.getActionCache().getHits());
+        fm.computeAvailableActions(states[0]);
+        assertEquals(4, fm.getActionCache().getMisses());
+
+        fm.setActionCacheSize(0);
+        assertNull(fm.getActionCache());
+    }
+
+    @Test
+    public void statesWithoutStateHashAreNotCached() {
+        Game game = GameType.LoveLetter.createGameInstance(2, 404);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        assertFalse(state.hasStateHash());
+        fm.setActionCacheSize(10);
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        assertNotSame(actions, fm.computeAvailableActions(state));
+        assertEquals(0, fm.getActionCache().size());
+        assertEquals(0, fm.getActionCache().getHits() + fm.getActionCache().getMisses());
+        fm.setActionCacheSize(0);
+    }
+}
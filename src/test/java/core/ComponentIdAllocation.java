@@ -0,0 +1,97 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.Component;
+import core.components.ComponentIds;
+import core.components.Token;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class ComponentIdAllocation {
+
+    // the IDs of every component in the state after playing a game for a while with random actions
+    private List<Integer> playAndCollectIds(GameType gameType, long seed) {
+        Game game = gameType.createGameInstance(3, seed);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        Random rnd = new Random(seed);
+        for (int i = 0; i < 100 && state.isNotTerminal(); i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (Component c : state.getAllComponents().getComponents())
+            ids.add(c.getComponentID());
+        Collections.sort(ids);
+        return ids;
+    }
+
+    @Test
+    public void idsDoNotDependOnEarlierGames() {
+        List<Integer> first = playAndCollectIds(GameType.Dominion, 7);
+        playAndCollectIds(GameType.LoveLetter, 8);
+        assertEquals(first, playAndCollectIds(GameType.Dominion, 7));
+    }
+
+    @Test
+    public void idsAreTheSameWhenGamesRunInParallel() throws Exception {
+        List<Integer> expected = playAndCollectIds(GameType.Dominion, 11);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+                results.add(executor.submit(() -> playAndCollectIds(GameType.Dominion, 11)));
+            for (Future<List<Integer>> result : results)
+                assertEquals(expected, result.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void copiesContinueTheirOwnSequence() {
+        ComponentIds ids = new ComponentIds();
+        Token a = ids.use(() -> new Token("A"));
+        ComponentIds copy = ids.copy();
+        Token b = ids.use(() -> new Token("B"));
+        Token c = copy.use(() -> new Token("C"));
+        assertEquals(0, a.getComponentID());
+        assertEquals(1, b.getComponentID());
+        assertEquals(1, c.getComponentID());
+        assertEquals(2, ids.peek());
+    }
+
+    @Test
+    public void idsOutsideAGameAreUniqueAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    int[] created = new int[10000];
+                    for (int i = 0; i < created.length; i++)
+                        created[i] = new Token("T").getComponentID();
+                    return created;
+                }));
+            }
+            Set<Integer> seen = new HashSet<>();
+            for (Future<int[]> result : results)
+                for (int id : result.get()) {
+                    assertTrue(id >= ComponentIds.GLOBAL_BASE);
+                    assertTrue(seen.add(id));
+                }
+        } finally {
+            executor.shutdown();
+        }
+        // and a game's own sequence is not affected by the shared counter
+        ComponentIds ids = new ComponentIds();
+        assertEquals(0, ids.use(() -> new Token("A")).getComponentID());
+        assertTrue(ComponentIds.global(() -> ids.use(() -> new Token("B"))).getComponentID() < ComponentIds.GLOBAL_BASE);
+        assertTrue(ids.use(() -> ComponentIds.global(() -> new Token("C"))).getComponentID() >= ComponentIds.GLOBAL_BASE);
+    }
+}
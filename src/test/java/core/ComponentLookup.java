@@ -0,0 +1,65 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.Area;
+import core.components.Component;
+import core.components.Counter;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ComponentLookup {
+
+    Random rnd = new Random(5);
+
+    private void checkEveryComponentIsFound(AbstractGameState state) {
+        Area all = state.getAllComponents();
+        assertFalse(all.getComponentsMap().isEmpty());
+        for (Component c : all.getComponents())
+            assertSame(c, state.getComponentById(c.getComponentID()));
+    }
+
+    @Test
+    public void copiesFindTheirOwnComponents() {
+        Game game = GameType.Dominion.createGameInstance(3, 404);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        for (int i = 0; i < 200 && state.isNotTerminal(); i++) {
+            AbstractGameState copy = state.copy();
+            // the copy has the same component IDs, and finds its own components for them
+            assertEquals(state.getAllComponents().getComponentsMap().keySet(), copy.getAllComponents().getComponentsMap().keySet());
+            checkEveryComponentIsFound(copy);
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            checkEveryComponentIsFound(state);
+        }
+    }
+
+    @Test
+    public void unknownIdIsNotFound() {
+        Game game = GameType.LoveLetter.createGameInstance(2, 404);
+        AbstractGameState state = game.getGameState();
+        assertNull(state.getComponentById(-12345));
+        checkEveryComponentIsFound(state.copy());
+    }
+
+    @Test
+    public void componentsCreatedAfterIndexingAreFound() {
+        Game game = GameType.Dominion.createGameInstance(3, 404);
+        AbstractGameState state = game.getGameState();
+        int nextId = state.componentIds.peek();
+        // the index is built by this lookup, and a miss does not rebuild it
+        assertNull(state.getComponentById(nextId));
+        Counter counter = state.componentIds.use(() -> new Counter(10, "Test"));
+        assertEquals(nextId, counter.getComponentID());
+        assertSame(counter, state.getComponentById(nextId));
+        // but a copy does not see components created later in the original
+        AbstractGameState copy = state.copy();
+        state.componentIds.use(() -> new Counter(10, "Later"));
+        assertNull(copy.getComponentById(nextId + 1));
+    }
+}
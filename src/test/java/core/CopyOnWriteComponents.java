@@ -0,0 +1,185 @@
+package core;
+
+import core.components.*;
+import core.properties.PropertyString;
+import games.GameType;
+import games.dominion.DominionConstants.DeckType;
+import games.dominion.DominionGameState;
+import games.dominion.cards.CardType;
+import games.dominion.cards.DominionCard;
+import org.junit.Test;
+import utilities.Hash;
+
+import java.util.List;
+import java.util.Random;
+
+import static core.CoreConstants.VisibilityMode.HIDDEN_TO_ALL;
+import static org.junit.Assert.*;
+
+public class CopyOnWriteComponents {
+
+    Random rnd = new Random(393);
+
+    private Deck<DominionCard> deckOfTen() {
+        Deck<DominionCard> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        for (int i = 0; i < 5; i++) {
+            deck.add(DominionCard.create(CardType.COPPER));
+            deck.add(DominionCard.create(CardType.ESTATE));
+        }
+        return deck;
+    }
+
+    @Test
+    public void copyOnWriteDeckSharesComponentsUntilChanged() {
+        Deck<DominionCard> deck = deckOfTen();
+        deck.setCopyOnWrite(true);
+        Deck<DominionCard> copy = deck.copy();
+        assertTrue(copy.isCopyOnWrite());
+        assertEquals(deck, copy);
+        assertSame(deck.get(3), copy.get(3));
+
+        DominionCard drawn = copy.draw();
+        assertEquals(10, deck.getSize());
+        assertEquals(9, copy.getSize());
+        assertSame(drawn, deck.get(0));
+
+        deck.shuffle(rnd);
+        deck.add(DominionCard.create(CardType.GOLD));
+        assertEquals(11, deck.getSize());
+        assertEquals(9, copy.getSize());
+        assertEquals(0, copy.getComponents().stream().filter(c -> c.cardType() == CardType.GOLD).count());
+    }
+
+    @Test
+    public void copiesOfCopiesTakeTheirOwnLists() {
+        Deck<DominionCard> deck = deckOfTen();
+        deck.setCopyOnWrite(true);
+        Deck<DominionCard> copy = deck.copy();
+        copy.draw();
+        Deck<DominionCard> copyOfCopy = copy.copy();
+        // copy owned its list before it was copied, so must not change it in place now
+        copy.draw();
+        assertEquals(10, deck.getSize());
+        assertEquals(8, copy.getSize());
+        assertEquals(9, copyOfCopy.getSize());
+        copyOfCopy.add(DominionCard.create(CardType.GOLD));
+        assertEquals(8, copy.getSize());
+        assertEquals(10, copyOfCopy.getSize());
+    }
+
+    @Test
+    public void dominionDecksAreCopyOnWrite() {
+        Game game = GameType.Dominion.createGameInstance(2, 404);
+        DominionGameState state = (DominionGameState) game.getGameState();
+        state.getDeck(DeckType.DISCARD, 0).add(DominionCard.create(CardType.GOLD));
+        DominionGameState copy = (DominionGameState) state.copy();
+        Deck<DominionCard> discard = copy.getDeck(DeckType.DISCARD, 0);
+        assertTrue(discard.isCopyOnWrite());
+        assertTrue(copy.getDeck(DeckType.TABLE, 1).isCopyOnWrite());
+        int size = discard.getSize();
+        discard.draw();
+        assertEquals(size - 1, discard.getSize());
+        assertEquals(size, state.getDeck(DeckType.DISCARD, 0).getSize());
+    }
+
+    @Test
+    public void copyOnWriteDeckCanBeChangedThroughGetComponents() {
+        Deck<DominionCard> deck = deckOfTen();
+        deck.setCopyOnWrite(true);
+        Deck<DominionCard> copy = deck.copy();
+        copy.getComponents().remove(0);
+        assertEquals(10, deck.getSize());
+        assertEquals(9, copy.getSize());
+        deck.getComponents().add(DominionCard.create(CardType.GOLD));
+        assertEquals(11, deck.getSize());
+        assertEquals(9, copy.getSize());
+    }
+
+    @Test
+    public void listIsOnlyCopiedWhileShared() {
+        Deck<DominionCard> deck = deckOfTen();
+        deck.setCopyOnWrite(true);
+        Deck<DominionCard> copy = deck.copy();
+        // the copy takes its own list, after which the deck is again the only one holding the original
+        copy.draw();
+        List<DominionCard> list = deck.getComponents();
+        // and copying the copy does not make the deck copy its list again
+        Deck<DominionCard> copyOfCopy = copy.copy();
+        deck.draw();
+        assertSame(list, deck.getComponents());
+        assertEquals(9, deck.getSize());
+        assertEquals(9, copy.getSize());
+        assertEquals(9, copyOfCopy.getSize());
+    }
+
+    @Test
+    public void normalDeckCopiesComponents() {
+        Deck<DominionCard> deck = deckOfTen();
+        Deck<DominionCard> copy = deck.copy();
+        assertFalse(copy.isCopyOnWrite());
+        assertEquals(deck, copy);
+        copy.draw();
+        assertEquals(10, deck.getSize());
+    }
+
+    @Test
+    public void gridBoardCopiesRowsOnWrite() {
+        Token a = new Token("A");
+        Token b = new Token("B");
+        GridBoard<Token> board = new GridBoard<>(3, 3, a);
+        GridBoard<Token> copy = board.copy();
+
+        copy.setElement(1, 1, b);
+        assertSame(a, board.getElement(1, 1));
+        assertSame(b, copy.getElement(1, 1));
+
+        board.setElement(2, 1, b);
+        assertSame(a, copy.getElement(2, 1));
+        assertSame(b, board.getElement(2, 1));
+
+        // modifying the raw grid of one board must not affect the other
+        copy.getGridValues()[0][0] = b;
+        assertSame(a, board.getElement(0, 0));
+        GridBoard<Token> secondCopy = copy.copy();
+        assertEquals(copy, secondCopy);
+        assertNotEquals(board, copy);
+    }
+
+    @Test
+    public void copyOnWriteGraphBoardCopiesNodesOnWrite() {
+        GraphBoard board = new GraphBoard("Test");
+        BoardNode n1 = new BoardNode(4, "1");
+        BoardNode n2 = new BoardNode(4, "2");
+        BoardNode n3 = new BoardNode(4, "3");
+        board.addBoardNode(n1);
+        board.addBoardNode(n2);
+        board.addBoardNode(n3);
+        board.addConnection(n1, n2);
+        board.setCopyOnWrite(true);
+
+        GraphBoard copy = board.copy();
+        // nodes handed out by the copy are its own, so may be changed
+        BoardNode copied = copy.getNodeByID(n1.getComponentID());
+        assertNotSame(n1, copied);
+        copied.setProperty(new PropertyString("colour", "Red"));
+        assertNotNull(copied.getProperty(Hash.GetInstance().hash("colour")));
+        assertNull(n1.getProperty(Hash.GetInstance().hash("colour")));
+        assertSame(n1, board.getNodeByID(n1.getComponentID()));
+
+        copy.addConnection(n2, n3);
+        assertNotSame(n2, copy.getNodeByID(n2.getComponentID()));
+        assertTrue(copy.getNodeByID(n2.getComponentID()).getNeighbours().contains(copy.getNodeByID(n3.getComponentID())));
+        assertFalse(n2.getNeighbours().contains(n3));
+        assertTrue(n3.getNeighbours().isEmpty());
+    }
+
+    @Test
+    public void counterCopiesShareValues() {
+        Counter counter = new Counter(new int[]{0, 2, 5, 9}, "Test");
+        Counter copy = counter.copy();
+        copy.increment(2);
+        assertEquals(0, counter.getValue());
+        assertEquals(5, copy.getValue());
+        assertSame(counter.getValues(), copy.getValues());
+    }
+}
@@ -0,0 +1,215 @@
+package core;
+
+import core.components.Card;
+import core.components.Deck;
+import core.components.PartialObservableDeck;
+import org.junit.Test;
+
+import java.util.*;
+
+import static core.CoreConstants.VisibilityMode.HIDDEN_TO_ALL;
+import static org.junit.Assert.*;
+
+/**
+ * Random sequences of changes to Decks, checked against a plain ArrayList (and a list of boolean[] for the visibility
+ * in a PartialObservableDeck), so that every path through the ring buffers (either end, the middle, and growth) is
+ * exercised.
+ */
+public class DeckStorage {
+
+    Random rnd = new Random(7);
+    int nextCard = 0;
+
+    private Card newCard() {
+        return new Card("Card" + nextCard++);
+    }
+
+    @Test
+    public void deckMatchesArrayList() {
+        Deck<Card> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        List<Card> model = new ArrayList<>();
+        for (int step = 0; step < 5000; step++) {
+            int op = rnd.nextInt(7);
+            int size = model.size();
+            switch (op) {
+                case 0 -> {
+                    Card c = newCard();
+                    deck.add(c);
+                    model.add(0, c);
+                }
+                case 1 -> {
+                    Card c = newCard();
+                    deck.addToBottom(c);
+                    model.add(c);
+                }
+                case 2 -> {
+                    Card c = newCard();
+                    int index = rnd.nextInt(size + 1);
+                    deck.add(c, index);
+                    model.add(index, c);
+                }
+                case 3 -> {
+                    if (size == 0) break;
+                    int index = rnd.nextInt(size);
+                    assertSame(model.remove(index), deck.pick(index));
+                }
+                case 4 -> {
+                    if (size == 0) break;
+                    assertSame(model.remove(0), deck.draw());
+                }
+                case 5 -> {
+                    List<Card> cards = List.of(newCard(), newCard(), newCard());
+                    int index = rnd.nextInt(size + 1);
+                    deck.add(cards, index);
+                    model.addAll(index, cards);
+                }
+                case 6 -> {
+                    if (size == 0) break;
+                    Card c = newCard();
+                    int index = rnd.nextInt(size);
+                    deck.setComponent(index, c);
+                    model.set(index, c);
+                }
+            }
+            assertEquals(model.size(), deck.getSize());
+            if (step % 50 == 0) {
+                for (int i = 0; i < model.size(); i++)
+                    assertSame(model.get(i), deck.get(i));
+                Deck<Card> copy = deck.copy();
+                assertEquals(deck, copy);
+                assertEquals(deck.getStateHash(), copy.getStateHash());
+            }
+        }
+        List<Card> iterated = new ArrayList<>();
+        deck.forEach(iterated::add);
+        assertEquals(model, iterated);
+    }
+
+    @Test
+    public void shuffleIsUnchangedByStorage() {
+        Deck<Card> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        List<Card> model = new LinkedList<>();
+        for (int i = 0; i < 40; i++) {
+            Card c = newCard();
+            deck.add(c);
+            model.add(0, c);
+        }
+        // the same seed gives the same order as shuffling the LinkedList that decks used to hold
+        deck.shuffle(new Random(42));
+        Collections.shuffle(model, new Random(42));
+        assertEquals(model, deck.getComponents());
+    }
+
+    @Test
+    public void visibilityMatchesModel() {
+        int nPlayers = 3;
+        PartialObservableDeck<Card> deck = new PartialObservableDeck<>("Test", 0, new boolean[]{true, false, false});
+        List<Card> model = new ArrayList<>();
+        List<boolean[]> visibility = new ArrayList<>();
+        for (int step = 0; step < 3000; step++) {
+            int size = model.size();
+            int op = rnd.nextInt(6);
+            switch (op) {
+                case 0 -> {
+                    Card c = newCard();
+                    deck.add(c);
+                    model.add(0, c);
+                    visibility.add(0, new boolean[]{true, false, false});
+                }
+                case 1 -> {
+                    Card c = newCard();
+                    boolean[] v = {rnd.nextBoolean(), rnd.nextBoolean(), rnd.nextBoolean()};
+                    int index = rnd.nextInt(size + 1);
+                    deck.add(c, index, v);
+                    model.add(index, c);
+                    visibility.add(index, v.clone());
+                }
+                case 2 -> {
+                    Card c = newCard();
+                    deck.addToBottom(c);
+                    model.add(c);
+                    visibility.add(new boolean[]{true, false, false});
+                }
+                case 3 -> {
+                    if (size == 0) break;
+                    int index = rnd.nextInt(size);
+                    assertSame(model.remove(index), deck.pick(index));
+                    visibility.remove(index);
+                }
+                case 4 -> {
+                    if (size == 0) break;
+                    int index = rnd.nextInt(size);
+                    int player = rnd.nextInt(nPlayers);
+                    boolean visible = rnd.nextBoolean();
+                    deck.setVisibilityOfComponent(index, player, visible);
+                    visibility.get(index)[player] = visible;
+                }
+                case 5 -> {
+                    // cards keep their visibility when moved with another deck
+                    PartialObservableDeck<Card> other = new PartialObservableDeck<>("Other", 1, new boolean[]{false, true, false});
+                    other.add(newCard());
+                    other.add(newCard(), new boolean[]{true, true, true});
+                    int index = rnd.nextInt(size + 1);
+                    deck.add(other, index);
+                    model.addAll(index, other.getComponents());
+                    visibility.add(index, new boolean[]{true, true, true});
+                    visibility.add(index + 1, new boolean[]{false, true, false});
+                }
+            }
+            if (step % 25 == 0) {
+                PartialObservableDeck<Card> copy = deck.copy();
+                assertEquals(model.size(), copy.getSize());
+                for (int i = 0; i < model.size(); i++) {
+                    assertSame(model.get(i), deck.get(i));
+                    assertArrayEquals(visibility.get(i), deck.getVisibilityOfComponent(i));
+                    assertArrayEquals(visibility.get(i), copy.getVisibilityOfComponent(i));
+                    for (int p = 0; p < nPlayers; p++)
+                        assertEquals(visibility.get(i)[p], deck.getVisibilityForPlayer(i, p));
+                }
+                // changing the copy does not change the original
+                if (!model.isEmpty()) {
+                    copy.setVisibilityOfComponent(0, new boolean[]{false, false, false});
+                    assertArrayEquals(visibility.get(0), deck.getVisibilityOfComponent(0));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shuffleAndKeepVisibilityKeepsEachCardsVisibility() {
+        PartialObservableDeck<Card> deck = new PartialObservableDeck<>("Test", 0, new boolean[]{false, false});
+        Map<Card, boolean[]> expected = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            Card c = newCard();
+            boolean[] v = {rnd.nextBoolean(), rnd.nextBoolean()};
+            deck.add(c, v);
+            expected.put(c, v);
+        }
+        List<Card> before = new ArrayList<>(deck.getComponents());
+        deck.shuffleAndKeepVisibility(new Random(3));
+        assertNotEquals(before, deck.getComponents());
+        for (int i = 0; i < deck.getSize(); i++)
+            assertArrayEquals(expected.get(deck.get(i)), deck.getVisibilityOfComponent(i));
+
+        // whereas a plain shuffle resets everything to the deck visibility
+        deck.shuffle(new Random(3));
+        for (int i = 0; i < deck.getSize(); i++)
+            assertArrayEquals(new boolean[]{false, false}, deck.getVisibilityOfComponent(i));
+    }
+
+    @Test
+    public void tooManyPlayersRejected() {
+        try {
+            new PartialObservableDeck<Card>("Test", 0, new boolean[65]);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        PartialObservableDeck<Card> deck = new PartialObservableDeck<>("Test", 0, 64, CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+        deck.add(newCard());
+        assertTrue(deck.getVisibilityForPlayer(0, 63));
+        deck.setVisibilityOfComponent(0, 63, false);
+        assertFalse(deck.getVisibilityForPlayer(0, 63));
+        assertTrue(deck.getVisibilityForPlayer(0, 62));
+    }
+}
@@ -0,0 +1,132 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import games.dominion.DominionParameters;
+import games.puertorico.PuertoRicoParameters;
+import games.tictactoe.TicTacToeGameParameters;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class FrozenParameters {
+
+    @Test
+    public void copiesOfStatesShareFrozenParameters() {
+        Game game = GameType.Dominion.createGameInstance(3, 303);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        Random rnd = new Random(303);
+        for (int i = 0; i < 50 && state.isNotTerminal(); i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        AbstractGameState copy = state.copy();
+        // the original keeps its own parameters, which can still be changed
+        assertFalse(state.getGameParameters().isFrozen());
+        assertNotSame(state.getGameParameters(), copy.getGameParameters());
+        assertTrue(copy.getGameParameters().isFrozen());
+        assertEquals(state.getGameParameters(), copy.getGameParameters());
+        // and from then on copies share them
+        AbstractGameState copyOfCopy = copy.copy(0);
+        assertSame(copy.getGameParameters(), copyOfCopy.getGameParameters());
+        assertEquals(copy, copy.copy());
+        // which does not stop the copies being played on
+        for (int i = 0; i < 50 && copyOfCopy.isNotTerminal(); i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(copyOfCopy);
+            fm.next(copyOfCopy, actions.get(rnd.nextInt(actions.size())));
+        }
+        state.getGameParameters().setMaxRounds(40);
+        assertEquals(40, state.getGameParameters().getMaxRounds());
+    }
+
+    @Test
+    public void frozenParametersCannotBeChanged() {
+        DominionParameters params = new DominionParameters();
+        DominionParameters unfrozenCopy = (DominionParameters) params.copy();
+        params.freeze();
+        assertSame(params, params.copy());
+        assertSame(params, params.shallowCopy());
+        try {
+            params.setParameterValue("HAND_SIZE", 7);
+            fail("Frozen parameters should not be changed");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            params.randomize();
+            fail("Frozen parameters should not be randomized");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            params.setMaxRounds(10);
+            fail("Frozen parameters should not be changed");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        // an earlier copy is a separate object, and is not frozen
+        unfrozenCopy.setParameterValue("HAND_SIZE", 7);
+        assertEquals(7, unfrozenCopy.getParameterValue("HAND_SIZE"));
+        assertEquals(params.getDefaultParameterValue("HAND_SIZE"), params.getParameterValue("HAND_SIZE"));
+
+        // nor can the random seed
+        PuertoRicoParameters prParams = new PuertoRicoParameters();
+        prParams.freeze();
+        try {
+            prParams.setRandomSeed(42);
+            fail("The random seed of frozen parameters should not be changed");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void resettingACopyWithANewSeedLeavesTheSharedParametersAlone() {
+        TicTacToeGameParameters params = new TicTacToeGameParameters();
+        params.setRandomSeed(11);
+        Game game = GameType.TicTacToe.createGameInstance(2, params);
+        game.reset(Collections.emptyList(), 27);
+        assertEquals(27, game.getGameState().getRandomSeed());
+        assertEquals(11, game.getGameState().getGameParameters().getRandomSeed());
+        // resetting without a seed plays the same game again
+        game.reset(Collections.emptyList());
+        assertEquals(27, game.getGameState().getRandomSeed());
+
+        AbstractGameState copy = game.getGameState().copy();
+        AbstractGameState copyOfCopy = copy.copy();
+        assertSame(copy.getGameParameters(), copyOfCopy.getGameParameters());
+        assertEquals(27, copy.getRandomSeed());
+        copyOfCopy.reset(99);
+        assertEquals(99, copyOfCopy.getRandomSeed());
+        assertEquals(27, copy.getRandomSeed());
+        assertEquals(copy.getGameParameters().getRandomSeed(), copyOfCopy.getGameParameters().getRandomSeed());
+        assertEquals(11, params.getRandomSeed());
+    }
+
+    @Test
+    public void assigningToAPublicFieldOfFrozenParametersIsCaught() {
+        boolean assertionsEnabled = false;
+        assert assertionsEnabled = true;
+        assumeTrue("The check on public fields needs assertions enabled", assertionsEnabled);
+
+        AbstractGameState copy = GameType.TicTacToe.createGameInstance(2, 5).getGameState().copy();
+        TicTacToeGameParameters params = (TicTacToeGameParameters) copy.getGameParameters();
+        assertTrue(params.isFrozen());
+        assertSame(params, copy.copy().getGameParameters());
+        params.gridSize = 5;
+        // fail() throws an AssertionError too, so the error is checked for outside the try
+        boolean caught = false;
+        try {
+            copy.copy();
+        } catch (AssertionError e) {
+            caught = true;
+        }
+        assertTrue("A change to a public field of frozen parameters should be caught when they are next shared", caught);
+    }
+}
@@ -0,0 +1,64 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import utilities.Pair;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GameHistory {
+
+    AbstractGameState state;
+    AbstractForwardModel fm;
+    Random rnd = new Random(42);
+
+    @Before
+    public void setup() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 404);
+        state = game.getGameState();
+        fm = game.getForwardModel();
+    }
+
+    private void takeRandomAction(AbstractGameState gs) {
+        List<AbstractAction> actions = fm.computeAvailableActions(gs);
+        fm.next(gs, actions.get(rnd.nextInt(actions.size())));
+    }
+
+    @Test
+    public void copiesKeepHistoryAndThenDiverge() {
+        takeRandomAction(state);
+        takeRandomAction(state);
+        AbstractGameState copy = state.copy();
+        assertEquals(state.getHistory(), copy.getHistory());
+        assertEquals(state.getHistoryAsText(), copy.getHistoryAsText());
+
+        takeRandomAction(copy);
+        assertEquals(2, state.getHistory().size());
+        assertEquals(3, copy.getHistory().size());
+        assertEquals(state.getHistory(), copy.getHistory().subList(0, 2));
+
+        takeRandomAction(state);
+        assertEquals(3, state.getHistory().size());
+        assertEquals(3, copy.getHistory().size());
+        assertEquals(state.getHistory().subList(0, 2), copy.getHistory().subList(0, 2));
+    }
+
+    @Test
+    public void historyIsASnapshot() {
+        takeRandomAction(state);
+        List<Pair<Integer, AbstractAction>> history = state.getHistory();
+        List<String> historyText = state.getHistoryAsText();
+        int textLength = historyText.size();
+        takeRandomAction(state);
+        assertEquals(1, history.size());
+        assertEquals(textLength, historyText.size());
+        assertEquals(2, state.getHistory().size());
+        assertEquals(history.get(0), state.getHistory().get(0));
+        assertEquals(state.getHistory().get(1), state.getHistory().get(state.getHistory().size() - 1));
+    }
+}
@@ -0,0 +1,114 @@
+package core;
+
+import core.components.Component;
+import core.components.Counter;
+import games.GameType;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+import utilities.JSONCache;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JSONDataCaching {
+
+    @Test
+    public void fileIsParsedOnceUntilChanged() throws Exception {
+        File file = File.createTempFile("counters", ".json");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("[{\"id\": \"A\", \"min\": [\"Integer\", 0], \"max\": [\"Integer\", 5]}]");
+        }
+        Object first = JSONCache.parse(file.getPath());
+        assertSame(first, JSONCache.parse(file.getAbsolutePath()));
+
+        // components are still built afresh from the shared data each time
+        List<Counter> counters = Counter.loadCounters(file.getPath());
+        List<Counter> moreCounters = Counter.loadCounters(file.getPath());
+        assertEquals(5, counters.get(0).getMaximum());
+        assertNotSame(counters.get(0), moreCounters.get(0));
+        assertNotEquals(counters.get(0).getComponentID(), moreCounters.get(0).getComponentID());
+
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("[{\"id\": \"A\", \"min\": [\"Integer\", 0], \"max\": [\"Integer\", 10]}, {\"id\": \"B\", \"min\": [\"Integer\", 0], \"max\": [\"Integer\", 1]}]");
+        }
+        Object second = JSONCache.parse(file.getPath());
+        assertNotSame(first, second);
+        assertEquals(2, ((JSONArray) second).size());
+        assertEquals(10, Counter.loadCounters(file.getPath()).get(0).getMaximum());
+    }
+
+    @Test
+    public void cachedDataCannotBeChanged() throws Exception {
+        File file = File.createTempFile("frozen", ".json");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("[{\"id\": \"A\", \"values\": [1, 2, 3]}]");
+        }
+        JSONArray data = (JSONArray) JSONCache.parse(file.getPath());
+        JSONObject first = (JSONObject) data.get(0);
+        JSONArray values = (JSONArray) first.get("values");
+        assertEquals("A", first.get("id"));
+        assertEquals(3, values.size());
+
+        // json-simple's classes are raw collections; these typed views let the changes below be made without raw calls
+        @SuppressWarnings("unchecked") List<Object> dataList = data;
+        @SuppressWarnings("unchecked") Map<String, Object> firstMap = first;
+        @SuppressWarnings("unchecked") List<Object> valueList = values;
+        List<Runnable> changes = List.of(
+                () -> dataList.add("B"),
+                () -> dataList.remove(0),
+                () -> dataList.clear(),
+                () -> dataList.iterator().remove(),
+                () -> firstMap.put("id", "B"),
+                () -> firstMap.remove("id"),
+                () -> firstMap.keySet().clear(),
+                () -> firstMap.entrySet().iterator().next().setValue("B"),
+                () -> valueList.set(0, 4L),
+                () -> valueList.subList(0, 1).clear()
+        );
+        for (Runnable change : changes) {
+            try {
+                change.run();
+                fail("Cached JSON data should not be changeable");
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+        }
+        assertSame(data, JSONCache.parse(file.getPath()));
+        assertEquals(1, data.size());
+        assertEquals("A", first.get("id"));
+        assertEquals(List.of(1L, 2L, 3L), values);
+    }
+
+    @Test
+    public void gamesSetUpFromCachedDataMatch() {
+        // the first game parses the data files, the second uses the cached data
+        for (GameType gameType : new GameType[]{GameType.Pandemic, GameType.TerraformingMars}) {
+            AbstractGameState first = gameType.createGameInstance(3, 99).getGameState();
+            AbstractGameState second = gameType.createGameInstance(3, 99).getGameState();
+            List<Component> firstComponents = first.getAllComponents().getComponents();
+            List<Component> secondComponents = second.getAllComponents().getComponents();
+            assertEquals(firstComponents.size(), secondComponents.size());
+            for (int i = 0; i < firstComponents.size(); i++) {
+                assertEquals(firstComponents.get(i).getComponentID(), secondComponents.get(i).getComponentID());
+                assertEquals(firstComponents.get(i).getComponentName(), secondComponents.get(i).getComponentName());
+            }
+        }
+    }
+
+    @Test
+    public void missingFileIsAnError() {
+        try {
+            JSONCache.parse("data/no such file.json");
+            fail("Expected an exception for a missing file");
+        } catch (Exception e) {
+            // expected
+        }
+    }
+}
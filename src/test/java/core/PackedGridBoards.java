@@ -0,0 +1,164 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.GridBoard;
+import core.components.PackedGridBoard;
+import core.components.Token;
+import games.GameType;
+import games.connect4.Connect4Constants;
+import games.connect4.Connect4GameParameters;
+import games.connect4.Connect4GameState;
+import org.junit.Test;
+import utilities.Pair;
+import utilities.Vector2D;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks PackedGridBoard against a plain GridBoard, and its line checks against a brute force search.
+ */
+public class PackedGridBoards {
+
+    Random rnd = new Random(23);
+    Token empty = new Token("Empty");
+    Token[] tokens = {empty, new Token("X"), new Token("O")};
+
+    private Token randomToken() {
+        return tokens[rnd.nextInt(tokens.length)];
+    }
+
+    @Test
+    public void matchesGridBoard() {
+        PackedGridBoard<Token> packed = new PackedGridBoard<>(5, 4, empty);
+        GridBoard<Token> plain = new GridBoard<>(5, 4, empty);
+        long initialHash = packed.getStateHash();
+        for (int step = 0; step < 500; step++) {
+            int x = rnd.nextInt(7) - 1, y = rnd.nextInt(6) - 1;
+            Token t = randomToken();
+            assertEquals(plain.setElement(x, y, t), packed.setElement(x, y, t));
+            for (int i = 0; i < 5; i++)
+                for (int j = 0; j < 4; j++)
+                    assertSame(plain.getElement(i, j), packed.getElement(i, j));
+            assertEquals(plain.getEmptyCells(empty), packed.getEmptyCells(empty));
+            assertEquals(plain.getEmptyCells(tokens[1]), packed.getEmptyCells(tokens[1]));
+            assertEquals(plain.getEmptyCells(empty).size(), packed.getEmptyCount());
+            assertEquals(plain.getComponents(), packed.getComponents());
+
+            PackedGridBoard<Token> copy = packed.copy();
+            assertEquals(packed, copy);
+            assertEquals(packed.hashCode(), copy.hashCode());
+            assertEquals(packed.getStateHash(), copy.getStateHash());
+            copy.setElement(0, 0, copy.getElement(0, 0) == empty ? tokens[1] : empty);
+            assertNotEquals(packed, copy);
+            assertNotEquals(packed.getStateHash(), copy.getStateHash());
+            assertSame(plain.getElement(0, 0), packed.getElement(0, 0));
+        }
+        for (int i = 0; i < 5; i++)
+            for (int j = 0; j < 4; j++)
+                packed.setElement(i, j, empty);
+        assertEquals(initialHash, packed.getStateHash());
+        assertEquals(20, packed.getEmptyCount());
+    }
+
+    @Test
+    public void newValuesInCopyDoNotChangeOriginal() {
+        PackedGridBoard<Token> board = new PackedGridBoard<>(3, 3, empty);
+        board.setElement(1, 1, tokens[1]);
+        PackedGridBoard<Token> copy = board.copy();
+        Token other = new Token("Z");
+        copy.setElement(1, 1, other);
+        copy.setElement(2, 2, other);
+        assertSame(tokens[1], board.getElement(1, 1));
+        assertSame(empty, board.getElement(2, 2));
+        assertSame(other, copy.getElement(2, 2));
+        assertEquals(8, board.getEmptyCount());
+        assertEquals(7, copy.getEmptyCount());
+
+        PackedGridBoard<Token> cleared = copy.emptyCopy();
+        assertEquals(9, cleared.getEmptyCount());
+        assertEquals(copy.getComponentID(), cleared.getComponentID());
+        copy.setElement(1, 1, empty);
+        copy.setElement(2, 2, empty);
+        assertEquals(copy.getStateHash(), cleared.getStateHash());
+    }
+
+    // the brute force check: is there a line of length cells of the same non-empty value through (x, y)?
+    private boolean hasLineThrough(PackedGridBoard<Token> board, int x, int y, int length) {
+        Token t = board.getElement(x, y);
+        if (t == empty) return false;
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+        for (int[] d : directions) {
+            for (int offset = 0; offset < length; offset++) {
+                int startX = x - offset * d[0], startY = y - offset * d[1];
+                boolean line = true;
+                for (int i = 0; i < length && line; i++)
+                    line = board.getElement(startX + i * d[0], startY + i * d[1]) == t;
+                if (line) return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkLine(PackedGridBoard<Token> board, List<Vector2D> line, int length) {
+        assertEquals(length, line.size());
+        Token t = board.getElement(line.get(0));
+        assertNotSame(empty, t);
+        for (Vector2D cell : line)
+            assertSame(t, board.getElement(cell));
+    }
+
+    @Test
+    public void findLineMatchesBruteForce() {
+        for (int trial = 0; trial < 300; trial++) {
+            int width = 3 + rnd.nextInt(5), height = 3 + rnd.nextInt(5);
+            int length = 2 + rnd.nextInt(3);
+            PackedGridBoard<Token> board = new PackedGridBoard<>(width, height, empty);
+            for (int x = 0; x < width; x++)
+                for (int y = 0; y < height; y++)
+                    board.setElement(x, y, randomToken());
+            boolean any = false;
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    boolean expected = hasLineThrough(board, x, y, length);
+                    any |= expected;
+                    List<Vector2D> line = board.findLine(x, y, length);
+                    assertEquals(expected, line != null);
+                    if (line != null) checkLine(board, line, length);
+                }
+            }
+            List<Vector2D> line = board.findLine(length);
+            assertEquals(any, line != null);
+            if (line != null) checkLine(board, line, length);
+        }
+    }
+
+    @Test
+    public void connect4WinnerHasLine() {
+        for (int g = 0; g < 20; g++) {
+            Game game = GameType.Connect4.createGameInstance(2, 100 + g);
+            AbstractForwardModel fm = game.getForwardModel();
+            Connect4GameState state = (Connect4GameState) game.getGameState();
+            int winCount = ((Connect4GameParameters) state.getGameParameters()).winCount;
+            while (state.isNotTerminal()) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            }
+            PackedGridBoard<Token> board = state.getGridBoard();
+            if (state.getGameStatus() == CoreConstants.GameResult.DRAW_GAME) {
+                assertEquals(0, board.getEmptyCount());
+                assertNull(board.findLine(winCount));
+            } else {
+                List<Pair<Integer, Integer>> cells = state.getWinningCells();
+                assertEquals(winCount, cells.size());
+                Token winner = board.getElement(cells.get(0).a, cells.get(0).b);
+                for (Pair<Integer, Integer> cell : cells)
+                    assertSame(winner, board.getElement(cell.a, cell.b));
+                int winningPlayer = Connect4Constants.playerMapping.indexOf(winner);
+                assertEquals(CoreConstants.GameResult.WIN_GAME, state.getPlayerResults()[winningPlayer]);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class RandomActionSampling {
+
+    Random rnd = new Random(42);
+
+    private void checkSampledActionsAreAvailable(GameType gameType, int nPlayers, int maxActions) {
+        Game game = gameType.createGameInstance(nPlayers, 404);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        for (int i = 0; i < maxActions && state.isNotTerminal(); i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            AbstractAction sampled = fm.sampleRandomAction(state, state.getCoreGameParameters().actionSpace, rnd);
+            assertTrue("Sampled " + sampled + " is not available", actions.contains(sampled));
+            assertEquals(actions.size(), fm.countAvailableActions(state));
+            Set<AbstractAction> iterated = new HashSet<>();
+            fm.availableActionsIterator(state).forEachRemaining(iterated::add);
+            assertEquals(new HashSet<>(actions), iterated);
+            fm.next(state, sampled);
+        }
+    }
+
+    @Test
+    public void ticTacToe() {
+        checkSampledActionsAreAvailable(GameType.TicTacToe, 2, 100);
+    }
+
+    @Test
+    public void dominion() {
+        checkSampledActionsAreAvailable(GameType.Dominion, 3, 500);
+    }
+
+    @Test
+    public void loveLetter() {
+        checkSampledActionsAreAvailable(GameType.LoveLetter, 3, 500);
+    }
+
+    @Test
+    public void catan() {
+        checkSampledActionsAreAvailable(GameType.Catan, 3, 500);
+    }
+}
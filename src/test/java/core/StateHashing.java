@@ -0,0 +1,165 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.actions.SetGridValueAction;
+import core.components.Deck;
+import core.components.GridBoard;
+import core.components.Token;
+import games.GameType;
+import games.connect4.Connect4StateVector;
+import games.dominion.cards.CardType;
+import games.dominion.cards.DominionCard;
+import games.tictactoe.TicTacToeConstants;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.Test;
+import players.mcts.MCGSNode;
+import players.mcts.MCTSParams;
+import utilities.LongHashMap;
+import utilities.Zobrist;
+
+import java.util.*;
+
+import static core.CoreConstants.VisibilityMode.HIDDEN_TO_ALL;
+import static org.junit.Assert.*;
+
+public class StateHashing {
+
+    Random rnd = new Random(42);
+
+    private void play(AbstractForwardModel fm, AbstractGameState state, int... cells) {
+        TicTacToeGameState tttgs = (TicTacToeGameState) state;
+        for (int cell : cells) {
+            Token token = TicTacToeConstants.playerMapping.get(state.getCurrentPlayer());
+            AbstractAction action = new SetGridValueAction<>(tttgs.getGridBoard().getComponentID(), cell % 3, cell / 3, token);
+            fm.next(state, action);
+        }
+    }
+
+    @Test
+    public void transposedTicTacToePositionsHaveTheSameHash() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 404);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState first = game.getGameState().copy();
+        AbstractGameState second = game.getGameState().copy();
+        play(fm, first, 0, 4, 8);
+        play(fm, second, 8, 4, 0);
+        assertEquals(first.getStateHash(), second.getStateHash());
+        assertNotEquals(game.getGameState().getStateHash(), first.getStateHash());
+
+        AbstractGameState copy = first.copy();
+        assertEquals(first.getStateHash(), copy.getStateHash());
+        play(fm, second, 2);
+        assertNotEquals(copy.getStateHash(), second.getStateHash());
+    }
+
+    @Test
+    public void gridBoardHashIsUpdatedIncrementally() {
+        Token a = new Token("A");
+        Token b = new Token("B");
+        GridBoard<Token> board = new GridBoard<>(4, 4, a);
+        long initial = board.getStateHash();
+        for (int i = 0; i < 50; i++) {
+            board.setElement(rnd.nextInt(4), rnd.nextInt(4), rnd.nextBoolean() ? a : b);
+            // getGridValues() makes the copy recalculate its hash from scratch
+            GridBoard<Token> check = board.copy();
+            check.getGridValues();
+            assertEquals(check.getStateHash(), board.getStateHash());
+        }
+        for (int x = 0; x < 4; x++)
+            for (int y = 0; y < 4; y++)
+                board.setElement(x, y, a);
+        assertEquals(initial, board.getStateHash());
+    }
+
+    @Test
+    public void deckHashDependsOnContentsNotOrder() {
+        Deck<DominionCard> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        for (int i = 0; i < 5; i++) {
+            deck.add(DominionCard.create(CardType.COPPER));
+            deck.add(DominionCard.create(CardType.ESTATE));
+        }
+        Deck<DominionCard> copy = deck.copy();
+        assertEquals(deck.getStateHash(), copy.getStateHash());
+        copy.shuffle(rnd);
+        assertEquals(deck.getStateHash(), copy.getStateHash());
+
+        DominionCard card = copy.draw();
+        assertNotEquals(deck.getStateHash(), copy.getStateHash());
+        copy.add(card, 5);
+        assertEquals(deck.getStateHash(), copy.getStateHash());
+
+        // direct changes to the list are picked up too
+        copy.getComponents().remove(0);
+        assertNotEquals(deck.getStateHash(), copy.getStateHash());
+    }
+
+    @Test
+    public void orderedDeckHashDependsOnOrder() {
+        Deck<DominionCard> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        for (int i = 0; i < 5; i++) {
+            deck.add(DominionCard.create(CardType.COPPER));
+            deck.add(DominionCard.create(CardType.ESTATE));
+        }
+        Deck<DominionCard> copy = deck.copy();
+        assertEquals(deck.getOrderedStateHash(), copy.getOrderedStateHash());
+        DominionCard top = copy.draw();
+        copy.add(top, copy.getSize());  // to the bottom
+        assertEquals(deck.getStateHash(), copy.getStateHash());
+        assertNotEquals(deck.getOrderedStateHash(), copy.getOrderedStateHash());
+        copy.add(copy.pick(copy.getSize() - 1), 0);
+        assertEquals(deck.getOrderedStateHash(), copy.getOrderedStateHash());
+    }
+
+    @Test
+    public void featureKeysAreHashedWithoutStrings() {
+        AbstractGameState state = GameType.Connect4.createGameInstance(2, 404).getGameState();
+        Connect4StateVector key = new Connect4StateVector();
+        AbstractGameState copy = state.copy();
+        assertEquals(key.getLongKey(state), key.getLongKey(copy));
+        // the same features seen by the other player are a different key
+        double[] features = key.featureVector(state, 0);
+        assertNotEquals(Zobrist.hash(0, features), Zobrist.hash(1, features));
+        // as is a change in the order of the features
+        features[0] = 1.0;
+        double[] swapped = features.clone();
+        swapped[0] = features[1];
+        swapped[1] = features[0];
+        assertNotEquals(Zobrist.hash(0, features), Zobrist.hash(0, swapped));
+        assertEquals(Zobrist.hash(0, new double[]{0.0, 1.0}), Zobrist.hash(0, new double[]{-0.0, 1.0}));
+    }
+
+    @Test
+    public void longHashMapMatchesHashMap() {
+        LongHashMap<Integer> map = new LongHashMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = rnd.nextInt(2000) * 0x100000000L;  // keys that only differ in the high bits
+            if (rnd.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Long, Integer> e : expected.entrySet())
+            assertEquals(e.getValue(), map.get(e.getKey()));
+        assertEquals(expected.size(), map.keys().length);
+    }
+
+    @Test
+    public void mcgsNeedsAKeyForGamesWithoutAStateHash() {
+        AbstractGameState ttt = GameType.TicTacToe.createGameInstance(2, 404).getGameState();
+        AbstractGameState dominion = GameType.Dominion.createGameInstance(2, 404).getGameState();
+        assertTrue(ttt.hasStateHash());
+        assertFalse(dominion.hasStateHash());
+        MCTSParams params = new MCTSParams();
+        params.MCGSStateKey = null;
+        assertEquals(ttt.getStateHash(), MCGSNode.stateKey(params, ttt));
+        try {
+            MCGSNode.stateKey(params, dominion);
+            fail("Dominion only has a 32-bit hash, so MCGS should insist on a state key");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
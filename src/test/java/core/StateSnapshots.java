@@ -0,0 +1,196 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.BoardNode;
+import core.components.Counter;
+import core.components.Deck;
+import core.components.Dice;
+import core.components.GraphBoard;
+import core.interfaces.IGridGameState;
+import core.properties.PropertyBoolean;
+import core.properties.PropertyIntArray;
+import games.GameType;
+import games.dominion.cards.CardType;
+import games.dominion.cards.DominionCard;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static core.CoreConstants.VisibilityMode.HIDDEN_TO_ALL;
+import static org.junit.Assert.*;
+
+public class StateSnapshots {
+
+    Random rnd = new Random(42);
+
+    private AbstractGameState playRandomly(Game game, int maxActions) {
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState().copy();
+        for (int i = 0; i < maxActions && state.isNotTerminal(); i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        return state;
+    }
+
+    private void checkRestoredState(Game game, AbstractGameState original, AbstractGameState restored) {
+        assertEquals(((IGridGameState<?>) original).getGridBoard(), ((IGridGameState<?>) restored).getGridBoard());
+        assertEquals(original.getStateHash(), restored.getStateHash());
+        assertEquals(original.getGameTick(), restored.getGameTick());
+        assertEquals(original.getGameStatus(), restored.getGameStatus());
+        if (original.isNotTerminal())
+            assertEquals(game.getForwardModel().computeAvailableActions(original),
+                    game.getForwardModel().computeAvailableActions(restored));
+    }
+
+    @Test
+    public void ticTacToeRoundTrip() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 404);
+        for (int moves = 0; moves <= 9; moves++) {
+            AbstractGameState original = playRandomly(game, moves);
+            SnapshotWriter out = new SnapshotWriter(16);
+            original.writeSnapshot(out);
+            AbstractGameState restored = game.getGameState().copy();
+            restored.readSnapshot(new SnapshotReader(out.toByteBuffer()));
+            checkRestoredState(game, original, restored);
+            assertEquals(original, restored);
+        }
+    }
+
+    @Test
+    public void connect4RoundTripThroughFile() throws Exception {
+        Game game = GameType.Connect4.createGameInstance(2, 404);
+        AbstractGameState original = playRandomly(game, 1000);
+        assertFalse(original.isNotTerminal());
+        Path file = File.createTempFile("connect4", ".snapshot").toPath();
+        try {
+            original.saveSnapshot(file);
+            AbstractGameState restored = game.getGameState().copy();
+            restored.loadSnapshot(file);
+            checkRestoredState(game, original, restored);
+            assertArrayEquals(original.getPlayerResults(), restored.getPlayerResults());
+        } finally {
+            file.toFile().delete();
+        }
+    }
+
+    // restores a game part way through with a forward model of its own, then plays on in both copies of the game with
+    // the same choices, which must lead to the same states (so the shuffles and other random events must match too)
+    private void checkGameContinues(GameType gameType, int nPlayers, int actionsBefore) {
+        Game game = gameType.createGameInstance(nPlayers, 404);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState original = playRandomly(game, actionsBefore);
+        assertTrue(original.isNotTerminal());
+        SnapshotWriter out = new SnapshotWriter();
+        original.writeSnapshot(out);
+
+        AbstractForwardModel restoredFM = gameType.createForwardModel(original.getGameParameters(), nPlayers);
+        AbstractGameState restored = game.getGameState().copy();
+        restored.readSnapshot(new SnapshotReader(out.toByteBuffer()), restoredFM);
+        assertEquals(original, restored);
+        assertEquals(original.getHistory(), restored.getHistory());
+        assertEquals(original.getHistoryAsText(), restored.getHistoryAsText());
+
+        Random choices = new Random(7), sameChoices = new Random(7);
+        for (int i = 0; i < 100 && original.isNotTerminal(); i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(original);
+            // each state is given its own actions, as some change as they are executed
+            List<AbstractAction> restoredActions = restoredFM.computeAvailableActions(restored);
+            assertEquals(actions, restoredActions);
+            fm.next(original, actions.get(choices.nextInt(actions.size())));
+            restoredFM.next(restored, restoredActions.get(sameChoices.nextInt(actions.size())));
+            assertEquals(original, restored);
+        }
+    }
+
+    @Test
+    public void pandemicContinuesFromSnapshot() {
+        checkGameContinues(GameType.Pandemic, 3, 20);
+    }
+
+    @Test
+    public void terraformingMarsContinuesFromSnapshot() {
+        checkGameContinues(GameType.TerraformingMars, 2, 40);
+    }
+
+    @Test
+    public void componentsRoundTrip() {
+        Counter counter = new Counter(3, 0, 10, "Test");
+        Dice dice = new Dice(6);
+        dice.roll(rnd);
+        Deck<DominionCard> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        for (int i = 0; i < 7; i++)
+            deck.add(DominionCard.create(CardType.values()[rnd.nextInt(5)]));
+
+        GraphBoard board = new GraphBoard("Test");
+        BoardNode node = null;
+        for (int i = 0; i < 3; i++) {
+            BoardNode added = new BoardNode(2, "node" + i);
+            board.addBoardNode(added);
+            if (i == 1) node = added;
+        }
+        node.setOwnerId(1);
+        node.setProperty(new PropertyBoolean("station", true));
+        node.setProperty(new PropertyIntArray("cubes", new int[]{0, 2, 1}));
+        GraphBoard boardCopy = board.copy();
+
+        SnapshotWriter out = new SnapshotWriter();
+        counter.writeSnapshot(out);
+        dice.writeSnapshot(out);
+        deck.writeSnapshot(out, card -> card.cardType().ordinal());
+        board.writeSnapshot(out);
+
+        Counter counterCopy = new Counter(0, 0, 5, "Test");
+        Dice diceCopy = new Dice(6);
+        Deck<DominionCard> deckCopy = new Deck<>("Test", HIDDEN_TO_ALL);
+        deckCopy.add(DominionCard.create(CardType.GOLD));
+        SnapshotReader in = new SnapshotReader(out.toByteBuffer());
+        counterCopy.readSnapshot(in);
+        diceCopy.readSnapshot(in);
+        deckCopy.readSnapshot(in, type -> DominionCard.create(CardType.values()[type]));
+        BoardNode nodeCopy = boardCopy.getNodeByID(node.getComponentID());
+        nodeCopy.setOwnerId(-1);
+        nodeCopy.setProperty(new PropertyBoolean("station", false));
+        boardCopy.readSnapshot(in);
+        assertEquals(0, in.remaining());
+
+        assertEquals(3, counterCopy.getValue());
+        assertEquals(10, counterCopy.getMaximum());
+        assertEquals(dice.getValue(), diceCopy.getValue());
+        assertEquals(deck.getSize(), deckCopy.getSize());
+        for (int i = 0; i < deck.getSize(); i++)
+            assertEquals(deck.get(i).cardType(), deckCopy.get(i).cardType());
+        assertEquals(board, boardCopy);
+        assertEquals(1, nodeCopy.getOwnerId());
+        assertEquals(node.getProperties(), boardCopy.getNodeByID(node.getComponentID()).getProperties());
+    }
+
+    @Test
+    public void snapshotsAreCheckedWhenRead() {
+        Game ticTacToe = GameType.TicTacToe.createGameInstance(2, 404);
+        Game connect4 = GameType.Connect4.createGameInstance(2, 404);
+        SnapshotWriter out = new SnapshotWriter();
+        ticTacToe.getGameState().writeSnapshot(out);
+        try {
+            connect4.getGameState().copy().readSnapshot(new SnapshotReader(out.toByteBuffer()));
+            fail("A snapshot of one game should not be readable into another");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertTrue(ticTacToe.getGameState().supportsSnapshots());
+        AbstractGameState loveLetter = GameType.LoveLetter.createGameInstance(2, 404).getGameState();
+        assertFalse(loveLetter.supportsSnapshots());
+        SnapshotWriter unused = new SnapshotWriter();
+        try {
+            loveLetter.writeSnapshot(unused);
+            fail("Games without snapshot support should say so");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        // nothing is written before the check
+        assertEquals(0, unused.size());
+    }
+}
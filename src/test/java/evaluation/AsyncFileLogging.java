@@ -0,0 +1,136 @@
+package evaluation;
+
+import evaluation.loggers.AsyncFileStatsLogger;
+import evaluation.loggers.FileStatsLogger;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class AsyncFileLogging {
+
+    Path dir;
+    List<Map<String, Object>> rows = new ArrayList<>();
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("asyncLogging");
+        dir.toFile().deleteOnExit();
+        Random rnd = new Random(23);
+        for (int i = 0; i < 5000; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("Index", i);
+            row.put("Value", rnd.nextDouble() * 100.0);
+            row.put("Name", "row" + i);
+            Map<String, Object> nested = new LinkedHashMap<>();
+            nested.put("A", rnd.nextInt(10));
+            nested.put("B", rnd.nextBoolean());
+            row.put("Nested", nested);
+            if (i % 7 != 0)
+                row.put("Sometimes", i / 7);
+            rows.add(row);
+        }
+    }
+
+    private String logWith(FileStatsLogger logger, File file) throws IOException {
+        for (Map<String, Object> row : rows)
+            logger.record(row);
+        logger.processDataAndFinish();
+        return Files.readString(file.toPath());
+    }
+
+    private String readGzip(File file) throws IOException {
+        try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void sameOutputAsFileStatsLogger() throws IOException {
+        File syncFile = dir.resolve("sync.txt").toFile();
+        File asyncFile = dir.resolve("async.txt").toFile();
+        String expected = logWith(new FileStatsLogger(syncFile.getPath(), "\t", false), syncFile);
+
+        // a small queue, so that record() has to wait for the writer
+        AsyncFileStatsLogger logger = new AsyncFileStatsLogger(asyncFile.getPath(), "\t", false, false, 16);
+        for (int i = 0; i < rows.size(); i++) {
+            logger.record(rows.get(i));
+            if (i % 1000 == 999)
+                logger.processDataAndNotFinish();
+        }
+        logger.processDataAndFinish();
+        String actual = Files.readString(asyncFile.toPath());
+
+        assertEquals(rows.size() + 1, actual.split("\n").length);
+        assertEquals(expected, actual);
+        syncFile.delete();
+        asyncFile.delete();
+    }
+
+    @Test
+    public void appendDoesNotRepeatHeader() throws IOException {
+        File syncFile = dir.resolve("syncAppend.txt").toFile();
+        File asyncFile = dir.resolve("asyncAppend.txt").toFile();
+        logWith(new FileStatsLogger(syncFile.getPath()), syncFile);
+        String expected = logWith(new FileStatsLogger(syncFile.getPath()), syncFile);
+
+        for (int run = 0; run < 2; run++) {
+            AsyncFileStatsLogger logger = new AsyncFileStatsLogger(asyncFile.getPath());
+            rows.forEach(logger::record);
+            logger.processDataAndFinish();
+        }
+        assertEquals(expected, Files.readString(asyncFile.toPath()));
+        syncFile.delete();
+        asyncFile.delete();
+    }
+
+    @Test
+    public void gzipOutput() throws IOException {
+        File syncFile = dir.resolve("plain.txt").toFile();
+        File gzFile = dir.resolve("compressed.txt.gz").toFile();
+        String expected = logWith(new FileStatsLogger(syncFile.getPath(), "\t", false), syncFile);
+
+        AsyncFileStatsLogger logger = new AsyncFileStatsLogger(gzFile.getPath(), "\t", false);
+        rows.forEach(logger::record);
+        logger.flush();
+        logger.processDataAndFinish();
+
+        assertEquals(expected, readGzip(gzFile));
+        assertTrue(gzFile.length() < syncFile.length());
+        syncFile.delete();
+        gzFile.delete();
+    }
+
+    @Test
+    public void emptyCopyKeepsCompoundExtension() {
+        AsyncFileStatsLogger logger = new AsyncFileStatsLogger(dir.resolve("data.tsv.gz").toString());
+        AsyncFileStatsLogger copy = logger.emptyCopy("Play");
+        copy.record(rows.get(0));
+        copy.processDataAndFinish();
+        File expected = dir.resolve("data_Play.tsv.gz").toFile();
+        assertTrue(expected.exists());
+        expected.delete();
+    }
+
+    @Test
+    public void recordAfterFinishFails() {
+        File file = dir.resolve("closed.txt").toFile();
+        AsyncFileStatsLogger logger = new AsyncFileStatsLogger(file.getPath(), "\t", false);
+        logger.record(rows.get(0));
+        logger.processDataAndFinish();
+        try {
+            logger.record(rows.get(1));
+            fail("Expected an AssertionError");
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage().contains("closed"));
+        }
+        file.delete();
+    }
+}
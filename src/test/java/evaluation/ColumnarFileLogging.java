@@ -0,0 +1,147 @@
+package evaluation;
+
+import evaluation.loggers.ColumnarFileLogger;
+import evaluation.loggers.FileStatsLogger;
+import org.junit.Before;
+import org.junit.Test;
+import players.learners.AbstractLearner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ColumnarFileLogging {
+
+    static final String[] columns = {"GameID", "Player", "Round", "Turn", "CurrentScore", "F1", "F2", "F3",
+            "PlayerCount", "TotalRounds", "ActionScore", "Win", "Ordinal", "FinalScore"};
+
+    // exposes the data loaded by AbstractLearner
+    static class LoadingLearner extends AbstractLearner {
+        LoadingLearner() {
+            super(0.9, Target.WIN_MEAN);
+        }
+
+        @Override
+        public void learnFrom(String... files) {
+            loadData(files);
+        }
+
+        @Override
+        public void writeToFile(String prefix) {
+        }
+
+        @Override
+        public String name() {
+            return "LoadingLearner";
+        }
+
+        String[] header() {
+            return header;
+        }
+
+        double[][] data() {
+            return dataArray;
+        }
+
+        double[][] targets() {
+            return target;
+        }
+    }
+
+    Path dir;
+    List<Map<String, Double>> rows = new ArrayList<>();
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("columnarLogging");
+        dir.toFile().deleteOnExit();
+        Random rnd = new Random(11);
+        for (int i = 0; i < 1000; i++) {
+            Map<String, Double> row = new LinkedHashMap<>();
+            for (String column : columns)
+                // values with at most 3 significant figures, so that the text file holds them exactly
+                row.put(column, rnd.nextInt(100) / 10.0);
+            row.put("PlayerCount", 3.0);
+            row.put("TotalRounds", 20.0);
+            rows.add(row);
+        }
+    }
+
+    private void write(ColumnarFileLogger logger) {
+        rows.forEach(logger::record);
+        logger.processDataAndFinish();
+    }
+
+    @Test
+    public void readBackExactly() {
+        File file = dir.resolve("data.bin").toFile();
+        write(new ColumnarFileLogger(file.getPath(), false, false, 64));
+        assertTrue(ColumnarFileLogger.isColumnarFile(file.getPath()));
+
+        ColumnarFileLogger.Data data = ColumnarFileLogger.read(file.getPath());
+        assertArrayEquals(columns, data.names);
+        assertEquals(rows.size(), data.rows.length);
+        for (int r = 0; r < rows.size(); r++)
+            for (int c = 0; c < columns.length; c++)
+                assertEquals(rows.get(r).get(columns[c]), data.rows[r][c], 0.0);
+        file.delete();
+    }
+
+    @Test
+    public void singlePrecisionAndAppend() {
+        File file = dir.resolve("floats.bin").toFile();
+        write(new ColumnarFileLogger(file.getPath(), false, true, 100));
+        write(new ColumnarFileLogger(file.getPath(), true, true, 100));
+
+        ColumnarFileLogger.Data data = ColumnarFileLogger.read(file.getPath());
+        assertEquals(rows.size() * 2, data.rows.length);
+        for (int r = 0; r < data.rows.length; r++)
+            assertEquals(rows.get(r % rows.size()).get("F2"), data.rows[r][6], 1e-6);
+        file.delete();
+    }
+
+    @Test
+    public void appendWithDifferentColumnsFails() {
+        File file = dir.resolve("mismatch.bin").toFile();
+        write(new ColumnarFileLogger(file.getPath(), false));
+        ColumnarFileLogger logger = new ColumnarFileLogger(file.getPath(), true);
+        Map<String, Double> other = new LinkedHashMap<>();
+        other.put("Something", 1.0);
+        try {
+            logger.record(other);
+            fail("Expected an AssertionError");
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage().contains("does not match"));
+        }
+        file.delete();
+    }
+
+    @Test
+    public void learnerLoadsSameDataAsText() {
+        File textFile = dir.resolve("data.txt").toFile();
+        File binaryFile = dir.resolve("data.bin").toFile();
+        FileStatsLogger textLogger = new FileStatsLogger(textFile.getPath(), "\t", false);
+        rows.forEach(textLogger::record);
+        textLogger.processDataAndFinish();
+        write(new ColumnarFileLogger(binaryFile.getPath(), false, false, 128));
+        assertFalse(ColumnarFileLogger.isColumnarFile(textFile.getPath()));
+
+        LoadingLearner fromText = new LoadingLearner();
+        fromText.learnFrom(textFile.getPath());
+        LoadingLearner fromBinary = new LoadingLearner();
+        fromBinary.learnFrom(binaryFile.getPath());
+
+        assertArrayEquals(fromText.header(), fromBinary.header());
+        assertEquals(fromText.data().length, fromBinary.data().length);
+        for (int r = 0; r < rows.size(); r++) {
+            assertArrayEquals(fromText.data()[r], fromBinary.data()[r], 1e-12);
+            assertArrayEquals(fromText.targets()[r], fromBinary.targets()[r], 1e-12);
+        }
+        textFile.delete();
+        binaryFile.delete();
+    }
+}
@@ -1,6 +1,11 @@
 package evaluation;
 
+import core.AbstractGameState;
 import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import evaluation.listeners.IGameListener;
+import evaluation.metrics.Event;
 import evaluation.tournaments.AbstractTournament;
 import evaluation.tournaments.RoundRobinTournament;
 import games.GameType;
@@ -132,4 +137,124 @@ public class RunGamesTest {
         assertEquals(66, tournament.getNGamesPlayed()[3], 15);
     }
 
+    @Test
+    public void parallelGamesAreIndependentOfThreadCount() {
+        config.put(RunArg.mode, "random");
+        config.put(RunArg.seed, 4823L);
+        double[][] winRates = new double[2][agents.size()];
+        int[] threads = {1, 4};
+        for (int t = 0; t < threads.length; t++) {
+            List<AbstractPlayer> seededAgents = new ArrayList<>();
+            for (int i = 0; i < agents.size(); i++)
+                seededAgents.add(new RandomPlayer(new Random(i)));
+            config.put(RunArg.nThreads, threads[t]);
+            tournament = new RoundRobinTournament(seededAgents, GameType.Poker, 3, null, config);
+            tournament.run();
+            for (int i = 0; i < agents.size(); i++) {
+                assertEquals(75, tournament.getNGamesPlayed()[i]);
+                winRates[t][i] = tournament.getWinRate(i);
+            }
+        }
+        assertArrayEquals(winRates[0], winRates[1], 1e-9);
+    }
+
+    @Test
+    public void sequentialGamesMatchParallelOnes() {
+        // nThreads = 0 runs the games on this thread, but with the same copies of the agents and seeds
+        for (String mode : new String[]{"random", "exhaustiveSP"}) {
+            config.put(RunArg.mode, mode);
+            config.put(RunArg.seed, 2291L);
+            double[][] winRates = new double[2][agents.size()];
+            int[] threads = {0, 2};
+            for (int t = 0; t < threads.length; t++) {
+                List<AbstractPlayer> seededAgents = new ArrayList<>();
+                for (int i = 0; i < agents.size(); i++)
+                    seededAgents.add(new RandomPlayer(new Random(i)));
+                config.put(RunArg.nThreads, threads[t]);
+                tournament = new RoundRobinTournament(seededAgents, GameType.Poker, 3, null, config);
+                tournament.run();
+                for (int i = 0; i < agents.size(); i++)
+                    winRates[t][i] = tournament.getWinRate(i);
+            }
+            assertArrayEquals(mode, winRates[0], winRates[1], 1e-9);
+        }
+    }
+
+    @Test
+    public void parallelGamesRejectListeners() {
+        config.put(RunArg.nThreads, 2);
+        tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+        IGameListener listener = new IGameListener() {
+            Game game;
+
+            @Override
+            public void onEvent(Event event) {
+            }
+
+            @Override
+            public void report() {
+            }
+
+            @Override
+            public void setGame(Game game) {
+                this.game = game;
+            }
+
+            @Override
+            public Game getGame() {
+                return game;
+            }
+        };
+        try {
+            tournament.addListener(listener);
+            fail("Listeners should be rejected when games run in parallel");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        // which can be turned off on the command line
+        Map<RunArg, Object> noListeners = RunArg.parseConfig(new String[]{"listener=none"}, Collections.singletonList(RunArg.Usage.RunGames));
+        assertEquals(Collections.emptyList(), noListeners.get(RunArg.listener));
+    }
+
+    // a player that fails on its first decision
+    static class FailingPlayer extends RandomPlayer {
+        @Override
+        public AbstractAction _getAction(AbstractGameState observation, List<AbstractAction> actions) {
+            throw new IllegalStateException("Deliberate failure");
+        }
+
+        @Override
+        public FailingPlayer copy() {
+            return new FailingPlayer();
+        }
+    }
+
+    private static Set<Thread> poolThreads() {
+        Set<Thread> retValue = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet())
+            if (thread.isAlive() && thread.getName().startsWith("pool-"))
+                retValue.add(thread);
+        return retValue;
+    }
+
+    @Test
+    public void parallelWorkersStopWhenAGameFails() throws InterruptedException {
+        Set<Thread> before = poolThreads();
+        agents.set(0, new FailingPlayer());
+        config.put(RunArg.nThreads, 2);
+        config.put(RunArg.mode, "exhaustive");
+        tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+        try {
+            tournament.run();
+            fail("The failing game should end the tournament");
+        } catch (RuntimeException e) {
+            // expected
+        }
+        Set<Thread> after = poolThreads();
+        after.removeAll(before);
+        for (Thread thread : after)
+            thread.join(5000);
+        for (Thread thread : after)
+            assertFalse("Worker thread still running : " + thread.getName(), thread.isAlive());
+    }
 }
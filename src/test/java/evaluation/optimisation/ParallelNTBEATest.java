@@ -0,0 +1,63 @@
+package evaluation.optimisation;
+
+import evaluation.RunArg;
+import games.GameType;
+import games.tictactoe.TicTacToeGameParameters;
+import org.junit.*;
+import players.simple.RandomPlayer;
+import utilities.Pair;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ParallelNTBEATest {
+
+    // The agents are seeded RandomPlayers, so that the games played are reproducible
+    static class SeededRandomSearchSpace extends ITPSearchSpace {
+        SeededRandomSearchSpace() {
+            super(new TicTacToeGameParameters());
+        }
+
+        @Override
+        public synchronized Object getAgent(int[] settings) {
+            return new RandomPlayer(new Random(settings[0]));
+        }
+    }
+
+    private NTBEA createNTBEA(int nThreads) {
+        Map<RunArg, Object> config = RunArg.parseConfig(new String[]{"game=TicTacToe", "searchSpace=games.tictactoe.TicTacToeGameParameters",
+                "listener=none", "seed=37", "evalGames=30", "nThreads=" + nThreads}, Collections.singletonList(RunArg.Usage.ParameterSearch));
+        NTBEAParameters params = new NTBEAParameters(config);
+        params.searchSpace = new SeededRandomSearchSpace();
+        NTBEA retValue = new NTBEA(params, GameType.TicTacToe, 2);
+        retValue.setOpponents(Collections.singletonList(new RandomPlayer(new Random(53))));
+        return retValue;
+    }
+
+    @Test
+    public void evaluationGamesGiveTheSameResultInParallel() {
+        Pair<Double, Double> sequential = createNTBEA(0).evaluateWinner(new int[]{3});
+        Pair<Double, Double> parallel = createNTBEA(4).evaluateWinner(new int[]{3});
+        assertEquals(sequential.a, parallel.a, 0.0);
+        assertEquals(sequential.b, parallel.b, 0.0);
+        // and the games are not all the same
+        assertTrue(sequential.b > 0.0);
+    }
+
+    @Test
+    public void repeatsDoNotShareTheEvaluatorOrOpponents() {
+        NTBEA ntbea = createNTBEA(4);
+        NTBEA repeat = ntbea.copyForRepeat(11);
+        assertSame(ntbea.params, repeat.params);
+        assertNotSame(ntbea.landscapeModel, repeat.landscapeModel);
+        assertNotSame(ntbea.evaluator, repeat.evaluator);
+        assertNotSame(ntbea.evaluator.opponents.get(0), repeat.evaluator.opponents.get(0));
+
+        // a repeat plays the same games whether or not the repeats are run in parallel
+        Pair<Double, Double> sequential = createNTBEA(0).copyForRepeat(11).evaluateWinner(new int[]{5});
+        Pair<Double, Double> parallel = createNTBEA(4).copyForRepeat(11).evaluateWinner(new int[]{5});
+        assertEquals(sequential.a, parallel.a, 0.0);
+        assertEquals(sequential.b, parallel.b, 0.0);
+    }
+}
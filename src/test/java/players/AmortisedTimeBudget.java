@@ -0,0 +1,64 @@
+package players;
+
+import org.junit.Test;
+import utilities.ElapsedCpuTimer;
+
+import static org.junit.Assert.*;
+
+public class AmortisedTimeBudget {
+
+    // A timer with a clock that we move on by hand, and that counts how often it is read
+    static class FakeTimer extends ElapsedCpuTimer {
+        long now;
+        int reads;
+
+        @Override
+        protected long getTime() {
+            reads++;
+            return now;
+        }
+    }
+
+    // runs iterations of the given length (in ns) until the timer says stop, and returns the number of iterations
+    private int run(FakeTimer timer, long iterationNs, int breakMs, int reserve) {
+        int iterations = 0;
+        do {
+            timer.now += iterationNs;
+            iterations++;
+        } while (timer.enoughBudgetAmortised(breakMs, reserve));
+        return iterations;
+    }
+
+    @Test
+    public void cheapIterationsRarelyReadTheClock() {
+        FakeTimer timer = new FakeTimer();
+        timer.setMaxTimeMillis(100);
+        timer.reset();
+        timer.reads = 0;
+        int iterations = run(timer, 500, 0, 2);
+        // the budget is used up to within the check interval, but not overshot by more than it
+        long used = (long) iterations * 500;
+        assertTrue(used <= 100_000_000 + ElapsedCpuTimer.MAX_CHECK_INTERVAL_NS);
+        assertTrue(used >= 100_000_000 - 2 * ElapsedCpuTimer.MAX_CHECK_INTERVAL_NS);
+        assertTrue("Clock read " + timer.reads + " times in " + iterations + " iterations", timer.reads < iterations / 100);
+    }
+
+    @Test
+    public void slowIterationsStopWithReserveAndMarginLeft() {
+        FakeTimer timer = new FakeTimer();
+        timer.setMaxTimeMillis(100);
+        timer.reset();
+        // 7ms per iteration, with two iterations reserved: after 12 iterations there are 16ms left, so we go on,
+        // and after 13 only 9ms, so we stop
+        assertEquals(13, run(timer, 7_000_000, 0, 2));
+        // with a 10ms safety margin and nothing reserved we also stop after 13 (but not after 12, with 16ms left)
+        timer.reset();
+        assertEquals(13, run(timer, 7_000_000, 10, 0));
+        // and with 17ms we stop after 12
+        timer.reset();
+        assertEquals(12, run(timer, 7_000_000, 17, 0));
+        // a timer with no budget stops at once
+        FakeTimer noBudget = new FakeTimer();
+        assertEquals(1, run(noBudget, 1, 0, 0));
+    }
+}
@@ -1,5 +1,6 @@
 package players.heuristics;
 
+import core.AbstractGameState;
 import core.actions.AbstractAction;
 import games.dominion.DominionFGParameters;
 import games.dominion.DominionForwardModel;
@@ -16,9 +17,10 @@ import games.loveletter.features.LLStateFeaturesReduced;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class TestStateHeuristics {
 
@@ -135,4 +137,61 @@ public class TestStateHeuristics {
         }
 
     }
+
+    @Test
+    public void batchStateEvaluationMatchesSingle() {
+        // a fixed seed, so that player 0 has the 3 Coppers to buy the Silver below
+        domState.getGameParameters().setRandomSeed(3);
+        fm.setup(domState);
+        LinearStateHeuristic linear = new LinearStateHeuristic(dominionFeaturedReduced,
+                "src/test/java/players/heuristics/DominionFeatureWeights.json", new PureScoreHeuristic());
+        LogisticStateHeuristic logistic = new LogisticStateHeuristic(dominionFeaturedReduced,
+                "src/test/java/players/heuristics/DominionFeatureWeightsLogistic.json", new WinOnlyHeuristic());
+        List<AbstractGameState> states = new ArrayList<>();
+        states.add(domState.copy());
+        fm.next(domState, new EndPhase(DominionGameState.DominionGamePhase.Play));
+        states.add(domState.copy());
+        fm.next(domState, new BuyCard(CardType.SILVER, 0));
+        states.add(domState.copy());
+
+        for (LinearStateHeuristic heuristic : List.of(linear, logistic)) {
+            for (int player = 0; player < 2; player++) {
+                double[] values = new double[states.size() + 2];
+                values[states.size()] = -99.0;
+                heuristic.evaluateStates(states, player, values);
+                for (int i = 0; i < states.size(); i++)
+                    assertEquals(heuristic.evaluateState(states.get(i), player), values[i], 1e-9);
+                assertEquals(-99.0, values[states.size()], 0.0);  // beyond the states is untouched
+            }
+        }
+        assertEquals(36.2, linear.evaluateState(states.get(0), 0), 0.01);
+        assertEquals(6.6, linear.evaluateState(states.get(2), 0), 0.01);
+    }
+
+    @Test
+    public void batchActionEvaluationMatchesSingle() {
+        llState.getPlayerHandCards().get(0).clear();
+        llState.getPlayerHandCards().get(0).add(new LoveLetterCard(LoveLetterCard.CardType.Baron));
+        llState.getPlayerHandCards().get(0).add(new LoveLetterCard(LoveLetterCard.CardType.Guard));
+        LinearActionHeuristic linearActionHeuristic = new LinearActionHeuristic(llActionFeaturesTiny, llStateFeaturesReduced,
+                "src/test/java/players/heuristics/LLFeatureWeights.json");
+        TunableGLMHeuristic tunable = new TunableGLMHeuristic(linearActionHeuristic);
+        List<AbstractAction> actions = llFm.computeAvailableActions(llState);
+        assertTrue(actions.size() > 1);
+
+        double[] scores = new double[actions.size() + 1];
+        scores[actions.size()] = -99.0;
+        tunable.evaluateAllActions(actions, llState, scores);
+        double[] allocated = linearActionHeuristic.evaluateAllActions(actions, llState);
+        assertEquals(actions.size(), allocated.length);
+        for (int i = 0; i < actions.size(); i++) {
+            double expected = linearActionHeuristic.evaluateAction(actions.get(i), llState);
+            assertEquals(expected, scores[i], 1e-9);
+            assertEquals(expected, allocated[i], 1e-9);
+            // interaction terms are included (see testActionHeuristic)
+            if (((PlayCard) actions.get(i)).getCardType() == LoveLetterCard.CardType.Guard)
+                assertEquals(0.1 * 4.0 / 17.0 + 0.2 + 0.01 + 10.0 + 0.07, scores[i], 0.0001);
+        }
+        assertEquals(-99.0, scores[actions.size()], 0.0);
+    }
 }
@@ -0,0 +1,48 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import core.actions.DoNothing;
+import core.actions.SetGridValueAction;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ActionMapTests {
+
+    Random rnd = new Random(42);
+
+    @Test
+    public void behavesLikeALinkedHashMap() {
+        // enough distinct actions to go past the point at which ActionMap adds its hash index
+        Map<AbstractAction, Integer> expected = new LinkedHashMap<>();
+        Map<AbstractAction, Integer> map = new ActionMap<>();
+        for (int i = 0; i < 2000; i++) {
+            // a new instance each time, as the map must find actions by equals(), not by identity
+            int cell = rnd.nextInt(40);
+            AbstractAction key = new SetGridValueAction<>(1, cell % 5, cell / 5, null);
+            switch (rnd.nextInt(4)) {
+                case 0 -> assertEquals(expected.remove(key), map.remove(key));
+                case 1 -> assertEquals(expected.get(key), map.get(key));
+                default -> assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+        assertEquals(expected, map);
+    }
+
+    @Test
+    public void nullValuesMarkUnexpandedChildren() {
+        Map<AbstractAction, SingleTreeNode[]> children = new ActionMap<>();
+        children.put(new DoNothing(), null);
+        assertTrue(children.containsKey(new DoNothing()));
+        assertNull(children.get(new DoNothing()));
+        assertEquals(1, children.size());
+        for (Map.Entry<AbstractAction, SingleTreeNode[]> entry : children.entrySet())
+            entry.setValue(new SingleTreeNode[2]);
+        assertEquals(2, children.get(new DoNothing()).length);
+    }
+}
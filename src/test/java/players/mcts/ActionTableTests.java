@@ -0,0 +1,93 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import core.actions.SetGridValueAction;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ActionTableTests {
+
+    Random rnd = new Random(42);
+
+    private static AbstractAction action(int cell) {
+        return new SetGridValueAction<>(1, cell % 5, cell / 5, null);
+    }
+
+    @Test
+    public void statisticsAreKeptPerSlotAsTheTableGrows() {
+        // the first block is sized for 3 actions, so the rest go into later blocks (and past the hash index threshold)
+        ActionTable table = new ActionTable();
+        table.setNPlayers(2);
+        Map<AbstractAction, double[]> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            // a new instance each time, as the table must find actions by equals(), not by identity
+            AbstractAction key = action(rnd.nextInt(40));
+            int slot = table.add(key, 3);
+            double[] result = {rnd.nextDouble(), -rnd.nextDouble()};
+            table.update(slot, result);
+            double[] stats = expected.computeIfAbsent(key, k -> new double[3]);
+            stats[0]++;
+            stats[1] += result[0];
+            stats[2] += result[1] * result[1];
+        }
+        assertEquals(expected.size(), table.size());
+        int slot = 0;
+        for (Map.Entry<AbstractAction, double[]> entry : expected.entrySet()) {
+            assertEquals(slot, table.slot(entry.getKey()));
+            assertEquals(entry.getKey(), table.action(slot));
+            assertEquals((int) entry.getValue()[0], table.visits(slot));
+            assertEquals(entry.getValue()[1], table.totValue(slot, 0), 1e-9);
+            assertEquals(entry.getValue()[2], table.squaredTotValue(slot, 1), 1e-9);
+            slot++;
+        }
+        assertEquals(-1, table.slot(action(41)));
+    }
+
+    @Test
+    public void virtualLossIsRemovedExactly() {
+        ActionTable table = new ActionTable();
+        table.setNPlayers(2);
+        int slot = table.add(action(0), 1);
+        table.update(slot, new double[]{0.5, 0.25});
+        table.addVirtualLoss(slot, 1, 3, -1.0);
+        assertEquals(4, table.visits(slot));
+        assertEquals(-2.75, table.totValue(slot, 1), 1e-9);
+        table.addVirtualLoss(slot, 1, -3, -1.0);
+        assertEquals(1, table.visits(slot));
+        assertEquals(0, table.validVisits(slot));
+        assertEquals(0.25, table.totValue(slot, 1), 1e-9);
+        assertEquals(0.0625, table.squaredTotValue(slot, 1), 1e-9);
+    }
+
+    @Test
+    public void viewsReflectTheTable() {
+        ActionTable table = new ActionTable();
+        table.setNPlayers(2);
+        Map<AbstractAction, SingleTreeNode[]> children = table.childrenView();
+        Map<AbstractAction, ActionStats> stats = table.statsView();
+        int slot = table.add(action(1), 2);
+        assertTrue(children.containsKey(action(1)));
+        assertNull(children.get(action(1)));
+        children.put(action(2), new SingleTreeNode[2]);
+        assertEquals(2, table.size());
+        assertEquals(2, table.children(1).length);
+        table.update(slot, new double[]{1.0, 0.0});
+        ActionStats snapshot = stats.get(action(1));
+        assertEquals(1, snapshot.nVisits);
+        assertEquals(1.0, snapshot.totValue[0], 1e-9);
+        table.update(slot, new double[]{1.0, 0.0});
+        assertEquals(1, snapshot.nVisits);
+        assertEquals(2, stats.get(action(1)).nVisits);
+        assertEquals(List.of(action(1), action(2)), new ArrayList<>(stats.keySet()));
+
+        table.clear();
+        assertEquals(0, table.size());
+        assertTrue(stats.isEmpty());
+        slot = table.add(action(3), 2);
+        assertEquals(0, table.visits(slot));
+        assertNull(table.children(slot));
+    }
+}
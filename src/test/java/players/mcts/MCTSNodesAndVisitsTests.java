@@ -76,6 +76,120 @@ public class MCTSNodesAndVisitsTests {
         runGame(game, 4, expectedNodes, errorMargin);
     }
 
+    @Test
+    public void treeParallel() {
+        params.treeParallelism = 4;
+        Game game = createGame(params);
+        int[] expectedNodes = {200, 200, 200, 200};
+        int[] errorMargin = {10, 10, 10, 10};
+        runGame(game, 4, expectedNodes, errorMargin);
+    }
+
+    @Test
+    public void treeParallelClosedLoop() {
+        params.treeParallelism = 4;
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        params.maxTreeDepth = 3;
+        Game game = createGame(params);
+        runGame(game, 4, new int[0], new int[0]);
+    }
+
+    @Test
+    public void rootParallel() {
+        params.rootParallelism = 3;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        int decisions = 0;
+        do {
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    ._getAction(state, forwardModel.computeAvailableActions(state));
+            if (state.getCurrentPlayer() == 0) {
+                // each of the three roots has 200 visits, and the merged root has them all
+                SingleTreeNode root = mctsPlayer.getRoot(0);
+                assertEquals(600, root.getVisits());
+                assertEquals(600, root.actionValues.values().stream().mapToInt(stats -> stats.nVisits).sum());
+                assertTrue(forwardModel.computeAvailableActions(state).contains(actionChosen));
+                decisions++;
+            }
+            forwardModel.next(state, actionChosen);
+        } while (decisions < 4);
+    }
+
+    @Test
+    public void fastRandomRollouts() {
+        params.fastRandomRollouts = true;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.SelfOnly;
+        Game game = createGame(params);
+        int[] expectedNodes = {200, 200, 200, 200};
+        int[] errorMargin = {10, 10, 10, 10};
+        runGame(game, 4, expectedNodes, errorMargin);
+    }
+
+    // Runs a few decisions of the given game, with the MCTS player as player 0 and random opponents
+    private void runDecisions(GameType gameType, int decisions) {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        Game game = gameType.createGameInstance(players.size(), 330245);
+        game.reset(players);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        int made = 0;
+        while (made < decisions && state.isNotTerminal()) {
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    ._getAction(state, forwardModel.computeAvailableActions(state));
+            if (state.getCurrentPlayer() == 0)
+                made++;
+            forwardModel.next(state, actionChosen);
+        }
+        // the cache is switched off at the end of each decision, as the game shares the forward model
+        assertNull(forwardModel.getActionCache());
+    }
+
+    @Test
+    public void actionCache() {
+        params.actionCacheSize = 1000;
+        params.information = MCTSEnums.Information.Open_Loop;
+        runDecisions(GameType.TicTacToe, 2);
+        assertTrue(mctsPlayer.actionCacheHitRate > 0.0);
+    }
+
+    @Test
+    public void actionCacheWithFastRandomRollouts() {
+        params.actionCacheSize = 1000;
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.fastRandomRollouts = true;
+        runDecisions(GameType.TicTacToe, 2);
+        assertTrue(mctsPlayer.actionCacheHitRate > 0.0);
+    }
+
+    @Test
+    public void actionCacheNotUsedWithoutStateHash() {
+        // Love Letter and Dominion fall back to the 32-bit hashCode() as their state hash
+        params.actionCacheSize = 1000;
+        runDecisions(GameType.LoveLetter, 3);
+        assertEquals(0.0, mctsPlayer.actionCacheHitRate, 0.0);
+        Game game = createGame(params);
+        int[] expectedNodes = {200, 200, 200, 200};
+        int[] errorMargin = {10, 10, 10, 10};
+        runGame(game, 4, expectedNodes, errorMargin);
+        assertEquals(0.0, mctsPlayer.actionCacheHitRate, 0.0);
+    }
+
+    @Test
+    public void actionCacheNotUsedWithTreeParallelism() {
+        params.actionCacheSize = 1000;
+        params.treeParallelism = 4;
+        Game game = createGame(params);
+        int[] expectedNodes = {200, 200, 200, 200};
+        int[] errorMargin = {10, 10, 10, 10};
+        runGame(game, 4, expectedNodes, errorMargin);
+        assertEquals(0.0, mctsPlayer.actionCacheHitRate, 0.0);
+    }
+
     @Test
     public void RegretMatching() {
         params.treePolicy = MCTSEnums.TreePolicy.RegretMatching;
@@ -113,6 +227,56 @@ public class MCTSNodesAndVisitsTests {
         runGame(game, 4, new int[0], new int[0]);
     }
 
+    @Test
+    public void treeSizeCapped() {
+        params.maxTreeNodes = 50;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        int decisions = 0;
+        do {
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    ._getAction(state, forwardModel.computeAvailableActions(state));
+            if (state.getCurrentPlayer() == 0) {
+                SingleTreeNode root = mctsPlayer.getRoot(0);
+                TreeStatistics stats = new TreeStatistics(root);
+                assertEquals(stats.totalNodes, root.getTreeSize());
+                assertTrue(stats.totalNodes <= 50);
+                // evicted leaves keep their statistics on the parent
+                assertEquals(200, root.getVisits());
+                assertEquals(200, root.actionValues.values().stream().mapToInt(a -> a.nVisits).sum());
+                decisions++;
+            }
+            forwardModel.next(state, actionChosen);
+        } while (decisions < 4);
+    }
+
+    @Test
+    public void nodesRecycledWithTreeReuse() {
+        params.reuseTree = true;
+        params.recycleNodes = true;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.SelfOnly;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        int decisions = 0;
+        do {
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    ._getAction(state, forwardModel.computeAvailableActions(state));
+            if (state.getCurrentPlayer() == 0) {
+                SingleTreeNode root = mctsPlayer.getRoot(0);
+                assertEquals(new TreeStatistics(root).totalNodes, root.getTreeSize());
+                assertTrue(root.getVisits() >= 200);
+                decisions++;
+            }
+            forwardModel.next(state, actionChosen);
+        } while (decisions < 6);
+        NodePool pool = mctsPlayer.getNodePool();
+        assertTrue(pool.getRecycledCount() > 0);
+        // every node is either in the current tree or in the pool (or has been handed out and then released again)
+        assertTrue(pool.getCreatedCount() >= mctsPlayer.getRoot(0).getTreeSize());
+    }
+
     private void runGame(Game game, int moves, int[] expectedNodes, int[] errorMargin) {
         int counter = 0;
         AbstractGameState state = game.getGameState();
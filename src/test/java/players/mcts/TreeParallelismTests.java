@@ -0,0 +1,178 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import core.actions.SetGridValueAction;
+import core.components.Token;
+import games.GameType;
+import games.tictactoe.TicTacToeConstants;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.*;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TreeParallelismTests {
+
+    // A rollout policy that records the threads it is called from, and the copies made of it
+    static class RecordingPlayer extends RandomPlayer {
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        final List<RecordingPlayer> copies;
+
+        RecordingPlayer(Random rnd, List<RecordingPlayer> copies) {
+            super(rnd);
+            this.copies = copies;
+        }
+
+        @Override
+        public AbstractAction _getAction(AbstractGameState observation, List<AbstractAction> actions) {
+            threads.add(Thread.currentThread());
+            return super._getAction(observation, actions);
+        }
+
+        @Override
+        public RecordingPlayer copy() {
+            RecordingPlayer retValue = new RecordingPlayer(new Random(rnd.nextInt()), copies);
+            copies.add(retValue);
+            return retValue;
+        }
+    }
+
+    MCTSParams params;
+    MCTSPlayer mctsPlayer;
+    Game game;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(2307);
+        params.treePolicy = MCTSEnums.TreePolicy.UCB;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 2000;
+        params.treeParallelism = 4;
+    }
+
+    private AbstractGameState createState(int... cells) {
+        mctsPlayer = new MCTSPlayer(params);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(41)));
+        game = GameType.TicTacToe.createGameInstance(2, 404);
+        game.reset(players);
+        TicTacToeGameState state = (TicTacToeGameState) game.getGameState();
+        for (int cell : cells) {
+            Token token = TicTacToeConstants.playerMapping.get(state.getCurrentPlayer());
+            game.getForwardModel().next(state, new SetGridValueAction<>(state.getGridBoard().getComponentID(), cell % 3, cell / 3, token));
+        }
+        return state;
+    }
+
+    private AbstractAction search(AbstractGameState state) {
+        return mctsPlayer._getAction(state, game.getForwardModel().computeAvailableActions(state));
+    }
+
+    // Every visit to a node is backed up through exactly one of its actions, so the counts must match (which they
+    // will not if updates are lost, or virtual loss is left behind)
+    private int checkVisits(SingleTreeNode node) {
+        int nodes = 1;
+        int actionVisits = node.actionValues.values().stream().mapToInt(s -> s.nVisits).sum();
+        assertEquals(node.nVisits, actionVisits);
+        for (Map.Entry<AbstractAction, SingleTreeNode[]> entry : node.children.entrySet()) {
+            if (entry.getValue() == null) continue;
+            int visitsThroughAction = node.actionValues.get(entry.getKey()).nVisits;
+            for (SingleTreeNode child : entry.getValue()) {
+                if (child == null) continue;
+                assertTrue(child.nVisits <= visitsThroughAction);
+                nodes += checkVisits(child);
+            }
+        }
+        return nodes;
+    }
+
+    @Test
+    public void visitsAreConsistentAfterParallelSearch() {
+        search(createState(4));
+        SingleTreeNode root = mctsPlayer.root;
+        assertEquals(params.budget, root.nVisits);
+        int nodes = checkVisits(root);
+        assertEquals(root.treeSize, nodes);
+        assertTrue(nodes > 100);
+    }
+
+    @Test
+    public void parallelSearchFindsTheWinningMove() {
+        // X has 0 and 1, and O has 3 and 4; so X must play 2 to win (and otherwise loses to 5)
+        AbstractGameState state = createState(0, 3, 1, 4);
+        SetGridValueAction<?> action = (SetGridValueAction<?>) search(state);
+        assertEquals(2, action.getX() + 3 * action.getY());
+    }
+
+    @Test
+    public void visitsAreConsistentInClosedLoop() {
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        search(createState(4));
+        assertEquals(params.budget, mctsPlayer.root.nVisits);
+        assertEquals(mctsPlayer.root.treeSize, checkVisits(mctsPlayer.root));
+    }
+
+    @Test
+    public void visitsAreConsistentWithActionEstimates() {
+        // the action estimates on each node are replaced by the workers as they pass through, from the MAST
+        // statistics that they all update
+        params.useMAST = true;
+        params.MAST = MCTSEnums.MASTType.Rollout;
+        params.useMASTAsActionHeuristic = true;
+        params.pUCT = true;
+        params.progressiveWideningConstant = 2.0;
+        params.progressiveWideningExponent = 0.5;
+        search(createState(4));
+        SingleTreeNode root = mctsPlayer.root;
+        assertEquals(params.budget, root.nVisits);
+        assertEquals(root.treeSize, checkVisits(root));
+        int mastVisits = root.MASTStatistics.stream().flatMap(m -> m.values().stream()).mapToInt(s -> s.a).sum();
+        // one MAST visit for every action in every rollout, so none are lost
+        assertEquals(root.rolloutActionsTaken, mastVisits);
+        assertTrue(mastVisits > 0);
+    }
+
+    @Test
+    public void eachWorkerHasItsOwnRolloutPolicy() {
+        List<RecordingPlayer> copies = Collections.synchronizedList(new ArrayList<>());
+        RecordingPlayer rolloutPolicy = new RecordingPlayer(new Random(7), copies);
+        AbstractGameState state = createState(4);
+        params.rolloutPolicy = rolloutPolicy;
+        params.opponentModel = rolloutPolicy;
+        search(state);
+        assertTrue(rolloutPolicy.threads.isEmpty());
+        // one copy per worker (the opponent model is the same policy, so shares the worker's copy)
+        assertEquals(params.treeParallelism, copies.size());
+        for (RecordingPlayer copy : copies)
+            assertTrue(copy.threads.size() <= 1);
+        assertTrue(copies.stream().anyMatch(c -> !c.threads.isEmpty()));
+    }
+
+    @Test
+    public void eachRootHasItsOwnRolloutPolicy() {
+        List<RecordingPlayer> copies = Collections.synchronizedList(new ArrayList<>());
+        RecordingPlayer rolloutPolicy = new RecordingPlayer(new Random(7), copies);
+        params.treeParallelism = 1;
+        params.rootParallelism = 3;
+        AbstractGameState state = createState(4);
+        params.rolloutPolicy = rolloutPolicy;
+        params.opponentModel = rolloutPolicy;
+        search(state);
+        assertTrue(rolloutPolicy.threads.isEmpty());
+        assertEquals(params.rootParallelism, copies.size());
+        for (RecordingPlayer copy : copies)
+            assertEquals(1, copy.threads.size());
+    }
+}
@@ -0,0 +1,108 @@
+package players.rhea;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import games.GameType;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ParallelRHEATests {
+
+    private RHEAPlayer playGame(boolean useMAST, boolean shiftLeft) {
+        RHEAParams params = new RHEAParams();
+        params.setRandomSeed(931);
+        params.parallelThreads = 3;
+        params.useMAST = useMAST;
+        params.shiftLeft = shiftLeft;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 5;
+        RHEAPlayer rhea = new RHEAPlayer(params);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(rhea);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        Game game = GameType.Dominion.createGameInstance(players.size(), 330245);
+        game.reset(players);
+        game.run();
+        assertFalse(game.getGameState().isNotTerminal());
+        return rhea;
+    }
+
+    @Test
+    public void parallelEvaluationPlaysLegalActions() {
+        // _getAction() checks that the action chosen is available
+        RHEAPlayer rhea = playGame(false, false);
+        assertEquals(5, rhea.numIters);
+        assertTrue(rhea.fmCalls > 0);
+        assertTrue(rhea.copyCalls > 0);
+    }
+
+    @Test
+    public void parallelEvaluationWithMASTAndShiftLeft() {
+        RHEAPlayer rhea = playGame(true, true);
+        assertEquals(5, rhea.numIters);
+        assertNotNull(rhea.MASTStatistics);
+    }
+
+    @Test
+    public void timeBudgetIsWallClockInParallel() {
+        // the main thread mostly waits for the others, so its CPU time is no measure of the time taken
+        RHEAParams params = new RHEAParams();
+        params.setRandomSeed(931);
+        params.parallelThreads = 3;
+        params.budgetType = PlayerConstants.BUDGET_TIME;
+        params.budget = 100;
+        RHEAPlayer rhea = new RHEAPlayer(params);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(rhea);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        Game game = GameType.Dominion.createGameInstance(players.size(), 330245);
+        game.reset(players);
+        AbstractGameState state = game.getGameState();
+
+        long start = System.nanoTime();
+        rhea._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        long wallTime = (System.nanoTime() - start) / 1000000;
+        assertTrue(rhea.numIters > 0);
+        assertTrue("Took " + wallTime + "ms", wallTime < 3 * params.budget);
+        assertTrue(rhea.timeTaken >= params.budget / 2.0);
+        assertTrue(rhea.timeTaken <= wallTime);
+    }
+
+    @Test
+    public void timeBudgetIsCheckedBetweenBatches() {
+        // evaluating a population this size takes far longer than the budget, so we must stop part way through it
+        RHEAParams params = new RHEAParams();
+        params.setRandomSeed(931);
+        params.parallelThreads = 3;
+        params.budgetType = PlayerConstants.BUDGET_TIME;
+        params.budget = 100;
+        params.populationSize = 20000;
+        params.horizon = 20;
+        RHEAPlayer rhea = new RHEAPlayer(params);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(rhea);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        Game game = GameType.Dominion.createGameInstance(players.size(), 330245);
+        game.reset(players);
+        AbstractGameState state = game.getGameState();
+
+        long start = System.nanoTime();
+        rhea._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        long wallTime = (System.nanoTime() - start) / 1000000;
+        // evaluating the whole population would take minutes
+        assertTrue("Took " + wallTime + "ms", wallTime < 20 * params.budget);
+        assertFalse(rhea.population.isEmpty());
+        assertTrue(rhea.population.size() < params.populationSize);
+    }
+}